@@ -15,12 +15,14 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.KeywordMatcher;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Prefer Ansible modules over command when equivalent (e.g. copy instead of command: cp).
@@ -38,6 +40,13 @@ public class CommandInsteadOfModuleCheck extends BaseCheck {
             new CommandSuggestion("rm ", "file with state: absent"),
             new CommandSuggestion("touch ", "file with state: touch")
     );
+    private static final KeywordMatcher PREFIXES = KeywordMatcher.of(
+            SUGGESTIONS.stream().map(CommandSuggestion::prefix).toList());
+
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("command");
+    }
 
     @Override
     public void visitTask(Task task) {
@@ -51,12 +60,12 @@ public class CommandInsteadOfModuleCheck extends BaseCheck {
         String cmd = getCommandString(attrs);
         if (cmd == null || cmd.isBlank()) return;
 
-        String normalized = cmd.stripLeading().toLowerCase();
-        for (CommandSuggestion s : SUGGESTIONS) {
-            if (normalized.startsWith(s.prefix)) {
-                addLineIssue(task.line(), "Prefer the " + s.suggestion + " module instead of command: " + s.prefix.trim() + " ....");
-                return;
-            }
+        int start = 0;
+        while (Character.isWhitespace(cmd.charAt(start))) start++;
+        int found = PREFIXES.prefixAt(cmd, start);
+        if (found >= 0) {
+            CommandSuggestion s = SUGGESTIONS.get(found);
+            addLineIssue(task.line(), "Prefer the " + s.suggestion + " module instead of command: " + s.prefix.trim() + " ....");
         }
     }
 
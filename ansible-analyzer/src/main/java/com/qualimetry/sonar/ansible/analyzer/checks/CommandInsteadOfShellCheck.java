@@ -21,6 +21,7 @@ import org.sonar.check.Rule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -31,6 +32,11 @@ public class CommandInsteadOfShellCheck extends BaseCheck {
 
     private static final Pattern SHELL_METACHAR = Pattern.compile("[|&;<>$()`\\\\]");
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("shell");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -45,7 +51,7 @@ public class CommandInsteadOfShellCheck extends BaseCheck {
 
         if (SHELL_METACHAR.matcher(cmd).find()) return; // Uses shell features, shell is appropriate
 
-        addLineIssue(task.line(), "Use the \"command\" module instead of \"shell\" when you do not need shell features (pipes, redirects, etc.).");
+        addIssue(task.keyRange("shell"), task.line(), "Use the \"command\" module instead of \"shell\" when you do not need shell features (pipes, redirects, etc.).");
     }
 
     @SuppressWarnings("unchecked")
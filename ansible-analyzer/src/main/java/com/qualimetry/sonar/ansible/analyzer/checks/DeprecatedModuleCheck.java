@@ -32,6 +32,11 @@ public class DeprecatedModuleCheck extends BaseCheck {
             "include"  // use import_playbook or include_tasks
     );
 
+    @Override
+    public Set<String> taskModules() {
+        return DEPRECATED;
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -15,12 +15,12 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * Prefer when: var over when: var == "" or when: var != "".
@@ -28,15 +28,24 @@ import java.util.regex.Pattern;
 @Rule(key = "qa-check-length-not-empty")
 public class EmptyStringCompareCheck extends BaseCheck {
 
-    private static final Pattern EMPTY_COMPARE = Pattern.compile("==\\s*[\"']?[\"']\\s*|!=\\s*[\"']?[\"']\\s*", Pattern.CASE_INSENSITIVE);
-
     @Override
     public void visitTask(Task task) {
         Map<String, Object> attrs = task.attributes();
         if (attrs == null) return;
         Object when = attrs.get("when");
-        if (when instanceof String s && EMPTY_COMPARE.matcher(s).find()) {
+        if (when instanceof String s && s.indexOf('=') >= 0
+                && comparesWithEmptyString(getContext().getJinjaCache().expression(s))) {
             addLineIssue(task.line(), "Prefer when: var over when: var == \"\" (or != \"\").");
         }
     }
+
+    private static boolean comparesWithEmptyString(JinjaTokens tokens) {
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            if ((tokens.isOperator(i, "==") || tokens.isOperator(i, "!="))
+                    && tokens.kind(i + 1) == JinjaTokens.Kind.STRING && tokens.stringValue(i + 1).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
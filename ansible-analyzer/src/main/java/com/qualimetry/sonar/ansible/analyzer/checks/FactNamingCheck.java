@@ -8,6 +8,7 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /** set_fact names should follow convention. */
@@ -16,6 +17,11 @@ public class FactNamingCheck extends BaseCheck {
 
     private static final Pattern VALID = Pattern.compile("^[a-z][a-z0-9_]*$");
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("set_fact");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
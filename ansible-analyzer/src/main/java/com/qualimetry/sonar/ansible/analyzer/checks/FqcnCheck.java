@@ -33,6 +33,6 @@ public class FqcnCheck extends BaseCheck {
         if (moduleKey.startsWith("include") || moduleKey.startsWith("import_")) return;
         String actionPart = moduleKey.contains(":") ? moduleKey.substring(0, moduleKey.indexOf(':')) : moduleKey;
         if (actionPart.contains(".")) return; // Already FQCN
-        addLineIssue(task.line(), "Use FQCN for modules (e.g. ansible.builtin." + actionPart + " instead of " + actionPart + ").");
+        addIssue(task.keyRange(actionPart), task.line(), "Use FQCN for modules (e.g. ansible.builtin." + actionPart + " instead of " + actionPart + ").");
     }
 }
@@ -15,34 +15,42 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
-import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
-import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineIndex;
 import org.sonar.check.Rule;
 
+import java.util.regex.Pattern;
+
 /**
  * Handlers should have a name. This check scans raw content for handler tasks without a name.
  */
 @Rule(key = "qa-handler-has-name")
-public class HandlerNamingCheck extends BaseCheck {
+public class HandlerNamingCheck extends LineCheck {
+
+    private static final Pattern HANDLERS_KEY = Pattern.compile("\\s*handlers:\\s*");
+    private static final Pattern OTHER_KEY = Pattern.compile("\\s*\\w+:.+");
+    private static final Pattern LIST_ITEM_KEY = Pattern.compile("\\s+-\\s+\\w+:.*");
+
+    private boolean inHandlers;
 
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {
-        String content = getContext() != null ? getContext().getRawContent() : null;
-        if (content == null) return;
-        if (!content.contains("handlers:")) return;
-        String[] lines = content.split("\\r?\\n", -1);
-        boolean inHandlers = false;
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            if (line.matches("\\s*handlers:\\s*")) {
-                inHandlers = true;
-                continue;
-            }
-            if (inHandlers && line.matches("\\s*\\w+:.+")) break;
-            if (inHandlers && line.matches("\\s+-\\s+\\w+:.*") && !line.contains("name:")) {
-                addLineIssue(i + 1, "Handlers should have a name.");
-                return;
-            }
+    protected boolean beginLines(LineIndex lines) {
+        inHandlers = false;
+        return getContext().getRawContent().contains("handlers:");
+    }
+
+    @Override
+    protected boolean visitLine(int lineNumber, CharSequence line) {
+        if (HANDLERS_KEY.matcher(line).matches()) {
+            inHandlers = true;
+            return true;
+        }
+        if (!inHandlers) return true;
+        if (OTHER_KEY.matcher(line).matches()) return false;
+        if (LIST_ITEM_KEY.matcher(line).matches() && !contains(line, "name:")) {
+            addLineIssue(lineNumber, "Handlers should have a name.");
+            return false;
         }
+        return true;
     }
 }
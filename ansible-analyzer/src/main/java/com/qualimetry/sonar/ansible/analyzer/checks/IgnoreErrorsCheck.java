@@ -39,7 +39,7 @@ public class IgnoreErrorsCheck extends BaseCheck {
         Map<String, Object> attrs = task.attributes();
         if (attrs == null) return;
         if (isTruthy(attrs.get("ignore_errors"))) {
-            addLineIssue(task.line(), "Avoid \"ignore_errors: yes\"; handle failures explicitly or use failed_when.");
+            addIssue(task.keyRange("ignore_errors"), task.line(), "Avoid \"ignore_errors: yes\"; handle failures explicitly or use failed_when.");
         }
     }
 }
@@ -3,32 +3,113 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaCache;
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineIndex;
 import org.sonar.check.Rule;
 
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Flags Jinja2 style issues: require spaces inside {{ }} and {% %} (e.g. {{ foo }} not {{foo}}).
+ * Reads the shared token stream of every templated scalar in the document.
  */
 @Rule(key = "qa-jinja-format")
 public class JinjaCheck extends BaseCheck {
 
-    private static final Pattern NO_SPACE_AFTER_OPEN = Pattern.compile("\\{\\{[^ \\t}]|\\{%[^ %]");
-    private static final Pattern NO_SPACE_BEFORE_CLOSE = Pattern.compile("[^ \\t]\\}\\}|[^ %]%\\}");
+    private static final String MESSAGE = "Use spaces inside Jinja delimiters (e.g. {{ expr }} not {{expr}}).";
+
+    private final Set<Integer> reported = new HashSet<>();
 
     @Override
     public void visitPlaybookFile(PlaybookFile file) {
-        String content = getContext().getRawContent();
-        if (content == null) return;
-        String[] lines = content.split("\\r?\\n", -1);
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            boolean bad = NO_SPACE_AFTER_OPEN.matcher(line).find() || NO_SPACE_BEFORE_CLOSE.matcher(line).find();
-            if (bad) {
-                addLineIssue(i + 1, "Use spaces inside Jinja delimiters (e.g. {{ expr }} not {{expr}}).");
+        reported.clear();
+        DocumentRoot root = file.root();
+        if (root == null) {
+            return;
+        }
+        if (root.mapping() != null) {
+            visitValue(root.mapping(), "", null, 1);
+        }
+        for (DocumentRoot.Item item : root.items()) {
+            visitValue(item.value(), "", null, item.line());
+        }
+    }
+
+    private void visitValue(Object value, String key, TextRange range, int line) {
+        if (value instanceof String s) {
+            check(s, key, range, line);
+        } else if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String childKey = String.valueOf(entry.getKey());
+                visitValue(entry.getValue(), childKey, YamlTree.valueRange(map, childKey), line);
+            }
+        } else if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                visitValue(list.get(i), key, list instanceof YamlTree.Sequence seq ? seq.range(i) : range, line);
+            }
+        }
+    }
+
+    private void check(String scalar, String key, TextRange range, int line) {
+        if (!JinjaCache.isTemplated(scalar)) {
+            return;
+        }
+        JinjaTokens tokens = getContext().getJinjaCache().value(key, scalar);
+        if (tokens == null) {
+            return;
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            if (isUnspaced(tokens, i)) {
+                int issueLine = line(scalar, tokens.start(i), range, line);
+                if (reported.add(issueLine)) {
+                    addLineIssue(issueLine, MESSAGE);
+                }
+            }
+        }
+    }
+
+    /** An opening delimiter directly followed, or a closing one directly preceded, by content. */
+    private static boolean isUnspaced(JinjaTokens tokens, int i) {
+        JinjaTokens.Kind kind = tokens.kind(i);
+        if (kind == JinjaTokens.Kind.VARIABLE_BEGIN || kind == JinjaTokens.Kind.BLOCK_BEGIN) {
+            return i + 1 < tokens.size() && tokens.start(i + 1) == tokens.end(i) && isContent(tokens.kind(i + 1));
+        }
+        if (kind == JinjaTokens.Kind.VARIABLE_END || kind == JinjaTokens.Kind.BLOCK_END) {
+            return i > 0 && tokens.end(i - 1) == tokens.start(i) && isContent(tokens.kind(i - 1));
+        }
+        return false;
+    }
+
+    private static boolean isContent(JinjaTokens.Kind kind) {
+        return kind == JinjaTokens.Kind.NAME || kind == JinjaTokens.Kind.STRING || kind == JinjaTokens.Kind.NUMBER
+                || kind == JinjaTokens.Kind.OPERATOR;
+    }
+
+    /**
+     * Line of an offset in a scalar: the line the scalar starts on, moved down by the lines
+     * before the offset for literal block scalars, whose lines match the source.
+     */
+    private int line(String scalar, int offset, TextRange range, int fallback) {
+        LineIndex lines = getContext().getLineIndex();
+        if (range == null || lines == null || range.start() >= lines.text().length()) {
+            return fallback;
+        }
+        int line = lines.lineOf(range.start());
+        if (lines.text().charAt(range.start()) == '|') {
+            line++;
+            for (int i = scalar.indexOf('\n'); i >= 0 && i < offset; i = scalar.indexOf('\n', i + 1)) {
+                line++;
             }
         }
+        return line;
     }
 }
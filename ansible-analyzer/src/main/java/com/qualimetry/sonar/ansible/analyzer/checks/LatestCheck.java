@@ -16,6 +16,7 @@
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
@@ -30,6 +31,11 @@ public class LatestCheck extends BaseCheck {
 
     private static final Set<String> MODULES = Set.of("git", "hg");
 
+    @Override
+    public Set<String> taskModules() {
+        return MODULES;
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -46,7 +52,7 @@ public class LatestCheck extends BaseCheck {
         if (version != null) {
             String v = String.valueOf(version).trim();
             if ("HEAD".equalsIgnoreCase(v) || "latest".equalsIgnoreCase(v)) {
-                addLineIssue(task.line(), "Pin version to a specific revision instead of HEAD/latest.");
+                addIssue(YamlTree.valueRange(args, "version"), task.line(), "Pin version to a specific revision instead of HEAD/latest.");
             }
         }
     }
@@ -15,27 +15,22 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
-import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
-import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineCheck;
 import org.sonar.check.Rule;
 
 /**
  * Lines should not exceed a maximum length (default 160) for readability.
  */
 @Rule(key = "qa-max-line-length")
-public class LineLengthCheck extends BaseCheck {
+public class LineLengthCheck extends LineCheck {
 
     private static final int DEFAULT_MAX_LENGTH = 160;
 
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {
-        String content = getContext().getRawContent();
-        if (content == null) return;
-        String[] lines = content.split("\\r?\\n", -1);
-        for (int i = 0; i < lines.length; i++) {
-            if (lines[i].length() > DEFAULT_MAX_LENGTH) {
-                addLineIssue(i + 1, "Line length exceeds " + DEFAULT_MAX_LENGTH + " characters.");
-            }
+    protected boolean visitLine(int lineNumber, CharSequence line) {
+        if (line.length() > DEFAULT_MAX_LENGTH) {
+            addLineIssue(lineNumber, "Line length exceeds " + DEFAULT_MAX_LENGTH + " characters.");
         }
+        return true;
     }
 }
@@ -15,12 +15,14 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 /**
  * Prefer when: var over when: var == "yes" (or "true", "no", "false"); the literal compare is redundant.
@@ -28,9 +30,7 @@ import java.util.regex.Pattern;
 @Rule(key = "qa-avoid-literal-bool-compare")
 public class LiteralCompareCheck extends BaseCheck {
 
-    private static final Pattern LITERAL_COMPARE = Pattern.compile(
-            "==\\s*[\"']?(?:yes|true|no|false)[\"']?|!=\\s*[\"']?(?:yes|true|no|false)[\"']?",
-            Pattern.CASE_INSENSITIVE);
+    private static final Set<String> BOOLEAN_LITERALS = Set.of("yes", "true", "no", "false");
 
     @Override
     public void visitTask(Task task) {
@@ -39,16 +39,38 @@ public class LiteralCompareCheck extends BaseCheck {
         Object whenObj = attrs.get("when");
         if (whenObj == null) return;
         if (whenObj instanceof String s) {
-            if (LITERAL_COMPARE.matcher(s).find()) {
+            if (comparesWithLiteral(s)) {
                 addLineIssue(task.line(), "Prefer when: var over when: var == \"yes\" (or similar literal).");
             }
         } else if (whenObj instanceof java.util.List<?> list) {
             for (Object item : list) {
-                if (item instanceof String str && LITERAL_COMPARE.matcher(str).find()) {
+                if (item instanceof String str && comparesWithLiteral(str)) {
                     addLineIssue(task.line(), "Prefer when: var over when: var == \"yes\" (or similar literal).");
                     return;
                 }
             }
         }
     }
+
+    /** Whether the expression compares with == or != against a boolean word, quoted or not. */
+    private boolean comparesWithLiteral(String expression) {
+        if (expression.indexOf('=') < 0) {
+            return false;
+        }
+        JinjaTokens tokens = getContext().getJinjaCache().expression(expression);
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            if (!tokens.isOperator(i, "==") && !tokens.isOperator(i, "!=")) {
+                continue;
+            }
+            String operand = switch (tokens.kind(i + 1)) {
+                case NAME -> tokens.text(i + 1);
+                case STRING -> tokens.stringValue(i + 1);
+                default -> null;
+            };
+            if (operand != null && BOOLEAN_LITERALS.contains(operand.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
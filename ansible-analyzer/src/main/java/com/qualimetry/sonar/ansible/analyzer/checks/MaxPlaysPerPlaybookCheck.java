@@ -15,10 +15,13 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
+import java.util.Set;
+
 /**
  * A playbook should not contain an excessive number of plays; consider splitting into multiple files.
  */
@@ -27,6 +30,11 @@ public class MaxPlaysPerPlaybookCheck extends BaseCheck {
 
     private static final int DEFAULT_MAX_PLAYS = 10;
 
+    @Override
+    public Set<FileClassifier.Kind> fileKinds() {
+        return Set.of(FileClassifier.Kind.PLAYBOOK);
+    }
+
     @Override
     public void visitPlaybookFile(PlaybookFile file) {
         int count = file.plays().size();
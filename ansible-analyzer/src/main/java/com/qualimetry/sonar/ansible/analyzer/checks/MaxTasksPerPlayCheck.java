@@ -15,10 +15,13 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
+import java.util.Set;
+
 /**
  * A play should not contain an excessive number of tasks; split into multiple plays or use roles.
  */
@@ -27,6 +30,11 @@ public class MaxTasksPerPlayCheck extends BaseCheck {
 
     private static final int DEFAULT_MAX_TASKS = 50;
 
+    @Override
+    public Set<FileClassifier.Kind> fileKinds() {
+        return Set.of(FileClassifier.Kind.PLAYBOOK);
+    }
+
     @Override
     public void visitPlay(Play play) {
         int count = play.tasks().size();
@@ -20,6 +20,7 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * command and shell tasks should use changed_when when the command is not idempotent.
@@ -27,6 +28,11 @@ import java.util.Map;
 @Rule(key = "qa-command-changed-when")
 public class NoChangedWhenCheck extends BaseCheck {
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("command", "shell");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
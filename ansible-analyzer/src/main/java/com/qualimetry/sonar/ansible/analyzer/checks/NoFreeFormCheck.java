@@ -20,6 +20,7 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Avoid free-form for command/shell: use the args form (e.g. cmd: ...) instead of a bare string.
@@ -27,6 +28,11 @@ import java.util.Map;
 @Rule(key = "qa-command-args-form")
 public class NoFreeFormCheck extends BaseCheck {
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("command", "shell");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -3,14 +3,201 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileSummary;
+import com.qualimetry.sonar.ansible.analyzer.parser.HandlerIndex;
+import com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
-/** Tasks that notify should have matching handler. Placeholder. */
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every {@code notify} should name a handler, or a topic a handler listens to, of the play or
+ * of the roles it uses. Plays are matched against a {@link HandlerIndex} of their handlers;
+ * the handlers of roles and of their {@code meta/main.yml} dependencies come from the project
+ * graph, so plays using roles are only checked when it has indexed them. Role task files are
+ * not checked: role handlers are in play scope, and the plays using a role are not known.
+ * Templated notifications are not checked.
+ */
 @Rule(key = "qa-handler-for-notify")
 public class NoHandlerCheck extends BaseCheck {
 
+    private static final List<String> ROLE_KEYS = List.of("include_role", "import_role",
+            "ansible.builtin.include_role", "ansible.builtin.import_role");
+
+    private Path path;
+    private boolean roleFile;
+    private HandlerIndex handlers = HandlerIndex.UNKNOWN;
+
+    @Override
+    public Set<FileClassifier.Kind> fileKinds() {
+        return Set.of(FileClassifier.Kind.PLAYBOOK);
+    }
+
+    @Override
+    public void visitPlaybookFile(PlaybookFile file) {
+        path = file.uri() != null ? ProjectGraph.pathOf(file.uri()) : null;
+        roleFile = path != null && ProjectGraph.enclosingRole(path) != null;
+        handlers = HandlerIndex.UNKNOWN;
+    }
+
+    @Override
+    public void visitPlay(Play play) {
+        if (roleFile) {
+            return;
+        }
+        Set<String> roles = new LinkedHashSet<>();
+        for (RoleRef role : play.roles()) {
+            roles.add(role.roleName());
+        }
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        for (Task task : play.tasks()) {
+            tasks.add(task.attributes());
+        }
+        for (Task handler : play.handlers()) {
+            tasks.add(handler.attributes());
+        }
+        roles.addAll(rolesUsed(tasks));
+        handlers = HandlerIndex.of(play.handlers());
+        if (!roles.isEmpty()) {
+            handlers = handlers.with(rolesHandlers(path, roles, new HashSet<>()));
+        }
+        for (Task handler : play.handlers()) {
+            check(handler.attributes(), handler.line());
+        }
+    }
+
+    @Override
+    public void visitTask(Task task) {
+        if (!roleFile) {
+            check(task.attributes(), task.line());
+        }
+    }
+
     @Override
-    public void visitTask(Task task) {}
+    public void leavePlay(Play play) {
+        if (!roleFile) {
+            handlers = HandlerIndex.UNKNOWN;
+        }
+    }
+
+    private void check(Map<String, Object> task, int line) {
+        if (!handlers.isComplete()) {
+            return;
+        }
+        Object notify = task.get("notify");
+        if (notify instanceof String s) {
+            check(s, YamlTree.valueRange(task, "notify"), line);
+        } else if (notify instanceof YamlTree.Sequence seq) {
+            for (int i = 0; i < seq.size(); i++) {
+                if (seq.get(i) instanceof String s) {
+                    check(s, seq.range(i), line);
+                }
+            }
+        } else if (notify instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof String s) {
+                    check(s, null, line);
+                }
+            }
+        }
+    }
+
+    private void check(String notification, TextRange range, int line) {
+        if (notification.isBlank() || notification.contains("{{") || handlers.handles(notification)) {
+            return;
+        }
+        addIssue(range, line, "Add a handler named or listening to \"" + notification
+                + "\"; nothing in the play or its roles handles it.");
+    }
+
+    /**
+     * Handlers of roles used by name from a file, with those of their dependencies; unknown
+     * without a graph or for roles it has not indexed. Roles already seen add nothing.
+     */
+    private HandlerIndex rolesHandlers(Path from, Set<String> roles, Set<Path> seen) {
+        HandlerIndex index = HandlerIndex.EMPTY;
+        for (String role : roles) {
+            HandlerIndex found = HandlerIndex.UNKNOWN;
+            for (Path directory : from != null ? ProjectGraph.roleDirectories(from, role) : List.<Path>of()) {
+                if (seen.contains(directory)) {
+                    found = HandlerIndex.EMPTY;
+                    break;
+                }
+                found = roleHandlers(directory, seen);
+                if (found.isComplete()) {
+                    break;
+                }
+            }
+            index = index.with(found);
+        }
+        return index;
+    }
+
+    /** Handlers of a role directory and of the roles its {@code meta/main.yml} depends on. */
+    private HandlerIndex roleHandlers(Path role, Set<Path> seen) {
+        HandlerIndex found = handlersOf(role);
+        if (!found.isComplete()) {
+            return found;
+        }
+        seen.add(role);
+        for (String name : List.of("main.yml", "main.yaml")) {
+            Path meta = role.resolve("meta").resolve(name);
+            FileSummary summary = getContext().getProjectGraph().summary(meta);
+            if (summary != null) {
+                return found.with(rolesHandlers(meta, new LinkedHashSet<>(summary.roles()), seen));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Handlers of a role directory: from its {@code handlers/main.yml}, none if the role is
+     * indexed without one, otherwise unknown.
+     */
+    private HandlerIndex handlersOf(Path role) {
+        ProjectGraph graph = getContext().getProjectGraph();
+        if (graph == null) {
+            return HandlerIndex.UNKNOWN;
+        }
+        for (String name : List.of("main.yml", "main.yaml")) {
+            FileSummary summary = graph.summary(role.resolve("handlers").resolve(name));
+            if (summary != null) {
+                return summary.equals(FileSummary.EMPTY) || !summary.includes().isEmpty()
+                        ? HandlerIndex.UNKNOWN
+                        : HandlerIndex.ofTopics(summary.handlers());
+            }
+        }
+        for (String name : List.of("main.yml", "main.yaml")) {
+            if (graph.contains(role.resolve("tasks").resolve(name))) {
+                return HandlerIndex.EMPTY;
+            }
+        }
+        return HandlerIndex.UNKNOWN;
+    }
+
+    private static Set<String> rolesUsed(List<Map<String, Object>> tasks) {
+        Set<String> roles = new LinkedHashSet<>();
+        for (Map<String, Object> task : tasks) {
+            for (String key : ROLE_KEYS) {
+                if (task.get(key) instanceof Map<?, ?> args && args.get("name") instanceof String role) {
+                    roles.add(role.strip());
+                }
+            }
+        }
+        return roles;
+    }
 }
@@ -15,12 +15,12 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaCache;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * Do not use Jinja for a simple variable in when; use the bare variable (when: var) instead of when: "{{ var }}".
@@ -28,16 +28,14 @@ import java.util.regex.Pattern;
 @Rule(key = "qa-when-bare-variable")
 public class NoJinjaWhenCheck extends BaseCheck {
 
-    /** When value is a string that is only {{ varname }} with optional whitespace. */
-    private static final Pattern BARE_VAR_IN_WHEN = Pattern.compile("^\\s*\\{\\{\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\}\\}\\s*$");
-
     @Override
     public void visitTask(Task task) {
         Map<String, Object> attrs = task.attributes();
         if (attrs == null) return;
 
         Object when = attrs.get("when");
-        if (when instanceof String s && BARE_VAR_IN_WHEN.matcher(s).matches()) {
+        if (when instanceof String s && JinjaCache.isTemplated(s)
+                && getContext().getJinjaCache().expression(s).bareVariable() != null) {
             addLineIssue(task.line(), "Do not use Jinja for a simple variable in \"when\"; use when: var instead of when: \"{{ var }}\".");
         }
     }
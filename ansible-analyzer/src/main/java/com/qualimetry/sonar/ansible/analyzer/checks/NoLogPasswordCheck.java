@@ -15,6 +15,7 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.KeywordMatcher;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
@@ -27,6 +28,8 @@ import java.util.Map;
 @Rule(key = "qa-no-log-secrets")
 public class NoLogPasswordCheck extends BaseCheck {
 
+    private static final KeywordMatcher SECRET_WORDS = KeywordMatcher.of("password", "secret");
+
     private static boolean isNoLogTrue(Object value) {
         if (value == null) return false;
         if (value instanceof Boolean b) return b;
@@ -36,8 +39,7 @@ public class NoLogPasswordCheck extends BaseCheck {
 
     private static boolean keySuggestsSecret(String key) {
         if (key == null) return false;
-        String lower = key.toLowerCase();
-        return lower.contains("password") || lower.contains("secret") || lower.equals("token");
+        return SECRET_WORDS.containsAny(key) || key.equalsIgnoreCase("token");
     }
 
     @SuppressWarnings("unchecked")
@@ -30,6 +30,11 @@ public class NoSameOwnerCheck extends BaseCheck {
 
     private static final Set<String> MODULES = Set.of("copy", "file", "template");
 
+    @Override
+    public Set<String> taskModules() {
+        return MODULES;
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -3,14 +3,70 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.KeywordMatcher;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
-/** Do not store secrets in plain vars; use vault. Placeholder. */
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Do not store secrets in plain vars; use vault. Variables are checked in vars files (documents
+ * whose root is a mapping: role defaults and vars, group_vars, host_vars) and in the
+ * {@code vars} of plays, and of tasks in task files. A variable is reported when its name contains a secret
+ * word and its value is a plain string: templated values (lookups, vaulted variables) and
+ * inline vault values are not.
+ */
 @Rule(key = "qa-secrets-not-in-vars")
 public class NoSecretsInVarsCheck extends BaseCheck {
 
+    private static final KeywordMatcher SECRET_NAMES = KeywordMatcher.of(
+            "password", "passwd", "passphrase", "secret", "_token", "api_key", "apikey",
+            "access_key", "private_key", "auth_key", "encryption_key", "signing_key", "master_key",
+            "session_key", "credential", "_pwd", "bearer");
+    /** Names of settings about a secret rather than the secret itself. */
+    private static final KeywordMatcher SETTING_SUFFIXES = KeywordMatcher.of(
+            "_file", "_path", "_dir", "_length", "_ttl", "_timeout", "_expiry", "_expires", "_policy",
+            "_enabled", "_required");
+    private static final Set<String> BOOLEANS = Set.of("true", "false", "yes", "no", "on", "off");
+
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {}
+    public void visitPlaybookFile(PlaybookFile file) {
+        DocumentRoot root = file.root();
+        if (root == null) {
+            return;
+        }
+        if (root.mapping() != null) {
+            checkVars(root.mapping(), 1);
+        }
+        for (DocumentRoot.Item item : root.items()) {
+            if (item.value() instanceof Map<?, ?> map && map.get("vars") instanceof Map<?, ?> vars) {
+                checkVars(vars, item.line());
+            }
+        }
+    }
+
+    private void checkVars(Map<?, ?> vars, int line) {
+        for (Map.Entry<?, ?> entry : vars.entrySet()) {
+            if (entry.getKey() instanceof String name && entry.getValue() instanceof String value
+                    && isSecretName(name) && isPlain(value)) {
+                addIssue(YamlTree.keyRange(vars, name), line, "Move \"" + name
+                        + "\" to a vault-encrypted file or a secrets manager instead of storing it in plain vars.");
+            }
+        }
+    }
+
+    private static boolean isSecretName(String name) {
+        return (name.equalsIgnoreCase("token") || SECRET_NAMES.containsAny(name))
+                && !SETTING_SUFFIXES.endsWithAny(name);
+    }
+
+    private static boolean isPlain(String value) {
+        String v = value.strip();
+        return !v.isEmpty() && !v.contains("{{") && !v.startsWith("$ANSIBLE_VAULT")
+                && !BOOLEANS.contains(v.toLowerCase());
+    }
 }
@@ -15,25 +15,20 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
-import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
-import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineCheck;
 import org.sonar.check.Rule;
 
 /**
  * Reports when the file contains tab characters. Use spaces for indentation.
  */
 @Rule(key = "qa-spaces-not-tabs")
-public class NoTabsCheck extends BaseCheck {
+public class NoTabsCheck extends LineCheck {
 
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {
-        String content = getContext().getRawContent();
-        if (content == null) return;
-        String[] lines = content.split("\\r?\\n", -1);
-        for (int i = 0; i < lines.length; i++) {
-            if (lines[i].indexOf('\t') >= 0) {
-                addLineIssue(i + 1, "Use spaces for indentation instead of tabs.");
-            }
+    protected boolean visitLine(int lineNumber, CharSequence line) {
+        if (indexOf(line, '\t') >= 0) {
+            addLineIssue(lineNumber, "Use spaces for indentation instead of tabs.");
         }
+        return true;
     }
 }
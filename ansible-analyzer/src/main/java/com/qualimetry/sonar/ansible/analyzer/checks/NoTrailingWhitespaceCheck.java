@@ -15,26 +15,23 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
-import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
-import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.LineCheck;
 import org.sonar.check.Rule;
 
 /**
  * Reports lines that end with trailing whitespace (spaces or tabs).
  */
 @Rule(key = "qa-strip-trailing-whitespace")
-public class NoTrailingWhitespaceCheck extends BaseCheck {
+public class NoTrailingWhitespaceCheck extends LineCheck {
 
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {
-        String content = getContext().getRawContent();
-        if (content == null) return;
-        String[] lines = content.split("\\r?\\n", -1);
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            if (!line.isEmpty() && (line.endsWith(" ") || line.endsWith("\t"))) {
-                addLineIssue(i + 1, "Remove trailing whitespace.");
+    protected boolean visitLine(int lineNumber, CharSequence line) {
+        if (line.length() > 0) {
+            char last = line.charAt(line.length() - 1);
+            if (last == ' ' || last == '\t') {
+                addLineIssue(lineNumber, "Remove trailing whitespace.");
             }
         }
+        return true;
     }
 }
@@ -20,6 +20,7 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * read_file with user-controlled or unsafe paths can expose sensitive data.
@@ -27,6 +28,11 @@ import java.util.Map;
 @Rule(key = "qa-safe-file-read")
 public class NoUnsafeReadFileCheck extends BaseCheck {
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("read_file");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -48,6 +48,11 @@ public class NoWorldWritableCheck extends BaseCheck {
         return (mode & 0002) != 0;
     }
 
+    @Override
+    public Set<String> taskModules() {
+        return FILE_MODULE_KEYS;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void visitTask(Task task) {
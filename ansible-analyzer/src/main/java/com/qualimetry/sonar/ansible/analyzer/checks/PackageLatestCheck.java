@@ -30,6 +30,11 @@ public class PackageLatestCheck extends BaseCheck {
 
     private static final Set<String> PACKAGE_MODULES = Set.of("apt", "yum", "dnf", "package");
 
+    @Override
+    public Set<String> taskModules() {
+        return PACKAGE_MODULES;
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
@@ -15,16 +15,24 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
+import java.util.Set;
+
 /**
  * Plays should have tags so you can run a subset of the playbook (e.g. --tags).
  */
 @Rule(key = "qa-play-has-tags")
 public class RequiredTagsCheck extends BaseCheck {
 
+    @Override
+    public Set<FileClassifier.Kind> fileKinds() {
+        return Set.of(FileClassifier.Kind.PLAYBOOK);
+    }
+
     @Override
     public void visitPlay(Play play) {
         if (play.tags() == null || play.tags().isEmpty()) {
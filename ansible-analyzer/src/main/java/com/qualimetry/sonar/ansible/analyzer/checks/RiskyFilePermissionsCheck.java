@@ -47,6 +47,11 @@ public class RiskyFilePermissionsCheck extends BaseCheck {
         return false;
     }
 
+    @Override
+    public Set<String> taskModules() {
+        return FILE_MODULE_KEYS;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void visitTask(Task task) {
@@ -30,6 +30,11 @@ public class RiskyOctalCheck extends BaseCheck {
 
     private static final Set<String> FILE_MODULE_KEYS = Set.of("copy", "file", "template", "assemble");
 
+    @Override
+    public Set<String> taskModules() {
+        return FILE_MODULE_KEYS;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void visitTask(Task task) {
@@ -21,6 +21,7 @@ import org.sonar.check.Rule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Shell tasks that use pipes can be fragile (set -o pipefail, error handling). Flag for review.
@@ -28,6 +29,11 @@ import java.util.Map;
 @Rule(key = "qa-shell-pipe-safe")
 public class RiskyShellPipeCheck extends BaseCheck {
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("shell");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
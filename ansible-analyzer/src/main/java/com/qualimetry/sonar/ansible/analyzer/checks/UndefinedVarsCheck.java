@@ -3,14 +3,52 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
-/** Use of undefined variables. Placeholder. */
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reports variables that are read but defined nowhere in the project. Needs the project's
+ * {@link VariableTable}; a file analyzed on its own is not checked, since its variables may
+ * come from anywhere.
+ */
 @Rule(key = "qa-define-referenced-vars")
 public class UndefinedVarsCheck extends BaseCheck {
 
+    /** Variables Ansible and Jinja2 provide. Names starting with ansible_ are facts and settings. */
+    static final Set<String> BUILTIN = Set.of("hostvars", "groups", "group_names", "inventory_hostname",
+            "inventory_hostname_short", "inventory_dir", "inventory_file", "playbook_dir", "role_path", "role_name",
+            "role_names", "play_hosts", "omit", "item", "environment", "vars", "loop", "lookup", "query", "q",
+            "now", "range", "dict", "lipsum", "cycler", "joiner", "namespace", "undef", "varargs", "kwargs",
+            "caller", "self", "super");
+
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {}
+    public void visitPlaybookFile(PlaybookFile file) {
+        VariableTable table = getContext().getVariableTable();
+        if (table == null) return;
+        FileVariables variables = getContext().getFileVariables();
+        Set<String> local = new HashSet<>();
+        for (FileVariables.Definition definition : variables.definitions()) {
+            local.add(definition.name());
+        }
+        Set<String> reported = new HashSet<>();
+        for (FileVariables.Reference reference : variables.references()) {
+            String name = reference.name();
+            if (reference.guarded() || BUILTIN.contains(name) || name.startsWith("ansible_") || local.contains(name)
+                    || table.isDefined(name) || !reported.add(name)) {
+                continue;
+            }
+            String message = "Define \"" + name + "\" or give it a default; no file in the project defines it.";
+            if (reference.range() != null) {
+                addIssue(reference.range(), 1, message);
+            } else {
+                addFileIssue(message);
+            }
+        }
+    }
 }
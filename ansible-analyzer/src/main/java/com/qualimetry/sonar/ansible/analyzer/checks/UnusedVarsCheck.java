@@ -3,14 +3,40 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
-/** Variables defined but not used. Placeholder. */
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reports variables declared in {@code vars} or a role's defaults and vars that nothing in the
+ * project reads. Needs the project's {@link VariableTable}; a file analyzed on its own is not
+ * checked.
+ */
 @Rule(key = "qa-remove-unused-vars")
 public class UnusedVarsCheck extends BaseCheck {
 
     @Override
-    public void visitPlaybookFile(PlaybookFile file) {}
+    public void visitPlaybookFile(PlaybookFile file) {
+        VariableTable table = getContext().getVariableTable();
+        if (table == null) return;
+        Set<String> reported = new HashSet<>();
+        for (FileVariables.Definition definition : getContext().getFileVariables().definitions()) {
+            String name = definition.name();
+            if (!definition.declared() || name.startsWith("ansible_") || table.isReferenced(name)
+                    || !reported.add(name)) {
+                continue;
+            }
+            String message = "Remove the unused variable \"" + name + "\"; nothing in the project reads it.";
+            if (definition.range() != null) {
+                addIssue(definition.range(), 1, message);
+            } else {
+                addFileIssue(message);
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
 import org.sonar.check.Rule;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -30,6 +31,11 @@ public class VarNamingCheck extends BaseCheck {
 
     private static final Pattern VALID_VAR_NAME = Pattern.compile("^[a-z][a-z0-9_]*$");
 
+    @Override
+    public Set<String> taskModules() {
+        return Set.of("set_fact");
+    }
+
     @Override
     public void visitTask(Task task) {
         String moduleKey = task.moduleKey();
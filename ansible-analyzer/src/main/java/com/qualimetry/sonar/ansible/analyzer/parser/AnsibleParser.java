@@ -15,36 +15,96 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.parser;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.ParseError;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
-import org.yaml.snakeyaml.Yaml;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.composer.ComposerException;
 import org.yaml.snakeyaml.error.Mark;
 import org.yaml.snakeyaml.error.MarkedYAMLException;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
 
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Parses Ansible playbook YAML into the internal tree model using SnakeYAML.
  * Detects playbooks (list of maps with hosts/tasks/roles/vars), builds PlaybookFile
- * with Play/Task list and line/column positions. On parse failure, returns a
- * PlaybookFile with a ParseError so checks can report one issue instead of crashing.
+ * with Play/Task list and line/column positions. Task attributes are views over a
+ * {@link YamlTree} of the document, so checks can report exact source ranges. On parse
+ * failure, returns a PlaybookFile with a ParseError so checks can report one issue instead
+ * of crashing.
+ * <p>
+ * By default the tree is built straight from SnakeYAML's event stream ({@link Mode#STREAM}),
+ * so the composed node graph, which takes several times the size of the file, never
+ * exists. {@link Mode#COMPOSE} builds it from the composed graph instead and gives the
+ * same result; it is kept for comparison.
  */
 public class AnsibleParser {
 
+    /**
+     * How the document tree is built from the YAML text.
+     */
+    public enum Mode {
+        /** From the parse events, one node at a time. */
+        STREAM,
+        /** From the node graph composed by SnakeYAML. */
+        COMPOSE
+    }
+
+    /** Typical playbooks have a node every 12 to 25 characters; the builder grows if needed. */
+    private static final int EXPECTED_CHARS_PER_NODE = 12;
+    /** Plain scalars YAML 1.1 resolves to null; the tree keeps scalars as written. */
+    private static final Set<String> NULL_SCALARS = Set.of("", "~", "null", "Null", "NULL");
+
+    private final Mode mode;
+    private final YamlLoader loader;
+
+    public AnsibleParser() {
+        this(Mode.STREAM, YamlLoader.defaults());
+    }
+
+    public AnsibleParser(YamlLoader loader) {
+        this(Mode.STREAM, loader);
+    }
+
+    public AnsibleParser(Mode mode) {
+        this(mode, YamlLoader.defaults());
+    }
+
+    public AnsibleParser(Mode mode, YamlLoader loader) {
+        this.mode = mode;
+        this.loader = loader;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
     /**
      * Parses playbook content. Uses SnakeYAML to parse, detects plays and tasks,
      * attaches line (and column where available). On YAML parse failure returns
@@ -59,149 +119,187 @@ public class AnsibleParser {
             return new PlaybookFile(Collections.emptyList(), uri);
         }
 
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        event.uri = uri;
+        event.characters = content.length();
         try {
-            Node root = new Yaml().compose(new StringReader(content));
-            if (root == null) {
+            Document document = document(content);
+            if (document == null) {
                 return new PlaybookFile(Collections.emptyList(), uri);
             }
-            return buildPlaybook(uri, root);
+            event.nodes = document.tree.nodeCount();
+            return buildPlaybook(uri, document);
         } catch (YAMLException e) {
             int line = 0;
             if (e instanceof MarkedYAMLException marked && marked.getProblemMark() != null) {
                 line = marked.getProblemMark().getLine() + 1; // SnakeYAML Mark is 0-based line
             }
             String message = e.getMessage() != null ? e.getMessage() : "YAML parse error";
+            event.parseError = message;
             return new PlaybookFile(Collections.emptyList(), uri, new ParseError(message, line));
+        } finally {
+            event.commit();
         }
     }
 
-    private static int lineOf(Node node) {
-        if (node == null) return 0;
-        Mark mark = node.getStartMark();
-        return mark != null ? mark.getLine() + 1 : 0;
+    /**
+     * Parses the text of a single top-level list item ("- ..." and its indented body) on its
+     * own. Lines and ranges in the result are relative to the item text (the first line is 1).
+     *
+     * @param itemText text of one top-level sequence entry
+     * @return the item and the play built from it (null if the item is not a play)
+     * @throws YAMLException if the item does not compose to exactly one sequence entry
+     */
+    ParsedItem parseItem(String itemText) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        event.characters = itemText.length();
+        event.incremental = true;
+        try {
+            Document document = document(itemText);
+            if (document == null || !(document.root() instanceof YamlTree.Sequence seq) || seq.size() != 1) {
+                throw new YAMLException("Text is not a single top-level list item");
+            }
+            event.nodes = document.tree.nodeCount();
+            DocumentRoot.Item item = new DocumentRoot.Item(seq.get(0), document.line(seq.range(0)));
+            return new ParsedItem(item, item.value() instanceof YamlTree.Mapping map ? buildPlay(map, document) : null);
+        } catch (YAMLException e) {
+            event.parseError = e.getMessage();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * A top-level list item parsed on its own, and its play or null.
+     */
+    record ParsedItem(DocumentRoot.Item item, Play play) {
     }
 
-    private static PlaybookFile buildPlaybook(String uri, Node root) {
-        if (!(root instanceof SequenceNode seq)) {
+    /** Returns the document of the text, or null if it has no content. */
+    private Document document(String text) {
+        Offsets offsets = new Offsets(text);
+        YamlTree tree;
+        if (mode == Mode.COMPOSE) {
+            Node root = loader.yaml().compose(new StringReader(text));
+            tree = root == null ? null : NodeTree.build(root, offsets, text.length());
+        } else {
+            tree = EventTree.build(loader.yaml().parse(new StringReader(text)), loader.options(), offsets,
+                    text.length());
+        }
+        return tree == null ? null : new Document(tree, new Lines(text));
+    }
+
+    private static PlaybookFile buildPlaybook(String uri, Document document) {
+        Object root = document.root();
+        if (root instanceof String scalar && NULL_SCALARS.contains(scalar)) {
+            // Only "---" and comments, or a null: an empty file, as SnakeYAML's load() has it
             return new PlaybookFile(Collections.emptyList(), uri);
         }
+        if (!(root instanceof YamlTree.Sequence seq)) {
+            DocumentRoot documentRoot = root instanceof YamlTree.Mapping mapping
+                    ? new DocumentRoot(DocumentRoot.Kind.MAPPING, List.of(), mapping)
+                    : new DocumentRoot(DocumentRoot.Kind.SCALAR, List.of());
+            return new PlaybookFile(Collections.emptyList(), uri, null, documentRoot);
+        }
         List<Play> plays = new ArrayList<>();
-        for (Node item : seq.getValue()) {
-            if (item instanceof MappingNode mapNode) {
-                Play play = buildPlay(mapNode);
+        List<DocumentRoot.Item> items = new ArrayList<>(seq.size());
+        for (int i = 0; i < seq.size(); i++) {
+            Object item = seq.get(i);
+            items.add(new DocumentRoot.Item(item, document.line(seq.range(i))));
+            if (item instanceof YamlTree.Mapping map) {
+                Play play = buildPlay(map, document);
                 if (play != null) {
                     plays.add(play);
                 }
             }
         }
-        return new PlaybookFile(plays, uri);
+        return new PlaybookFile(plays, uri, null, new DocumentRoot(DocumentRoot.Kind.SEQUENCE, items));
     }
 
     /**
      * Heuristic: a map is a play if it has at least one of hosts, tasks, roles, or vars.
      */
-    private static boolean looksLikePlay(MappingNode mapNode) {
-        for (NodeTuple tuple : mapNode.getValue()) {
-            String key = scalarKey(tuple.getKeyNode());
-            if (key != null && (key.equals("hosts") || key.equals("tasks") || key.equals("roles") || key.equals("vars"))) {
-                return true;
-            }
-        }
-        return false;
+    static boolean looksLikePlay(Map<String, ?> map) {
+        return map.containsKey("hosts") || map.containsKey("tasks") || map.containsKey("roles")
+                || map.containsKey("vars");
     }
 
-    private static Play buildPlay(MappingNode mapNode) {
-        if (!looksLikePlay(mapNode)) {
+    private static Play buildPlay(YamlTree.Mapping map, Document document) {
+        if (!looksLikePlay(map)) {
             return null;
         }
-        int playLine = lineOf(mapNode);
+        int playLine = document.line(map.range());
         String name = null;
         List<Task> tasks = new ArrayList<>();
         List<RoleRef> roles = new ArrayList<>();
         List<String> tags = Collections.emptyList();
+        List<Task> handlers = new ArrayList<>();
 
-        for (NodeTuple tuple : mapNode.getValue()) {
-            String key = scalarKey(tuple.getKeyNode());
-            if (key == null) continue;
-            Node valueNode = tuple.getValueNode();
-            switch (key) {
-                case "name" -> name = scalarValue(valueNode);
-                case "tasks", "pre_tasks", "post_tasks" -> collectTasks(valueNode, tasks);
-                case "roles" -> collectRoles(valueNode, roles);
-                case "tags" -> tags = tagsFromValue(valueNode);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            switch (entry.getKey()) {
+                case "name" -> name = value instanceof String s ? s : null;
+                case "tasks", "pre_tasks", "post_tasks" -> collectTasks(value, tasks, document);
+                case "roles" -> collectRoles(value, roles, document);
+                case "handlers" -> collectTasks(value, handlers, document);
+                case "tags" -> tags = tagsFromValue(value);
                 default -> { }
             }
         }
-        return new Play(name, tasks, roles, playLine, tags);
+        return new Play(name, tasks, roles, playLine, tags, handlers);
     }
 
-    private static List<String> tagsFromValue(Node node) {
-        if (node == null) return Collections.emptyList();
-        if (node instanceof ScalarNode s) {
-            String v = s.getValue();
-            return v == null || v.isBlank() ? Collections.emptyList() : List.of(v);
+    private static List<String> tagsFromValue(Object value) {
+        if (value instanceof String s) {
+            return s.isBlank() ? Collections.emptyList() : List.of(s);
         }
-        if (node instanceof SequenceNode seq) {
+        if (value instanceof YamlTree.Sequence seq) {
             List<String> out = new ArrayList<>();
-            for (Node item : seq.getValue()) {
-                String v = scalarValue(item);
-                if (v != null && !v.isBlank()) out.add(v);
+            for (Object item : seq) {
+                if (item instanceof String s && !s.isBlank()) out.add(s);
             }
             return out;
         }
         return Collections.emptyList();
     }
 
-    private static void collectTasks(Node node, List<Task> out) {
-        if (node instanceof SequenceNode seq) {
-            for (Node item : seq.getValue()) {
-                if (item instanceof MappingNode mapNode) {
-                    Node blockList = valueForKey(mapNode, "block");
-                    if (blockList != null) {
-                        collectTasks(blockList, out);
+    private static void collectTasks(Object value, List<Task> out, Document document) {
+        if (value instanceof YamlTree.Sequence seq) {
+            for (Object item : seq) {
+                if (item instanceof YamlTree.Mapping map) {
+                    if (map.containsKey("block")) {
+                        collectTasks(map.get("block"), out, document);
                     } else {
-                        Task task = buildTask(mapNode);
-                        if (task != null) {
-                            out.add(task);
-                        }
+                        out.add(buildTask(map, document));
                     }
                 }
             }
         }
     }
 
-    private static Node valueForKey(MappingNode mapNode, String key) {
-        for (NodeTuple tuple : mapNode.getValue()) {
-            if (key.equals(scalarKey(tuple.getKeyNode()))) {
-                return tuple.getValueNode();
-            }
-        }
-        return null;
-    }
-
-    private static Task buildTask(MappingNode mapNode) {
-        int line = lineOf(mapNode);
-        Map<String, Object> attributes = nodeToMap(mapNode);
-        if (attributes == null) attributes = new LinkedHashMap<>();
-        String name = (String) attributes.get("name");
-        String moduleKey = inferModuleKey(mapNode, attributes);
-        return new Task(name, moduleKey, line, attributes);
+    private static Task buildTask(YamlTree.Mapping attributes, Document document) {
+        int line = document.line(attributes.range());
+        Object nameValue = attributes.get("name");
+        String name = nameValue instanceof String s ? s : null;
+        return new Task(name, inferModuleKey(attributes), line, attributes);
     }
 
     /**
      * Infers the module key (FQCN or short name) from the task map.
      * Ansible tasks are either one key (module: args) or have "name" + module key.
      */
-    private static String inferModuleKey(MappingNode mapNode, Map<String, Object> attributes) {
-        for (NodeTuple tuple : mapNode.getValue()) {
-            String key = scalarKey(tuple.getKeyNode());
-            if (key == null) continue;
+    static String inferModuleKey(Map<String, Object> attributes) {
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            String key = entry.getKey();
             if (key.equals("name") || key.equals("block") || key.equals("include_role") || key.equals("include_tasks")
                     || key.equals("import_role") || key.equals("import_tasks")) {
                 continue;
             }
             if (key.equals("include") || key.equals("import_playbook")) {
-                Object val = attributes.get(key);
+                Object val = entry.getValue();
                 return key + (val != null ? ":" + val : "");
             }
             return key;
@@ -209,76 +307,242 @@ public class AnsibleParser {
         return null;
     }
 
-    private static void collectRoles(Node node, List<RoleRef> out) {
-        if (!(node instanceof SequenceNode seq)) return;
-        for (Node item : seq.getValue()) {
-            if (item instanceof ScalarNode scalar) {
-                out.add(new RoleRef(scalar.getValue(), lineOf(item)));
-            } else if (item instanceof MappingNode mapNode) {
-                String role = scalarValueFromMap(mapNode, "role");
-                if (role != null) {
-                    out.add(new RoleRef(role, lineOf(item)));
-                }
+    private static void collectRoles(Object value, List<RoleRef> out, Document document) {
+        if (!(value instanceof YamlTree.Sequence seq)) return;
+        for (int i = 0; i < seq.size(); i++) {
+            Object item = seq.get(i);
+            if (item instanceof String role) {
+                out.add(new RoleRef(role, document.line(seq.range(i))));
+            } else if (item instanceof YamlTree.Mapping map && map.get("role") instanceof String role) {
+                out.add(new RoleRef(role, document.line(seq.range(i))));
             }
         }
     }
 
-    private static String scalarKey(Node node) {
-        return node instanceof ScalarNode s ? s.getValue() : null;
-    }
+    /**
+     * A parsed document: its tree (the root is node 0) and where its lines start.
+     */
+    private record Document(YamlTree tree, Lines lines) {
 
-    private static String scalarValue(Node node) {
-        return node instanceof ScalarNode s ? s.getValue() : null;
+        Object root() {
+            return tree.node(0);
+        }
+
+        int line(TextRange range) {
+            return lines.lineOf(range.start());
+        }
     }
 
-    private static String scalarValueFromMap(MappingNode mapNode, String key) {
-        for (NodeTuple tuple : mapNode.getValue()) {
-            if (key.equals(scalarKey(tuple.getKeyNode()))) {
-                return scalarValue(tuple.getValueNode());
+    /**
+     * Line starts of a text, with SnakeYAML's notion of a line break (LF, CR LF, a lone CR,
+     * NEL, LS and PS), so 1-based lines match those of its marks.
+     */
+    private static final class Lines {
+
+        private final int[] starts;
+        private final int count;
+
+        Lines(String text) {
+            int[] found = new int[Math.max(16, text.length() / 32)];
+            int n = 1;
+            for (int i = 0, length = text.length(); i < length; i++) {
+                char c = text.charAt(i);
+                boolean lineBreak = c == '\n' || c == '\u0085' || c == '\u2028' || c == '\u2029'
+                        || (c == '\r' && i + 1 < length && text.charAt(i + 1) != '\n');
+                if (lineBreak) {
+                    if (n == found.length) {
+                        found = Arrays.copyOf(found, n * 2);
+                    }
+                    found[n++] = i + 1;
+                }
             }
+            starts = found;
+            count = n;
+        }
+
+        /** 1-based line of the char offset. */
+        int lineOf(int offset) {
+            int index = Arrays.binarySearch(starts, 0, count, offset);
+            return index >= 0 ? index + 1 : -index - 1;
         }
-        return null;
     }
 
     /**
-     * Converts a MappingNode to a Map for use as task attributes (no position info).
+     * Char offsets of SnakeYAML marks, which count code points.
      */
-    private static Map<String, Object> nodeToMap(MappingNode node) {
-        Map<String, Object> map = new LinkedHashMap<>();
-        for (NodeTuple tuple : node.getValue()) {
-            String k = scalarKey(tuple.getKeyNode());
-            if (k != null) {
-                Object v = nodeToObject(tuple.getValueNode());
-                if (v != null) {
-                    map.put(k, v);
-                }
+    private static final class Offsets {
+
+        /** Char offset of each code point index, or null if the text has no surrogate pairs. */
+        private final int[] charOffsets;
+
+        Offsets(String text) {
+            charOffsets = text.length() == text.codePointCount(0, text.length()) ? null : charOffsets(text);
+        }
+
+        int of(Mark mark) {
+            if (mark == null) {
+                return 0;
             }
+            int index = mark.getIndex();
+            return charOffsets == null ? index : charOffsets[Math.min(index, charOffsets.length - 1)];
+        }
+
+        private static int[] charOffsets(String text) {
+            int[] out = new int[text.codePointCount(0, text.length()) + 1];
+            int cp = 0;
+            for (int i = 0; i < text.length(); i += Character.charCount(text.codePointAt(i))) {
+                out[cp++] = i;
+            }
+            out[cp] = text.length();
+            return out;
         }
-        return map;
     }
 
-    private static Object nodeToObject(Node node) {
-        if (node == null) return null;
-        return switch (node.getNodeId()) {
-            case scalar -> ((ScalarNode) node).getValue();
-            case sequence -> {
-                List<Object> list = new ArrayList<>();
-                for (Node n : ((SequenceNode) node).getValue()) {
-                    list.add(nodeToObject(n));
+    /**
+     * Builds the tree from a composed node graph. Aliased nodes are stored once.
+     */
+    private static final class NodeTree {
+
+        private final YamlTree.Builder builder;
+        private final Offsets offsets;
+        private final Map<Node, Integer> ids = new IdentityHashMap<>();
+
+        private NodeTree(Offsets offsets, int length) {
+            this.offsets = offsets;
+            this.builder = new YamlTree.Builder(length / EXPECTED_CHARS_PER_NODE);
+        }
+
+        static YamlTree build(Node root, Offsets offsets, int length) {
+            NodeTree tree = new NodeTree(offsets, length);
+            tree.add(root);
+            return tree.builder.build();
+        }
+
+        private void add(Node node) {
+            Integer seen = ids.get(node);
+            if (seen != null) {
+                builder.alias(seen);
+                return;
+            }
+            int start = offsets.of(node.getStartMark());
+            int end = offsets.of(node.getEndMark());
+            switch (node.getNodeId()) {
+                case sequence -> {
+                    ids.put(node, builder.startSequence(start));
+                    for (Node item : ((SequenceNode) node).getValue()) {
+                        add(item);
+                    }
+                    builder.end(end);
                 }
-                yield list;
+                case mapping -> {
+                    ids.put(node, builder.startMapping(start));
+                    for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                        add(tuple.getKeyNode());
+                        add(tuple.getValueNode());
+                    }
+                    builder.end(end);
+                }
+                default -> ids.put(node, builder.scalar(
+                        node instanceof ScalarNode s ? s.getValue() : "", start, end));
             }
-            case mapping -> {
-                Map<String, Object> map = new LinkedHashMap<>();
-                for (NodeTuple tuple : ((MappingNode) node).getValue()) {
-                    String k = scalarKey(tuple.getKeyNode());
-                    if (k != null) {
-                        map.put(k, nodeToObject(tuple.getValueNode()));
+        }
+    }
+
+    /**
+     * Builds the tree from parse events, enforcing what SnakeYAML's composer would: a single
+     * document, defined aliases, the alias and nesting limits of the loader options and
+     * the global tag policy. Aliases reuse the id of their anchored node.
+     */
+    private static final class EventTree {
+
+        private EventTree() {
+        }
+
+        /** Returns the tree of the single document, or null if the stream has none. */
+        static YamlTree build(Iterable<Event> events, LoaderOptions options, Offsets offsets, int length) {
+            YamlTree.Builder builder = new YamlTree.Builder(length / EXPECTED_CHARS_PER_NODE);
+            Map<String, Integer> anchors = new HashMap<>();
+            BitSet collections = new BitSet();
+            boolean document = false;
+            Mark firstRoot = null;
+            int open = 0;
+            int collectionAliases = 0;
+            for (Event event : events) {
+                switch (event.getEventId()) {
+                    case DocumentStart -> {
+                        if (document) {
+                            throw new ComposeError(firstRoot, event.getStartMark());
+                        }
+                        document = true;
+                    }
+                    case Alias -> {
+                        String anchor = ((AliasEvent) event).getAnchor();
+                        Integer id = anchors.get(anchor);
+                        if (id == null) {
+                            throw new ComposeError("found undefined alias " + anchor, event.getStartMark());
+                        }
+                        if (collections.get(id) && ++collectionAliases > options.getMaxAliasesForCollections()) {
+                            throw new YAMLException("Number of aliases for non-scalar nodes exceeds the specified max="
+                                    + options.getMaxAliasesForCollections());
+                        }
+                        builder.alias(id);
+                    }
+                    case Scalar, SequenceStart, MappingStart -> {
+                        if (open > options.getNestingDepthLimit()) {
+                            throw new YAMLException("Nesting Depth exceeded max " + options.getNestingDepthLimit());
+                        }
+                        checkTag(event, options);
+                        if (firstRoot == null) {
+                            firstRoot = event.getStartMark();
+                        }
+                        int start = offsets.of(event.getStartMark());
+                        int id;
+                        if (event instanceof ScalarEvent scalar) {
+                            id = builder.scalar(scalar.getValue(), start, offsets.of(event.getEndMark()));
+                        } else {
+                            id = event.getEventId() == Event.ID.SequenceStart
+                                    ? builder.startSequence(start) : builder.startMapping(start);
+                            collections.set(id);
+                            open++;
+                        }
+                        String anchor = ((NodeEvent) event).getAnchor();
+                        if (anchor != null) {
+                            anchors.put(anchor, id);
+                        }
                     }
+                    case SequenceEnd, MappingEnd -> {
+                        builder.end(offsets.of(event.getEndMark()));
+                        open--;
+                    }
+                    default -> { }
                 }
-                yield map;
             }
-            default -> null;
-        };
+            return firstRoot == null ? null : builder.build();
+        }
+
+        private static void checkTag(Event event, LoaderOptions options) {
+            String tag = event instanceof ScalarEvent scalar ? scalar.getTag() : ((CollectionStartEvent) event).getTag();
+            if (tag == null || tag.equals("!")) {
+                return;
+            }
+            Tag resolved = new Tag(tag);
+            if (resolved.isCustomGlobal() && !options.getTagInspector().isGlobalTagAllowed(resolved)) {
+                throw new ComposeError("Global tag is not allowed: " + tag, event.getStartMark());
+            }
+        }
+    }
+
+    /** The composer's errors, raised with the same messages and marks. */
+    private static final class ComposeError extends ComposerException {
+
+        private static final long serialVersionUID = 1L;
+
+        ComposeError(Mark firstRoot, Mark another) {
+            super("expected a single document in the stream", firstRoot, "but found another document", another);
+        }
+
+        ComposeError(String problem, Mark mark) {
+            super(null, null, problem, mark);
+        }
     }
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tells what a YAML file is before it is parsed, from the shape of its path and the first
+ * top-level keys of its text, so that YAML that is not Ansible (Kubernetes manifests, CI
+ * workflows, Compose files, Helm charts and the like) is not analyzed.
+ * <p>
+ * Nothing is parsed or composed: the text is scanned line by line for top-level keys, or the
+ * keys of the first list item, within its first {@value #SCAN_LIMIT} characters. The rules
+ * are conservative. Ansible directories ({@code roles/<name>/tasks}, {@code group_vars},
+ * {@code meta/main.yml}, ...) always win over content, and a file is only {@link Kind#OTHER}
+ * when its name or keys positively identify another tool. A list whose first item is a play,
+ * or a task keyed by a fully qualified module or an include, is Ansible whatever its name or
+ * directory. Other tools' directories
+ * are matched below the workspace or analysis root when it is known, so the folders holding
+ * the project do not count. Stateless and thread-safe.
+ */
+public final class FileClassifier {
+
+    /** What a file is, and so how it is analyzed. */
+    public enum Kind {
+        /** A list of plays, or a file that cannot be placed: analyzed as a playbook. */
+        PLAYBOOK,
+        /** A list of tasks or handlers. */
+        TASKS,
+        /** A mapping of variables: role defaults and vars, group_vars, host_vars. */
+        VARS,
+        /** A role's {@code meta/main.yml}. */
+        ROLE_META,
+        /** YAML for another tool; not analyzed. */
+        OTHER;
+
+        public boolean isAnsible() {
+            return this != OTHER;
+        }
+    }
+
+    /** Characters scanned for top-level keys. */
+    static final int SCAN_LIMIT = 64 * 1024;
+
+    private static final Set<String> OTHER_NAMES = Set.of(
+            "docker-compose.yml", "docker-compose.yaml", "compose.yml", "compose.yaml",
+            "chart.yaml", "values.yaml", "values.yml", "kustomization.yaml", "kustomization.yml",
+            ".gitlab-ci.yml", ".travis.yml", "azure-pipelines.yml", "bitbucket-pipelines.yml",
+            "cloudbuild.yaml", "codecov.yml", ".pre-commit-config.yaml", ".pre-commit-hooks.yaml",
+            "mkdocs.yml", ".readthedocs.yaml", ".readthedocs.yml", "pnpm-lock.yaml", "swagger.yaml",
+            "openapi.yaml", "openapi.yml", "action.yml", "action.yaml");
+    private static final String[] OTHER_DIRECTORIES = {"/.github/", "/.gitlab/", "/.circleci/", "/templates/"};
+    private static final String[] TASK_DIRECTORIES = {"/tasks/", "/handlers/"};
+    private static final String[] VARS_DIRECTORIES = {"/group_vars/", "/host_vars/", "/defaults/", "/vars/"};
+    private static final Set<String> PLAY_KEYS = Set.of("hosts", "import_playbook", "ansible.builtin.import_playbook");
+    private static final Set<String> TASK_KEYS = Set.of("tasks", "include_tasks", "import_tasks", "include_role",
+            "import_role");
+    private static final Set<String> COMPOSE_KEYS = Set.of("version", "name", "services", "networks", "volumes",
+            "configs", "secrets", "include");
+
+    private FileClassifier() {
+    }
+
+    /**
+     * Classifies a file.
+     *
+     * @param pathOrUri the file's path or URI; may be null
+     * @param text      the file's content
+     */
+    public static Kind classify(String pathOrUri, String text) {
+        return classify(pathOrUri, pathOrUri, text);
+    }
+
+    /**
+     * Classifies a file of a workspace or analysis root. Ansible directories are matched on
+     * the whole path, but other tools' directories only below the root, so a project kept in,
+     * say, a {@code templates} folder is still analyzed.
+     *
+     * @param file the file
+     * @param root the folder holding it; may be null, in which case the whole path is matched
+     * @param text the file's content
+     */
+    public static Kind classify(Path file, Path root, String text) {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path base = root != null ? root.toAbsolutePath().normalize() : null;
+        String relative = base != null && absolute.startsWith(base) && !absolute.equals(base)
+                ? base.relativize(absolute).toString() : absolute.toString();
+        return classify(absolute.toString(), relative, text);
+    }
+
+    private static Kind classify(String pathOrUri, String relative, String text) {
+        Kind byPath = byPath(pathOrUri, relative);
+        if (byPath == null) {
+            return byContent(text);
+        }
+        if (byPath == Kind.OTHER) {
+            // A play or a module-keyed task is Ansible wherever it is kept
+            Keys keys = new Keys();
+            Kind byContent = byContent(text, keys);
+            return keys.ansible && (byContent == Kind.PLAYBOOK || byContent == Kind.TASKS) ? byContent : Kind.OTHER;
+        }
+        return byPath;
+    }
+
+    /** Ansible directories and names of other tools' files; null when the path says nothing. */
+    static Kind byPath(String pathOrUri) {
+        return byPath(pathOrUri, pathOrUri);
+    }
+
+    /**
+     * As {@link #byPath(String)}, matching other tools' directories on {@code relative}, the
+     * part of the path below the root.
+     */
+    private static Kind byPath(String pathOrUri, String relative) {
+        if (pathOrUri == null) {
+            return null;
+        }
+        String path = slashes(pathOrUri);
+        String name = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        if ((name.equals("main.yml") || name.equals("main.yaml")) && endsWithDirectory(path, name, "meta")) {
+            return Kind.ROLE_META;
+        }
+        if (containsAny(path, TASK_DIRECTORIES)) {
+            return Kind.TASKS;
+        }
+        if (containsAny(path, VARS_DIRECTORIES)) {
+            return Kind.VARS;
+        }
+        if (OTHER_NAMES.contains(name) || name.startsWith("docker-compose.") || name.startsWith("values-")
+                || containsAny(slashes(relative), OTHER_DIRECTORIES)) {
+            // Helm keeps its manifests in templates/, Ansible keeps Jinja2 (.j2) there
+            return Kind.OTHER;
+        }
+        return null;
+    }
+
+    /** The path with forward slashes, starting with one so its first directory matches too. */
+    private static String slashes(String path) {
+        String out = path.indexOf('\\') >= 0 ? path.replace('\\', '/') : path;
+        return out.startsWith("/") ? out : "/" + out;
+    }
+
+    /** Classifies by the first document's top-level keys, or its first list item's keys. */
+    static Kind byContent(String text) {
+        return byContent(text, new Keys());
+    }
+
+    private static Kind byContent(String text, Keys keys) {
+        int limit = Math.min(text.length(), SCAN_LIMIT);
+        int pos = 0;
+        int rootIndent = -1;
+        boolean sequence = false;
+        while (pos < limit) {
+            int end = lineEnd(text, pos, limit);
+            int indent = indentOf(text, pos, end);
+            int content = pos + indent;
+            if (content >= end || text.charAt(content) == '#' || text.charAt(content) == '%') {
+                pos = end + 1;
+                continue;
+            }
+            if (indent == 0 && (text.startsWith("---", pos) || text.startsWith("...", pos))) {
+                if (rootIndent >= 0) {
+                    // End of the first document
+                    break;
+                }
+                content = skipSpaces(text, pos + 3, end);
+                if (content >= end || text.charAt(content) == '#') {
+                    pos = end + 1;
+                    continue;
+                }
+                indent = content - pos;
+            }
+            if (rootIndent < 0) {
+                char c = text.charAt(content);
+                if (c == '-' && (content + 1 == end || text.charAt(content + 1) == ' ')) {
+                    sequence = true;
+                    keys.item = true;
+                    rootIndent = indent;
+                    keys.add(text, skipSpaces(text, content + 1, end), end);
+                } else if (c == '{' && content + 1 < end && (text.charAt(content + 1) == '{'
+                        || text.charAt(content + 1) == '%')) {
+                    // A Go or Jinja2 template line where YAML should start: a Helm manifest
+                    return text.indexOf(".Values", content) >= 0 || text.indexOf(".Release", content) >= 0
+                            ? Kind.OTHER : Kind.PLAYBOOK;
+                } else if (keys.add(text, content, end)) {
+                    rootIndent = indent;
+                } else {
+                    return Kind.PLAYBOOK;
+                }
+            } else if (sequence) {
+                if (indent <= rootIndent) {
+                    // Only the first item is read
+                    break;
+                }
+                if (indent == rootIndent + 2) {
+                    keys.add(text, content, end);
+                }
+            } else if (indent == rootIndent) {
+                keys.add(text, content, end);
+            } else if (indent < rootIndent) {
+                break;
+            }
+            pos = end + 1;
+        }
+        if (rootIndent < 0) {
+            return Kind.PLAYBOOK;
+        }
+        if (sequence) {
+            return keys.play ? Kind.PLAYBOOK : Kind.TASKS;
+        }
+        return keys.kind(text, limit);
+    }
+
+    /** Top-level keys seen, reduced to what the classification needs. */
+    private static final class Keys {
+
+        boolean item;
+        boolean play;
+        boolean ansible;
+        boolean apiVersion;
+        boolean kind;
+        boolean jobs;
+        boolean on;
+        boolean services;
+        boolean composeOnly = true;
+        boolean otherFormat;
+        boolean galaxyInfo;
+
+        /** Records the key of a {@code key: value} line; false if the line has none. */
+        boolean add(String text, int start, int end) {
+            if (start >= end) {
+                return false;
+            }
+            int colon = keyEnd(text, start, end);
+            if (colon < 0) {
+                return false;
+            }
+            int from = start;
+            int to = colon;
+            if (to - from >= 2 && (text.charAt(from) == '"' || text.charAt(from) == '\'')
+                    && text.charAt(to - 1) == text.charAt(from)) {
+                from++;
+                to--;
+            }
+            String key = text.substring(from, to);
+            play |= PLAY_KEYS.contains(key);
+            ansible |= item && (PLAY_KEYS.contains(key) || TASK_KEYS.contains(key) || isModule(key));
+            apiVersion |= key.equals("apiVersion");
+            kind |= key.equals("kind");
+            jobs |= key.equals("jobs");
+            on |= key.equals("on");
+            services |= key.equals("services");
+            composeOnly &= COMPOSE_KEYS.contains(key) || key.startsWith("x-");
+            otherFormat |= key.equals("openapi") || key.equals("swagger") || key.equals("AWSTemplateFormatVersion");
+            galaxyInfo |= key.equals("galaxy_info");
+            return true;
+        }
+
+        Kind kind(String text, int limit) {
+            if (galaxyInfo) {
+                return Kind.ROLE_META;
+            }
+            if ((apiVersion && kind) || (jobs && on) || otherFormat) {
+                return Kind.OTHER;
+            }
+            // A vars file may well have a services variable; Compose services have images or builds
+            if (services && composeOnly && (contains(text, "image:", limit) || contains(text, "build:", limit))) {
+                return Kind.OTHER;
+            }
+            return Kind.VARS;
+        }
+    }
+
+    /** A fully qualified module name, {@code namespace.collection.module}. */
+    private static boolean isModule(String key) {
+        int first = key.indexOf('.');
+        int second = first > 0 ? key.indexOf('.', first + 1) : -1;
+        if (second <= first + 1 || second == key.length() - 1 || key.indexOf('.', second + 1) >= 0) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '.' && c != '_' && !(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The end of a plain or quoted mapping key on the line, or -1. */
+    private static int keyEnd(String text, int start, int end) {
+        char first = text.charAt(start);
+        int i = start;
+        if (first == '"' || first == '\'') {
+            int close = text.indexOf(first, start + 1);
+            if (close < 0 || close >= end) {
+                return -1;
+            }
+            i = close + 1;
+            return i < end && text.charAt(i) == ':' && (i + 1 == end || text.charAt(i + 1) == ' ') ? i : -1;
+        }
+        if (first == '[' || first == '{' || first == '&' || first == '*' || first == '!' || first == '|'
+                || first == '>' || first == '?') {
+            return -1;
+        }
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ':' && (i + 1 == end || text.charAt(i + 1) == ' ' || text.charAt(i + 1) == '\t')) {
+                return i > start ? i : -1;
+            }
+            if (c == '#' && i > start && text.charAt(i - 1) == ' ') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(String text, String word, int limit) {
+        int found = text.indexOf(word);
+        return found >= 0 && found < limit;
+    }
+
+    private static int lineEnd(String text, int pos, int limit) {
+        int end = text.indexOf('\n', pos);
+        if (end < 0 || end > limit) {
+            end = limit;
+        }
+        return end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static int indentOf(String text, int pos, int end) {
+        int i = pos;
+        while (i < end && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i - pos;
+    }
+
+    private static int skipSpaces(String text, int pos, int end) {
+        while (pos < end && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean endsWithDirectory(String path, String name, String directory) {
+        int slash = path.length() - name.length() - 1;
+        if (slash < directory.length() || path.charAt(slash) != '/') {
+            return false;
+        }
+        int start = slash - directory.length();
+        return path.regionMatches(true, start, directory, 0, directory.length())
+                && (start == 0 || path.charAt(start - 1) == '/');
+    }
+
+    private static boolean containsAny(String path, String[] directories) {
+        for (String directory : directories) {
+            if (path.contains(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
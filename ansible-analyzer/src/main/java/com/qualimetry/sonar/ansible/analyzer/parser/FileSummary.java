@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a workspace index keeps of a parsed file: play names, task names, the modules used,
+ * the roles referenced, the files included or imported and the handlers defined. Covers
+ * playbooks and task files (whose top-level items are tasks rather than plays). Lists are
+ * immutable; modules, roles, includes and handlers are distinct, in order of first appearance.
+ *
+ * @param plays     play names, empty for unnamed plays
+ * @param taskNames names of named tasks, including tasks inside blocks
+ * @param modules   module keys (FQCN or short name)
+ * @param roles     roles from {@code roles:} and {@code include_role}/{@code import_role}, or the
+ *                  {@code dependencies} of a role's {@code meta/main.yml}
+ * @param includes  paths of {@code include_tasks}, {@code import_tasks}, {@code import_playbook}
+ *                  and {@code include}, as written
+ * @param handlers  names and {@code listen} topics of the plays' handlers, or of every task of a
+ *                  file in a {@code handlers} directory
+ */
+public record FileSummary(List<String> plays, List<String> taskNames, List<String> modules,
+                          List<String> roles, List<String> includes, List<String> handlers) {
+
+    public static final FileSummary EMPTY = new FileSummary(List.of(), List.of(), List.of(), List.of(), List.of());
+
+    private static final List<String> INCLUDE_KEYS = List.of("include_tasks", "import_tasks", "import_playbook",
+            "include");
+    private static final List<String> ROLE_KEYS = List.of("include_role", "import_role");
+
+    /** Fixed cost of a summary: the record, six lists and the index entry holding it. */
+    private static final long OVERHEAD = 256;
+    private static final long BYTES_PER_STRING = 48;
+
+    public FileSummary {
+        plays = List.copyOf(plays);
+        taskNames = List.copyOf(taskNames);
+        modules = List.copyOf(modules);
+        roles = List.copyOf(roles);
+        includes = List.copyOf(includes);
+        handlers = List.copyOf(handlers);
+    }
+
+    public FileSummary(List<String> plays, List<String> taskNames, List<String> modules, List<String> roles,
+                       List<String> includes) {
+        this(plays, taskNames, modules, roles, includes, List.of());
+    }
+
+    /**
+     * Summarizes a parsed file. A file that failed to parse summarizes as {@link #EMPTY}.
+     */
+    public static FileSummary of(PlaybookFile file) {
+        if (file == null || file.parseError() != null) {
+            return EMPTY;
+        }
+        Collector collector = new Collector();
+        for (Play play : file.plays()) {
+            collector.plays.add(play.name() != null ? play.name() : "");
+            for (RoleRef role : play.roles()) {
+                collector.roles.add(role.roleName());
+            }
+            for (Task task : play.tasks()) {
+                collector.task(task.name(), task.moduleKey(), task.attributes());
+            }
+            for (Task handler : play.handlers()) {
+                collector.handlers.addAll(HandlerIndex.topics(handler.attributes()));
+            }
+        }
+        DocumentRoot root = file.root();
+        if (root != null && root.mapping() != null && inDirectory(file.uri(), "meta")) {
+            collector.dependencies(root.mapping().get("dependencies"));
+        }
+        if (root != null) {
+            collector.inHandlersDirectory = inDirectory(file.uri(), "handlers");
+            for (DocumentRoot.Item item : root.items()) {
+                if (item.value() instanceof Map<?, ?> map && !AnsibleParser.looksLikePlay(cast(map))) {
+                    collector.taskTree(cast(map));
+                }
+            }
+        }
+        return new FileSummary(collector.plays, collector.taskNames, new ArrayList<>(collector.modules),
+                new ArrayList<>(collector.roles), new ArrayList<>(collector.includes),
+                new ArrayList<>(collector.handlers));
+    }
+
+    /**
+     * Estimates the heap the summary retains, for bounding an index.
+     */
+    public long estimatedBytes() {
+        long bytes = OVERHEAD;
+        for (List<String> list : List.of(plays, taskNames, modules, roles, includes, handlers)) {
+            for (String s : list) {
+                bytes += BYTES_PER_STRING + s.length();
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean inDirectory(String uri, String name) {
+        Path path = uri != null ? ProjectGraph.pathOf(uri) : null;
+        Path directory = path != null ? path.getParent() : null;
+        return directory != null && directory.getFileName() != null
+                && directory.getFileName().toString().equals(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+
+    private static final class Collector {
+
+        final List<String> plays = new ArrayList<>();
+        final List<String> taskNames = new ArrayList<>();
+        final Set<String> modules = new LinkedHashSet<>();
+        final Set<String> roles = new LinkedHashSet<>();
+        final Set<String> includes = new LinkedHashSet<>();
+        final Set<String> handlers = new LinkedHashSet<>();
+        boolean inHandlersDirectory;
+
+        /** A top-level item of a task file, which may be a block. */
+        void taskTree(Map<String, Object> map) {
+            if (map.get("block") instanceof List<?> block) {
+                for (Object child : block) {
+                    if (child instanceof Map<?, ?> childMap) {
+                        taskTree(cast(childMap));
+                    }
+                }
+                return;
+            }
+            if (inHandlersDirectory) {
+                handlers.addAll(HandlerIndex.topics(map));
+            }
+            Object name = map.get("name");
+            task(name instanceof String s ? s : null, AnsibleParser.inferModuleKey(map), map);
+        }
+
+        /** Role dependencies, written as names or as maps with {@code role} or {@code name}. */
+        void dependencies(Object value) {
+            if (!(value instanceof List<?> list)) {
+                return;
+            }
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> map) {
+                    item = map.get("role") != null ? map.get("role") : map.get("name");
+                }
+                if (item instanceof String role && !role.isBlank()) {
+                    roles.add(role.strip());
+                }
+            }
+        }
+
+        void task(String name, String moduleKey, Map<String, Object> attributes) {
+            if (name != null) {
+                taskNames.add(name);
+            }
+            for (String key : INCLUDE_KEYS) {
+                String path = path(attributes.get(key));
+                if (path != null) {
+                    includes.add(path);
+                }
+            }
+            for (String key : ROLE_KEYS) {
+                if (attributes.get(key) instanceof Map<?, ?> args && args.get("name") instanceof String role) {
+                    roles.add(role.strip());
+                }
+            }
+            if (moduleKey != null && !isInclude(moduleKey)) {
+                modules.add(moduleKey);
+            }
+        }
+
+        /** The parser reports {@code include} and {@code import_playbook} as "key:path". */
+        private static boolean isInclude(String moduleKey) {
+            return moduleKey.equals("include") || moduleKey.startsWith("include:")
+                    || moduleKey.equals("import_playbook") || moduleKey.startsWith("import_playbook:");
+        }
+
+        /** The path of an include, written inline or as {@code file:}. */
+        private static String path(Object value) {
+            if (value instanceof Map<?, ?> args) {
+                value = args.get("file");
+            }
+            if (value instanceof String s && !s.isBlank()) {
+                return s.strip();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The variables a file defines and the variables it reads.
+ * <p>
+ * Definitions come from {@code vars} of plays, blocks and tasks, {@code vars_prompt},
+ * {@code register}, {@code set_fact}, {@code loop_control.loop_var}, {@code include_vars}
+ * with {@code name}, and the top-level keys of vars files (documents whose root is a
+ * mapping: role defaults and vars, group_vars, host_vars and files loaded with
+ * {@code vars_files} or {@code include_vars}). References are the names read by Jinja2
+ * expressions in any value, and by the bare expressions of {@code when},
+ * {@code changed_when}, {@code failed_when}, {@code until}, {@code that} and
+ * {@code debug: var}.
+ *
+ * @param definitions where variables are defined, in document order
+ * @param references  where variables are read, in document order
+ */
+public record FileVariables(List<Definition> definitions, List<Reference> references) {
+
+    public static final FileVariables EMPTY = new FileVariables(List.of(), List.of());
+
+    private static final Set<String> TASK_LIST_KEYS = Set.of("tasks", "pre_tasks", "post_tasks", "handlers",
+            "block", "rescue", "always");
+    private static final Set<String> ROLE_KEYS = Set.of("roles", "include_role", "import_role",
+            "ansible.builtin.include_role", "ansible.builtin.import_role");
+    /** Keys of a {@code roles:} entry that are keywords rather than role parameters. */
+    private static final Set<String> ROLE_ENTRY_KEYWORDS = Set.of("role", "name", "vars", "tags", "when",
+            "become", "become_user", "become_method", "environment", "delegate_to", "ignore_errors",
+            "any_errors_fatal", "no_log", "check_mode", "collections");
+
+    public FileVariables {
+        definitions = List.copyOf(definitions);
+        references = List.copyOf(references);
+    }
+
+    /**
+     * A variable definition.
+     *
+     * @param name     variable name
+     * @param range    source range of the key or value that defines it, or null
+     * @param declared whether it is declared in {@code vars} or a role's defaults or vars, where
+     *                 an unread variable is dead code; variables passed to roles and includes,
+     *                 registered results, facts and loop variables are not
+     */
+    public record Definition(String name, TextRange range, boolean declared) {
+    }
+
+    /**
+     * A variable read.
+     *
+     * @param name    variable name (the first name of {@code a.b[c]})
+     * @param range   source range of the value that reads it, or null
+     * @param guarded whether an undefined value is handled, with {@code default} or an
+     *                {@code is defined} test
+     */
+    public record Reference(String name, TextRange range, boolean guarded) {
+    }
+
+    /**
+     * Collects the variables of a parsed file. A file that failed to parse has none.
+     */
+    public static FileVariables of(PlaybookFile file) {
+        return of(file, new JinjaCache());
+    }
+
+    /**
+     * Collects the variables of a parsed file, tokenizing its templates through the cache of
+     * the analysis.
+     */
+    public static FileVariables of(PlaybookFile file, JinjaCache jinja) {
+        if (file == null || file.parseError() != null || file.root() == null) {
+            return EMPTY;
+        }
+        Collector collector = new Collector(jinja);
+        DocumentRoot root = file.root();
+        if (root.mapping() != null) {
+            collector.varsFile(root.mapping(), isRoleVarsFile(file.uri()));
+        }
+        for (DocumentRoot.Item item : root.items()) {
+            if (item.value() instanceof Map<?, ?> map) {
+                Map<String, Object> m = cast(map);
+                if (AnsibleParser.looksLikePlay(m)) {
+                    collector.play(m);
+                } else {
+                    collector.task(m);
+                }
+            }
+        }
+        return new FileVariables(collector.definitions, collector.references);
+    }
+
+    /**
+     * Collects the variables read by a Jinja2 template file. Templates define none that
+     * outlive them, and ranges are not recorded.
+     */
+    public static FileVariables ofTemplate(String text) {
+        List<Reference> references = new ArrayList<>();
+        JinjaNames.scan(JinjaTokens.template(text), (name, guarded) -> references.add(new Reference(name, null, guarded)));
+        return new FileVariables(List.of(), references);
+    }
+
+    /** Files under a role's defaults or vars directory. */
+    private static boolean isRoleVarsFile(String uri) {
+        if (uri == null) {
+            return false;
+        }
+        String path = uri.replace('\\', '/');
+        int roles = path.lastIndexOf("/roles/");
+        return roles >= 0 && (path.indexOf("/defaults/", roles) >= 0 || path.indexOf("/vars/", roles) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+
+    private static final class Collector {
+
+        final List<Definition> definitions = new ArrayList<>();
+        final List<Reference> references = new ArrayList<>();
+        private final JinjaCache jinja;
+
+        Collector(JinjaCache jinja) {
+            this.jinja = jinja;
+        }
+
+        void varsFile(Map<String, Object> mapping, boolean declared) {
+            if (mapping.containsKey("galaxy_info") || mapping.containsKey("argument_specs")) {
+                return;
+            }
+            defineKeys(mapping, declared);
+            values(mapping);
+        }
+
+        void play(Map<String, Object> play) {
+            boolean usesRoles = play.get("roles") instanceof List<?> roles && !roles.isEmpty()
+                    || usesRoles(play);
+            for (Map.Entry<String, Object> entry : play.entrySet()) {
+                Object value = entry.getValue();
+                switch (entry.getKey()) {
+                    case "vars" -> {
+                        if (value instanceof Map<?, ?> vars) {
+                            defineKeys(cast(vars), !usesRoles);
+                            values(cast(vars));
+                        }
+                    }
+                    case "vars_prompt" -> {
+                        if (value instanceof List<?> prompts) {
+                            for (Object prompt : prompts) {
+                                if (prompt instanceof Map<?, ?> p) {
+                                    defineValue(cast(p), "name");
+                                }
+                            }
+                        }
+                    }
+                    case "tasks", "pre_tasks", "post_tasks", "handlers" -> tasks(value);
+                    case "roles" -> {
+                        roles(value);
+                        value(value, entry.getKey(), YamlTree.valueRange(play, entry.getKey()));
+                    }
+                    default -> value(value, entry.getKey(), YamlTree.valueRange(play, entry.getKey()));
+                }
+            }
+        }
+
+        /** Parameters passed to roles, as entry keys or under {@code vars}. */
+        void roles(Object value) {
+            if (!(value instanceof List<?> list)) {
+                return;
+            }
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> map) {
+                    Map<String, Object> entry = cast(map);
+                    for (String name : entry.keySet()) {
+                        if (!ROLE_ENTRY_KEYWORDS.contains(name)) {
+                            define(name, YamlTree.keyRange(entry, name), false);
+                        }
+                    }
+                    if (entry.get("vars") instanceof Map<?, ?> vars) {
+                        defineKeys(cast(vars), false);
+                    }
+                }
+            }
+        }
+
+        void tasks(Object value) {
+            if (value instanceof List<?> list) {
+                for (Object item : list) {
+                    if (item instanceof Map<?, ?> map) {
+                        task(cast(map));
+                    }
+                }
+            }
+        }
+
+        void task(Map<String, Object> task) {
+            boolean passesVars = task.keySet().stream().anyMatch(k -> ROLE_KEYS.contains(k)
+                    || k.endsWith("include_tasks") || k.endsWith("import_tasks") || k.endsWith("import_playbook"));
+            for (Map.Entry<String, Object> entry : task.entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if (TASK_LIST_KEYS.contains(key)) {
+                    tasks(value);
+                } else if (key.equals("vars") && value instanceof Map<?, ?> vars) {
+                    defineKeys(cast(vars), !passesVars);
+                    values(cast(vars));
+                } else if (key.equals("register")) {
+                    defineValue(task, "register");
+                } else if (key.equals("loop_control") && value instanceof Map<?, ?> control) {
+                    defineValue(cast(control), "loop_var");
+                    values(cast(control));
+                } else if (isModule(key, "set_fact") && value instanceof Map<?, ?> facts) {
+                    Map<String, Object> f = cast(facts);
+                    for (String name : f.keySet()) {
+                        if (!name.equals("cacheable")) {
+                            define(name, YamlTree.keyRange(f, name), false);
+                        }
+                    }
+                    values(f);
+                } else if (isModule(key, "include_vars") && value instanceof Map<?, ?> args) {
+                    defineValue(cast(args), "name");
+                    values(cast(args));
+                } else if (isModule(key, "debug") && value instanceof Map<?, ?> args) {
+                    Map<String, Object> a = cast(args);
+                    if (a.get("var") instanceof String var) {
+                        scan(jinja.expression(var), YamlTree.valueRange(a, "var"));
+                    }
+                    values(a);
+                } else {
+                    value(value, key, YamlTree.valueRange(task, key));
+                }
+            }
+        }
+
+        private static boolean usesRoles(Map<String, Object> play) {
+            for (String key : List.of("tasks", "pre_tasks", "post_tasks")) {
+                if (play.get(key) instanceof List<?> tasks) {
+                    for (Object task : tasks) {
+                        if (task instanceof Map<?, ?> map && map.keySet().stream().anyMatch(ROLE_KEYS::contains)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean isModule(String key, String module) {
+            return key.equals(module) || key.equals("ansible.builtin." + module) || key.equals("ansible.legacy." + module);
+        }
+
+        private void defineKeys(Map<String, Object> vars, boolean declared) {
+            for (String name : vars.keySet()) {
+                define(name, YamlTree.keyRange(vars, name), declared);
+            }
+        }
+
+        private void defineValue(Map<String, Object> map, String key) {
+            if (map.get(key) instanceof String name) {
+                define(name.strip(), YamlTree.valueRange(map, key), false);
+            }
+        }
+
+        private void define(String name, TextRange range, boolean declared) {
+            if (JinjaNames.isIdentifier(name)) {
+                definitions.add(new Definition(name, range, declared));
+            }
+        }
+
+        /** Scans every value of the mapping for template references. */
+        private void values(Map<String, Object> map) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                value(entry.getValue(), entry.getKey(), YamlTree.valueRange(map, entry.getKey()));
+            }
+        }
+
+        /**
+         * Scans a value for references: templates anywhere, bare expressions under the
+         * conditional keys.
+         */
+        private void value(Object value, String key, TextRange range) {
+            if (value instanceof String s) {
+                JinjaTokens tokens = jinja.value(key, s);
+                if (tokens != null) {
+                    scan(tokens, range);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                values(cast(map));
+            } else if (value instanceof List<?> list) {
+                for (int i = 0; i < list.size(); i++) {
+                    TextRange itemRange = list instanceof YamlTree.Sequence seq ? seq.range(i) : range;
+                    value(list.get(i), key, itemRange);
+                }
+            }
+        }
+
+        private void scan(JinjaTokens tokens, TextRange range) {
+            JinjaNames.scan(tokens, (name, guarded) -> references.add(new Reference(name, range, guarded)));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The handler names and {@code listen} topics a {@code notify} can name, hashed so that each
+ * notification is matched in constant time however many handlers a play or role has.
+ * <p>
+ * An index is incomplete when some of the handlers cannot be known from the files at hand:
+ * handlers included or imported from other files, templated names, or roles whose handlers
+ * were not indexed. Unmatched notifications should only be reported against a complete index.
+ * Immutable.
+ */
+public final class HandlerIndex {
+
+    /** No handlers, known to be none. */
+    public static final HandlerIndex EMPTY = new HandlerIndex(Set.of(), true);
+    /** Handlers that could not be determined. */
+    public static final HandlerIndex UNKNOWN = new HandlerIndex(Set.of(), false);
+
+    private static final Set<String> INCLUDE_KEYS = Set.of("include", "include_tasks", "import_tasks",
+            "ansible.builtin.include_tasks", "ansible.builtin.import_tasks");
+
+    private final Set<String> topics;
+    private final boolean complete;
+
+    private HandlerIndex(Set<String> topics, boolean complete) {
+        this.topics = topics;
+        this.complete = complete;
+    }
+
+    /**
+     * Indexes handler tasks by name and {@code listen} topics.
+     */
+    public static HandlerIndex of(Collection<Task> handlers) {
+        if (handlers.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> topics = new HashSet<>();
+        boolean complete = true;
+        for (Task handler : handlers) {
+            Map<String, Object> attributes = handler.attributes();
+            for (String key : INCLUDE_KEYS) {
+                if (attributes.containsKey(key)) {
+                    complete = false;
+                }
+            }
+            for (String topic : topics(attributes)) {
+                complete &= !topic.contains("{{");
+                topics.add(topic);
+            }
+        }
+        return new HandlerIndex(topics, complete);
+    }
+
+    /**
+     * Indexes names and topics collected elsewhere, such as from a {@link FileSummary}.
+     */
+    public static HandlerIndex ofTopics(Collection<String> topics) {
+        return topics.isEmpty() ? EMPTY : new HandlerIndex(Set.copyOf(topics), true);
+    }
+
+    /**
+     * Returns an index of the handlers of both indexes, complete only if both are.
+     */
+    public HandlerIndex with(HandlerIndex other) {
+        if (other.topics.isEmpty() && (other.complete || !complete)) {
+            return this;
+        }
+        if (topics.isEmpty() && (complete || !other.complete)) {
+            return other;
+        }
+        Set<String> merged = new HashSet<>(topics);
+        merged.addAll(other.topics);
+        return new HandlerIndex(merged, complete && other.complete);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int size() {
+        return topics.size();
+    }
+
+    /**
+     * Returns whether a handler has the name or listens to the topic. A name qualified with its
+     * role ({@code "role : handler"}) also matches the handler's own name.
+     */
+    public boolean handles(String notification) {
+        if (topics.contains(notification)) {
+            return true;
+        }
+        int separator = notification.lastIndexOf(" : ");
+        return separator >= 0 && topics.contains(notification.substring(separator + 3));
+    }
+
+    /**
+     * Returns a handler's name and the topics it listens to, in that order.
+     */
+    public static List<String> topics(Map<String, Object> handler) {
+        List<String> out = new ArrayList<>(2);
+        if (handler.get("name") instanceof String name && !name.isBlank()) {
+            out.add(name);
+        }
+        out.addAll(strings(handler.get("listen")));
+        return out;
+    }
+
+    private static List<String> strings(Object value) {
+        if (value instanceof String s) {
+            return s.isBlank() ? List.of() : List.of(s);
+        }
+        if (value instanceof List<?> list) {
+            List<String> out = new ArrayList<>(list.size());
+            for (Object item : list) {
+                if (item instanceof String s && !s.isBlank()) {
+                    out.add(s);
+                }
+            }
+            return out;
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-parses an edited playbook by composing only the top-level list items that changed.
+ * <p>
+ * The document is split into top-level items (lines starting with "- " at column 0). Items
+ * whose text is identical to an item of the previous parse reuse its Play record, shifted
+ * when the edit moved it up or down; the remaining items are composed on their own and the
+ * result is spliced into a new PlaybookFile. Anything the splitter cannot prove safe
+ * (documents that are not a plain block sequence, multiple documents, an item that fails
+ * to compose alone) falls back to a full {@link AnsibleParser#parse}.
+ * <p>
+ * Keeps state from the previous call, so use one instance per document and do not share
+ * it between threads.
+ */
+public class IncrementalParser {
+
+    private final AnsibleParser parser;
+    private List<Segment> segments;
+
+    public IncrementalParser() {
+        this(new AnsibleParser());
+    }
+
+    public IncrementalParser(AnsibleParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Parses the new content of the document, reusing the plays of unchanged items.
+     *
+     * @param uri     file URI or path
+     * @param content full document content after the edit
+     * @return the same result {@link AnsibleParser#parse} would return for the content
+     */
+    public PlaybookFile parse(String uri, String content) {
+        List<Segment> current = content != null ? split(content) : null;
+        if (current == null || current.isEmpty() || segments == null) {
+            return fullParse(uri, content, current);
+        }
+
+        List<Segment> previous = segments;
+        int max = Math.min(previous.size(), current.size());
+        int prefix = 0;
+        while (prefix < max && previous.get(prefix).text().equals(current.get(prefix).text())) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && previous.get(previous.size() - 1 - suffix).text()
+                        .equals(current.get(current.size() - 1 - suffix).text())) {
+            suffix++;
+        }
+        if (prefix + suffix == 0
+                || mayDefineAnchor(previous.subList(prefix, previous.size() - suffix))
+                || mayDefineAnchor(current.subList(prefix, current.size() - suffix))) {
+            return fullParse(uri, content, current);
+        }
+
+        List<Segment> next = new ArrayList<>(current.size());
+        List<Play> plays = new ArrayList<>();
+        List<DocumentRoot.Item> items = new ArrayList<>(current.size());
+        for (int i = 0; i < current.size(); i++) {
+            Segment seg = current.get(i);
+            DocumentRoot.Item item;
+            Play play;
+            if (i < prefix || i >= current.size() - suffix) {
+                Segment old = i < prefix ? previous.get(i) : previous.get(i - current.size() + previous.size());
+                item = shift(old.item(), seg.line() - old.line(), seg.offset() - old.offset());
+                play = shift(old.play(), seg.line() - old.line(), seg.offset() - old.offset());
+            } else {
+                try {
+                    AnsibleParser.ParsedItem parsed = parser.parseItem(seg.text());
+                    item = shift(parsed.item(), seg.line() - 1, seg.offset());
+                    play = shift(parsed.play(), seg.line() - 1, seg.offset());
+                } catch (YAMLException e) {
+                    return fullParse(uri, content, current);
+                }
+            }
+            next.add(new Segment(seg.line(), seg.offset(), seg.text(), item, play));
+            items.add(item);
+            if (play != null) {
+                plays.add(play);
+            }
+        }
+        segments = next;
+        return new PlaybookFile(plays, uri, null, new DocumentRoot(DocumentRoot.Kind.SEQUENCE, items));
+    }
+
+    /**
+     * Parses the whole document and, when it splits into items, records which play came
+     * from which item so the next call can reuse them.
+     */
+    private PlaybookFile fullParse(String uri, String content, List<Segment> current) {
+        PlaybookFile result = parser.parse(uri, content);
+        segments = result.parseError() == null && current != null && !current.isEmpty()
+                && result.root() != null && result.root().items().size() == current.size()
+                ? assignPlays(current, result.root().items(), result.plays())
+                : null;
+        return result;
+    }
+
+    private static List<Segment> assignPlays(List<Segment> current, List<DocumentRoot.Item> items, List<Play> plays) {
+        List<Segment> out = new ArrayList<>(current.size());
+        int p = 0;
+        for (int i = 0; i < current.size(); i++) {
+            Segment seg = current.get(i);
+            int nextLine = i + 1 < current.size() ? current.get(i + 1).line() : Integer.MAX_VALUE;
+            Play play = null;
+            if (p < plays.size() && plays.get(p).line() >= seg.line() && plays.get(p).line() < nextLine) {
+                play = plays.get(p++);
+            }
+            out.add(new Segment(seg.line(), seg.offset(), seg.text(), items.get(i), play));
+        }
+        return p == plays.size() ? out : null;
+    }
+
+    /**
+     * Splits content into top-level list items. Returns null when the document is not a
+     * plain block sequence at column 0 (e.g. a mapping root, a second document, a directive,
+     * or unindented content that belongs to a multi-line scalar).
+     */
+    static List<Segment> split(String content) {
+        List<Segment> out = new ArrayList<>();
+        int len = content.length();
+        int segStart = -1;
+        int segLine = 0;
+        boolean seenDocumentStart = false;
+        int pos = 0;
+        int line = 1;
+        while (pos < len) {
+            int eol = content.indexOf('\n', pos);
+            int lineEnd = eol < 0 ? len : eol;
+            char c = content.charAt(pos);
+            if (c == '-' && (pos + 1 == lineEnd || isSpace(content.charAt(pos + 1)))) {
+                if (segStart >= 0) {
+                    out.add(new Segment(segLine, segStart, content.substring(segStart, pos), null, null));
+                }
+                segStart = pos;
+                segLine = line;
+            } else if (c == '-' && content.startsWith("---", pos)) {
+                if (segStart >= 0 || seenDocumentStart || !isBlankOrComment(content, pos + 3, lineEnd)) {
+                    return null;
+                }
+                seenDocumentStart = true;
+            } else if (c == ' ' || c == '\r') {
+                if (segStart < 0 && !isBlankOrComment(content, pos, lineEnd)) {
+                    return null;
+                }
+            } else if (c != '#' && c != '\n') {
+                return null;
+            }
+            pos = lineEnd + 1;
+            line++;
+        }
+        if (segStart >= 0) {
+            out.add(new Segment(segLine, segStart, content.substring(segStart), null, null));
+        }
+        return out;
+    }
+
+    /**
+     * An anchor in an edited item may be referenced by an alias in an unchanged one, so
+     * any '&amp;' that is not part of "&amp;&amp;" forces a full parse.
+     */
+    private static boolean mayDefineAnchor(List<Segment> changed) {
+        for (Segment seg : changed) {
+            String text = seg.text();
+            for (int i = text.indexOf('&'); i >= 0; i = text.indexOf('&', i + 2)) {
+                if (i + 1 >= text.length() || text.charAt(i + 1) != '&') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isBlankOrComment(String content, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = content.charAt(i);
+            if (c == '#') return true;
+            if (!isSpace(c)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves an item's line by delta and its ranges by offsetDelta characters.
+     */
+    private static DocumentRoot.Item shift(DocumentRoot.Item item, int delta, int offsetDelta) {
+        if (delta == 0 && offsetDelta == 0) {
+            return item;
+        }
+        return new DocumentRoot.Item(YamlTree.shiftNode(item.value(), offsetDelta), item.line() + delta);
+    }
+
+    /**
+     * Moves a play's lines by delta and its task and handler attribute ranges by offsetDelta characters.
+     */
+    private static Play shift(Play play, int delta, int offsetDelta) {
+        if (play == null || (delta == 0 && offsetDelta == 0)) {
+            return play;
+        }
+        List<RoleRef> roles = new ArrayList<>(play.roles().size());
+        for (RoleRef role : play.roles()) {
+            roles.add(new RoleRef(role.roleName(), role.line() + delta));
+        }
+        return new Play(play.name(), shift(play.tasks(), delta, offsetDelta), roles, play.line() + delta,
+                play.tags(), shift(play.handlers(), delta, offsetDelta));
+    }
+
+    private static List<Task> shift(List<Task> tasks, int delta, int offsetDelta) {
+        List<Task> out = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            out.add(new Task(task.name(), task.moduleKey(), task.line() + delta,
+                    YamlTree.shift(task.attributes(), offsetDelta)));
+        }
+        return out;
+    }
+
+    /**
+     * One top-level list item: its 1-based start line, its start offset in the document, its
+     * exact text, and the item and play it produced (null if not parsed yet; the play is
+     * also null if the item is not a play).
+     */
+    record Segment(int line, int offset, String text, DocumentRoot.Item item, Play play) {
+    }
+}
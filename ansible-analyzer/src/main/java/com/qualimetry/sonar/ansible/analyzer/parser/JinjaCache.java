@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token streams of the scalars of one analysis, so that each templated scalar is tokenized
+ * once however many rules read it. Scalars are keyed by their text; text that is not
+ * templated is answered without tokenizing. Not thread-safe: one cache per analysis.
+ */
+public final class JinjaCache {
+
+    private final Map<String, JinjaTokens> templates = new HashMap<>();
+    private final Map<String, JinjaTokens> expressions = new HashMap<>();
+
+    /**
+     * Returns the tokens of a scalar read as a template, or null if it has no Jinja2
+     * delimiters.
+     */
+    public JinjaTokens template(String text) {
+        if (!isTemplated(text)) {
+            return null;
+        }
+        return templates.computeIfAbsent(text, JinjaTokens::template);
+    }
+
+    /**
+     * Returns the tokens of a scalar read as a bare expression, such as the value of
+     * {@code when}.
+     */
+    public JinjaTokens expression(String text) {
+        return expressions.computeIfAbsent(text, JinjaTokens::expression);
+    }
+
+    /**
+     * Returns the tokens of a value of the given key: an expression for the conditional keys
+     * ({@link #isExpressionKey}), otherwise a template or null.
+     */
+    public JinjaTokens value(String key, String text) {
+        return isExpressionKey(key) ? expression(text) : template(text);
+    }
+
+    /** Number of distinct scalars tokenized. */
+    public int size() {
+        return templates.size() + expressions.size();
+    }
+
+    /**
+     * Whether values of the key are bare Jinja2 expressions rather than templates:
+     * {@code when}, {@code changed_when}, {@code failed_when}, {@code until} and {@code that}.
+     */
+    public static boolean isExpressionKey(String key) {
+        return switch (key) {
+            case "when", "changed_when", "failed_when", "until", "that" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether the text contains Jinja2 delimiters at all.
+     */
+    public static boolean isTemplated(String text) {
+        for (int i = text.indexOf('{'); i >= 0 && i + 1 < text.length(); i = text.indexOf('{', i + 1)) {
+            char next = text.charAt(i + 1);
+            if (next == '{' || next == '%' || next == '#') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the variables a Jinja2 template or expression reads, from its {@link JinjaTokens}. A
+ * name counts when it starts a value: attributes ({@code a.b}), filters ({@code | name}),
+ * tests ({@code is name}), functions ({@code name(}), keyword arguments and names bound by
+ * {@code for}, {@code set} and {@code macro} in the same text are left out. A reference is
+ * guarded when it is filtered through {@code default} or tested with {@code defined},
+ * {@code undefined} or {@code none}, so an undefined value does not fail.
+ */
+final class JinjaNames {
+
+    private static final Set<String> KEYWORDS = Set.of("and", "or", "not", "in", "is", "if", "else", "true",
+            "false", "none", "True", "False", "None", "recursive", "with", "without", "context", "ignore",
+            "missing");
+    private static final Set<String> GUARD_FILTERS = Set.of("default", "d");
+    private static final Set<String> GUARD_TESTS = Set.of("defined", "undefined", "none");
+
+    /** Receives each variable reference. */
+    interface Sink {
+        void reference(String name, boolean guarded);
+    }
+
+    private JinjaNames() {
+    }
+
+    /**
+     * Reports the variables read by the tags of a template, or by an expression.
+     */
+    static void scan(JinjaTokens tokens, Sink sink) {
+        Set<String> locals = Set.of();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == Kind.BLOCK_BEGIN) {
+                locals = bindLocals(tokens, i + 1, contentEnd(tokens, i + 1), locals);
+            }
+        }
+        int i = 0;
+        while (i < tokens.size()) {
+            Kind kind = tokens.kind(i);
+            if (kind == Kind.BLOCK_BEGIN) {
+                int end = contentEnd(tokens, i + 1);
+                scanNames(tokens, statementExpression(tokens, i + 1, end), end, locals, sink);
+                i = end;
+            } else if (isContent(kind)) {
+                int end = contentEnd(tokens, i);
+                scanNames(tokens, i, end, locals, sink);
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isContent(Kind kind) {
+        return kind == Kind.NAME || kind == Kind.STRING || kind == Kind.NUMBER || kind == Kind.OPERATOR;
+    }
+
+    /** Index of the first token at or after i that is not tag content. */
+    private static int contentEnd(JinjaTokens tokens, int i) {
+        while (i < tokens.size() && isContent(tokens.kind(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Names bound by for loops, set and macro, which are not variables of the project. */
+    private static Set<String> bindLocals(JinjaTokens tokens, int from, int end, Set<String> locals) {
+        if (from >= end || tokens.kind(from) != Kind.NAME) {
+            return locals;
+        }
+        String keyword = tokens.text(from);
+        if (!keyword.equals("for") && !keyword.equals("set") && !keyword.equals("macro")) {
+            return locals;
+        }
+        Set<String> out = new HashSet<>(locals);
+        for (int i = from + 1; i < end; i++) {
+            if ((keyword.equals("for") && tokens.kind(i) == Kind.NAME && tokens.is(i, "in"))
+                    || (keyword.equals("set") && tokens.isOperator(i, "="))) {
+                break;
+            }
+            if (tokens.kind(i) == Kind.NAME && !tokens.isOperator(i - 1, "=")) {
+                out.add(tokens.text(i));
+            }
+        }
+        return out;
+    }
+
+    /** Start of the expression part of a statement: what a for loop iterates, what set assigns, ... */
+    private static int statementExpression(JinjaTokens tokens, int from, int end) {
+        if (from >= end || tokens.kind(from) != Kind.NAME) {
+            return end;
+        }
+        switch (tokens.text(from)) {
+            case "for" -> {
+                for (int i = from + 1; i < end; i++) {
+                    if (tokens.kind(i) == Kind.NAME && tokens.is(i, "in")) {
+                        return i + 1;
+                    }
+                }
+                return end;
+            }
+            case "set" -> {
+                for (int i = from + 1; i < end; i++) {
+                    if (tokens.isOperator(i, "=")) {
+                        return i + 1;
+                    }
+                }
+                return end;
+            }
+            case "if", "elif", "include", "import", "from", "with", "filter", "call" -> {
+                return from + 1;
+            }
+            default -> {
+                return end;
+            }
+        }
+    }
+
+    private static void scanNames(JinjaTokens tokens, int from, int end, Set<String> locals, Sink sink) {
+        char previous = 0;
+        String previousWord = null;
+        for (int i = from; i < end; i++) {
+            Kind kind = tokens.kind(i);
+            if (kind == Kind.OPERATOR) {
+                previous = tokens.source().charAt(tokens.start(i));
+                previousWord = null;
+                continue;
+            }
+            if (kind != Kind.NAME) {
+                previous = 'x';
+                previousWord = null;
+                continue;
+            }
+            String word = tokens.text(i);
+            boolean afterTest = "is".equals(previousWord) || ("not".equals(previousWord) && previous == 't');
+            if (KEYWORDS.contains(word)) {
+                previous = "is".equals(word) || ("not".equals(word) && "is".equals(previousWord)) ? 't' : 'k';
+                previousWord = word;
+                continue;
+            }
+            boolean call = i + 1 < end && tokens.isOperator(i + 1, "(");
+            boolean keywordArgument = i + 1 < end && tokens.isOperator(i + 1, "=");
+            if (previous != '.' && previous != '|' && !afterTest && !call && !keywordArgument
+                    && !locals.contains(word)) {
+                sink.reference(word, guarded(tokens, i + 1, end));
+            }
+            previous = 'x';
+            previousWord = word;
+        }
+    }
+
+    /** Whether the value whose trailers start at i is filtered or tested safely. */
+    private static boolean guarded(JinjaTokens tokens, int i, int end) {
+        i = skipTrailers(tokens, i, end);
+        if (i + 1 < end && tokens.isOperator(i, "|")) {
+            return tokens.kind(i + 1) == Kind.NAME && GUARD_FILTERS.contains(tokens.text(i + 1));
+        }
+        if (i < end && tokens.kind(i) == Kind.NAME && tokens.is(i, "is")) {
+            int j = i + 1;
+            if (j < end && tokens.kind(j) == Kind.NAME && tokens.is(j, "not")) {
+                j++;
+            }
+            return j < end && tokens.kind(j) == Kind.NAME && GUARD_TESTS.contains(tokens.text(j));
+        }
+        return false;
+    }
+
+    /** Skips attribute and subscript trailers: {@code .name}, {@code [...]}. */
+    private static int skipTrailers(JinjaTokens tokens, int i, int end) {
+        while (i < end) {
+            if (tokens.isOperator(i, ".")) {
+                i += i + 1 < end && tokens.kind(i + 1) == Kind.NAME ? 2 : 1;
+            } else if (tokens.isOperator(i, "[")) {
+                int depth = 0;
+                while (i < end) {
+                    if (tokens.isOperator(i, "[")) {
+                        depth++;
+                    } else if (tokens.isOperator(i, "]") && --depth == 0) {
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+            } else {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i)) && name.charAt(i) != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
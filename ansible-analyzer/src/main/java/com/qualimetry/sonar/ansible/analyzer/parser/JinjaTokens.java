@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of a Jinja2 template or expression, produced by one pass over the text.
+ * <p>
+ * A template is split into literal text, comments and the tags {@code {{ }}} and
+ * {@code {% %}}; the contents of tags are split into names, strings, numbers and operators,
+ * and whitespace is skipped. Delimiters include their whitespace control marker
+ * ({@code {{-}, {@code -%}}). An expression, such as the value of {@code when}, is tokenized
+ * like the contents of a tag, delimiters included where they appear. The body of a
+ * {@code {% raw %}} block is text. Unterminated tags and strings end with the text.
+ * <p>
+ * Tokens are kept as kinds and offsets into the source, so a stream costs three small arrays.
+ * Immutable.
+ */
+public final class JinjaTokens {
+
+    /** Token kinds. */
+    public enum Kind {
+        /** Template text outside tags. */
+        TEXT,
+        /** {@code {{}, with its whitespace control marker. */
+        VARIABLE_BEGIN,
+        /** {@code }}}, with its whitespace control marker. */
+        VARIABLE_END,
+        /** {@code {%}, with its whitespace control marker. */
+        BLOCK_BEGIN,
+        /** {@code %}}, with its whitespace control marker. */
+        BLOCK_END,
+        /** A {@code {# comment #}}, delimiters included. */
+        COMMENT,
+        /** An identifier or keyword. */
+        NAME,
+        /** A quoted string, quotes included. */
+        STRING,
+        NUMBER,
+        /** Punctuation and operators; {@code ==, !=, <=, >=, //, **} are one token. */
+        OPERATOR
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final String source;
+    private final byte[] kinds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    private JinjaTokens(String source, byte[] kinds, int[] starts, int[] ends, int size) {
+        this.source = source;
+        this.kinds = kinds;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Tokenizes a template: text with {@code {{ }}}, {@code {% %}} and {@code {# #}} tags.
+     */
+    public static JinjaTokens template(String text) {
+        Lexer lexer = new Lexer(text);
+        lexer.template();
+        return lexer.build();
+    }
+
+    /**
+     * Tokenizes a bare expression, such as the value of {@code when} or {@code that}.
+     */
+    public static JinjaTokens expression(String text) {
+        Lexer lexer = new Lexer(text);
+        lexer.inside(0, null);
+        return lexer.build();
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Kind kind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    /** Returns the token's text. */
+    public String text(int index) {
+        return source.substring(starts[index], ends[index]);
+    }
+
+    /** Returns whether the token's text is exactly the given text, without copying it. */
+    public boolean is(int index, String text) {
+        return ends[index] - starts[index] == text.length() && source.startsWith(text, starts[index]);
+    }
+
+    /** Returns whether the token is the given operator. */
+    public boolean isOperator(int index, String operator) {
+        return index < size && kinds[index] == Kind.OPERATOR.ordinal() && is(index, operator);
+    }
+
+    /** Returns the contents of a string token, without quotes; escapes are kept. */
+    public String stringValue(int index) {
+        int start = starts[index] + 1;
+        int end = ends[index];
+        if (end > start && source.charAt(end - 1) == source.charAt(starts[index])) {
+            end--;
+        }
+        return source.substring(start, Math.max(start, end));
+    }
+
+    /** Returns whether the text has any {@code {{ }}} or {@code {% %}} tag. */
+    public boolean isTemplated() {
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == Kind.VARIABLE_BEGIN.ordinal() || kinds[i] == Kind.BLOCK_BEGIN.ordinal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the variable name if the text is only {@code {{ name }}} (surrounding
+     * whitespace allowed), otherwise null.
+     */
+    public String bareVariable() {
+        int first = 0;
+        int last = size - 1;
+        if (first <= last && kinds[first] == Kind.TEXT.ordinal() && text(first).isBlank()) first++;
+        if (last >= first && kinds[last] == Kind.TEXT.ordinal() && text(last).isBlank()) last--;
+        if (last - first != 2 || kind(first) != Kind.VARIABLE_BEGIN || kind(first + 1) != Kind.NAME
+                || kind(last) != Kind.VARIABLE_END) {
+            return null;
+        }
+        return text(first + 1);
+    }
+
+    private static final class Lexer {
+
+        private final String s;
+        private final int n;
+        private byte[] kinds = new byte[8];
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int size;
+
+        Lexer(String s) {
+            this.s = s;
+            this.n = s.length();
+        }
+
+        JinjaTokens build() {
+            return new JinjaTokens(s, Arrays.copyOf(kinds, size), Arrays.copyOf(starts, size),
+                    Arrays.copyOf(ends, size), size);
+        }
+
+        void template() {
+            int textStart = 0;
+            int i = nextTag(0);
+            while (i >= 0) {
+                if (i > textStart) {
+                    add(Kind.TEXT, textStart, i);
+                }
+                char c = s.charAt(i + 1);
+                int open = i + 2;
+                if (open < n && (s.charAt(open) == '-' || s.charAt(open) == '+')) {
+                    open++;
+                }
+                if (c == '#') {
+                    int close = s.indexOf("#}", open);
+                    textStart = close < 0 ? n : close + 2;
+                    add(Kind.COMMENT, i, textStart);
+                } else {
+                    boolean block = c == '%';
+                    add(block ? Kind.BLOCK_BEGIN : Kind.VARIABLE_BEGIN, i, open);
+                    int first = size;
+                    textStart = inside(open, block ? Kind.BLOCK_END : Kind.VARIABLE_END);
+                    if (block && first < size && kinds[first] == Kind.NAME.ordinal()
+                            && s.startsWith("raw", starts[first]) && ends[first] - starts[first] == 3) {
+                        int endRaw = endRaw(textStart);
+                        if (endRaw > textStart) {
+                            add(Kind.TEXT, textStart, endRaw);
+                        }
+                        textStart = endRaw;
+                    }
+                }
+                i = nextTag(textStart);
+            }
+            if (textStart < n) {
+                add(Kind.TEXT, textStart, n);
+            }
+        }
+
+        /**
+         * Tokenizes tag contents from {@code i} up to and including the end delimiter, or to
+         * the end of the text. With no end kind (an expression), delimiters are tokens too.
+         *
+         * @return the offset after the end delimiter
+         */
+        int inside(int i, Kind endKind) {
+            int depth = 0;
+            while (i < n) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                if (depth == 0) {
+                    int close = closing(i, endKind);
+                    if (close > i) {
+                        add(s.charAt(close - 2) == '}' ? Kind.VARIABLE_END : Kind.BLOCK_END, i, close);
+                        if (endKind != null) {
+                            return close;
+                        }
+                        i = close;
+                        continue;
+                    }
+                    if (endKind == null && c == '{' && i + 1 < n && (s.charAt(i + 1) == '{' || s.charAt(i + 1) == '%')) {
+                        int open = i + 2;
+                        if (open < n && (s.charAt(open) == '-' || s.charAt(open) == '+')) {
+                            open++;
+                        }
+                        add(s.charAt(i + 1) == '{' ? Kind.VARIABLE_BEGIN : Kind.BLOCK_BEGIN, i, open);
+                        i = open;
+                        continue;
+                    }
+                }
+                int start = i;
+                if (c == '\'' || c == '"') {
+                    i = skipString(i);
+                    add(Kind.STRING, start, i);
+                } else if (Character.isDigit(c)) {
+                    while (i < n && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '.' || s.charAt(i) == '_')) {
+                        i++;
+                    }
+                    add(Kind.NUMBER, start, i);
+                } else if (Character.isLetter(c) || c == '_') {
+                    while (i < n && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '_')) {
+                        i++;
+                    }
+                    add(Kind.NAME, start, i);
+                } else {
+                    i += i + 1 < n && isTwoCharOperator(c, s.charAt(i + 1)) ? 2 : 1;
+                    if (c == '{') {
+                        depth++;
+                    } else if (c == '}' && depth > 0) {
+                        depth--;
+                    }
+                    add(Kind.OPERATOR, start, i);
+                }
+            }
+            return n;
+        }
+
+        private static boolean isTwoCharOperator(char c, char next) {
+            return switch (c) {
+                case '=', '!', '<', '>' -> next == '=';
+                case '/', '*' -> next == c;
+                default -> false;
+            };
+        }
+
+        /** End of the closing delimiter starting at i, or i if there is none there. */
+        private int closing(int i, Kind endKind) {
+            int j = s.charAt(i) == '-' || s.charAt(i) == '+' ? i + 1 : i;
+            if (j + 1 >= n || s.charAt(j + 1) != '}') {
+                return i;
+            }
+            char c = s.charAt(j);
+            boolean variable = c == '}' && endKind != Kind.BLOCK_END;
+            boolean block = c == '%' && endKind != Kind.VARIABLE_END;
+            return variable || block ? j + 2 : i;
+        }
+
+        /** Offset of the {% endraw %} tag at or after i, or the end of the text. */
+        private int endRaw(int i) {
+            for (int tag = s.indexOf("{%", i); tag >= 0; tag = s.indexOf("{%", tag + 2)) {
+                int j = tag + 2;
+                if (j < n && (s.charAt(j) == '-' || s.charAt(j) == '+')) j++;
+                while (j < n && Character.isWhitespace(s.charAt(j))) j++;
+                if (s.startsWith("endraw", j)) {
+                    return tag;
+                }
+            }
+            return n;
+        }
+
+        /** Offset of the next {{, {% or {#, or -1. */
+        private int nextTag(int from) {
+            for (int i = s.indexOf('{', from); i >= 0 && i + 1 < n; i = s.indexOf('{', i + 1)) {
+                char next = s.charAt(i + 1);
+                if (next == '{' || next == '%' || next == '#') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int skipString(int i) {
+            char quote = s.charAt(i++);
+            while (i < n && s.charAt(i) != quote) {
+                i += s.charAt(i) == '\\' ? 2 : 1;
+            }
+            return Math.min(i + 1, n);
+        }
+
+        private void add(Kind kind, int start, int end) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            kinds[size] = (byte) kind.ordinal();
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+}
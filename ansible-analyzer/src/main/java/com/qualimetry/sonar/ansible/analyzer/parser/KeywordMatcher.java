@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds any of a fixed set of keywords in text, ignoring case, in one pass over the text
+ * however many keywords there are (Aho-Corasick).
+ * <p>
+ * The keywords are compiled once into a table of states by character class, with the
+ * failure links folded in, so each character of the text costs one lookup. Characters
+ * that appear in no keyword share one class and lead back to the start. Immutable and
+ * thread-safe; build instances once, as constants.
+ */
+public final class KeywordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final List<String> keywords;
+    private final int[] asciiClasses = new int[128];
+    private final Map<Character, Integer> otherClasses = new HashMap<>();
+    private final int width;
+    private final int[] next;
+    private final int[] depth;
+    /** Keyword spelled by the path to the state, or NONE. */
+    private final int[] own;
+    /** Longest keyword that ends at the state, through failure links, or NONE. */
+    private final int[] output;
+
+    private KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords;
+        int classes = 0;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = fold(keyword.charAt(i));
+                if (classOf(c) == 0) {
+                    classes++;
+                    if (c < 128) {
+                        asciiClasses[c] = classes;
+                        asciiClasses[Character.toUpperCase(c)] = classes;
+                    } else {
+                        otherClasses.put(c, classes);
+                    }
+                }
+            }
+        }
+        width = classes + 1;
+
+        // The trie, as child lists indexed by state * width + class
+        List<int[]> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        children.add(newRow());
+        depths.add(0);
+        owners.add(NONE);
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = classOf(fold(keyword.charAt(i)));
+                if (children.get(state)[c] == NONE) {
+                    children.get(state)[c] = children.size();
+                    children.add(newRow());
+                    depths.add(i + 1);
+                    owners.add(NONE);
+                }
+                state = children.get(state)[c];
+            }
+            if (owners.get(state) == NONE) {
+                owners.set(state, k);
+            }
+        }
+
+        int states = children.size();
+        next = new int[states * width];
+        depth = new int[states];
+        own = new int[states];
+        output = new int[states];
+        int[] fail = new int[states];
+        for (int s = 0; s < states; s++) {
+            depth[s] = depths.get(s);
+            own[s] = owners.get(s);
+        }
+        output[ROOT] = NONE;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < width; c++) {
+            int child = children.get(ROOT)[c];
+            if (child == NONE) {
+                next[c] = ROOT;
+            } else {
+                next[c] = child;
+                fail[child] = ROOT;
+                output[child] = own[child];
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int c = 0; c < width; c++) {
+                int child = children.get(state)[c];
+                int fallback = next[fail[state] * width + c];
+                if (child == NONE) {
+                    next[state * width + c] = fallback;
+                } else {
+                    next[state * width + c] = child;
+                    fail[child] = fallback;
+                    output[child] = own[child] != NONE ? own[child] : output[fallback];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles the keywords.
+     *
+     * @throws IllegalArgumentException if a keyword is empty
+     */
+    public static KeywordMatcher of(Collection<String> keywords) {
+        for (String keyword : keywords) {
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+        }
+        return new KeywordMatcher(List.copyOf(keywords));
+    }
+
+    public static KeywordMatcher of(String... keywords) {
+        return of(Arrays.asList(keywords));
+    }
+
+    public int size() {
+        return keywords.size();
+    }
+
+    public String keyword(int index) {
+        return keywords.get(index);
+    }
+
+    /**
+     * Returns the index of the keyword that ends first in the text (the longest, if several
+     * end at the same character), or -1 if none occurs.
+     */
+    public int indexIn(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next[state * width + classOf(text.charAt(i))];
+            if (output[state] != NONE) {
+                return output[state];
+            }
+        }
+        return NONE;
+    }
+
+    public boolean containsAny(CharSequence text) {
+        return indexIn(text) != NONE;
+    }
+
+    /**
+     * Returns whether the text ends with one of the keywords.
+     */
+    public boolean endsWithAny(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next[state * width + classOf(text.charAt(i))];
+        }
+        return output[state] != NONE;
+    }
+
+    /**
+     * Returns the index of the longest keyword that the text has at {@code from}, or -1.
+     */
+    public int prefixAt(CharSequence text, int from) {
+        int state = ROOT;
+        int found = NONE;
+        for (int i = from; i < text.length(); i++) {
+            state = next[state * width + classOf(text.charAt(i))];
+            if (depth[state] != i - from + 1) {
+                // Fell back through a failure link: no keyword starts at from
+                break;
+            }
+            if (own[state] != NONE) {
+                found = own[state];
+            }
+        }
+        return found;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[width];
+        Arrays.fill(row, NONE);
+        return row;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        Integer found = otherClasses.get(Character.toLowerCase(c));
+        return found != null ? found : 0;
+    }
+
+    private static char fold(char c) {
+        return c < 128 ? (char) (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c) : Character.toLowerCase(c);
+    }
+}
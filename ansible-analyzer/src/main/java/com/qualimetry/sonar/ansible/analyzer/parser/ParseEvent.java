@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one YAML parse: the whole document, or one top-level item re-parsed by
+ * {@link IncrementalParser}. Costs nothing beyond an enabled check unless a recording with
+ * this event is running.
+ */
+@Name("com.qualimetry.ansible.Parse")
+@Label("Parse")
+@Category({"Ansible Analyzer", "Parser"})
+@Description("Composition of a playbook (or one of its items) into the analysis model")
+@StackTrace(false)
+final class ParseEvent extends Event {
+
+    @Label("URI")
+    String uri;
+
+    @Label("Characters")
+    int characters;
+
+    @Label("Nodes")
+    @Description("YAML nodes in the document tree")
+    int nodes;
+
+    @Label("Incremental")
+    @Description("Only one top-level item was parsed")
+    boolean incremental;
+
+    @Label("Parse Error")
+    String parseError;
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Include and role dependencies between the files of a project.
+ * <p>
+ * Files are nodes, keyed by normalized absolute path. A file's edges come from its
+ * {@link FileSummary}: each include or import points at the path it names, resolved against
+ * the file's directory, and each role reference points at the role's directory
+ * ({@code roles/<name>} beside the file, or beside the {@code roles} directory the file is
+ * in). A role directory stands for every file under it. The files of a role also depend on
+ * the role's {@code handlers} directory. Edges may point at files that do not exist;
+ * templated paths and collection roles (FQCNs) are left out.
+ * <p>
+ * {@link #update} replaces a file's edges; callers feed it as files are parsed, so the graph
+ * follows edits without being rebuilt. Thread-safe.
+ */
+public final class ProjectGraph {
+
+    private final Map<Path, Node> nodes = new HashMap<>();
+    private final Map<Path, Set<Path>> reverse = new HashMap<>();
+    /** Version of each target, from {@link #clock}; never reused. */
+    private final Map<Path, Long> targetVersions = new HashMap<>();
+    /** Source of versions: only grows, so a stamp never comes back after a change. */
+    private long clock;
+
+    /**
+     * Records a file's dependencies.
+     *
+     * @return whether the file is new or its summary changed; dependents of the file may then
+     *         need analyzing again
+     */
+    public synchronized boolean update(Path file, FileSummary summary) {
+        Path key = file.toAbsolutePath().normalize();
+        Node previous = nodes.get(key);
+        if (previous != null && previous.summary.equals(summary)) {
+            return false;
+        }
+        Set<Path> targets = targets(key, summary);
+        if (previous != null) {
+            unlink(key, previous.targets);
+        }
+        nodes.put(key, new Node(summary, targets));
+        for (Path target : targets) {
+            reverse.computeIfAbsent(target, t -> {
+                // A target linked again gets a fresh version, not the one it was unlinked with
+                targetVersions.put(t, ++clock);
+                return new HashSet<>();
+            }).add(key);
+        }
+        touch(key);
+        return true;
+    }
+
+    /**
+     * Removes a file, or every file under a directory.
+     *
+     * @return whether anything was removed
+     */
+    public synchronized boolean remove(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Node direct = nodes.remove(key);
+        if (direct != null) {
+            unlink(key, direct.targets);
+            touch(key);
+            return true;
+        }
+        boolean removed = false;
+        Iterator<Map.Entry<Path, Node>> it = nodes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Node> entry = it.next();
+            if (entry.getKey().startsWith(key)) {
+                it.remove();
+                unlink(entry.getKey(), entry.getValue().targets);
+                touch(entry.getKey());
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        nodes.clear();
+        reverse.clear();
+        targetVersions.clear();
+    }
+
+    public synchronized boolean contains(Path file) {
+        return nodes.containsKey(file.toAbsolutePath().normalize());
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the summary the file was last recorded with, or null if it is not in the graph.
+     */
+    public synchronized FileSummary summary(Path file) {
+        Node node = nodes.get(file.toAbsolutePath().normalize());
+        return node != null ? node.summary : null;
+    }
+
+    /**
+     * Returns the paths the file includes or imports and the role directories it uses.
+     */
+    public synchronized Set<Path> dependencies(Path file) {
+        Node node = nodes.get(file.toAbsolutePath().normalize());
+        return node != null ? Set.copyOf(node.targets) : Set.of();
+    }
+
+    /**
+     * Returns the files that include or import the file, or use a role it belongs to.
+     */
+    public synchronized Set<Path> dependents(Path file) {
+        Set<Path> out = new LinkedHashSet<>();
+        collectDependents(file.toAbsolutePath().normalize(), out);
+        return out;
+    }
+
+    /**
+     * Returns every file that depends on the file directly or through other files, not
+     * including the file itself. For a path that is not a file of the graph (a directory, or
+     * a file that was removed), files depending on paths under it count too.
+     */
+    public synchronized Set<Path> transitiveDependents(Path file) {
+        Path start = file.toAbsolutePath().normalize();
+        Set<Path> seen = new LinkedHashSet<>();
+        Deque<Path> queue = new ArrayDeque<>();
+        queue.add(start);
+        if (!nodes.containsKey(start)) {
+            for (Map.Entry<Path, Set<Path>> entry : reverse.entrySet()) {
+                if (entry.getKey().startsWith(start)) {
+                    for (Path dependent : entry.getValue()) {
+                        if (seen.add(dependent)) {
+                            queue.add(dependent);
+                        }
+                    }
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            Set<Path> direct = new LinkedHashSet<>();
+            collectDependents(queue.poll(), direct);
+            for (Path dependent : direct) {
+                if (!dependent.equals(start) && seen.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Returns a value that changes whenever a file the given file depends on, directly or
+     * through other files, is added, changed or removed. Results computed from the graph
+     * for the file can be reused while the stamp is unchanged.
+     */
+    public synchronized long stamp(Path file) {
+        Path start = file.toAbsolutePath().normalize();
+        Set<Path> seen = new HashSet<>();
+        Deque<Path> queue = new ArrayDeque<>();
+        queue.add(start);
+        long stamp = 17;
+        while (!queue.isEmpty()) {
+            Node node = nodes.get(queue.poll());
+            if (node == null) {
+                continue;
+            }
+            for (Path target : node.targets) {
+                if (seen.add(target)) {
+                    stamp = 31 * stamp + target.hashCode() * 1_000_003L + targetVersions.get(target);
+                    queue.add(target);
+                }
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns the path of a {@code file:} URI, or null for other schemes and malformed URIs.
+     */
+    public static Path pathOf(String uri) {
+        try {
+            URI parsed = URI.create(uri);
+            return "file".equalsIgnoreCase(parsed.getScheme()) ? Paths.get(parsed) : null;
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the directories a role referenced from the file may be in: {@code roles/<name>}
+     * beside the file, then beside the {@code roles} directory the file is in. Empty for
+     * templated and collection roles.
+     */
+    public static List<Path> roleDirectories(Path file, String role) {
+        Path directory = file.toAbsolutePath().normalize().getParent();
+        if (directory == null || role.contains("{{") || role.contains(".") || role.contains("/")
+                || role.contains("\\")) {
+            return List.of();
+        }
+        try {
+            List<Path> out = new ArrayList<>(2);
+            out.add(directory.resolve("roles").resolve(role));
+            Path rolesDirectory = enclosingRolesDirectory(directory);
+            if (rolesDirectory != null && !out.contains(rolesDirectory.resolve(role))) {
+                out.add(rolesDirectory.resolve(role));
+            }
+            return out;
+        } catch (InvalidPathException e) {
+            // Not a role directory name on this platform
+            return List.of();
+        }
+    }
+
+    /**
+     * Returns the directory of the role the file belongs to ({@code roles/<name>}), or null.
+     */
+    public static Path enclosingRole(Path file) {
+        Path start = file.toAbsolutePath().normalize();
+        Path child = start;
+        for (Path p = start.getParent(); p != null; child = p, p = p.getParent()) {
+            if (p.getFileName() != null && p.getFileName().toString().equals("roles") && !child.equals(start)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /** Sources pointing at the file, or at a directory containing it (role users). */
+    private void collectDependents(Path file, Set<Path> out) {
+        for (Path p = file; p != null; p = p.getParent()) {
+            Set<Path> sources = reverse.get(p);
+            if (sources != null) {
+                out.addAll(sources);
+            }
+        }
+    }
+
+    /** Bumps the version of every target that is the file or a directory containing it. */
+    private void touch(Path file) {
+        for (Path p = file; p != null; p = p.getParent()) {
+            if (reverse.containsKey(p)) {
+                targetVersions.put(p, ++clock);
+            }
+        }
+    }
+
+    private void unlink(Path source, Set<Path> targets) {
+        for (Path target : targets) {
+            Set<Path> sources = reverse.get(target);
+            if (sources != null) {
+                sources.remove(source);
+                if (sources.isEmpty()) {
+                    reverse.remove(target);
+                    targetVersions.remove(target);
+                }
+            }
+        }
+    }
+
+    private static Set<Path> targets(Path file, FileSummary summary) {
+        Path directory = file.getParent();
+        if (directory == null) {
+            return Set.of();
+        }
+        Set<Path> targets = new LinkedHashSet<>();
+        for (String include : summary.includes()) {
+            if (include.contains("{{")) continue;
+            try {
+                targets.add(directory.resolve(include).normalize());
+            } catch (InvalidPathException e) {
+                // Not a path on this platform; cannot be a dependency
+            }
+        }
+        for (String role : summary.roles()) {
+            targets.addAll(roleDirectories(file, role));
+        }
+        Path ownRole = enclosingRole(file);
+        if (ownRole != null && !file.startsWith(ownRole.resolve("handlers"))) {
+            targets.add(ownRole.resolve("handlers"));
+        }
+        return targets;
+    }
+
+    private static Path enclosingRolesDirectory(Path directory) {
+        for (Path p = directory; p != null; p = p.getParent()) {
+            if (p.getFileName() != null && p.getFileName().toString().equals("roles")) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private record Node(FileSummary summary, Set<Path> targets) {
+    }
+}
@@ -17,7 +17,6 @@ package com.qualimetry.sonar.ansible.analyzer.parser;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.model.ParseError;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleMeta;
-import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.MarkedYAMLException;
 import org.yaml.snakeyaml.error.YAMLException;
 
@@ -32,6 +31,16 @@ import java.util.Map;
  */
 public class RoleMetaParser {
 
+    private final YamlLoader loader;
+
+    public RoleMetaParser() {
+        this(YamlLoader.defaults());
+    }
+
+    public RoleMetaParser(YamlLoader loader) {
+        this.loader = loader;
+    }
+
     /**
      * Parses meta/main.yml content. On YAML failure returns RoleMeta with parseError set.
      */
@@ -40,7 +49,7 @@ public class RoleMetaParser {
             return RoleMeta.empty(uri);
         }
         try {
-            Object root = new Yaml().load(content);
+            Object root = loader.yaml().load(content);
             if (root == null) {
                 return RoleMeta.empty(uri);
             }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project-wide table of variable definitions and references, built from each file's
+ * {@link FileVariables}.
+ * <p>
+ * Names are interned to ints; each file keeps its distinct defined and referenced names as
+ * sorted int arrays, plus its sites as parallel arrays of name ids and offsets. Per name the
+ * table counts the files that define and read it, so {@link #isDefined} and
+ * {@link #isReferenced} are a hash lookup and {@link #update} costs the size of one file.
+ * Interned names are kept until the table is emptied. Thread-safe.
+ */
+public final class VariableTable {
+
+    /** Fixed cost of a file entry: the record, its arrays and the map node. */
+    private static final long ENTRY_OVERHEAD = 160;
+    /** A name's slot in the intern table and its counters, plus the string. */
+    private static final long BYTES_PER_NAME = 72;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[256];
+    private int[] definingFiles = new int[256];
+    private int[] referencingFiles = new int[256];
+    private final Map<Path, Entry> files = new HashMap<>();
+    private long bytes;
+
+    /**
+     * Replaces a file's definitions and references.
+     *
+     * @return the names that became defined or undefined, or referenced or unreferenced,
+     *         anywhere in the project; results for files using them may have changed
+     */
+    public synchronized Set<String> update(Path file, FileVariables variables) {
+        Path key = file.toAbsolutePath().normalize();
+        Entry entry = entry(variables);
+        Entry previous = files.put(key, entry);
+        if (previous != null && previous.sameNames(entry)) {
+            bytes += entry.bytes() - previous.bytes();
+            return Set.of();
+        }
+        Set<String> flipped = new LinkedHashSet<>();
+        if (previous != null) {
+            bytes -= previous.bytes();
+            count(previous, -1, flipped);
+        }
+        bytes += entry.bytes();
+        count(entry, 1, flipped);
+        return flipped;
+    }
+
+    /**
+     * Removes a file, or every file under a directory.
+     *
+     * @return the names whose defined or referenced state changed
+     */
+    public synchronized Set<String> remove(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Set<String> flipped = new LinkedHashSet<>();
+        Iterator<Map.Entry<Path, Entry>> it = files.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Entry> e = it.next();
+            if (e.getKey().startsWith(key)) {
+                it.remove();
+                bytes -= e.getValue().bytes();
+                count(e.getValue(), -1, flipped);
+            }
+        }
+        if (files.isEmpty()) {
+            clear();
+        }
+        return flipped;
+    }
+
+    public synchronized void clear() {
+        files.clear();
+        ids.clear();
+        names = new String[256];
+        definingFiles = new int[256];
+        referencingFiles = new int[256];
+        bytes = 0;
+    }
+
+    /**
+     * Whether any file of the project defines the name.
+     */
+    public synchronized boolean isDefined(String name) {
+        Integer id = ids.get(name);
+        return id != null && definingFiles[id] > 0;
+    }
+
+    /**
+     * Whether any file of the project reads the name.
+     */
+    public synchronized boolean isReferenced(String name) {
+        Integer id = ids.get(name);
+        return id != null && referencingFiles[id] > 0;
+    }
+
+    /**
+     * Returns where the name is defined.
+     */
+    public synchronized List<Site> definitions(String name) {
+        return sites(name, true);
+    }
+
+    /**
+     * Returns where the name is read. Template files have no offsets.
+     */
+    public synchronized List<Site> references(String name) {
+        return sites(name, false);
+    }
+
+    /**
+     * Returns the files that define or read any of the names.
+     */
+    public synchronized Set<Path> filesUsing(Collection<String> names) {
+        int[] wanted = names.stream().map(ids::get).filter(id -> id != null).mapToInt(Integer::intValue)
+                .sorted().toArray();
+        Set<Path> out = new LinkedHashSet<>();
+        if (wanted.length == 0) {
+            return out;
+        }
+        for (Map.Entry<Path, Entry> e : files.entrySet()) {
+            if (intersects(e.getValue().defined, wanted) || intersects(e.getValue().referenced, wanted)) {
+                out.add(e.getKey());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns a value that changes whenever one of the names the file defines or reads
+     * becomes defined or undefined, or referenced or unreferenced, elsewhere. Results of
+     * checks that consult the table for the file can be reused while it is unchanged.
+     */
+    public synchronized long stamp(Path file) {
+        Entry entry = files.get(file.toAbsolutePath().normalize());
+        if (entry == null) {
+            return 0;
+        }
+        long stamp = 1;
+        for (int[] group : new int[][] {entry.defined, entry.referenced}) {
+            for (int id : group) {
+                stamp = 31 * stamp + id * 4L + (definingFiles[id] > 0 ? 2 : 0) + (referencingFiles[id] > 0 ? 1 : 0);
+            }
+        }
+        return stamp;
+    }
+
+    public synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * Estimates the heap the table retains, for bounding an index.
+     */
+    public synchronized long estimatedBytes() {
+        return bytes + BYTES_PER_NAME * ids.size();
+    }
+
+    /**
+     * Estimates the most heap adding a file's variables can retain, counting every name as new.
+     */
+    public static long estimatedBytes(FileVariables variables) {
+        Set<String> names = new HashSet<>();
+        variables.definitions().forEach(d -> names.add(d.name()));
+        variables.references().forEach(r -> names.add(r.name()));
+        long bytes = ENTRY_OVERHEAD + 12L * (variables.definitions().size() + variables.references().size());
+        for (String name : names) {
+            bytes += BYTES_PER_NAME + name.length();
+        }
+        return bytes;
+    }
+
+    private List<Site> sites(String name, boolean definitions) {
+        Integer id = ids.get(name);
+        List<Site> out = new ArrayList<>();
+        if (id == null) {
+            return out;
+        }
+        for (Map.Entry<Path, Entry> e : files.entrySet()) {
+            Entry entry = e.getValue();
+            int[] siteIds = definitions ? entry.definitionIds : entry.referenceIds;
+            int[] offsets = definitions ? entry.definitionOffsets : entry.referenceOffsets;
+            for (int i = 0; i < siteIds.length; i++) {
+                if (siteIds[i] == id) {
+                    out.add(new Site(e.getKey(), offsets[i]));
+                }
+            }
+        }
+        return out;
+    }
+
+    private void count(Entry entry, int delta, Set<String> flipped) {
+        for (int id : entry.defined) {
+            int before = definingFiles[id];
+            definingFiles[id] += delta;
+            if ((before == 0) != (definingFiles[id] == 0)) {
+                flipped.add(names[id]);
+            }
+        }
+        for (int id : entry.referenced) {
+            int before = referencingFiles[id];
+            referencingFiles[id] += delta;
+            if ((before == 0) != (referencingFiles[id] == 0)) {
+                flipped.add(names[id]);
+            }
+        }
+    }
+
+    private Entry entry(FileVariables variables) {
+        List<FileVariables.Definition> definitions = variables.definitions();
+        List<FileVariables.Reference> references = variables.references();
+        int[] definitionIds = new int[definitions.size()];
+        int[] definitionOffsets = new int[definitions.size()];
+        for (int i = 0; i < definitionIds.length; i++) {
+            definitionIds[i] = intern(definitions.get(i).name());
+            definitionOffsets[i] = offset(definitions.get(i).range());
+        }
+        int[] referenceIds = new int[references.size()];
+        int[] referenceOffsets = new int[references.size()];
+        for (int i = 0; i < referenceIds.length; i++) {
+            referenceIds[i] = intern(references.get(i).name());
+            referenceOffsets[i] = offset(references.get(i).range());
+        }
+        return new Entry(distinct(definitionIds), distinct(referenceIds), definitionIds, definitionOffsets,
+                referenceIds, referenceOffsets);
+    }
+
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int next = ids.size();
+        if (next == names.length) {
+            names = Arrays.copyOf(names, next * 2);
+            definingFiles = Arrays.copyOf(definingFiles, next * 2);
+            referencingFiles = Arrays.copyOf(referencingFiles, next * 2);
+        }
+        names[next] = name;
+        ids.put(name, next);
+        return next;
+    }
+
+    private static int offset(TextRange range) {
+        return range != null ? range.start() : -1;
+    }
+
+    private static int[] distinct(int[] ids) {
+        return Arrays.stream(ids).distinct().sorted().toArray();
+    }
+
+    private static boolean intersects(int[] sorted, int[] wanted) {
+        for (int id : wanted) {
+            if (Arrays.binarySearch(sorted, id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A definition or reference of a name.
+     *
+     * @param file   the file
+     * @param offset character offset of the defining key or reading value, or -1 if unknown
+     */
+    public record Site(Path file, int offset) {
+    }
+
+    private record Entry(int[] defined, int[] referenced, int[] definitionIds, int[] definitionOffsets,
+                         int[] referenceIds, int[] referenceOffsets) {
+
+        boolean sameNames(Entry other) {
+            return Arrays.equals(defined, other.defined) && Arrays.equals(referenced, other.referenced);
+        }
+
+        long bytes() {
+            return ENTRY_OVERHEAD + 4L * (defined.length + referenced.length)
+                    + 8L * (definitionIds.length + referenceIds.length);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Configured SnakeYAML instances for the parsers and checks. A {@link Yaml} is costly to
+ * set up (constructor, resolver and representer tables) and not thread-safe, so each
+ * thread gets one per loader and reuses it for every document.
+ * <p>
+ * The limits are explicit rather than SnakeYAML's defaults, which reject documents over
+ * 3 million code points and are too tight for large vaulted or generated files.
+ */
+public final class YamlLoader {
+
+    private static final YamlLoader DEFAULT = new YamlLoader(Limits.DEFAULTS);
+
+    private final Limits limits;
+    private final LoaderOptions options;
+    private final ThreadLocal<Yaml> yaml;
+
+    private YamlLoader(Limits limits) {
+        this.limits = limits;
+        this.options = limits.toLoaderOptions();
+        this.yaml = ThreadLocal.withInitial(() -> new Yaml(options));
+    }
+
+    /**
+     * Returns the loader with the {@link Limits#DEFAULTS default limits}.
+     */
+    public static YamlLoader defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a loader with the given limits; the shared default loader if they are the defaults.
+     */
+    public static YamlLoader of(Limits limits) {
+        return limits == null || limits.equals(Limits.DEFAULTS) ? DEFAULT : new YamlLoader(limits);
+    }
+
+    public Limits limits() {
+        return limits;
+    }
+
+    /**
+     * Returns this thread's instance. Use it for one document at a time and do not hand it
+     * to another thread.
+     */
+    public Yaml yaml() {
+        return yaml.get();
+    }
+
+    /** The options of every instance; callers must not modify them. */
+    LoaderOptions options() {
+        return options;
+    }
+
+    /**
+     * Bounds on a single YAML document.
+     *
+     * @param maxCodePoints            largest document accepted, in code points
+     * @param maxAliasesForCollections most aliases to sequences or mappings, which guards
+     *                                 against alias expansion ("billion laughs") documents
+     * @param nestingDepth             deepest nesting of collections
+     */
+    public record Limits(int maxCodePoints, int maxAliasesForCollections, int nestingDepth) {
+
+        /** 32 Mi code points, 100 collection aliases, 100 levels. */
+        public static final Limits DEFAULTS = new Limits(32 * 1024 * 1024, 100, 100);
+
+        public Limits {
+            if (maxCodePoints <= 0 || maxAliasesForCollections < 0 || nestingDepth <= 0) {
+                throw new IllegalArgumentException("Invalid YAML limits: " + maxCodePoints + ", "
+                        + maxAliasesForCollections + ", " + nestingDepth);
+            }
+        }
+
+        LoaderOptions toLoaderOptions() {
+            LoaderOptions options = new LoaderOptions();
+            options.setCodePointLimit(maxCodePoints);
+            options.setMaxAliasesForCollections(maxAliasesForCollections);
+            options.setNestingDepthLimit(nestingDepth);
+            return options;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The top level of a document as the parser composed it, including the items that are not
+ * plays, so structural checks need not parse the text again.
+ *
+ * @param kind    what the root node is
+ * @param items   the entries of a sequence root in document order; empty for other roots
+ * @param mapping the root of a mapping document (a vars file, for instance) as a
+ *                {@link YamlTree.Mapping} view; null for other roots
+ */
+public record DocumentRoot(Kind kind, List<Item> items, Map<String, Object> mapping) {
+
+    public enum Kind { SEQUENCE, MAPPING, SCALAR }
+
+    public DocumentRoot {
+        Objects.requireNonNull(kind, "kind must not be null");
+        items = List.copyOf(items);
+    }
+
+    public DocumentRoot(Kind kind, List<Item> items) {
+        this(kind, items, null);
+    }
+
+    /**
+     * A top-level list entry.
+     *
+     * @param value the entry as a {@link YamlTree} view: a String, a {@link YamlTree.Sequence}
+     *              or a {@link YamlTree.Mapping}
+     * @param line  1-based line where the entry's value starts
+     */
+    public record Item(Object value, int line) {
+
+        public Item {
+            Objects.requireNonNull(value, "value must not be null");
+        }
+    }
+}
@@ -26,8 +26,11 @@ import java.util.Objects;
  * @param roles list of role references
  * @param line  approximate starting line (1-based)
  * @param tags  play-level tags (may be empty)
+ * @param handlers handlers of the play (flattened from blocks); their {@code listen} topics are
+ *                 in the attributes
  */
-public record Play(String name, List<Task> tasks, List<RoleRef> roles, int line, List<String> tags) {
+public record Play(String name, List<Task> tasks, List<RoleRef> roles, int line, List<String> tags,
+                   List<Task> handlers) {
 
     public Play {
         Objects.requireNonNull(tasks, "tasks must not be null");
@@ -36,5 +39,11 @@ public record Play(String name, List<Task> tasks, List<RoleRef> roles, int line,
         roles = List.copyOf(roles);
         Objects.requireNonNull(tags, "tags must not be null");
         tags = List.copyOf(tags);
+        Objects.requireNonNull(handlers, "handlers must not be null");
+        handlers = List.copyOf(handlers);
+    }
+
+    public Play(String name, List<Task> tasks, List<RoleRef> roles, int line, List<String> tags) {
+        this(name, tasks, roles, line, tags, List.of());
     }
 }
@@ -24,8 +24,10 @@ import java.util.Objects;
  * @param plays     list of plays (may be empty if parse failed or file is not a playbook)
  * @param uri       file URI or path
  * @param parseError if non-null, YAML parsing failed; plays is empty and checks should report this
+ * @param root      the top level of the document, or null if it is empty, failed to parse or
+ *                  the file was not built by the parser
  */
-public record PlaybookFile(List<Play> plays, String uri, ParseError parseError) {
+public record PlaybookFile(List<Play> plays, String uri, ParseError parseError, DocumentRoot root) {
 
     public PlaybookFile {
         Objects.requireNonNull(plays, "plays must not be null");
@@ -33,6 +35,10 @@ public record PlaybookFile(List<Play> plays, String uri, ParseError parseError)
         Objects.requireNonNull(uri, "uri must not be null");
     }
 
+    public PlaybookFile(List<Play> plays, String uri, ParseError parseError) {
+        this(plays, uri, parseError, null);
+    }
+
     /**
      * Creates a successful parse result (no parse error).
      */
@@ -23,7 +23,21 @@ import java.util.Map;
  * @param name       task name, or null
  * @param moduleKey  FQCN or short module name, or null for raw/include
  * @param line       approximate line in the file (1-based)
- * @param attributes full task map for checks that need it
+ * @param attributes full task map for checks that need it; a {@link YamlTree.Mapping} when parsed
  */
 public record Task(String name, String moduleKey, int line, Map<String, Object> attributes) {
+
+    /**
+     * Source range of a top-level key of the task, or null if absent or not parsed from text.
+     */
+    public TextRange keyRange(String key) {
+        return YamlTree.keyRange(attributes, key);
+    }
+
+    /**
+     * Source range of the value of a top-level key, or null if absent or not parsed from text.
+     */
+    public TextRange valueRange(String key) {
+        return YamlTree.valueRange(attributes, key);
+    }
 }
@@ -0,0 +1,504 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser.model;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable YAML tree stored in parallel primitive arrays, one slot per node.
+ * <p>
+ * Each node has a kind, start/end character offsets in the source, and either a scalar
+ * value or a run of child ids. Mapping children are stored as key/value pairs; only
+ * scalar keys are kept and a repeated key keeps its first place with the last value,
+ * like the {@code LinkedHashMap}s this replaces. Scalars are plain strings ("" for an
+ * empty value), referenced rather than copied.
+ * <p>
+ * Checks see the tree through {@link Mapping} and {@link Sequence}, which implement
+ * {@code Map<String, Object>} and {@code List<Object>} so existing attribute code keeps
+ * working, and add source ranges for keys and values. Views are created on demand and
+ * hold no data of their own. Mappings with more than {@value #HASHED_KEYS} keys (large vars
+ * files) are deduplicated with a hash map and get a hashed key index on first lookup.
+ */
+public final class YamlTree {
+
+    static final byte SCALAR = 0;
+    static final byte SEQUENCE = 1;
+    static final byte MAPPING = 2;
+    /** Mappings with more keys than this are hashed rather than scanned. */
+    static final int HASHED_KEYS = 8;
+
+    private final byte[] kinds;
+    private final int[] starts;
+    private final int[] ends;
+    /** Scalar: index into values. Container: offset of its first child in children. */
+    private final int[] data;
+    /** Container: number of children (pairs for a mapping). */
+    private final int[] sizes;
+    private final int[] children;
+    private final String[] values;
+    private final int nodeCount;
+    /** Key to value slot of large mappings, by mapping id, built on first lookup. */
+    private volatile Map<Integer, Map<String, Integer>> slotIndexes;
+
+    private YamlTree(Builder b) {
+        this.nodeCount = b.count;
+        this.kinds = Arrays.copyOf(b.kinds, b.count);
+        this.starts = Arrays.copyOf(b.starts, b.count);
+        this.ends = Arrays.copyOf(b.ends, b.count);
+        this.data = Arrays.copyOf(b.data, b.count);
+        this.sizes = Arrays.copyOf(b.sizes, b.count);
+        this.children = Arrays.copyOf(b.children, b.childCount);
+        this.values = Arrays.copyOf(b.values, b.valueCount);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the node as a view: a String for a scalar, a {@link Sequence} or a {@link Mapping}.
+     */
+    public Object node(int id) {
+        return valueOf(id, 0);
+    }
+
+    /**
+     * Returns the mapping node as a view, or null if the node is not a mapping.
+     */
+    public Mapping mapping(int id) {
+        return kinds[id] == MAPPING ? new Mapping(this, id, 0) : null;
+    }
+
+    public TextRange range(int id) {
+        return new TextRange(starts[id], ends[id]);
+    }
+
+    private Object valueOf(int id, int shift) {
+        return switch (kinds[id]) {
+            case SCALAR -> values[data[id]];
+            case SEQUENCE -> new Sequence(this, id, shift);
+            default -> new Mapping(this, id, shift);
+        };
+    }
+
+    private TextRange range(int id, int shift) {
+        return new TextRange(starts[id] + shift, ends[id] + shift);
+    }
+
+    /** Slot in children of the value of key, or -1. Keys are always scalars. */
+    private int valueSlot(int mapping, Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int first = data[mapping];
+        if (sizes[mapping] > HASHED_KEYS) {
+            Integer slot = slotIndex(mapping).get(key);
+            return slot != null ? slot : -1;
+        }
+        for (int i = 0, n = sizes[mapping]; i < n; i++) {
+            int keyId = children[first + 2 * i];
+            if (values[data[keyId]].equals(key)) {
+                return first + 2 * i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private Map<String, Integer> slotIndex(int mapping) {
+        Map<Integer, Map<String, Integer>> indexes = slotIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                indexes = slotIndexes;
+                if (indexes == null) {
+                    indexes = new ConcurrentHashMap<>();
+                    slotIndexes = indexes;
+                }
+            }
+        }
+        return indexes.computeIfAbsent(mapping, m -> {
+            int first = data[m];
+            Map<String, Integer> index = new HashMap<>(sizes[m] * 2);
+            for (int i = 0, n = sizes[m]; i < n; i++) {
+                index.put(values[data[children[first + 2 * i]]], first + 2 * i + 1);
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Source range of the key in a task attribute map or nested argument map, or null
+     * when the map does not come from a tree (e.g. built by hand in a test).
+     */
+    public static TextRange keyRange(Map<?, ?> map, String key) {
+        return map instanceof Mapping m ? m.keyRange(key) : null;
+    }
+
+    /**
+     * Source range of the value for the key, or null if absent or the map has no positions.
+     */
+    public static TextRange valueRange(Map<?, ?> map, String key) {
+        return map instanceof Mapping m ? m.valueRange(key) : null;
+    }
+
+    /**
+     * Returns the map with its ranges moved by delta characters; maps that are not tree
+     * views are returned unchanged.
+     */
+    public static Map<String, Object> shift(Map<String, Object> map, int delta) {
+        return map instanceof Mapping m ? m.shifted(delta) : map;
+    }
+
+    /**
+     * Returns the node view with its ranges moved by delta characters; scalars are returned
+     * unchanged.
+     */
+    public static Object shiftNode(Object node, int delta) {
+        if (node instanceof Mapping m) {
+            return m.shifted(delta);
+        }
+        return node instanceof Sequence s ? s.shifted(delta) : node;
+    }
+
+    /**
+     * A mapping node. Lookups scan the keys linearly, which is faster than hashing for the
+     * handful of keys a task or module argument map has; larger mappings use a hashed index.
+     */
+    public static final class Mapping extends AbstractMap<String, Object> {
+
+        private final YamlTree tree;
+        private final int id;
+        private final int shift;
+        private Set<Entry<String, Object>> entrySet;
+
+        Mapping(YamlTree tree, int id, int shift) {
+            this.tree = tree;
+            this.id = id;
+            this.shift = shift;
+        }
+
+        @Override
+        public int size() {
+            return tree.sizes[id];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return tree.valueSlot(id, key) >= 0;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int slot = tree.valueSlot(id, key);
+            return slot >= 0 ? tree.valueOf(tree.children[slot], shift) : null;
+        }
+
+        public TextRange range() {
+            return tree.range(id, shift);
+        }
+
+        public TextRange keyRange(String key) {
+            int slot = tree.valueSlot(id, key);
+            return slot >= 0 ? tree.range(tree.children[slot - 1], shift) : null;
+        }
+
+        public TextRange valueRange(String key) {
+            int slot = tree.valueSlot(id, key);
+            return slot >= 0 ? tree.range(tree.children[slot], shift) : null;
+        }
+
+        /** The same mapping with ranges moved by delta characters. */
+        public Mapping shifted(int delta) {
+            return delta == 0 ? this : new Mapping(tree, id, shift + delta);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        return new Iterator<>() {
+                            private int next;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next < tree.sizes[id];
+                            }
+
+                            @Override
+                            public Entry<String, Object> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                int slot = tree.data[id] + 2 * next++;
+                                String key = tree.values[tree.data[tree.children[slot]]];
+                                return new SimpleImmutableEntry<>(key, tree.valueOf(tree.children[slot + 1], shift));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return tree.sizes[id];
+                    }
+                };
+            }
+            return entrySet;
+        }
+    }
+
+    /**
+     * A sequence node.
+     */
+    public static final class Sequence extends AbstractList<Object> {
+
+        private final YamlTree tree;
+        private final int id;
+        private final int shift;
+
+        Sequence(YamlTree tree, int id, int shift) {
+            this.tree = tree;
+            this.id = id;
+            this.shift = shift;
+        }
+
+        @Override
+        public Object get(int index) {
+            return tree.valueOf(tree.children[slot(index)], shift);
+        }
+
+        @Override
+        public int size() {
+            return tree.sizes[id];
+        }
+
+        public TextRange range() {
+            return tree.range(id, shift);
+        }
+
+        public TextRange range(int index) {
+            return tree.range(tree.children[slot(index)], shift);
+        }
+
+        public Sequence shifted(int delta) {
+            return delta == 0 ? this : new Sequence(tree, id, shift + delta);
+        }
+
+        private int slot(int index) {
+            if (index < 0 || index >= tree.sizes[id]) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return tree.data[id] + index;
+        }
+    }
+
+    /**
+     * Builds a tree in document order, suitable for feeding from a node graph or from a
+     * stream of parse events: open containers with {@link #startSequence}/{@link #startMapping},
+     * add scalars and already-built nodes (aliases) with {@link #scalar}/{@link #alias}, and
+     * close them with {@link #end}. Inside a mapping, children alternate key, value.
+     */
+    public static final class Builder {
+
+        private byte[] kinds;
+        private int[] starts;
+        private int[] ends;
+        private int[] data;
+        private int[] sizes;
+        private String[] values;
+        private int[] children;
+        private int count;
+        private int valueCount;
+        private int childCount;
+        /** Children of all open containers, innermost last; each container owns stack[base..top). */
+        private int[] stack = new int[32];
+        private int top;
+        private int[] openIds = new int[8];
+        private int[] openBases = new int[8];
+        private int depth;
+
+        public Builder() {
+            this(64);
+        }
+
+        /**
+         * @param expectedNodes initial capacity; the builder grows as needed
+         */
+        public Builder(int expectedNodes) {
+            int n = Math.max(8, expectedNodes);
+            kinds = new byte[n];
+            starts = new int[n];
+            ends = new int[n];
+            data = new int[n];
+            sizes = new int[n];
+            values = new String[n];
+            children = new int[n];
+        }
+
+        public int scalar(String value, int start, int end) {
+            int id = newNode(SCALAR, start, end);
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, valueCount * 2);
+            }
+            values[valueCount] = value;
+            data[id] = valueCount++;
+            push(id);
+            return id;
+        }
+
+        public int startSequence(int start) {
+            return open(SEQUENCE, start);
+        }
+
+        public int startMapping(int start) {
+            return open(MAPPING, start);
+        }
+
+        /** Adds a node built earlier (the target of an alias) to the open container. */
+        public void alias(int id) {
+            push(id);
+        }
+
+        /** Closes the innermost open container. */
+        public void end(int end) {
+            int id = openIds[--depth];
+            int base = openBases[depth];
+            int n = top - base;
+            ends[id] = end;
+            if (kinds[id] == MAPPING) {
+                n = dedupePairs(base, n);
+                sizes[id] = n / 2;
+            } else {
+                sizes[id] = n;
+            }
+            if (childCount + n > children.length) {
+                children = Arrays.copyOf(children, Math.max(children.length * 2, childCount + n));
+            }
+            data[id] = childCount;
+            System.arraycopy(stack, base, children, childCount, n);
+            childCount += n;
+            top = base;
+        }
+
+        public YamlTree build() {
+            if (depth > 0) {
+                throw new IllegalStateException(depth + " container(s) still open");
+            }
+            return new YamlTree(this);
+        }
+
+        private int open(byte kind, int start) {
+            int id = newNode(kind, start, start);
+            push(id);
+            if (depth == openIds.length) {
+                openIds = Arrays.copyOf(openIds, depth * 2);
+                openBases = Arrays.copyOf(openBases, depth * 2);
+            }
+            openIds[depth] = id;
+            openBases[depth++] = top;
+            return id;
+        }
+
+        private void push(int id) {
+            if (depth == 0) {
+                return;
+            }
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = id;
+        }
+
+        /**
+         * Drops pairs with non-scalar keys and folds repeated keys into their first
+         * occurrence, last value winning. Returns the new number of ids from base.
+         */
+        private int dedupePairs(int base, int n) {
+            if (n / 2 > HASHED_KEYS) {
+                return dedupeHashed(base, n);
+            }
+            int out = base;
+            for (int i = base; i + 1 < base + n; i += 2) {
+                int key = stack[i];
+                if (kinds[key] != SCALAR) {
+                    continue;
+                }
+                String name = values[data[key]];
+                int hash = name.hashCode();
+                int existing = -1;
+                for (int j = base; j < out; j += 2) {
+                    String other = values[data[stack[j]]];
+                    if (other.hashCode() == hash && other.equals(name)) {
+                        existing = j;
+                        break;
+                    }
+                }
+                if (existing >= 0) {
+                    stack[existing] = key;
+                    stack[existing + 1] = stack[i + 1];
+                } else {
+                    stack[out++] = key;
+                    stack[out++] = stack[i + 1];
+                }
+            }
+            return out - base;
+        }
+
+        private int dedupeHashed(int base, int n) {
+            Map<String, Integer> seen = new HashMap<>(n);
+            int out = base;
+            for (int i = base; i + 1 < base + n; i += 2) {
+                int key = stack[i];
+                if (kinds[key] != SCALAR) {
+                    continue;
+                }
+                Integer existing = seen.putIfAbsent(values[data[key]], out);
+                if (existing != null) {
+                    stack[existing] = key;
+                    stack[existing + 1] = stack[i + 1];
+                } else {
+                    stack[out++] = key;
+                    stack[out++] = stack[i + 1];
+                }
+            }
+            return out - base;
+        }
+
+        private int newNode(byte kind, int start, int end) {
+            if (count == kinds.length) {
+                int size = count * 2;
+                kinds = Arrays.copyOf(kinds, size);
+                starts = Arrays.copyOf(starts, size);
+                ends = Arrays.copyOf(ends, size);
+                data = Arrays.copyOf(data, size);
+                sizes = Arrays.copyOf(sizes, size);
+            }
+            kinds[count] = kind;
+            starts[count] = start;
+            ends[count] = end;
+            return count++;
+        }
+    }
+}
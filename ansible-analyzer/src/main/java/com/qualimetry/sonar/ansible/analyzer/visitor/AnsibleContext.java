@@ -15,6 +15,11 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.visitor;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaCache;
+import com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import org.sonar.api.batch.fs.InputFile;
 
@@ -33,6 +38,12 @@ public class AnsibleContext {
     private final String rawContent;
     private final List<Issue> issues;
     private PathResolver pathResolver;
+    private ProjectGraph projectGraph;
+    private VariableTable variableTable;
+    private FileVariables fileVariables;
+    private JinjaCache jinjaCache;
+    private LineIndex lineIndex;
+    private FileClassifier.Kind fileKind = FileClassifier.Kind.PLAYBOOK;
 
     public AnsibleContext(PlaybookFile playbookFile, InputFile inputFile, String rawContent) {
         this.playbookFile = Objects.requireNonNull(playbookFile);
@@ -57,6 +68,29 @@ public class AnsibleContext {
         return rawContent;
     }
 
+    /**
+     * Line index over the raw content, built on first use and shared by all checks.
+     * Returns null when there is no raw content.
+     */
+    public LineIndex getLineIndex() {
+        if (lineIndex == null && rawContent != null) {
+            lineIndex = LineIndex.of(rawContent);
+        }
+        return lineIndex;
+    }
+
+    /**
+     * What the file is, as {@link FileClassifier} placed it; a playbook unless set. Checks
+     * whose {@link BaseCheck#fileKinds()} leave it out are not run on the file.
+     */
+    public FileClassifier.Kind getFileKind() {
+        return fileKind;
+    }
+
+    public void setFileKind(FileClassifier.Kind fileKind) {
+        this.fileKind = Objects.requireNonNull(fileKind);
+    }
+
     public PathResolver getPathResolver() {
         return pathResolver;
     }
@@ -65,6 +99,52 @@ public class AnsibleContext {
         this.pathResolver = pathResolver;
     }
 
+    /**
+     * Include and role dependencies between the project's files, or null when the file is
+     * analyzed on its own. The current file's node is keyed by
+     * {@code ProjectGraph.pathOf(getPlaybookFile().uri())}.
+     */
+    public ProjectGraph getProjectGraph() {
+        return projectGraph;
+    }
+
+    public void setProjectGraph(ProjectGraph projectGraph) {
+        this.projectGraph = projectGraph;
+    }
+
+    /**
+     * Variable definitions and references of the whole project, including this file, or null
+     * when the file is analyzed on its own or the project is not fully known.
+     */
+    public VariableTable getVariableTable() {
+        return variableTable;
+    }
+
+    public void setVariableTable(VariableTable variableTable) {
+        this.variableTable = variableTable;
+    }
+
+    /**
+     * Variables this file defines and reads, collected on first use and shared by all checks.
+     */
+    public FileVariables getFileVariables() {
+        if (fileVariables == null) {
+            fileVariables = FileVariables.of(playbookFile, getJinjaCache());
+        }
+        return fileVariables;
+    }
+
+    /**
+     * Jinja2 token streams of this file's scalars, shared by all checks so each templated
+     * scalar is tokenized once.
+     */
+    public JinjaCache getJinjaCache() {
+        if (jinjaCache == null) {
+            jinjaCache = new JinjaCache();
+        }
+        return jinjaCache;
+    }
+
     public void addIssue(Issue issue) {
         issues.add(Objects.requireNonNull(issue));
     }
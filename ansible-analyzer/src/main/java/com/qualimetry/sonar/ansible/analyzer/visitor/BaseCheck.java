@@ -15,15 +15,21 @@
  */
 package com.qualimetry.sonar.ansible.analyzer.visitor;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
 import org.sonar.check.Rule;
 
+import java.util.Set;
+
 /**
  * Base class for Ansible analysis checks. Subclasses implement AnsibleVisitor and report via addIssue.
  */
 public abstract class BaseCheck implements AnsibleVisitor {
 
     private AnsibleContext context;
+    /** Index of this check in its runner's check list, for {@link CheckMetrics}. */
+    int metricsSlot;
 
     public void setContext(AnsibleContext context) {
         this.context = context;
@@ -33,6 +39,26 @@ public abstract class BaseCheck implements AnsibleVisitor {
         return context;
     }
 
+    /**
+     * Modules whose tasks {@link #visitTask} acts on, as short or fully qualified names, or null
+     * to receive every task. {@link CheckRunner} uses this to skip dispatching tasks the check
+     * would ignore anyway; only return a set if visitTask returns early for any other module
+     * and for tasks without a module key.
+     */
+    public Set<String> taskModules() {
+        return null;
+    }
+
+    /**
+     * Kinds of file (see {@link FileClassifier}) the check applies to, or null for every kind.
+     * {@link CheckRunner} does not walk a file of another kind with the check; rules about the
+     * structure of plays return {@link FileClassifier.Kind#PLAYBOOK} alone, so task and vars
+     * files are not held to it.
+     */
+    public Set<FileClassifier.Kind> fileKinds() {
+        return null;
+    }
+
     protected String getRuleKey() {
         Rule r = getClass().getAnnotation(Rule.class);
         return r != null ? r.key() : "unknown";
@@ -55,4 +81,24 @@ public abstract class BaseCheck implements AnsibleVisitor {
             context.addIssue(new Issue(getRuleKey(), message, position, position.line(), null, null));
         }
     }
+
+    /**
+     * Reports an issue on a source range, such as a task key or value range.
+     * The issue is placed on the line where the range starts and, when the range ends on that
+     * line, spans exactly to its end. Falls back to a line issue on {@code line} when the range
+     * is null or the file text is not available.
+     */
+    protected void addIssue(TextRange range, int line, String message) {
+        LineIndex lines = context != null ? context.getLineIndex() : null;
+        if (range == null || lines == null || range.start() > lines.text().length()) {
+            addLineIssue(line, message);
+            return;
+        }
+        int startLine = lines.lineOf(range.start());
+        int lineStart = lines.lineStart(startLine);
+        int endColumn = Math.min(range.end(), lines.lineEnd(startLine)) - lineStart;
+        int column = range.start() - lineStart + 1;
+        context.addIssue(new Issue(getRuleKey(), message, new TextPosition(startLine, column), startLine, null,
+                endColumn >= column ? endColumn : null));
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR event for one check's share of one file's walk. The walk is fused, so a check's
+ * callbacks are interleaved with the others'; the event carries their summed time rather
+ * than a begin/end span. Emitted by {@link CheckRunner} only while a recording with this
+ * event enabled is running, measuring the walk as {@link CheckMetrics} does.
+ */
+@Name("com.qualimetry.ansible.Check")
+@Label("Check")
+@Category({"Ansible Analyzer", "Checks"})
+@Description("Time, callbacks and issues of one rule on one file")
+@StackTrace(false)
+final class CheckEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(CheckEvent.class);
+
+    @Label("URI")
+    String uri;
+
+    @Label("Rule")
+    String ruleKey;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+
+    @Label("Invocations")
+    long invocations;
+
+    @Label("Issues")
+    int issues;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the check, or -1 when allocation is not measured")
+    @DataAmount
+    long allocated;
+
+    static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Commits one event per check that was called during the walk.
+     */
+    static void emit(AnsibleContext context, List<BaseCheck> checks, CheckMetrics.Recorder recorder) {
+        Map<String, Integer> issues = new HashMap<>();
+        for (Issue issue : context.getIssues()) {
+            issues.merge(issue.ruleKey(), 1, Integer::sum);
+        }
+        String uri = context.getPlaybookFile() != null ? context.getPlaybookFile().uri() : null;
+        for (BaseCheck check : checks) {
+            int slot = check.metricsSlot;
+            if (recorder.invocations(slot) == 0) {
+                continue;
+            }
+            CheckEvent event = new CheckEvent();
+            event.uri = uri;
+            event.ruleKey = check.getRuleKey();
+            event.time = recorder.nanos(slot);
+            event.invocations = recorder.invocations(slot);
+            event.issues = issues.getOrDefault(event.ruleKey, 0);
+            event.allocated = recorder.bytes(slot);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-rule execution statistics collected by a {@link CheckRunner}: callback invocations,
+ * wall time spent inside the check and, optionally, bytes allocated by it.
+ * <p>
+ * Each thread accumulates into its own arrays while it walks a file and adds them to the
+ * shared totals once per file, so threads never contend inside a walk. With {@link Mode#OFF}
+ * nothing is measured and the walk only tests one null reference per callback. Otherwise
+ * timestamps are chained, one clock read per callback, and the per-line callbacks of line
+ * checks, by far the most frequent, are timed on every {@value #LINE_SAMPLE}th line only and
+ * scaled up; invocations are always exact. Allocation reads the thread's allocation counter
+ * from the {@code ThreadMXBean} at the same points, where the JVM supports it.
+ */
+public final class CheckMetrics {
+
+    /** What to measure. */
+    public enum Mode {
+        /** Nothing; the runner skips all bookkeeping. */
+        OFF,
+        /** Invocations and wall time. */
+        TIME,
+        /** Invocations, wall time and allocated bytes. */
+        ALLOCATION
+    }
+
+    /** Lines between two timed lines of a line scan; a power of two. */
+    static final int LINE_SAMPLE = 8;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final Mode mode;
+    private final List<String> ruleKeys;
+    private final AtomicLongArray invocations;
+    private final AtomicLongArray nanos;
+    private final AtomicLongArray bytes;
+    private final AtomicLong files = new AtomicLong();
+
+    /**
+     * @param mode     what to measure; ALLOCATION falls back to TIME when the JVM cannot
+     *                 report per-thread allocation
+     * @param ruleKeys rule key of each check slot, in the order of the runner's check list
+     */
+    CheckMetrics(Mode mode, List<String> ruleKeys) {
+        this.mode = mode == Mode.ALLOCATION && THREADS == null ? Mode.TIME : mode;
+        this.ruleKeys = List.copyOf(ruleKeys);
+        this.invocations = new AtomicLongArray(ruleKeys.size());
+        this.nanos = new AtomicLongArray(ruleKeys.size());
+        this.bytes = new AtomicLongArray(ruleKeys.size());
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Number of files walked since the metrics were created.
+     */
+    public long files() {
+        return files.get();
+    }
+
+    /**
+     * Current totals per rule, most expensive first. Rules that were never invoked are
+     * included with zero counts.
+     */
+    public List<RuleStats> snapshot() {
+        List<RuleStats> out = new ArrayList<>(ruleKeys.size());
+        for (int i = 0; i < ruleKeys.size(); i++) {
+            out.add(new RuleStats(ruleKeys.get(i), invocations.get(i), nanos.get(i),
+                    mode == Mode.ALLOCATION ? bytes.get(i) : -1));
+        }
+        out.sort(Comparator.comparingLong(RuleStats::nanos).reversed());
+        return out;
+    }
+
+    /**
+     * Per-thread accumulator, or null when nothing is measured.
+     */
+    Recorder newRecorder() {
+        return mode == Mode.OFF ? null : new Recorder(this);
+    }
+
+    private void add(Recorder recorder) {
+        files.incrementAndGet();
+        for (int i = 0; i < ruleKeys.size(); i++) {
+            if (recorder.invocations[i] != 0) {
+                invocations.addAndGet(i, recorder.invocations[i]);
+                nanos.addAndGet(i, recorder.nanos[i]);
+                bytes.addAndGet(i, recorder.bytes[i]);
+                recorder.invocations[i] = 0;
+                recorder.nanos[i] = 0;
+                recorder.bytes[i] = 0;
+            }
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return bean;
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // not available on this JVM
+        }
+        return null;
+    }
+
+    /**
+     * Totals for one rule.
+     *
+     * @param ruleKey        the rule
+     * @param invocations    callbacks made to the check (per task, play, line, ...)
+     * @param nanos          wall time inside those callbacks
+     * @param allocatedBytes bytes allocated inside them, or -1 if not measured
+     */
+    public record RuleStats(String ruleKey, long invocations, long nanos, long allocatedBytes) {
+    }
+
+    /**
+     * Measures callbacks on one thread. Call {@link #begin} before a run of callbacks and
+     * {@link #end} after each; each end starts the measurement of the next callback.
+     */
+    static final class Recorder {
+
+        private final CheckMetrics metrics;
+        private final boolean allocation;
+        private final long[] invocations;
+        private final long[] nanos;
+        private final long[] bytes;
+        private long startNanos;
+        private long startBytes;
+
+        private Recorder(CheckMetrics metrics) {
+            this.metrics = metrics;
+            this.allocation = metrics.mode == Mode.ALLOCATION;
+            int n = metrics.ruleKeys.size();
+            this.invocations = new long[n];
+            this.nanos = new long[n];
+            this.bytes = new long[n];
+        }
+
+        CheckMetrics metrics() {
+            return metrics;
+        }
+
+        void begin() {
+            if (allocation) {
+                startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            }
+            startNanos = System.nanoTime();
+        }
+
+        void end(int slot) {
+            end(slot, 1);
+        }
+
+        /** Ends a callback that stands for weight callbacks of the same kind. */
+        void end(int slot, int weight) {
+            long now = System.nanoTime();
+            nanos[slot] += (now - startNanos) * weight;
+            invocations[slot]++;
+            if (allocation) {
+                long allocated = THREADS.getCurrentThreadAllocatedBytes();
+                bytes[slot] += (allocated - startBytes) * weight;
+                startBytes = allocated;
+            }
+            startNanos = now;
+        }
+
+        long invocations(int slot) {
+            return invocations[slot];
+        }
+
+        long nanos(int slot) {
+            return nanos[slot];
+        }
+
+        /** Bytes allocated in the slot's callbacks, or -1 when allocation is not measured. */
+        long bytes(int slot) {
+            return allocation ? bytes[slot] : -1;
+        }
+
+        /** Counts a callback that was not timed. */
+        void count(int slot) {
+            invocations[slot]++;
+        }
+
+        /** Adds this file's figures to the shared totals and clears them. */
+        void flush() {
+            metrics.add(this);
+        }
+    }
+}
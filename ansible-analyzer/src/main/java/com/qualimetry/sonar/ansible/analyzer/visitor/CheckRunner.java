@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a set of checks over one file at a time, safely from many threads.
+ * <p>
+ * A check keeps its {@link AnsibleContext} (and possibly other per-file state) in fields, so
+ * one instance must never walk two files at once. Each thread therefore gets its own check
+ * instances from the factory, created on first use and reused for every later file that
+ * thread analyzes.
+ * <p>
+ * Checks are not walked one after another: the file is walked once and each node is
+ * dispatched only to the checks that override the matching callback (see {@link DispatchPlan}),
+ * among those that apply to the file's {@linkplain AnsibleContext#getFileKind() kind}.
+ * <p>
+ * Per-rule timing and allocation can be switched on with {@link #setMetricsMode}; see
+ * {@link CheckMetrics}. While a JFR recording has the {@code com.qualimetry.ansible.Check}
+ * event enabled, every walk is measured and reported as one event per check.
+ */
+public final class CheckRunner {
+
+    private final ThreadLocal<ThreadChecks> checks;
+    private volatile CheckMetrics metrics;
+
+    /**
+     * @param factory creates a fresh, fully configured set of checks; called once per thread
+     */
+    public CheckRunner(Supplier<? extends List<? extends BaseCheck>> factory) {
+        this.checks = ThreadLocal.withInitial(() -> new ThreadChecks(List.copyOf(factory.get())));
+        this.metrics = new CheckMetrics(CheckMetrics.Mode.OFF, List.of());
+    }
+
+    /**
+     * Creates a runner instantiating the given check classes through their no-arg constructors.
+     */
+    public static CheckRunner forClasses(List<Class<? extends BaseCheck>> checkClasses) {
+        return new CheckRunner(() -> {
+            List<BaseCheck> out = new ArrayList<>(checkClasses.size());
+            try {
+                for (Class<? extends BaseCheck> clazz : checkClasses) {
+                    out.add(clazz.getDeclaredConstructor().newInstance());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not instantiate checks", e);
+            }
+            return out;
+        });
+    }
+
+    /**
+     * Walks the context's playbook with every check; issues are added to the context.
+     */
+    public void run(AnsibleContext context) {
+        run(context, () -> false);
+    }
+
+    /**
+     * Walks the context's playbook with every check, polling {@code cancelled} between plays.
+     *
+     * @return false if the run was cancelled before all checks completed
+     */
+    public boolean run(AnsibleContext context, BooleanSupplier cancelled) {
+        ThreadChecks threadChecks = checks.get();
+        boolean events = CheckEvent.isTypeEnabled();
+        CheckMetrics.Recorder recorder = threadChecks.recorder(metrics, events);
+        try {
+            for (BaseCheck check : threadChecks.checks) {
+                check.setContext(context);
+            }
+            return threadChecks.plan(context.getFileKind()).walk(context, cancelled, recorder);
+        } finally {
+            // Do not keep the last file's tree and content reachable from pooled threads
+            for (BaseCheck check : threadChecks.checks) {
+                check.setContext(null);
+            }
+            if (recorder != null) {
+                if (events) {
+                    CheckEvent.emit(context, threadChecks.checks, recorder);
+                }
+                recorder.flush();
+            }
+        }
+    }
+
+    /**
+     * Starts collecting per-rule metrics in the given mode, discarding the figures collected
+     * so far. OFF stops collecting.
+     */
+    public void setMetricsMode(CheckMetrics.Mode mode) {
+        metrics = new CheckMetrics(mode, checks.get().ruleKeys());
+    }
+
+    /**
+     * The metrics being collected; empty with mode OFF unless enabled.
+     */
+    public CheckMetrics metrics() {
+        return metrics;
+    }
+
+    private static final class ThreadChecks {
+
+        private final List<BaseCheck> checks;
+        private final DispatchPlan plan;
+        private final Map<FileClassifier.Kind, DispatchPlan> plans = new EnumMap<>(FileClassifier.Kind.class);
+        private CheckMetrics.Recorder recorder;
+        private CheckMetrics.Recorder eventRecorder;
+
+        ThreadChecks(List<BaseCheck> checks) {
+            this.checks = checks;
+            this.plan = new DispatchPlan(checks);
+            for (int i = 0; i < checks.size(); i++) {
+                checks.get(i).metricsSlot = i;
+            }
+        }
+
+        /** The plan for files of a kind, shared with every kind all the checks apply to. */
+        DispatchPlan plan(FileClassifier.Kind kind) {
+            return plans.computeIfAbsent(kind, k -> {
+                List<BaseCheck> applicable = new ArrayList<>(checks.size());
+                for (BaseCheck check : checks) {
+                    Set<FileClassifier.Kind> kinds = check.fileKinds();
+                    if (kinds == null || kinds.contains(k)) {
+                        applicable.add(check);
+                    }
+                }
+                return applicable.size() == checks.size() ? plan : new DispatchPlan(applicable);
+            });
+        }
+
+        List<String> ruleKeys() {
+            List<String> ruleKeys = new ArrayList<>(checks.size());
+            for (BaseCheck check : checks) {
+                ruleKeys.add(check.getRuleKey());
+            }
+            return ruleKeys;
+        }
+
+        /**
+         * This thread's recorder for the metrics, or null when they are off and no JFR events
+         * are wanted. Events alone use a private timing-only recorder.
+         */
+        CheckMetrics.Recorder recorder(CheckMetrics metrics, boolean events) {
+            if (metrics.mode() == CheckMetrics.Mode.OFF) {
+                if (!events) {
+                    return null;
+                }
+                if (eventRecorder == null) {
+                    eventRecorder = new CheckMetrics(CheckMetrics.Mode.TIME, ruleKeys()).newRecorder();
+                }
+                return eventRecorder;
+            }
+            if (recorder == null || recorder.metrics() != metrics) {
+                recorder = metrics.newRecorder();
+            }
+            return recorder;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Dispatch tables for walking a playbook once with many checks.
+ * <p>
+ * Built once per check set: each callback gets the list of checks that actually override
+ * it, and visitTask is additionally indexed by module name for checks that declare
+ * {@link BaseCheck#taskModules()}. A walk then only makes the calls that can do work.
+ * {@link LineCheck}s share one pass over the file's lines instead of scanning it each.
+ * Each check still sees its callbacks in the same order as with {@link AnsibleWalker}.
+ */
+final class DispatchPlan {
+
+    private static final BaseCheck[] NONE = new BaseCheck[0];
+
+    private final BaseCheck[] visitFile;
+    private final LineCheck[] lineChecks;
+    private final BaseCheck[] leaveFile;
+    private final BaseCheck[] visitPlay;
+    private final BaseCheck[] leavePlay;
+    private final BaseCheck[] visitRoleRef;
+    private final BaseCheck[] leaveRoleRef;
+    private final BaseCheck[] everyTask;
+    private final BaseCheck[] anyModuleTask;
+    private final Map<String, BaseCheck[]> tasksByModule;
+
+    DispatchPlan(List<BaseCheck> checks) {
+        visitFile = subscribers(checks, c -> !(c instanceof LineCheck)
+                && overrides(c, "visitPlaybookFile", PlaybookFile.class));
+        lineChecks = checks.stream()
+                .filter(LineCheck.class::isInstance)
+                .map(LineCheck.class::cast)
+                .toArray(LineCheck[]::new);
+        leaveFile = subscribers(checks, c -> overrides(c, "leavePlaybookFile", PlaybookFile.class));
+        visitPlay = subscribers(checks, c -> overrides(c, "visitPlay", Play.class));
+        leavePlay = subscribers(checks, c -> overrides(c, "leavePlay", Play.class));
+        visitRoleRef = subscribers(checks, c -> overrides(c, "visitRoleRef", RoleRef.class));
+        leaveRoleRef = subscribers(checks, c -> overrides(c, "leaveRoleRef", RoleRef.class));
+
+        BaseCheck[] taskChecks = subscribers(checks, c -> overrides(c, "visitTask", Task.class));
+        everyTask = subscribers(List.of(taskChecks), c -> c.taskModules() == null);
+        anyModuleTask = subscribers(List.of(taskChecks), c -> c.taskModules() != null);
+        Map<String, List<BaseCheck>> byModule = new HashMap<>();
+        for (BaseCheck check : anyModuleTask) {
+            Set<String> modules = check.taskModules();
+            for (String module : modules) {
+                List<BaseCheck> list = byModule.computeIfAbsent(baseName(module), k -> new ArrayList<>());
+                if (!list.contains(check)) {
+                    list.add(check);
+                }
+            }
+        }
+        tasksByModule = new HashMap<>();
+        byModule.forEach((module, list) -> tasksByModule.put(module, list.toArray(NONE)));
+    }
+
+    /**
+     * Walks the file once, invoking only subscribed callbacks. Cancellation is polled per play.
+     *
+     * @param recorder measures callbacks per check, or null
+     * @return false if cancelled before the walk completed
+     */
+    boolean walk(AnsibleContext context, BooleanSupplier cancelled, CheckMetrics.Recorder recorder) {
+        if (cancelled.getAsBoolean()) {
+            return false;
+        }
+        PlaybookFile file = context.getPlaybookFile();
+        if (recorder != null) recorder.begin();
+        for (BaseCheck check : visitFile) {
+            check.visitPlaybookFile(file);
+            if (recorder != null) recorder.end(check.metricsSlot);
+        }
+        if (lineChecks.length > 0 && context.getLineIndex() != null) {
+            scanLines(context.getLineIndex(), recorder);
+        }
+        for (Play play : file.plays()) {
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+            if (recorder != null) recorder.begin();
+            for (BaseCheck check : visitPlay) {
+                check.visitPlay(play);
+                if (recorder != null) recorder.end(check.metricsSlot);
+            }
+            for (Task task : play.tasks()) {
+                if (recorder != null) recorder.begin();
+                for (BaseCheck check : everyTask) {
+                    check.visitTask(task);
+                    if (recorder != null) recorder.end(check.metricsSlot);
+                }
+                for (BaseCheck check : routedTaskChecks(task.moduleKey())) {
+                    check.visitTask(task);
+                    if (recorder != null) recorder.end(check.metricsSlot);
+                }
+            }
+            if (visitRoleRef.length > 0 || leaveRoleRef.length > 0) {
+                for (RoleRef roleRef : play.roles()) {
+                    if (recorder != null) recorder.begin();
+                    for (BaseCheck check : visitRoleRef) {
+                        check.visitRoleRef(roleRef);
+                        if (recorder != null) recorder.end(check.metricsSlot);
+                    }
+                    for (BaseCheck check : leaveRoleRef) {
+                        check.leaveRoleRef(roleRef);
+                        if (recorder != null) recorder.end(check.metricsSlot);
+                    }
+                }
+            }
+            if (recorder != null) recorder.begin();
+            for (BaseCheck check : leavePlay) {
+                check.leavePlay(play);
+                if (recorder != null) recorder.end(check.metricsSlot);
+            }
+        }
+        if (recorder != null) recorder.begin();
+        for (BaseCheck check : leaveFile) {
+            check.leavePlaybookFile(file);
+            if (recorder != null) recorder.end(check.metricsSlot);
+        }
+        return true;
+    }
+
+    /**
+     * Feeds every line to the line checks that want it; a check that returns false from
+     * visitLine is dropped for the rest of the file.
+     */
+    private void scanLines(LineIndex lines, CheckMetrics.Recorder recorder) {
+        LineCheck[] active = new LineCheck[lineChecks.length];
+        int count = 0;
+        if (recorder != null) recorder.begin();
+        for (LineCheck check : lineChecks) {
+            boolean wantsLines = check.beginLines(lines);
+            if (recorder != null) recorder.end(check.metricsSlot);
+            if (wantsLines) {
+                active[count++] = check;
+            }
+        }
+        for (int i = 1; i <= lines.lineCount() && count > 0; i++) {
+            CharSequence line = lines.line(i);
+            boolean timed = recorder != null && (i & (CheckMetrics.LINE_SAMPLE - 1)) == 0;
+            if (timed) recorder.begin();
+            for (int k = 0; k < count; ) {
+                LineCheck check = active[k];
+                boolean more = check.visitLine(i, line);
+                if (timed) {
+                    recorder.end(check.metricsSlot, CheckMetrics.LINE_SAMPLE);
+                } else if (recorder != null) {
+                    recorder.count(check.metricsSlot);
+                }
+                if (more) {
+                    k++;
+                } else {
+                    System.arraycopy(active, k + 1, active, k, count - k - 1);
+                    count--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks with a module filter that must see a task. Tasks without a module key never
+     * match a filter; "include:path" style keys are not routed and go to all of them.
+     */
+    private BaseCheck[] routedTaskChecks(String moduleKey) {
+        if (moduleKey == null || anyModuleTask.length == 0) {
+            return NONE;
+        }
+        if (moduleKey.indexOf(':') >= 0) {
+            return anyModuleTask;
+        }
+        BaseCheck[] checks = tasksByModule.get(baseName(moduleKey));
+        return checks != null ? checks : NONE;
+    }
+
+    /** Module name without its collection prefix (ansible.builtin.shell -> shell). */
+    static String baseName(String module) {
+        int dot = module.lastIndexOf('.');
+        return dot >= 0 ? module.substring(dot + 1) : module;
+    }
+
+    private static BaseCheck[] subscribers(List<BaseCheck> checks, Predicate<BaseCheck> filter) {
+        List<BaseCheck> out = new ArrayList<>();
+        for (BaseCheck check : checks) {
+            if (filter.test(check)) {
+                out.add(check);
+            }
+        }
+        return out.toArray(NONE);
+    }
+
+    private static boolean overrides(BaseCheck check, String method, Class<?> parameterType) {
+        try {
+            return check.getClass().getMethod(method, parameterType).getDeclaringClass() != AnsibleVisitor.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+
+/**
+ * Base class for checks that work on the raw text line by line.
+ * <p>
+ * Lines come from the context's shared {@link LineIndex} as views over the original content.
+ * When run through {@link CheckRunner}, all line checks are fed from a single pass over the
+ * file; when walked on their own, {@link #visitPlaybookFile} does the scan.
+ */
+public abstract class LineCheck extends BaseCheck {
+
+    /**
+     * Called before the first line of each file. Reset per-file state here.
+     *
+     * @param lines index of the file being scanned
+     * @return false to skip this file's lines entirely
+     */
+    protected boolean beginLines(LineIndex lines) {
+        return true;
+    }
+
+    /**
+     * Called for each line in order.
+     *
+     * @param lineNumber 1-based line number
+     * @param line       the line without its terminator; only valid during the call
+     * @return false to stop receiving lines for this file
+     */
+    protected abstract boolean visitLine(int lineNumber, CharSequence line);
+
+    @Override
+    public final void visitPlaybookFile(PlaybookFile file) {
+        LineIndex lines = getContext() != null ? getContext().getLineIndex() : null;
+        if (lines == null || !beginLines(lines)) return;
+        for (int i = 1; i <= lines.lineCount(); i++) {
+            if (!visitLine(i, lines.line(i))) return;
+        }
+    }
+
+    /**
+     * Returns true if the line contains the given text.
+     */
+    protected static boolean contains(CharSequence line, String s) {
+        return indexOf(line, s) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the character in the line, or -1.
+     */
+    protected static int indexOf(CharSequence line, char c) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the text in the line, or -1.
+     */
+    protected static int indexOf(CharSequence line, String s) {
+        int max = line.length() - s.length();
+        outer:
+        for (int i = 0; i <= max; i++) {
+            for (int j = 0; j < s.length(); j++) {
+                if (line.charAt(i + j) != s.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import java.util.Arrays;
+
+/**
+ * Line start offsets over a file's text, with zero-copy views of individual lines.
+ * <p>
+ * Lines are split exactly like {@code text.split("\\r?\\n", -1)}: "\n" and "\r\n" end a line
+ * (and are not part of it), a lone "\r" does not, and text ending in a newline has a final
+ * empty line. Line numbers are 1-based, as everywhere else in the analyzer.
+ */
+public final class LineIndex {
+
+    private final CharSequence text;
+    private final int[] starts;
+    private final int lineCount;
+
+    private LineIndex(CharSequence text, int[] starts, int lineCount) {
+        this.text = text;
+        this.starts = starts;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Indexes the text in one pass; the text is referenced, not copied.
+     */
+    public static LineIndex of(CharSequence text) {
+        int[] starts = new int[Math.max(16, text.length() / 32)];
+        int count = 1;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (text.charAt(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return new LineIndex(text, starts, count);
+    }
+
+    public CharSequence text() {
+        return text;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /** Offset of the first character of the line. */
+    public int lineStart(int line) {
+        return starts[checkLine(line) - 1];
+    }
+
+    /** Offset just past the last character of the line, excluding its line terminator. */
+    public int lineEnd(int line) {
+        if (checkLine(line) == lineCount) {
+            return text.length();
+        }
+        int end = starts[line] - 1;
+        return end > starts[line - 1] && text.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    public int lineLength(int line) {
+        return lineEnd(line) - lineStart(line);
+    }
+
+    /** The line's characters as a view over the original text (no copy). */
+    public CharSequence line(int line) {
+        return new LineView(text, lineStart(line), lineEnd(line));
+    }
+
+    /** 1-based line containing the offset; offsets past the end map to the last line. */
+    public int lineOf(int offset) {
+        int idx = Arrays.binarySearch(starts, 0, lineCount, offset);
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+
+    private int checkLine(int line) {
+        if (line < 1 || line > lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " outside 1.." + lineCount);
+        }
+        return line;
+    }
+
+    private record LineView(CharSequence text, int start, int end) implements CharSequence {
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return text.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("[" + from + ", " + to + ")");
+            }
+            return new LineView(text, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(start, end).toString();
+        }
+    }
+}
@@ -90,4 +90,18 @@ class CommandInsteadOfModuleCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenCommandHasLeadingSpaceAndUpperCase_reportsTheLongestPrefix() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Link
+                  command:
+                    cmd: "  LN -s /opt/app /srv/app"
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).hasSize(1);
+        assertThat(context.getIssues().get(0).message()).contains("state: link");
+    }
 }
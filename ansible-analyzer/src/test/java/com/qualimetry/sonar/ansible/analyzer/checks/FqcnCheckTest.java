@@ -17,6 +17,7 @@ package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
@@ -64,6 +65,8 @@ class FqcnCheckTest {
         assertThat(context.getIssues()).hasSize(1);
         assertThat(context.getIssues().get(0).ruleKey()).isEqualTo("qa-full-module-name");
         assertThat(context.getIssues().get(0).message()).contains("FQCN");
+        assertThat(context.getIssues().get(0).position()).isEqualTo(new TextPosition(4, 7));
+        assertThat(context.getIssues().get(0).endColumn()).isEqualTo(10);
     }
 
     @Test
@@ -74,4 +74,34 @@ class JinjaCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenBlockScalarLineIsUnspaced_reportsThatLine() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Write file
+                  ansible.builtin.copy:
+                    dest: /etc/motd
+                    content: |
+                      Welcome {{ user }}
+                      Host {{inventory_hostname}}
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).hasSize(1);
+        assertThat(context.getIssues().get(0).line()).isEqualTo(8);
+    }
+
+    @Test
+    void whenWhitespaceControlOrComment_reportsNoIssue() {
+        String yaml = """
+            # {{not_a_template}} in a comment
+            - hosts: all
+              tasks:
+                - name: Set var
+                  set_fact:
+                    x: "{%- if a %}{{- a -}}{% endif -%}"
+            """;
+        assertThat(runCheck(yaml).getIssues()).isEmpty();
+    }
 }
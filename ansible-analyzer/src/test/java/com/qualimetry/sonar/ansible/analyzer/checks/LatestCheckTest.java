@@ -17,6 +17,7 @@ package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
@@ -47,4 +48,21 @@ class LatestCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenVersionHead_reportsIssueOnVersionValue() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Checkout
+                  ansible.builtin.git:
+                    repo: https://git.example.com/app.git
+                    version: HEAD
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).hasSize(1);
+        assertThat(context.getIssues().get(0).line()).isEqualTo(6);
+        assertThat(context.getIssues().get(0).position()).isEqualTo(new TextPosition(6, 18));
+        assertThat(context.getIssues().get(0).endColumn()).isEqualTo(21);
+    }
 }
@@ -75,4 +75,16 @@ class LiteralCompareCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenComparedWordOnlyStartsWithLiteral_reportsNoIssue() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Run on release
+                  ansible.builtin.command: /bin/true
+                  when: release == "yesterday" or label == 'none == yes'
+            """;
+        assertThat(runCheck(yaml).getIssues()).isEmpty();
+    }
 }
@@ -16,11 +16,15 @@
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileSummary;
+import com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class NoHandlerCheckTest {
@@ -29,8 +33,13 @@ class NoHandlerCheckTest {
     private final AnsibleParser parser = new AnsibleParser();
 
     private AnsibleContext runCheck(String yaml) {
-        PlaybookFile file = parser.parse(URI, yaml);
+        return runCheck(URI, yaml, null);
+    }
+
+    private AnsibleContext runCheck(String uri, String yaml, ProjectGraph graph) {
+        PlaybookFile file = parser.parse(uri, yaml);
         AnsibleContext context = new AnsibleContext(file, null, yaml);
+        context.setProjectGraph(graph);
         NoHandlerCheck check = new NoHandlerCheck();
         check.setContext(context);
         AnsibleWalker.walk(file, check);
@@ -47,4 +56,160 @@ class NoHandlerCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenNotifyHasNoHandler_reportsIssueOnTheNotification() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Configure nginx
+                  ansible.builtin.template:
+                    src: nginx.conf.j2
+                    dest: /etc/nginx/nginx.conf
+                  notify:
+                    - Restart nginx
+                    - restart web
+                    - Reload nginx
+                    - "{{ handler_name }}"
+              handlers:
+                - name: Restart nginx
+                  ansible.builtin.service:
+                    name: nginx
+                    state: restarted
+                - name: Reload service
+                  listen: restart web
+                  ansible.builtin.service:
+                    name: nginx
+                    state: reloaded
+                  notify: Flush cache
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).extracting(i -> i.message()).containsExactly(
+                "Add a handler named or listening to \"Flush cache\"; nothing in the play or its roles handles it.",
+                "Add a handler named or listening to \"Reload nginx\"; nothing in the play or its roles handles it.");
+        assertThat(context.getIssues().get(1).line()).isEqualTo(10);
+        assertThat(context.getIssues().get(1).position().column()).isEqualTo(11);
+    }
+
+    @Test
+    void whenPlayUsesRolesNotInTheGraph_reportsNoIssue() {
+        String yaml = """
+            - hosts: all
+              roles:
+                - web
+              tasks:
+                - name: Configure nginx
+                  ansible.builtin.command: /bin/true
+                  notify: Restart nginx
+            """;
+        assertThat(runCheck(yaml).getIssues()).isEmpty();
+    }
+
+    @Test
+    void whenPlayUsesIndexedRoles_matchesTheRoleHandlers() {
+        ProjectGraph graph = new ProjectGraph();
+        graph.update(Path.of("/repo/roles/web/handlers/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/web/handlers/main.yml", """
+                - name: Restart nginx
+                  ansible.builtin.service:
+                    name: nginx
+                    state: restarted
+                """)));
+        graph.update(Path.of("/repo/roles/db/tasks/main.yml"), FileSummary.EMPTY);
+        String yaml = """
+            - hosts: all
+              roles:
+                - web
+                - db
+              tasks:
+                - name: Configure nginx
+                  ansible.builtin.command: /bin/true
+                  notify:
+                    - web : Restart nginx
+                    - Restart postgres
+            """;
+        assertThat(runCheck(URI, yaml, graph).getIssues()).extracting(i -> i.line()).containsExactly(10);
+    }
+
+    @Test
+    void whenPlayUsesRolesWithDependencies_matchesTheDependencyHandlers() {
+        ProjectGraph graph = new ProjectGraph();
+        graph.update(Path.of("/repo/roles/web/tasks/main.yml"), FileSummary.EMPTY);
+        graph.update(Path.of("/repo/roles/web/meta/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/web/meta/main.yml", """
+                dependencies:
+                  - role: common
+                """)));
+        graph.update(Path.of("/repo/roles/common/handlers/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/common/handlers/main.yml", """
+                - name: Reload firewall
+                  ansible.builtin.command: firewall-cmd --reload
+                """)));
+        graph.update(Path.of("/repo/roles/common/meta/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/common/meta/main.yml", """
+                dependencies:
+                  - web
+                """)));
+        String yaml = """
+            - hosts: all
+              roles:
+                - web
+              tasks:
+                - name: Open port
+                  ansible.builtin.command: /bin/true
+                  notify:
+                    - Reload firewall
+                    - Restart postgres
+            """;
+        assertThat(runCheck(URI, yaml, graph).getIssues()).extracting(i -> i.line()).containsExactly(9);
+    }
+
+    @Test
+    void whenADependencyIsNotIndexed_reportsNoIssue() {
+        ProjectGraph graph = new ProjectGraph();
+        graph.update(Path.of("/repo/roles/web/tasks/main.yml"), FileSummary.EMPTY);
+        graph.update(Path.of("/repo/roles/web/meta/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/web/meta/main.yml", """
+                dependencies:
+                  - common
+                """)));
+        String yaml = """
+            - hosts: all
+              roles:
+                - web
+              tasks:
+                - name: Open port
+                  ansible.builtin.command: /bin/true
+                  notify: Reload firewall
+            """;
+        assertThat(runCheck(URI, yaml, graph).getIssues()).isEmpty();
+    }
+
+    @Test
+    void roleTaskFile_isNotChecked() {
+        ProjectGraph graph = new ProjectGraph();
+        graph.update(Path.of("/repo/roles/web/handlers/main.yml"), FileSummary.of(parser.parse(
+                "file:///repo/roles/web/handlers/main.yml", """
+                - name: Restart nginx
+                  listen: web config changed
+                  ansible.builtin.service:
+                    name: nginx
+                    state: restarted
+                """)));
+        String yaml = """
+            - name: Configure nginx
+              ansible.builtin.template:
+                src: nginx.conf.j2
+                dest: /etc/nginx/nginx.conf
+              notify: web config changed
+            - block:
+                - name: Configure site
+                  ansible.builtin.command: /bin/true
+                  notify: Restart apache
+            """;
+        // A play using the role, or a sibling role, may define "Restart apache"
+        String uri = "file:///repo/roles/web/tasks/main.yml";
+        assertThat(runCheck(uri, yaml, graph).getIssues()).isEmpty();
+        assertThat(runCheck(uri, yaml, null).getIssues()).isEmpty();
+    }
 }
@@ -47,4 +47,41 @@ class NoSecretsInVarsCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenPlayVarsHoldPlainSecrets_reportsEachKey() {
+        String yaml = """
+            - hosts: all
+              vars:
+                db_password: "supersecret123"
+                GitHub_Token: ghp_abc
+                api_key: "{{ lookup('env', 'API_KEY') }}"
+                app_port: 8080
+              tasks:
+                - name: Ping host
+                  ping:
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).hasSize(2);
+        assertThat(context.getIssues().get(0).ruleKey()).isEqualTo("qa-secrets-not-in-vars");
+        assertThat(context.getIssues().get(0).line()).isEqualTo(3);
+        assertThat(context.getIssues().get(1).message()).contains("GitHub_Token");
+    }
+
+    @Test
+    void whenVarsFileHoldsSettingsOrVaultedValues_reportsOnlyPlainSecrets() {
+        String yaml = """
+            ssl_private_key_file: /etc/ssl/private/app.key
+            password_min_length: 12
+            vault_required: true
+            admin_password: !vault |
+              $ANSIBLE_VAULT;1.1;AES256
+              3133
+            smtp_passwd: hunter2
+            token: ""
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).hasSize(1);
+        assertThat(context.getIssues().get(0).line()).isEqualTo(7);
+    }
 }
@@ -21,6 +21,8 @@ import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class SchemaCheckTest {
@@ -48,6 +50,13 @@ class SchemaCheckTest {
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
 
+    @Test
+    void whenDocumentIsOnlyCommentsOrNull_reportsNoIssue() {
+        assertThat(runCheck("---\n# handlers file for web\n").getIssues()).isEmpty();
+        assertThat(runCheck("---\n").getIssues()).isEmpty();
+        assertThat(runCheck("--- ~\n").getIssues()).isEmpty();
+    }
+
     @Test
     void whenRootNotList_reportsIssue() {
         String yaml = "hosts: all\ntasks: []";
@@ -68,4 +77,29 @@ class SchemaCheckTest {
         assertThat(context.getIssues().get(0).ruleKey()).isEqualTo("qa-playbook-schema");
         assertThat(context.getIssues().get(0).message()).contains("hosts, tasks, roles, vars");
     }
+
+    @Test
+    void whenItemsAreNotPlays_reportsTheirLines() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Ping host
+                  ping:
+            - just a string
+            - name: Settings only
+              gather_facts: false
+            """;
+        AnsibleContext context = runCheck(yaml);
+        assertThat(context.getIssues()).extracting(issue -> issue.line()).containsExactly(5, 6);
+    }
+
+    @Test
+    void withoutParsedRoot_reportsNothing() {
+        PlaybookFile file = new PlaybookFile(List.of(), URI);
+        AnsibleContext context = new AnsibleContext(file, null, "hosts: all\n");
+        SchemaCheck check = new SchemaCheck();
+        check.setContext(context);
+        AnsibleWalker.walk(file, check);
+        assertThat(context.getIssues()).isEmpty();
+    }
 }
@@ -16,11 +16,15 @@
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class UndefinedVarsCheckTest {
@@ -29,8 +33,20 @@ class UndefinedVarsCheckTest {
     private final AnsibleParser parser = new AnsibleParser();
 
     private AnsibleContext runCheck(String yaml) {
+        return runCheck(yaml, null);
+    }
+
+    /** Runs the check with a project table holding the file and the given other files. */
+    private AnsibleContext runCheck(String yaml, VariableTable table, String... others) {
         PlaybookFile file = parser.parse(URI, yaml);
         AnsibleContext context = new AnsibleContext(file, null, yaml);
+        if (table != null) {
+            table.update(Path.of("/repo/play.yml"), context.getFileVariables());
+            for (int i = 0; i < others.length; i += 2) {
+                table.update(Path.of(others[i]), FileVariables.of(parser.parse("file://" + others[i], others[i + 1])));
+            }
+            context.setVariableTable(table);
+        }
         UndefinedVarsCheck check = new UndefinedVarsCheck();
         check.setContext(context);
         AnsibleWalker.walk(file, check);
@@ -47,4 +63,61 @@ class UndefinedVarsCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenReadButDefinedNowhere_reportsOnceAtTheValue() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Show
+                  ansible.builtin.debug:
+                    msg: "{{ missing_var }} {{ missing_var }} {{ app_port }} {{ inventory_hostname }}"
+                - name: Optional
+                  ansible.builtin.debug:
+                    msg: "{{ optional | default('x') }}"
+                  when: ansible_os_family == 'Debian'
+            """;
+        AnsibleContext context = runCheck(yaml, new VariableTable(),
+                "/repo/roles/app/defaults/main.yml", "app_port: 80\n");
+
+        assertThat(context.getIssues()).singleElement().satisfies(issue -> {
+            assertThat(issue.message()).contains("missing_var");
+            assertThat(issue.line()).isEqualTo(5);
+        });
+    }
+
+    @Test
+    void roleParameters_defineTheVariablesTheRoleReads() {
+        String site = """
+            - hosts: all
+              roles:
+                - role: web
+                  http_port: 80
+                - role: db
+                  vars:
+                    db_port: 5432
+            """;
+        String roleTasks = """
+            - ansible.builtin.debug:
+                msg: "{{ http_port }} {{ db_port }} {{ cache_port }}"
+            """;
+        AnsibleContext context = runCheck(roleTasks, new VariableTable(), "/repo/site.yml", site);
+
+        assertThat(context.getIssues()).singleElement()
+                .satisfies(issue -> assertThat(issue.message()).contains("cache_port"));
+        assertThat(FileVariables.of(parser.parse("file:///repo/site.yml", site)).definitions())
+                .extracting(d -> d.name() + ":" + d.declared())
+                .containsExactly("http_port:false", "db_port:false");
+    }
+
+    @Test
+    void withoutProjectTable_reportsNothing() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - ansible.builtin.debug:
+                    msg: "{{ missing_var }}"
+            """;
+        assertThat(runCheck(yaml).getIssues()).isEmpty();
+    }
 }
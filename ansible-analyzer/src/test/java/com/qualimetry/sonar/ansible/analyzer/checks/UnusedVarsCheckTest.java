@@ -16,11 +16,15 @@
 package com.qualimetry.sonar.ansible.analyzer.checks;
 
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class UnusedVarsCheckTest {
@@ -29,8 +33,20 @@ class UnusedVarsCheckTest {
     private final AnsibleParser parser = new AnsibleParser();
 
     private AnsibleContext runCheck(String yaml) {
+        return runCheck(yaml, null);
+    }
+
+    /** Runs the check with a project table holding the file and the given other files. */
+    private AnsibleContext runCheck(String yaml, VariableTable table, String... others) {
         PlaybookFile file = parser.parse(URI, yaml);
         AnsibleContext context = new AnsibleContext(file, null, yaml);
+        if (table != null) {
+            table.update(Path.of("/repo/play.yml"), context.getFileVariables());
+            for (int i = 0; i < others.length; i += 2) {
+                table.update(Path.of(others[i]), FileVariables.of(parser.parse("file://" + others[i], others[i + 1])));
+            }
+            context.setVariableTable(table);
+        }
         UnusedVarsCheck check = new UnusedVarsCheck();
         check.setContext(context);
         AnsibleWalker.walk(file, check);
@@ -47,4 +63,40 @@ class UnusedVarsCheckTest {
             """;
         assertThat(runCheck(yaml).getIssues()).isEmpty();
     }
+
+    @Test
+    void whenDeclaredButReadNowhere_reportsAtTheKey() {
+        String yaml = """
+            - hosts: all
+              vars:
+                unused_var: value
+                used_var: other
+                template_var: x
+                ansible_user: deploy
+              tasks:
+                - ansible.builtin.debug:
+                    var: used_var
+                - ansible.builtin.command: echo hi
+                  register: ignored_result
+            """;
+        AnsibleContext context = runCheck(yaml, new VariableTable(),
+                "/repo/group_vars/all.yml", "motd: \"{{ template_var }}\"\n");
+
+        assertThat(context.getIssues()).singleElement().satisfies(issue -> {
+            assertThat(issue.message()).contains("unused_var");
+            assertThat(issue.line()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void withoutProjectTable_reportsNothing() {
+        String yaml = """
+            - hosts: all
+              vars:
+                unused_var: value
+              tasks:
+                - ansible.builtin.ping:
+            """;
+        assertThat(runCheck(yaml).getIssues()).isEmpty();
+    }
 }
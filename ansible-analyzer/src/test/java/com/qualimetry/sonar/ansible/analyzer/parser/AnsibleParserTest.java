@@ -20,6 +20,7 @@ import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleRef;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -118,6 +119,34 @@ class AnsibleParserTest {
         assertThat(play.roles().get(1).roleName()).isEqualTo("app_role");
     }
 
+    @Test
+    void validPlaybookWithHandlers_returnsHandlers() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Configure
+                  ansible.builtin.template:
+                    src: a.j2
+                    dest: /etc/a
+                  notify: restart web
+              handlers:
+                - name: Restart nginx
+                  ansible.builtin.service:
+                    name: nginx
+                    state: restarted
+                  listen: restart web
+                - block:
+                    - name: Reload firewall
+                      ansible.builtin.command: firewall-cmd --reload
+            """;
+        PlaybookFile result = parser.parse(URI, yaml);
+        Play play = result.plays().get(0);
+        assertThat(play.tasks()).extracting(Task::name).containsExactly("Configure");
+        assertThat(play.handlers()).extracting(Task::name).containsExactly("Restart nginx", "Reload firewall");
+        assertThat(play.handlers().get(0).attributes().get("listen")).isEqualTo("restart web");
+        assertThat(play.handlers().get(0).line()).isEqualTo(9);
+    }
+
     @Test
     void validPlaybookWithBlock_flattensTasks() {
         String yaml = """
@@ -141,4 +170,71 @@ class AnsibleParserTest {
         assertThat(play.tasks().get(1).name()).isEqualTo("In block");
         assertThat(play.tasks().get(2).name()).isEqualTo("After block");
     }
+
+    @Test
+    void streamAndCompose_buildTheSameModel() {
+        String anchors = """
+            - hosts: all
+              tags: [web, db]
+              vars: &defaults
+                port: 80
+              pre_tasks:
+                - name: Shared
+                  ansible.builtin.debug: &args
+                    msg: "\uD83D\uDE00 {{ port }}"
+              tasks:
+                - block:
+                    - name: Nested
+                      ansible.builtin.copy: *args
+                    - include: other.yml
+                - name: Merge
+                  ansible.builtin.set_fact:
+                    <<: *defaults
+              roles:
+                - common
+                - { role: app, when: x }
+            - import_playbook: site.yml
+            """;
+        String crlf = anchors.replace("\n", "\r\n");
+        String loneCr = anchors.replace("\n", "\r");
+        String separators = "- hosts: all\u2028  tasks:\u2029    - ping:\u0085    - name: x\n      debug: {}\n";
+        for (String text : new String[] {anchors, crlf, loneCr, separators}) {
+            PlaybookFile streamed = new AnsibleParser(AnsibleParser.Mode.STREAM).parse(URI, text);
+            PlaybookFile composed = new AnsibleParser(AnsibleParser.Mode.COMPOSE).parse(URI, text);
+            assertThat(streamed.parseError()).isNull();
+            assertThat(streamed).isEqualTo(composed);
+            assertThat(streamed.plays().get(0).tasks())
+                    .extracting(Task::attributes)
+                    .extracting(attributes -> YamlTree.keyRange(attributes, "name"))
+                    .isEqualTo(composed.plays().get(0).tasks().stream()
+                            .map(task -> YamlTree.keyRange(task.attributes(), "name")).toList());
+        }
+        Play play = parser.parse(URI, anchors).plays().get(0);
+        assertThat(play.tasks()).extracting(Task::line).containsExactly(6, 11, 13, 14);
+        assertThat(play.roles()).extracting(RoleRef::line).containsExactly(18, 19);
+        assertThat(parser.parse(URI, loneCr).plays().get(0).tasks()).extracting(Task::line)
+                .containsExactly(6, 11, 13, 14);
+        assertThat(parser.parse(URI, separators).plays().get(0).tasks()).extracting(Task::line)
+                .containsExactly(3, 4);
+    }
+
+    @Test
+    void streamAndCompose_reportTheSameErrors() {
+        String manyAliases = "- a: &a [x]\n  b: [" + "*a, ".repeat(120) + "*a]\n";
+        String deep = "- hosts: all\n  vars:\n    v: " + "[".repeat(120) + "]".repeat(120) + "\n";
+        String[] invalid = {
+            "- hosts: all\n---\n- hosts: db\n",
+            "- hosts: all\n  vars: *missing\n",
+            "- hosts: all\n  vars: !!python/object:os.system x\n",
+            manyAliases,
+            deep,
+            "key: [ unclosed"
+        };
+        for (String text : invalid) {
+            ParseError streamed = new AnsibleParser(AnsibleParser.Mode.STREAM).parse(URI, text).parseError();
+            ParseError composed = new AnsibleParser(AnsibleParser.Mode.COMPOSE).parse(URI, text).parseError();
+            assertThat(composed).as(text).isNotNull();
+            assertThat(streamed).as(text).isEqualTo(composed);
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileClassifierTest {
+
+    @Test
+    void ansibleDirectories_winOverContent() {
+        String manifest = "apiVersion: v1\nkind: ConfigMap\n";
+
+        assertThat(FileClassifier.classify("file:///repo/roles/web/tasks/main.yml", "- name: x\n  ping:\n"))
+                .isEqualTo(Kind.TASKS);
+        assertThat(FileClassifier.classify("/repo/roles/web/handlers/main.yml", "")).isEqualTo(Kind.TASKS);
+        assertThat(FileClassifier.classify("C:\\repo\\group_vars\\all.yml", manifest)).isEqualTo(Kind.VARS);
+        assertThat(FileClassifier.classify("/repo/roles/web/defaults/main.yml", manifest)).isEqualTo(Kind.VARS);
+        assertThat(FileClassifier.classify("/repo/roles/web/meta/main.yml", "dependencies: []\n"))
+                .isEqualTo(Kind.ROLE_META);
+    }
+
+    @Test
+    void otherToolsFiles_areRecognizedByName() {
+        assertThat(FileClassifier.classify("/repo/docker-compose.prod.yml", "")).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/.github/workflows/ci.yml", "")).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/chart/Chart.yaml", "name: app\n")).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/chart/templates/deployment.yaml", "")).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/.gitlab-ci.yml", "stages: [build]\n")).isEqualTo(Kind.OTHER);
+    }
+
+    @Test
+    void otherToolsDirectories_areOnlyMatchedBelowTheRoot() {
+        Path root = Path.of("/home/me/templates/infra");
+        String vars = "app_port: 8080\n";
+
+        assertThat(FileClassifier.classify(root.resolve("site.yml"), root, "- hosts: all\n  tasks: []\n"))
+                .isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify(root.resolve("settings.yml"), root, vars)).isEqualTo(Kind.VARS);
+        assertThat(FileClassifier.classify(root.resolve("chart/templates/cm.yaml"), root, vars)).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify(root.resolve("settings.yml"), null, vars)).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify(root.resolve("roles/web/tasks/main.yml"), root.resolve("roles/web"), vars))
+                .isEqualTo(Kind.TASKS);
+    }
+
+    @Test
+    void ansibleContent_winsOverOtherToolsNames() {
+        String play = """
+            - name: Deploy
+              hosts: web
+              roles: [app]
+            """;
+        String tasks = "- name: Ping\n  ansible.builtin.ping:\n";
+
+        assertThat(FileClassifier.classify("/repo/values.yml", play)).isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/templates/deploy.yml", tasks)).isEqualTo(Kind.TASKS);
+        assertThat(FileClassifier.classify("/repo/templates/setup.yml", "- include_tasks: a.yml\n"))
+                .isEqualTo(Kind.TASKS);
+        assertThat(FileClassifier.classify("/repo/values.yml", "replicaCount: 2\nhosts: [a]\n")).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/templates/list.yaml", "- name: a\n  image.tag: v1\n"))
+                .isEqualTo(Kind.OTHER);
+    }
+
+    @Test
+    void kubernetesManifests_areRecognizedByTheirKeys() {
+        String manifest = """
+            # Deployment
+            ---
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: web
+            spec:
+              replicas: 2
+            ---
+            apiVersion: v1
+            kind: Service
+            """;
+        assertThat(FileClassifier.classify("/repo/deploy/web.yml", manifest)).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify(null, "metadata:\n  kind: x\napiVersion: v1\r\nkind: Pod\r\n"))
+                .isEqualTo(Kind.OTHER);
+    }
+
+    @Test
+    void workflowsComposeAndHelmTemplates_areRecognizedByContent() {
+        String workflow = """
+            name: CI
+            "on":
+              push:
+            jobs:
+              build:
+                runs-on: ubuntu-latest
+            """;
+        String compose = """
+            services:
+              web:
+                image: nginx
+            volumes:
+              data:
+            """;
+        String helm = """
+            {{- if .Values.enabled }}
+            apiVersion: v1
+            {{- end }}
+            """;
+        assertThat(FileClassifier.classify("/repo/build.yml", workflow)).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/stack.yml", compose)).isEqualTo(Kind.OTHER);
+        assertThat(FileClassifier.classify("/repo/web.yaml", helm)).isEqualTo(Kind.OTHER);
+    }
+
+    @Test
+    void ansibleContent_isPlacedByItsFirstItemOrKeys() {
+        String playbook = """
+            ---
+            # Site
+            - name: Configure web
+              become: true
+              hosts: web
+              tasks: []
+            """;
+        assertThat(FileClassifier.classify("/repo/site.yml", playbook)).isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/site.yml", "- import_playbook: web.yml\n"))
+                .isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/common.yml", "- name: Ping\n  ansible.builtin.ping:\n- hosts: x\n"))
+                .isEqualTo(Kind.TASKS);
+        assertThat(FileClassifier.classify("/repo/settings.yml", "services:\n  - nginx\n  - redis\n"))
+                .isEqualTo(Kind.VARS);
+        assertThat(FileClassifier.classify("/repo/meta.yml", "galaxy_info:\n  author: me\n"))
+                .isEqualTo(Kind.ROLE_META);
+    }
+
+    @Test
+    void emptyOrUnreadableContent_isAnalyzedAsAPlaybook() {
+        assertThat(FileClassifier.classify("/repo/empty.yml", "")).isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/a.yml", "# only a comment\n---\n")).isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/a.yml", "just a scalar\n")).isEqualTo(Kind.PLAYBOOK);
+        assertThat(FileClassifier.classify("/repo/a.yml", "-\n")).isEqualTo(Kind.TASKS);
+    }
+}
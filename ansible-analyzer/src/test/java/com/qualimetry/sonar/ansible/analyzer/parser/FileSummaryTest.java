@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSummaryTest {
+
+    private final AnsibleParser parser = new AnsibleParser();
+
+    @Test
+    void playbook_summarizesPlaysTasksRolesAndIncludes() {
+        FileSummary summary = FileSummary.of(parser.parse("file:///site.yml", """
+                - name: Web
+                  hosts: web
+                  roles:
+                    - common
+                    - role: nginx
+                  tasks:
+                    - name: Install
+                      ansible.builtin.package:
+                        name: nginx
+                    - block:
+                        - name: Configure
+                          ansible.builtin.template:
+                            src: a.j2
+                            dest: /etc/a
+                    - include_tasks: tasks/extra.yml
+                    - ansible.builtin.include_role:
+                        name: monitoring
+                - hosts: db
+                  tasks:
+                    - ansible.builtin.package:
+                        name: postgresql
+                - import_playbook: other.yml
+                """));
+
+        assertThat(summary.plays()).containsExactly("Web", "");
+        assertThat(summary.taskNames()).containsExactly("Install", "Configure");
+        assertThat(summary.modules()).containsExactly("ansible.builtin.package", "ansible.builtin.template",
+                "ansible.builtin.include_role");
+        assertThat(summary.roles()).containsExactly("common", "nginx");
+        assertThat(summary.includes()).containsExactly("tasks/extra.yml", "other.yml");
+    }
+
+    @Test
+    void taskFile_summarizesTopLevelTasks() {
+        FileSummary summary = FileSummary.of(parser.parse("file:///roles/web/tasks/main.yml", """
+                - name: Ping
+                  ansible.builtin.ping:
+                - include_tasks:
+                    file: setup.yml
+                - import_role:
+                    name: base
+                - block:
+                    - name: Inner
+                      command: /bin/true
+                """));
+
+        assertThat(summary.plays()).isEmpty();
+        assertThat(summary.taskNames()).containsExactly("Ping", "Inner");
+        assertThat(summary.modules()).containsExactly("ansible.builtin.ping", "command");
+        assertThat(summary.roles()).containsExactly("base");
+        assertThat(summary.includes()).containsExactly("setup.yml");
+    }
+
+    @Test
+    void handlers_summarizeNamesAndListenTopics() {
+        FileSummary play = FileSummary.of(parser.parse("file:///site.yml", """
+                - hosts: web
+                  handlers:
+                    - name: Restart nginx
+                      listen: [restart web, restart all]
+                      ansible.builtin.service:
+                        name: nginx
+                        state: restarted
+                """));
+        FileSummary roleHandlers = FileSummary.of(parser.parse("file:///roles/web/handlers/main.yml", """
+                - name: Reload nginx
+                  ansible.builtin.service:
+                    name: nginx
+                    state: reloaded
+                - block:
+                    - name: Reload firewall
+                      listen: reload all
+                      ansible.builtin.command: firewall-cmd --reload
+                """));
+        FileSummary roleTasks = FileSummary.of(parser.parse("file:///roles/web/tasks/main.yml", """
+                - name: Ping
+                  ansible.builtin.ping:
+                """));
+
+        assertThat(play.handlers()).containsExactly("Restart nginx", "restart web", "restart all");
+        assertThat(roleHandlers.handlers()).containsExactly("Reload nginx", "Reload firewall", "reload all");
+        assertThat(roleTasks.handlers()).isEmpty();
+    }
+
+    @Test
+    void roleMeta_summarizesDependenciesAsRoles() {
+        FileSummary meta = FileSummary.of(parser.parse("file:///roles/web/meta/main.yml", """
+                galaxy_info:
+                  author: ops
+                dependencies:
+                  - common
+                  - role: firewall
+                    vars:
+                      open_ports: [80]
+                  - name: "{{ extra_role }}"
+                """));
+        FileSummary vars = FileSummary.of(parser.parse("file:///roles/web/vars/main.yml", """
+                dependencies:
+                  - common
+                """));
+
+        assertThat(meta.roles()).containsExactly("common", "firewall", "{{ extra_role }}");
+        assertThat(vars.roles()).isEmpty();
+    }
+
+    @Test
+    void unparsableFile_isEmpty() {
+        assertThat(FileSummary.of(parser.parse("file:///bad.yml", "- [unclosed\n"))).isEqualTo(FileSummary.EMPTY);
+        assertThat(FileSummary.of(new PlaybookFile(List.of(), "file:///x.yml"))).isEqualTo(FileSummary.EMPTY);
+    }
+
+    @Test
+    void estimatedBytes_growsWithContent() {
+        FileSummary small = new FileSummary(List.of(), List.of("a"), List.of(), List.of(), List.of());
+        FileSummary large = new FileSummary(List.of(), List.of("a".repeat(100)), List.of("ping"), List.of(), List.of());
+        assertThat(large.estimatedBytes()).isGreaterThan(small.estimatedBytes());
+        assertThat(FileSummary.EMPTY.estimatedBytes()).isPositive();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileVariablesTest {
+
+    private final AnsibleParser parser = new AnsibleParser();
+
+    @Test
+    void playbook_collectsDefinitionsAndReferences() {
+        FileVariables variables = FileVariables.of(parser.parse("file:///repo/site.yml", """
+                - hosts: all
+                  vars:
+                    port: 8080
+                    url: "http://{{ host.name }}:{{ port }}"
+                  vars_prompt:
+                    - name: password
+                  tasks:
+                    - name: Check
+                      ansible.builtin.command: "curl {{ url | default('x') }}"
+                      register: result
+                      when: enabled and result_count | int > 0
+                    - block:
+                        - ansible.builtin.set_fact:
+                            total: "{{ items | map(attribute='size') | sum }}"
+                          loop: "{{ files }}"
+                          loop_control:
+                            loop_var: file
+                    - ansible.builtin.debug:
+                        var: total
+                    - ansible.builtin.assert:
+                        that:
+                          - other is defined
+                """));
+
+        assertThat(variables.definitions()).extracting(FileVariables.Definition::name)
+                .containsExactly("port", "url", "password", "result", "total", "file");
+        assertThat(variables.definitions()).filteredOn(FileVariables.Definition::declared)
+                .extracting(FileVariables.Definition::name).containsExactly("port", "url");
+        assertThat(variables.references()).extracting(FileVariables.Reference::name)
+                .containsExactly("host", "port", "url", "enabled", "result_count", "items", "files", "total", "other");
+        assertThat(variables.references()).filteredOn(FileVariables.Reference::guarded)
+                .extracting(FileVariables.Reference::name).containsExactly("url", "other");
+        assertThat(variables.definitions().get(0).range()).isNotNull();
+    }
+
+    @Test
+    void varsFiles_defineTheirTopLevelKeys() {
+        String defaults = "web_port: 80\nweb_root: \"/srv/{{ site_name }}\"\n";
+        FileVariables roleDefaults = FileVariables.of(parser.parse("file:///repo/roles/web/defaults/main.yml", defaults));
+        FileVariables groupVars = FileVariables.of(parser.parse("file:///repo/group_vars/all.yml", defaults));
+
+        assertThat(roleDefaults.definitions()).extracting(FileVariables.Definition::name)
+                .containsExactly("web_port", "web_root");
+        assertThat(roleDefaults.definitions()).allMatch(FileVariables.Definition::declared);
+        assertThat(groupVars.definitions()).noneMatch(FileVariables.Definition::declared);
+        assertThat(roleDefaults.references()).extracting(FileVariables.Reference::name).containsExactly("site_name");
+    }
+
+    @Test
+    void playVarsPassedToRoles_areNotDeclared() {
+        FileVariables variables = FileVariables.of(parser.parse("file:///repo/site.yml", """
+                - hosts: all
+                  vars:
+                    nginx_port: 80
+                  roles:
+                    - nginx
+                """));
+
+        assertThat(variables.definitions()).singleElement().matches(d -> !d.declared());
+    }
+
+    @Test
+    void template_skipsLocalsFiltersAttributesAndCalls() {
+        FileVariables variables = FileVariables.ofTemplate("""
+                {# {{ commented }} #}
+                {% for user in users if user.active %}
+                {{ user.name | upper }} {{ lookup('env', 'HOME') }} {{ greeting is not defined }}
+                {% set total = count + 1 %}{{ total }}
+                {% endfor %}
+                {{ range(3) | join(sep=delimiter) }}
+                """);
+
+        assertThat(variables.definitions()).isEmpty();
+        assertThat(variables.references()).extracting(FileVariables.Reference::name)
+                .containsExactly("users", "greeting", "count", "delimiter");
+        assertThat(variables.references()).filteredOn(FileVariables.Reference::guarded)
+                .extracting(FileVariables.Reference::name).containsExactly("greeting");
+    }
+}
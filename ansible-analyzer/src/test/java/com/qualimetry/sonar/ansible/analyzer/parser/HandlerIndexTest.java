@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandlerIndexTest {
+
+    private final AnsibleParser parser = new AnsibleParser();
+
+    private Play play(String yaml) {
+        return parser.parse("file:///site.yml", yaml).plays().get(0);
+    }
+
+    @Test
+    void handles_namesListenTopicsAndRoleQualifiedNames() {
+        HandlerIndex index = HandlerIndex.of(play("""
+                - hosts: all
+                  handlers:
+                    - name: Restart nginx
+                      listen: restart web
+                      ansible.builtin.service:
+                        name: nginx
+                        state: restarted
+                """).handlers());
+
+        assertThat(index.isComplete()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.handles("Restart nginx")).isTrue();
+        assertThat(index.handles("restart web")).isTrue();
+        assertThat(index.handles("web : Restart nginx")).isTrue();
+        assertThat(index.handles("restart nginx")).isFalse();
+    }
+
+    @Test
+    void importedOrTemplatedHandlers_makeTheIndexIncomplete() {
+        HandlerIndex imported = HandlerIndex.of(play("""
+                - hosts: all
+                  handlers:
+                    - import_tasks: handlers/extra.yml
+                """).handlers());
+        HandlerIndex templated = HandlerIndex.of(play("""
+                - hosts: all
+                  handlers:
+                    - name: "Restart {{ service }}"
+                      ansible.builtin.service:
+                        name: "{{ service }}"
+                        state: restarted
+                """).handlers());
+
+        assertThat(imported.isComplete()).isFalse();
+        assertThat(templated.isComplete()).isFalse();
+    }
+
+    @Test
+    void with_mergesTopicsAndCompleteness() {
+        HandlerIndex play = HandlerIndex.ofTopics(List.of("a"));
+        HandlerIndex role = HandlerIndex.ofTopics(List.of("b"));
+
+        HandlerIndex merged = play.with(role);
+        assertThat(merged.handles("a")).isTrue();
+        assertThat(merged.handles("b")).isTrue();
+        assertThat(merged.isComplete()).isTrue();
+        assertThat(play.with(HandlerIndex.EMPTY)).isSameAs(play);
+        assertThat(play.with(HandlerIndex.UNKNOWN).isComplete()).isFalse();
+        assertThat(play.with(HandlerIndex.UNKNOWN).handles("a")).isTrue();
+    }
+}
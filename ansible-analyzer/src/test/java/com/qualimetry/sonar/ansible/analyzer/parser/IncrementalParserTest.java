@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.DocumentRoot;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalParserTest {
+
+    private static final String URI = "file:///repo/playbook.yml";
+
+    private static final String THREE_PLAYS = """
+        ---
+        # site playbook
+        - name: Web
+          hosts: web
+          tasks:
+            - name: Install nginx
+              ansible.builtin.package:
+                name: nginx
+
+        - name: Db
+          hosts: db
+          roles:
+            - postgres
+
+        - name: Cache
+          hosts: cache
+          tasks:
+            - name: Ping
+              ansible.builtin.ping:
+        """;
+
+    private final AnsibleParser fullParser = new AnsibleParser();
+    private final IncrementalParser parser = new IncrementalParser();
+
+    @Test
+    void firstParse_matchesFullParse() {
+        assertMatchesFullParse(THREE_PLAYS);
+    }
+
+    @Test
+    void editInsideOnePlay_reusesOtherPlays() {
+        PlaybookFile before = parser.parse(URI, THREE_PLAYS);
+        String edited = THREE_PLAYS.replace("hosts: db", "hosts: database");
+        PlaybookFile after = assertMatchesFullParse(edited);
+        assertThat(after.plays().get(0)).isSameAs(before.plays().get(0));
+        // the later play moved six characters: same content, shifted ranges
+        assertThat(after.plays().get(2)).isEqualTo(before.plays().get(2));
+        assertThat(after.plays().get(2).tasks().get(0).keyRange("name"))
+                .isEqualTo(before.plays().get(2).tasks().get(0).keyRange("name").shift(6));
+        assertThat(after.plays().get(1)).isNotSameAs(before.plays().get(1));
+    }
+
+    @Test
+    void insertedLines_shiftFollowingPlays() {
+        parser.parse(URI, THREE_PLAYS);
+        String edited = THREE_PLAYS.replace("    - postgres\n", "    - postgres\n    - redis\n    - backup\n");
+        PlaybookFile after = assertMatchesFullParse(edited);
+        assertThat(after.plays().get(2).line()).isEqualTo(17);
+        assertThat(after.plays().get(2).tasks().get(0).line()).isEqualTo(20);
+    }
+
+    @Test
+    void addedAndRemovedPlays_matchFullParse() {
+        parser.parse(URI, THREE_PLAYS);
+        String added = THREE_PLAYS.replace("- name: Db", "- name: Extra\n  hosts: all\n\n- name: Db");
+        assertMatchesFullParse(added);
+        String removed = added.replace("""
+            - name: Web
+              hosts: web
+              tasks:
+                - name: Install nginx
+                  ansible.builtin.package:
+                    name: nginx
+
+            """, "");
+        assertMatchesFullParse(removed);
+    }
+
+    @Test
+    void nonPlayItemBecomingPlay_matchesFullParse() {
+        String yaml = THREE_PLAYS.replace("  hosts: db\n", "");
+        String withoutRoles = yaml.replace("  roles:\n    - postgres\n", "  become: true\n");
+        parser.parse(URI, withoutRoles);
+        assertMatchesFullParse(yaml);
+        assertMatchesFullParse(withoutRoles);
+    }
+
+    @Test
+    void brokenItem_reportsParseErrorThenRecovers() {
+        parser.parse(URI, THREE_PLAYS);
+        String broken = THREE_PLAYS.replace("hosts: db", "hosts: [db");
+        PlaybookFile result = assertMatchesFullParse(broken);
+        assertThat(result.parseError()).isNotNull();
+        assertMatchesFullParse(THREE_PLAYS);
+    }
+
+    @Test
+    void mappingRoot_fallsBackToFullParse() {
+        parser.parse(URI, THREE_PLAYS);
+        assertMatchesFullParse("key: value\nother: 1\n");
+        assertMatchesFullParse(THREE_PLAYS);
+    }
+
+    @Test
+    void anchorsAcrossItems_matchFullParse() {
+        String yaml = """
+            - hosts: web
+              vars: &common
+                port: 80
+            - hosts: db
+              vars: *common
+            """;
+        parser.parse(URI, yaml);
+        assertMatchesFullParse(yaml.replace("port: 80", "port: 8080"));
+    }
+
+    @Test
+    void nonPlayItems_keepTheirLinesInTheRoot() {
+        String yaml = THREE_PLAYS + "- just a string\n- [1, 2]\n";
+        parser.parse(URI, yaml);
+        PlaybookFile after = assertMatchesFullParse(yaml.replace("hosts: web", "hosts: web\n  become: true"));
+        List<DocumentRoot.Item> items = after.root().items();
+        assertThat(items).hasSize(5);
+        assertThat(items.get(3).value()).isEqualTo("just a string");
+        assertThat(items.get(4).line()).isEqualTo(items.get(3).line() + 1);
+    }
+
+    @Test
+    void split_rejectsContentThatIsNotATopLevelSequence() {
+        assertThat(IncrementalParser.split("a: 1\n")).isNull();
+        assertThat(IncrementalParser.split("- a: 1\n---\n- b: 2\n")).isNull();
+        assertThat(IncrementalParser.split("  - a: 1\n")).isNull();
+        assertThat(IncrementalParser.split("---\n# c\n- a: 1\n- b: 2\n")).hasSize(2);
+    }
+
+    private PlaybookFile assertMatchesFullParse(String content) {
+        PlaybookFile incremental = parser.parse(URI, content);
+        PlaybookFile full = fullParser.parse(URI, content);
+        assertThat(incremental).isEqualTo(full);
+        if (full.root() != null) {
+            for (int i = 0; i < full.root().items().size(); i++) {
+                if (full.root().items().get(i).value() instanceof YamlTree.Mapping expected) {
+                    assertThat(((YamlTree.Mapping) incremental.root().items().get(i).value()).range())
+                            .isEqualTo(expected.range());
+                }
+            }
+        }
+        for (int p = 0; p < full.plays().size(); p++) {
+            for (int t = 0; t < full.plays().get(p).tasks().size(); t++) {
+                Task expected = full.plays().get(p).tasks().get(t);
+                Task actual = incremental.plays().get(p).tasks().get(t);
+                for (String key : expected.attributes().keySet()) {
+                    assertThat(actual.keyRange(key)).isEqualTo(expected.keyRange(key));
+                    assertThat(actual.valueRange(key)).isEqualTo(expected.valueRange(key));
+                }
+            }
+        }
+        return incremental;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.DeprecatedBareVarsCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.EmptyStringCompareCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.JinjaCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.LiteralCompareCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.NoJinjaWhenCheck;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JinjaCacheTest {
+
+    @Test
+    void sameScalar_isTokenizedOnce() {
+        JinjaCache cache = new JinjaCache();
+
+        assertThat(cache.template("plain text")).isNull();
+        assertThat(cache.template("{{ a }}")).isSameAs(cache.template("{{ a }}"));
+        assertThat(cache.value("when", "a == 1")).isSameAs(cache.expression("a == 1"));
+        assertThat(cache.value("msg", "a == 1")).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void jinjaRules_shareOneTokenStreamPerScalar() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: Show
+                  ansible.builtin.debug:
+                    msg: "{{ greeting }}"
+                  when: "{{ enabled }}"
+                - name: Loop
+                  ansible.builtin.debug:
+                    msg: "{{greeting}}"
+                  loop: "{{ items }}"
+                  when: mode == "yes"
+            """;
+        PlaybookFile file = new AnsibleParser().parse("file:///repo/site.yml", yaml);
+        AnsibleContext context = new AnsibleContext(file, null, yaml);
+        CheckRunner.forClasses(List.of(JinjaCheck.class, NoJinjaWhenCheck.class, LiteralCompareCheck.class,
+                EmptyStringCompareCheck.class, DeprecatedBareVarsCheck.class)).run(context);
+        context.getFileVariables();
+
+        assertThat(context.getIssues()).hasSize(5);
+        assertThat(context.getJinjaCache().size()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.BLOCK_BEGIN;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.BLOCK_END;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.COMMENT;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.NAME;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.NUMBER;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.OPERATOR;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.STRING;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.TEXT;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.VARIABLE_BEGIN;
+import static com.qualimetry.sonar.ansible.analyzer.parser.JinjaTokens.Kind.VARIABLE_END;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JinjaTokensTest {
+
+    private static List<String> describe(JinjaTokens tokens) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            out.add(tokens.kind(i) + ":" + tokens.text(i));
+        }
+        return out;
+    }
+
+    private static String token(Kind kind, String text) {
+        return kind + ":" + text;
+    }
+
+    @Test
+    void template_splitsTextTagsAndTagContents() {
+        JinjaTokens tokens = JinjaTokens.template("port {{ app_port | default(80) }}{# note #}{%- if x == 'a}}' -%}y{% endif %}");
+
+        assertThat(describe(tokens)).containsExactly(
+                token(TEXT, "port "), token(VARIABLE_BEGIN, "{{"), token(NAME, "app_port"), token(OPERATOR, "|"),
+                token(NAME, "default"), token(OPERATOR, "("), token(NUMBER, "80"), token(OPERATOR, ")"),
+                token(VARIABLE_END, "}}"), token(COMMENT, "{# note #}"), token(BLOCK_BEGIN, "{%-"),
+                token(NAME, "if"), token(NAME, "x"), token(OPERATOR, "=="), token(STRING, "'a}}'"),
+                token(BLOCK_END, "-%}"), token(TEXT, "y"), token(BLOCK_BEGIN, "{%"), token(NAME, "endif"),
+                token(BLOCK_END, "%}"));
+        assertThat(tokens.isTemplated()).isTrue();
+        assertThat(tokens.stringValue(14)).isEqualTo("a}}");
+    }
+
+    @Test
+    void template_keepsDictLiteralsAndRawBlocksTogether() {
+        assertThat(describe(JinjaTokens.template("{{ {'a': {'b': 1}} }}"))).containsExactly(
+                token(VARIABLE_BEGIN, "{{"), token(OPERATOR, "{"), token(STRING, "'a'"), token(OPERATOR, ":"),
+                token(OPERATOR, "{"), token(STRING, "'b'"), token(OPERATOR, ":"), token(NUMBER, "1"),
+                token(OPERATOR, "}"), token(OPERATOR, "}"), token(VARIABLE_END, "}}"));
+        assertThat(describe(JinjaTokens.template("{% raw %}{{ x }}{% endraw %}"))).containsExactly(
+                token(BLOCK_BEGIN, "{%"), token(NAME, "raw"), token(BLOCK_END, "%}"), token(TEXT, "{{ x }}"),
+                token(BLOCK_BEGIN, "{%"), token(NAME, "endraw"), token(BLOCK_END, "%}"));
+        assertThat(describe(JinjaTokens.template("{{ unterminated"))).containsExactly(
+                token(VARIABLE_BEGIN, "{{"), token(NAME, "unterminated"));
+    }
+
+    @Test
+    void expression_tokenizesLikeTagContents() {
+        JinjaTokens tokens = JinjaTokens.expression("result.rc != 0 and name is not defined");
+
+        assertThat(describe(tokens)).containsExactly(token(NAME, "result"), token(OPERATOR, "."), token(NAME, "rc"),
+                token(OPERATOR, "!="), token(NUMBER, "0"), token(NAME, "and"), token(NAME, "name"), token(NAME, "is"),
+                token(NAME, "not"), token(NAME, "defined"));
+        assertThat(tokens.isTemplated()).isFalse();
+        assertThat(JinjaTokens.expression("{{ flag }}").bareVariable()).isEqualTo("flag");
+    }
+
+    @Test
+    void bareVariable_isOnlyASingleNameInOneTag() {
+        assertThat(JinjaTokens.template("  {{ items }} ").bareVariable()).isEqualTo("items");
+        assertThat(JinjaTokens.template("{{ items | list }}").bareVariable()).isNull();
+        assertThat(JinjaTokens.template("x {{ items }}").bareVariable()).isNull();
+        assertThat(JinjaTokens.template("{{ a }}{{ b }}").bareVariable()).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsKeywords_anywhereAndIgnoringCase() {
+        KeywordMatcher matcher = KeywordMatcher.of("password", "secret", "word");
+
+        assertThat(matcher.containsAny("db_PASSWORD")).isTrue();
+        assertThat(matcher.keyword(matcher.indexIn("ClientSecretId"))).isEqualTo("secret");
+        assertThat(matcher.keyword(matcher.indexIn("passwor-word"))).isEqualTo("word");
+        assertThat(matcher.containsAny("pass_wor")).isFalse();
+        assertThat(matcher.containsAny("")).isFalse();
+    }
+
+    @Test
+    void overlappingKeywords_areFoundThroughFailureLinks() {
+        KeywordMatcher matcher = KeywordMatcher.of("he", "she", "hers", "his");
+
+        assertThat(matcher.keyword(matcher.indexIn("ushers"))).isEqualTo("she");
+        assertThat(matcher.keyword(matcher.indexIn("ahishers"))).isEqualTo("his");
+        assertThat(matcher.endsWithAny("ushers")).isTrue();
+        assertThat(matcher.endsWithAny("ushe")).isTrue();
+        assertThat(matcher.endsWithAny("hero")).isFalse();
+    }
+
+    @Test
+    void prefixAt_returnsTheLongestKeywordAtThePosition() {
+        KeywordMatcher matcher = KeywordMatcher.of("ln ", "ln -s ", "rm ");
+
+        assertThat(matcher.keyword(matcher.prefixAt("LN -s a b", 0))).isEqualTo("ln -s ");
+        assertThat(matcher.keyword(matcher.prefixAt("ln -f a b", 0))).isEqualTo("ln ");
+        assertThat(matcher.keyword(matcher.prefixAt("  rm -rf x", 2))).isEqualTo("rm ");
+        assertThat(matcher.prefixAt("xrm a", 0)).isEqualTo(-1);
+        assertThat(matcher.prefixAt("rm a", 1)).isEqualTo(-1);
+        assertThat(matcher.prefixAt("rm", 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void matchesNonAsciiKeywords() {
+        KeywordMatcher matcher = KeywordMatcher.of("Passwört");
+
+        assertThat(matcher.containsAny("mein_PASSWÖRT")).isTrue();
+        assertThat(matcher.containsAny("passwort")).isFalse();
+    }
+
+    @Test
+    void largeDictionary_matchesLikeContains() {
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keywords.add("key" + i + "_");
+        }
+        KeywordMatcher matcher = KeywordMatcher.of(keywords);
+
+        assertThat(matcher.size()).isEqualTo(500);
+        assertThat(matcher.keyword(matcher.indexIn("my_KEY42_value"))).isEqualTo("key42_");
+        assertThat(matcher.containsAny("key500")).isFalse();
+    }
+
+    @Test
+    void emptyKeyword_isRejected() {
+        assertThatThrownBy(() -> KeywordMatcher.of("a", "")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
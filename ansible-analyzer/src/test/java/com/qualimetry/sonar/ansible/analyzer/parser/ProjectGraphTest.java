@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectGraphTest {
+
+    private static final Path ROOT = Path.of("/work/project").toAbsolutePath();
+
+    private final ProjectGraph graph = new ProjectGraph();
+
+    private static Path path(String relative) {
+        return ROOT.resolve(relative).normalize();
+    }
+
+    private static FileSummary includes(String... includes) {
+        return new FileSummary(List.of(), List.of(), List.of(), List.of(), List.of(includes));
+    }
+
+    private static FileSummary roles(String... roles) {
+        return new FileSummary(List.of(), List.of(), List.of(), List.of(roles), List.of());
+    }
+
+    @Test
+    void update_resolvesIncludesAgainstTheFileDirectory() {
+        graph.update(path("site.yml"), includes("tasks/a.yml", "{{ env }}.yml"));
+        graph.update(path("tasks/a.yml"), includes("../common.yml"));
+
+        assertThat(graph.dependencies(path("site.yml"))).containsExactly(path("tasks/a.yml"));
+        assertThat(graph.dependents(path("common.yml"))).containsExactly(path("tasks/a.yml"));
+        assertThat(graph.transitiveDependents(path("common.yml")))
+                .containsExactlyInAnyOrder(path("tasks/a.yml"), path("site.yml"));
+    }
+
+    @Test
+    void roleFiles_dependOnTheRoleHandlers() {
+        graph.update(path("roles/web/tasks/main.yml"), includes());
+        graph.update(path("roles/web/handlers/main.yml"), includes());
+
+        assertThat(graph.dependencies(path("roles/web/tasks/main.yml"))).containsExactly(path("roles/web/handlers"));
+        assertThat(graph.dependencies(path("roles/web/handlers/main.yml"))).isEmpty();
+        assertThat(ProjectGraph.enclosingRole(path("roles/web/tasks/sub/a.yml"))).isEqualTo(path("roles/web"));
+        assertThat(ProjectGraph.enclosingRole(path("roles/site.yml"))).isNull();
+        assertThat(ProjectGraph.roleDirectories(path("roles/web/tasks/main.yml"), "common"))
+                .containsExactly(path("roles/web/tasks/roles/common"), path("roles/common"));
+    }
+
+    @Test
+    void update_reportsOnlyChangedSummariesAndReplacesEdges() {
+        assertThat(graph.update(path("site.yml"), includes("a.yml"))).isTrue();
+        assertThat(graph.update(path("site.yml"), includes("a.yml"))).isFalse();
+        assertThat(graph.update(path("site.yml"), includes("b.yml"))).isTrue();
+
+        assertThat(graph.dependents(path("a.yml"))).isEmpty();
+        assertThat(graph.dependents(path("b.yml"))).containsExactly(path("site.yml"));
+    }
+
+    @Test
+    void roles_dependOnEveryFileOfTheRole() {
+        graph.update(path("site.yml"), roles("web", "community.general.thing"));
+        graph.update(path("roles/web/tasks/main.yml"), roles("common"));
+
+        assertThat(graph.dependents(path("roles/web/tasks/main.yml"))).containsExactly(path("site.yml"));
+        assertThat(graph.dependents(path("roles/common/handlers/main.yml")))
+                .containsExactly(path("roles/web/tasks/main.yml"));
+        assertThat(graph.transitiveDependents(path("roles/common/tasks/main.yml")))
+                .containsExactlyInAnyOrder(path("roles/web/tasks/main.yml"), path("site.yml"));
+    }
+
+    @Test
+    void stamp_changesWhenADependencyChanges() {
+        graph.update(path("site.yml"), includes("a.yml"));
+        graph.update(path("a.yml"), includes("b.yml"));
+        graph.update(path("other.yml"), FileSummary.EMPTY);
+        long before = graph.stamp(path("site.yml"));
+
+        graph.update(path("other.yml"), includes("x.yml"));
+        assertThat(graph.stamp(path("site.yml"))).isEqualTo(before);
+
+        graph.update(path("b.yml"), includes("c.yml"));
+        long afterChange = graph.stamp(path("site.yml"));
+        assertThat(afterChange).isNotEqualTo(before);
+
+        graph.remove(path("b.yml"));
+        assertThat(graph.stamp(path("site.yml"))).isNotEqualTo(afterChange);
+    }
+
+    @Test
+    void stamp_neverRepeatsAfterATargetIsUnlinkedAndLinkedAgain() {
+        Path site = path("site.yml");
+        graph.update(site, includes("a.yml"));
+        graph.update(path("a.yml"), FileSummary.EMPTY);
+        List<Long> stamps = new ArrayList<>();
+        stamps.add(graph.stamp(site));
+
+        graph.update(path("a.yml"), includes("b.yml"));
+        stamps.add(graph.stamp(site));
+        graph.update(site, includes());
+        stamps.add(graph.stamp(site));
+        graph.update(site, includes("a.yml"));
+        long relinked = graph.stamp(site);
+        assertThat(stamps).doesNotContain(relinked);
+        stamps.add(relinked);
+
+        graph.update(path("a.yml"), includes("c.yml"));
+        assertThat(stamps).doesNotContain(graph.stamp(site));
+    }
+
+    @Test
+    void remove_dropsADirectoryAndFindsDependentsOfFilesUnderIt() {
+        graph.update(path("site.yml"), includes("tasks/a.yml"));
+        graph.update(path("tasks/a.yml"), FileSummary.EMPTY);
+        graph.update(path("tasks/b.yml"), FileSummary.EMPTY);
+
+        assertThat(graph.remove(path("tasks"))).isTrue();
+        assertThat(graph.size()).isEqualTo(1);
+        assertThat(graph.contains(path("tasks/a.yml"))).isFalse();
+        assertThat(graph.transitiveDependents(path("tasks"))).containsExactly(path("site.yml"));
+        assertThat(graph.remove(path("tasks"))).isFalse();
+    }
+
+    @Test
+    void pathOf_acceptsOnlyFileUris() {
+        assertThat(ProjectGraph.pathOf(ROOT.toUri().toString())).isEqualTo(ROOT);
+        assertThat(ProjectGraph.pathOf("untitled:Untitled-1")).isNull();
+        assertThat(ProjectGraph.pathOf("not a uri")).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextRange;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VariableTableTest {
+
+    private static final Path ROOT = Path.of("/work/project").toAbsolutePath();
+
+    private final VariableTable table = new VariableTable();
+
+    private static FileVariables defines(String... names) {
+        return new FileVariables(List.of(names).stream()
+                .map(n -> new FileVariables.Definition(n, new TextRange(3, 5), true)).toList(), List.of());
+    }
+
+    private static FileVariables reads(String... names) {
+        return new FileVariables(List.of(), List.of(names).stream()
+                .map(n -> new FileVariables.Reference(n, null, false)).toList());
+    }
+
+    @Test
+    void update_countsDefinitionsAndReferencesAcrossFiles() {
+        Path defaults = ROOT.resolve("roles/web/defaults/main.yml");
+        Path site = ROOT.resolve("site.yml");
+
+        assertThat(table.update(defaults, defines("port", "root"))).containsExactly("port", "root");
+        assertThat(table.update(site, reads("port", "port"))).containsExactly("port");
+
+        assertThat(table.isDefined("port")).isTrue();
+        assertThat(table.isReferenced("port")).isTrue();
+        assertThat(table.isReferenced("root")).isFalse();
+        assertThat(table.isDefined("missing")).isFalse();
+        assertThat(table.definitions("port")).containsExactly(new VariableTable.Site(defaults, 3));
+        assertThat(table.references("port")).hasSize(2);
+        assertThat(table.filesUsing(Set.of("root"))).containsExactly(defaults);
+    }
+
+    @Test
+    void update_reportsOnlyNamesWhoseStateChanged() {
+        Path a = ROOT.resolve("a.yml");
+        Path b = ROOT.resolve("b.yml");
+        table.update(a, defines("x"));
+        table.update(b, defines("x"));
+
+        assertThat(table.update(a, defines("x"))).isEmpty();
+        assertThat(table.update(a, defines("y"))).containsExactly("y");
+        assertThat(table.remove(b)).containsExactly("x");
+        assertThat(table.isDefined("x")).isFalse();
+    }
+
+    @Test
+    void stamp_changesWhenANameOfTheFileFlips() {
+        Path site = ROOT.resolve("site.yml");
+        Path other = ROOT.resolve("roles/web/vars/main.yml");
+        table.update(site, reads("port"));
+        long before = table.stamp(site);
+
+        table.update(other, defines("unrelated"));
+        assertThat(table.stamp(site)).isEqualTo(before);
+        table.update(other, defines("port"));
+        assertThat(table.stamp(site)).isNotEqualTo(before);
+
+        assertThat(table.remove(ROOT.resolve("roles"))).containsExactly("port");
+        assertThat(table.stamp(site)).isEqualTo(before);
+        assertThat(table.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YamlLoaderTest {
+
+    private static final String URI = "file:///repo/site.yml";
+
+    @Test
+    void yaml_isReusedPerThread() {
+        YamlLoader loader = YamlLoader.defaults();
+        Yaml mine = loader.yaml();
+
+        assertThat(loader.yaml()).isSameAs(mine);
+        assertThat(CompletableFuture.supplyAsync(loader::yaml).join()).isNotSameAs(mine);
+        assertThat(YamlLoader.of(YamlLoader.Limits.DEFAULTS)).isSameAs(loader);
+        assertThat(YamlLoader.of(new YamlLoader.Limits(10, 1, 1)).yaml()).isNotSameAs(mine);
+    }
+
+    @Test
+    void defaults_acceptDocumentsOverSnakeYamlCodePointLimit() {
+        String big = "- hosts: all\n  vars:\n    blob: \"" + "x".repeat(4 * 1024 * 1024) + "\"\n";
+
+        assertThat(new AnsibleParser().parse(URI, big).parseError()).isNull();
+        assertThat(new AnsibleParser(AnsibleParser.Mode.COMPOSE).parse(URI, big).parseError()).isNull();
+    }
+
+    @Test
+    void limits_areAppliedByParsers() {
+        String aliases = "- hosts: all\n  vars:\n    a: &a [1]\n    b: [*a, *a, *a]\n";
+        String nested = "- hosts: all\n  vars:\n    v: [[[[1]]]]\n";
+        YamlLoader codePoints = YamlLoader.of(new YamlLoader.Limits(20, 100, 100));
+        YamlLoader twoAliases = YamlLoader.of(new YamlLoader.Limits(1000, 2, 100));
+        YamlLoader shallow = YamlLoader.of(new YamlLoader.Limits(1000, 100, 4));
+
+        for (AnsibleParser.Mode mode : AnsibleParser.Mode.values()) {
+            assertThat(parse(mode, codePoints, aliases).parseError().message()).contains("exceeds the limit");
+            assertThat(parse(mode, twoAliases, aliases).parseError().message()).contains("max=2");
+            assertThat(parse(mode, YamlLoader.defaults(), aliases).parseError()).isNull();
+            assertThat(parse(mode, shallow, nested).parseError().message()).contains("Nesting Depth");
+            assertThat(parse(mode, YamlLoader.defaults(), nested).parseError()).isNull();
+        }
+        assertThat(new RoleMetaParser(codePoints).parse(URI, "galaxy_info:\n  author: someone with a long name\n")
+                .parseError()).isNotNull();
+    }
+
+    @Test
+    void limits_rejectInvalidValues() {
+        assertThatThrownBy(() -> new YamlLoader.Limits(0, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new YamlLoader.Limits(1, -1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PlaybookFile parse(AnsibleParser.Mode mode, YamlLoader loader, String content) {
+        return new AnsibleParser(mode, loader).parse(URI, content);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.parser.model;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YamlTreeTest {
+
+    private static final String PLAYBOOK = """
+        - hosts: all
+          tasks:
+            - name: Copy file
+              copy:
+                src: a.conf
+                dest: "/etc/a.conf"
+              tags: [web, config]
+              when:
+        """;
+
+    private Task firstTask(String yaml) {
+        return new AnsibleParser().parse("file:///play.yml", yaml).plays().get(0).tasks().get(0);
+    }
+
+    private static String text(String source, TextRange range) {
+        return source.substring(range.start(), range.end());
+    }
+
+    @Test
+    void attributes_behaveLikeNestedMaps() {
+        Map<String, Object> attrs = firstTask(PLAYBOOK).attributes();
+        Map<String, Object> copy = new LinkedHashMap<>();
+        copy.put("src", "a.conf");
+        copy.put("dest", "/etc/a.conf");
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "Copy file");
+        expected.put("copy", copy);
+        expected.put("tags", List.of("web", "config"));
+        expected.put("when", "");
+
+        assertThat(attrs).isEqualTo(expected);
+        assertThat(attrs.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(attrs.keySet()).containsExactly("name", "copy", "tags", "when");
+        assertThat(attrs.get("copy")).isInstanceOf(Map.class);
+        assertThat(attrs.get("tags")).isInstanceOf(List.class);
+        assertThat(attrs.get("missing")).isNull();
+        assertThat(attrs.get(1)).isNull();
+    }
+
+    @Test
+    void ranges_pointAtKeysAndValues() {
+        Task task = firstTask(PLAYBOOK);
+        assertThat(text(PLAYBOOK, task.keyRange("copy"))).isEqualTo("copy");
+        assertThat(text(PLAYBOOK, task.valueRange("name"))).isEqualTo("Copy file");
+        assertThat(text(PLAYBOOK, task.valueRange("tags"))).isEqualTo("[web, config]");
+        assertThat(task.keyRange("missing")).isNull();
+
+        Map<?, ?> copy = (Map<?, ?>) task.attributes().get("copy");
+        assertThat(text(PLAYBOOK, YamlTree.valueRange(copy, "dest"))).isEqualTo("\"/etc/a.conf\"");
+        YamlTree.Sequence tags = (YamlTree.Sequence) task.attributes().get("tags");
+        assertThat(text(PLAYBOOK, tags.range(1))).isEqualTo("config");
+    }
+
+    @Test
+    void ranges_useCharOffsetsAfterSupplementaryCharacters() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: "Deploy 🚀"
+                  ping:
+            """;
+        Task task = firstTask(yaml);
+        assertThat(text(yaml, task.keyRange("ping"))).isEqualTo("ping");
+    }
+
+    @Test
+    void repeatedKeys_keepFirstPlaceAndLastValue() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: First
+                  ping:
+                  name: Second
+            """;
+        Task task = firstTask(yaml);
+        assertThat(task.attributes().keySet()).containsExactly("name", "ping");
+        assertThat(task.name()).isEqualTo("Second");
+        assertThat(text(yaml, task.valueRange("name"))).isEqualTo("Second");
+    }
+
+    @Test
+    void largeMappings_areHashedAndKeepRepeatedKeySemantics() {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            yaml.append("var_").append(i).append(": value_").append(i).append('\n');
+        }
+        yaml.append("var_7: again\n");
+        String text = yaml.toString();
+        Map<String, Object> vars = new AnsibleParser().parse("file:///vars.yml", text).root().mapping();
+
+        assertThat(vars).hasSize(50_000);
+        assertThat(vars.keySet()).startsWith("var_0", "var_1").endsWith("var_49999");
+        assertThat(vars.get("var_7")).isEqualTo("again");
+        assertThat(vars.get("var_49999")).isEqualTo("value_49999");
+        assertThat(vars.containsKey("var_50000")).isFalse();
+        assertThat(vars.get(7)).isNull();
+        assertThat(text(text, YamlTree.keyRange(vars, "var_123"))).isEqualTo("var_123");
+        assertThat(text(text, YamlTree.valueRange(vars, "var_7"))).isEqualTo("again");
+    }
+
+    @Test
+    void aliases_shareTheAnchoredNode() {
+        String yaml = """
+            - hosts: all
+              tasks:
+                - name: One
+                  copy: &args
+                    src: a
+                - name: Two
+                  copy: *args
+            """;
+        List<Task> tasks = new AnsibleParser().parse("file:///play.yml", yaml).plays().get(0).tasks();
+        assertThat(tasks.get(1).attributes().get("copy")).isEqualTo(Map.of("src", "a"));
+        assertThat(tasks.get(1).valueRange("copy")).isEqualTo(tasks.get(0).valueRange("copy"));
+    }
+
+    @Test
+    void shift_movesRangesOnly() {
+        Task task = firstTask(PLAYBOOK);
+        Map<String, Object> shifted = YamlTree.shift(task.attributes(), 10);
+        assertThat(shifted).isEqualTo(task.attributes());
+        assertThat(YamlTree.keyRange(shifted, "copy")).isEqualTo(task.keyRange("copy").shift(10));
+        assertThat(YamlTree.shift(Map.of("a", "b"), 10)).isEqualTo(Map.of("a", "b"));
+        assertThat(YamlTree.keyRange(Map.of("a", "b"), "a")).isNull();
+    }
+
+    @Test
+    void views_areReadOnly() {
+        Map<String, Object> attrs = firstTask(PLAYBOOK).attributes();
+        assertThatThrownBy(() -> attrs.put("x", "y")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void builder_rejectsUnclosedContainers() {
+        YamlTree.Builder builder = new YamlTree.Builder();
+        builder.startMapping(0);
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+    }
+}
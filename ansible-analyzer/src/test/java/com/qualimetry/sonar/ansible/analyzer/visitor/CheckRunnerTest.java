@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckRunnerTest {
+
+    private final AnsibleParser parser = new AnsibleParser();
+    private final CheckRunner runner = CheckRunner.forClasses(CheckList.getAllChecks());
+
+    @Test
+    void parallelRuns_produceSameIssuesAsSerialRuns() throws Exception {
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            documents.add(document(i));
+        }
+        List<List<Issue>> serial = new ArrayList<>();
+        for (String doc : documents) {
+            serial.add(analyze(doc));
+        }
+
+        assertThat(serial.get(0)).isNotEmpty();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Issue>>> futures = new ArrayList<>();
+            for (int round = 0; round < 5; round++) {
+                for (String doc : documents) {
+                    futures.add(pool.submit(() -> analyze(doc)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get()).isEqualTo(serial.get(i % documents.size()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void playRules_onlyRunOnPlaybooks() {
+        String tasks = """
+            - name: Install
+              ansible.builtin.package:
+                name: git
+              vars:
+                retries: 3
+            """;
+        String vars = "web_port: 80\n";
+
+        // The task's vars make the parser take it for a play
+        assertThat(ruleKeys(tasks, FileClassifier.Kind.PLAYBOOK)).contains("qa-play-has-tags");
+        assertThat(ruleKeys(tasks, FileClassifier.Kind.TASKS))
+                .doesNotContain("qa-play-has-tags")
+                .contains("qa-runtime-sanity");
+        assertThat(ruleKeys(vars, FileClassifier.Kind.VARS)).doesNotContain("qa-playbook-schema");
+        assertThat(ruleKeys(vars, FileClassifier.Kind.PLAYBOOK)).contains("qa-playbook-schema");
+    }
+
+    private List<String> ruleKeys(String yaml, FileClassifier.Kind kind) {
+        AnsibleContext context = new AnsibleContext(parser.parse("file:///repo/x.yml", yaml), null, yaml);
+        context.setFileKind(kind);
+        runner.run(context);
+        return context.getIssues().stream().map(Issue::ruleKey).toList();
+    }
+
+    @Test
+    void cancelledRun_stopsAndReportsFalse() {
+        AnsibleContext context = new AnsibleContext(parser.parse("a.yml", document(1)), null, document(1));
+        assertThat(runner.run(context, () -> true)).isFalse();
+        assertThat(context.getIssues()).isEmpty();
+    }
+
+    @Test
+    void metrics_countInvocationsPerRuleAndStayOffByDefault() {
+        assertThat(runner.metrics().mode()).isEqualTo(CheckMetrics.Mode.OFF);
+        analyze(document(3));
+        assertThat(runner.metrics().files()).isZero();
+
+        runner.setMetricsMode(CheckMetrics.Mode.TIME);
+        analyze(document(3));
+        analyze(document(3));
+        CheckMetrics metrics = runner.metrics();
+        assertThat(metrics.files()).isEqualTo(2);
+        assertThat(metrics.snapshot()).hasSize(CheckList.getAllChecks().size());
+        CheckMetrics.RuleStats tabs = stats(metrics, "qa-spaces-not-tabs");
+        assertThat(tabs.invocations()).isPositive();
+        assertThat(tabs.allocatedBytes()).isEqualTo(-1);
+        assertThat(metrics.snapshot()).isSortedAccordingTo((a, b) -> Long.compare(b.nanos(), a.nanos()));
+        // shell-only check sees each of the 4 shell tasks, twice
+        assertThat(stats(metrics, "qa-command-not-shell-when-possible").invocations()).isEqualTo(8);
+
+        runner.setMetricsMode(CheckMetrics.Mode.ALLOCATION);
+        assertThat(runner.metrics().files()).isZero();
+        analyze(document(3));
+        assertThat(runner.metrics().snapshot()).allMatch(s -> s.allocatedBytes() >= 0);
+    }
+
+    @Test
+    void jfrRecording_reportsParseAndPerCheckEvents(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("walk.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.qualimetry.ansible.Parse");
+            recording.enable("com.qualimetry.ansible.Check");
+            recording.start();
+            analyze(document(3));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        RecordedEvent parse = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.qualimetry.ansible.Parse"))
+                .findFirst().orElseThrow();
+        assertThat(parse.getString("uri")).isEqualTo("file:///p.yml");
+        assertThat(parse.getInt("characters")).isEqualTo(document(3).length());
+        assertThat(parse.getInt("nodes")).isPositive();
+        assertThat(parse.getString("parseError")).isNull();
+
+        RecordedEvent tabs = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.qualimetry.ansible.Check"))
+                .filter(e -> "qa-spaces-not-tabs".equals(e.getString("ruleKey")))
+                .findFirst().orElseThrow();
+        assertThat(tabs.getLong("invocations")).isPositive();
+        assertThat(tabs.getInt("issues")).isPositive();
+        assertThat(tabs.getLong("allocated")).isEqualTo(-1);
+        // metrics stay off; the events used their own recorder
+        assertThat(runner.metrics().files()).isZero();
+    }
+
+    private static CheckMetrics.RuleStats stats(CheckMetrics metrics, String ruleKey) {
+        return metrics.snapshot().stream().filter(s -> s.ruleKey().equals(ruleKey)).findFirst().orElseThrow();
+    }
+
+    private List<Issue> analyze(String content) {
+        AnsibleContext context = new AnsibleContext(parser.parse("file:///p.yml", content), null, content);
+        runner.run(context);
+        return context.getIssues();
+    }
+
+    private static String document(int i) {
+        StringBuilder sb = new StringBuilder("- hosts: all\n  tasks:\n");
+        for (int t = 0; t <= i % 7; t++) {
+            sb.append("    - shell: echo ").append(t).append(" \t\n");
+            if (t % 2 == 0) {
+                sb.append("    - name: Install ").append(t).append("\n      apt:\n        name: pkg\n        state: latest\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Play;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispatchPlanTest {
+
+    private final AnsibleParser parser = new AnsibleParser();
+    private final CheckRunner runner = CheckRunner.forClasses(CheckList.getAllChecks());
+
+    @Test
+    void fusedWalk_reportsSameIssuesAsWalkingEachCheck() throws IOException {
+        List<Path> fixtures;
+        try (Stream<Path> files = Files.walk(Path.of("src/test/resources/checks"))) {
+            fixtures = files.filter(p -> p.toString().endsWith(".yml")).sorted().toList();
+        }
+        assertThat(fixtures).isNotEmpty();
+
+        for (Path fixture : fixtures) {
+            String content = Files.readString(fixture, StandardCharsets.UTF_8);
+            PlaybookFile file = parser.parse(fixture.toUri().toString(), content);
+
+            AnsibleContext perCheck = new AnsibleContext(file, null, content);
+            for (Class<? extends BaseCheck> clazz : CheckList.getAllChecks()) {
+                BaseCheck check = newCheck(clazz);
+                check.setContext(perCheck);
+                AnsibleWalker.walk(file, check);
+            }
+            AnsibleContext fused = new AnsibleContext(file, null, content);
+            runner.run(fused);
+
+            assertThat(fused.getIssues())
+                    .as(fixture.toString())
+                    .containsExactlyInAnyOrderElementsOf(perCheck.getIssues());
+        }
+    }
+
+    @Test
+    void visitTask_isRoutedByModuleBaseName() {
+        RecordingCheck shellOnly = new RecordingCheck(Set.of("ansible.builtin.shell"));
+        RecordingCheck everything = new RecordingCheck(null);
+        DispatchPlan plan = new DispatchPlan(List.of(shellOnly, everything));
+        PlaybookFile file = parser.parse("p.yml", """
+            - hosts: all
+              tasks:
+                - shell: echo 1
+                - ansible.builtin.shell: echo 2
+                - command: echo 3
+                - include: other.yml
+                - name: no module
+            """);
+
+        assertThat(plan.walk(new AnsibleContext(file), () -> false, null)).isTrue();
+        assertThat(shellOnly.seen).containsExactly(3, 4, 6);
+        assertThat(everything.seen).containsExactly(3, 4, 5, 6, 7);
+        assertThat(everything.plays).isEqualTo(1);
+    }
+
+    private static BaseCheck newCheck(Class<? extends BaseCheck> clazz) {
+        try {
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class RecordingCheck extends BaseCheck {
+        private final Set<String> modules;
+        private final List<Integer> seen = new ArrayList<>();
+        private int plays;
+
+        RecordingCheck(Set<String> modules) {
+            this.modules = modules;
+        }
+
+        @Override
+        public Set<String> taskModules() {
+            return modules;
+        }
+
+        @Override
+        public void visitPlay(Play play) {
+            plays++;
+        }
+
+        @Override
+        public void visitTask(Task task) {
+            seen.add(task.line());
+        }
+    }
+}
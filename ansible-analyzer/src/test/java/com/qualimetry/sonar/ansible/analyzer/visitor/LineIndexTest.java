@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.analyzer.visitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LineIndexTest {
+
+    @Test
+    void lines_matchRegexSplit() {
+        for (String text : List.of("", "a", "a\n", "a\r\nb\r\n", "a\rb\nc", "\n\n", "x\r", "- hosts: all\n  tasks:\r\n    - ping:")) {
+            LineIndex index = LineIndex.of(text);
+            List<String> lines = new ArrayList<>();
+            for (int i = 1; i <= index.lineCount(); i++) {
+                lines.add(index.line(i).toString());
+            }
+            assertThat(lines).as(text).containsExactly(text.split("\\r?\\n", -1));
+        }
+    }
+
+    @Test
+    void offsets_andLineOf() {
+        LineIndex index = LineIndex.of("ab\r\ncd\nef");
+        assertThat(index.lineStart(2)).isEqualTo(4);
+        assertThat(index.lineEnd(1)).isEqualTo(2);
+        assertThat(index.lineLength(3)).isEqualTo(2);
+        assertThat(index.lineOf(0)).isEqualTo(1);
+        assertThat(index.lineOf(3)).isEqualTo(1);
+        assertThat(index.lineOf(4)).isEqualTo(2);
+        assertThat(index.lineOf(100)).isEqualTo(3);
+    }
+
+    @Test
+    void lineView_isZeroCopySubsequence() {
+        LineIndex index = LineIndex.of("first\nsecond line\n");
+        CharSequence line = index.line(2);
+        assertThat(line.length()).isEqualTo(11);
+        assertThat(line.charAt(0)).isEqualTo('s');
+        assertThat(line.subSequence(7, 11).toString()).isEqualTo("line");
+        assertThatThrownBy(() -> line.charAt(11)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> index.line(4)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import com.qualimetry.sonar.ansible.benchmarks.CorpusGenerator;
+import org.eclipse.lsp4j.Diagnostic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the issues the full check list reports on a generated playbook to LSP diagnostics,
+ * as the server does before every publish. Lives in the server's package to reach the
+ * package-private {@code toDiagnostic}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiagnosticBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    private List<Issue> issues;
+    private final LspConfig config = LspConfig.defaults();
+
+    @Setup
+    public void setUp() {
+        String content = CorpusGenerator.playbook(size);
+        PlaybookFile playbook = new AnsibleParser().parse("file:///bench/site.yml", content);
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        CheckRunner.forClasses(CheckList.getAllChecks()).run(context);
+        issues = context.getIssues();
+    }
+
+    @Benchmark
+    public List<Diagnostic> toDiagnostics() {
+        List<Diagnostic> diagnostics = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            diagnostics.add(AnsibleTextDocumentService.toDiagnostic(issue, config));
+        }
+        return diagnostics;
+    }
+}
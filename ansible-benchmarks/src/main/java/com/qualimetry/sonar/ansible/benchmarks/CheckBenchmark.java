@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.check.Rule;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one check on its own over a parsed playbook, to find the rules that dominate CPU
+ * and allocation. The {@code rule} parameter takes rule keys; {@link #main} runs every
+ * rule in {@link CheckList}, passing any other JMH options through (e.g. {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+
+    @Param({"PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    @Param({"qa-full-module-name"})
+    public String rule;
+
+    private String content;
+    private PlaybookFile playbook;
+    private CheckRunner runner;
+
+    @Setup
+    public void setUp() {
+        content = CorpusGenerator.playbook(size);
+        playbook = new AnsibleParser().parse("file:///bench/site.yml", content);
+        runner = CheckRunner.forClasses(List.of(checkClass(rule)));
+    }
+
+    @Benchmark
+    public List<Issue> check() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        runner.run(context);
+        return context.getIssues();
+    }
+
+    static Class<? extends BaseCheck> checkClass(String ruleKey) {
+        for (Class<? extends BaseCheck> clazz : CheckList.getAllChecks()) {
+            Rule annotation = clazz.getAnnotation(Rule.class);
+            if (annotation != null && annotation.key().equals(ruleKey)) {
+                return clazz;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rule: " + ruleKey);
+    }
+
+    /**
+     * Benchmarks every rule: {@code java -cp benchmarks.jar
+     * com.qualimetry.sonar.ansible.benchmarks.CheckBenchmark [JMH options]}.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String[] keys = CheckList.getAllChecks().stream()
+                .map(clazz -> clazz.getAnnotation(Rule.class))
+                .filter(annotation -> annotation != null)
+                .map(Rule::key)
+                .toArray(String[]::new);
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(CheckBenchmark.class.getName() + ".check")
+                .param("rule", keys)
+                .build()).run();
+    }
+}
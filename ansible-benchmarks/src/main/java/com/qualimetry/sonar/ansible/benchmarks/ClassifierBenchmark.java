@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifies a playbook and a Kubernetes manifest with {@link FileClassifier}, against
+ * parsing the same text, which is the work a skipped file no longer costs. Divide the
+ * document's length by the time per operation for the classification throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassifierBenchmark {
+
+    @Param({"MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    @Param({"playbook", "manifest"})
+    public String document;
+
+    private final AnsibleParser parser = new AnsibleParser();
+    private String content;
+    private String uri;
+
+    @Setup
+    public void setUp() {
+        content = document.equals("manifest") ? CorpusGenerator.kubernetesManifest(size)
+                : CorpusGenerator.playbook(size);
+        uri = "file:///bench/deploy/" + document + ".yml";
+    }
+
+    @Benchmark
+    public FileClassifier.Kind classify() {
+        return FileClassifier.classify(uri, content);
+    }
+
+    @Benchmark
+    public PlaybookFile parse() {
+        return parser.parse(uri, content);
+    }
+}
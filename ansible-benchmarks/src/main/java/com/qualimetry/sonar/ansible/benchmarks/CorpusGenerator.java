@@ -0,0 +1,279 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates deterministic playbooks for benchmarks. The same size always yields the same
+ * text, so results are comparable between runs and branches.
+ * <p>
+ * Tasks rotate through the modules the checks care about (shell, command, file modules,
+ * package managers, set_fact, git, uri) with a mix of compliant and non-compliant
+ * attributes, so every rule has some work to do.
+ */
+public final class CorpusGenerator {
+
+    /** Corpus shapes used as JMH parameters. */
+    public enum Size {
+        /** One play with a handful of tasks, typical of a small role test playbook. */
+        SMALL(1, 8, 0),
+        /** A site playbook: several plays with a few dozen tasks each. */
+        MEDIUM(6, 40, 1),
+        /** Large inventory-style playbook with nested blocks and very long lines. */
+        PATHOLOGICAL(40, 150, 3);
+
+        final int plays;
+        final int tasksPerPlay;
+        final int blockDepth;
+
+        Size(int plays, int tasksPerPlay, int blockDepth) {
+            this.plays = plays;
+            this.tasksPerPlay = tasksPerPlay;
+            this.blockDepth = blockDepth;
+        }
+    }
+
+    private static final long SEED = 0x5EED_A115L;
+
+    private CorpusGenerator() {
+    }
+
+    /**
+     * Returns the playbook text for the given size.
+     */
+    public static String playbook(Size size) {
+        Random random = new Random(SEED + size.ordinal());
+        StringBuilder sb = new StringBuilder(size.plays * size.tasksPerPlay * 120);
+        sb.append("---\n");
+        for (int p = 0; p < size.plays; p++) {
+            sb.append("- name: Configure tier ").append(p).append('\n');
+            sb.append("  hosts: tier_").append(p).append('\n');
+            sb.append("  become: ").append(random.nextBoolean()).append('\n');
+            sb.append("  vars:\n");
+            sb.append("    app_port: ").append(8000 + p).append('\n');
+            sb.append("    db_password: \"{{ vault_db_password }}\"\n");
+            sb.append("  tasks:\n");
+            String indent = "    ";
+            for (int depth = 0; depth < size.blockDepth; depth++) {
+                sb.append(indent).append("- name: Block level ").append(depth).append('\n');
+                sb.append(indent).append("  block:\n");
+                indent += "    ";
+            }
+            for (int t = 0; t < size.tasksPerPlay; t++) {
+                appendTask(sb, indent, p, t, random, size == Size.PATHOLOGICAL);
+            }
+            sb.append("  roles:\n");
+            sb.append("    - common\n");
+            sb.append("    - role: app_").append(p).append('\n');
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a playbook whose tasks are mostly Jinja2: templated arguments, conditions with
+     * comparisons and filters, loops and a literal block scalar with control statements.
+     */
+    public static String templatedPlaybook(Size size) {
+        StringBuilder sb = new StringBuilder(size.plays * size.tasksPerPlay * 200);
+        sb.append("---\n");
+        for (int p = 0; p < size.plays; p++) {
+            sb.append("- name: Render tier ").append(p).append('\n');
+            sb.append("  hosts: \"{{ target_hosts | default('tier_").append(p).append("') }}\"\n");
+            sb.append("  vars:\n");
+            sb.append("    base_dir: \"/opt/{{ app_name }}/").append(p).append("\"\n");
+            sb.append("  tasks:\n");
+            for (int t = 0; t < size.tasksPerPlay; t++) {
+                String n = p + "_" + t;
+                switch (t % 4) {
+                    case 0 -> {
+                        sb.append("    - name: \"Write {{ item.name }} ").append(n).append("\"\n");
+                        sb.append("      ansible.builtin.copy:\n");
+                        sb.append("        dest: \"{{ base_dir }}/{{ item.name | lower }}.conf\"\n");
+                        sb.append("        content: \"{{ item.value | to_json }}\"\n");
+                        sb.append("      loop: \"{{ settings_").append(t).append(" }}\"\n");
+                        sb.append("      when: item.enabled == true and item.name != ''\n");
+                    }
+                    case 1 -> {
+                        sb.append("    - name: Register state ").append(n).append('\n');
+                        sb.append("      ansible.builtin.set_fact:\n");
+                        sb.append("        state_").append(t).append(": \"{{ hostvars[inventory_hostname]['state'] | default({'ok': true}) }}\"\n");
+                        sb.append("      when: \"{{ collect_state }}\"\n");
+                    }
+                    case 2 -> {
+                        sb.append("    - name: Render ").append(n).append('\n');
+                        sb.append("      ansible.builtin.copy:\n");
+                        sb.append("        dest: \"{{base_dir}}/hosts\"\n");
+                        sb.append("        content: |\n");
+                        sb.append("          {% for host in groups['all'] %}\n");
+                        sb.append("          {{ hostvars[host].ansible_host }} {{ host }}\n");
+                        sb.append("          {% endfor %}\n");
+                        sb.append("      when: inventory_hostname in groups['web'] and (release | length) > 0\n");
+                    }
+                    default -> {
+                        sb.append("    - name: Report ").append(n).append('\n');
+                        sb.append("      ansible.builtin.debug:\n");
+                        sb.append("        msg: \"{{ state_").append(t - 2).append(" }} on {{ ansible_hostname }}\"\n");
+                        sb.append("      changed_when: result.rc != 0 and result.stdout == \"\"\n");
+                    }
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a multi-document Kubernetes manifest (a deployment and a service per play of
+     * the size), YAML that is not Ansible.
+     */
+    public static String kubernetesManifest(Size size) {
+        StringBuilder sb = new StringBuilder(size.plays * 900);
+        for (int p = 0; p < size.plays; p++) {
+            sb.append("---\n");
+            sb.append("apiVersion: apps/v1\n");
+            sb.append("kind: Deployment\n");
+            sb.append("metadata:\n");
+            sb.append("  name: tier-").append(p).append('\n');
+            sb.append("  labels:\n");
+            sb.append("    app: tier-").append(p).append('\n');
+            sb.append("spec:\n");
+            sb.append("  replicas: ").append(p % 4 + 1).append('\n');
+            sb.append("  template:\n");
+            sb.append("    spec:\n");
+            sb.append("      containers:\n");
+            for (int c = 0; c < size.tasksPerPlay / 8 + 1; c++) {
+                sb.append("        - name: app-").append(c).append('\n');
+                sb.append("          image: registry.example.com/app:1.").append(c).append('\n');
+                sb.append("          ports:\n");
+                sb.append("            - containerPort: ").append(8000 + c).append('\n');
+            }
+            sb.append("---\n");
+            sb.append("apiVersion: v1\n");
+            sb.append("kind: Service\n");
+            sb.append("metadata:\n");
+            sb.append("  name: tier-").append(p).append('\n');
+            sb.append("spec:\n");
+            sb.append("  selector:\n");
+            sb.append("    app: tier-").append(p).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a role meta/main.yml document.
+     */
+    public static String roleMeta(Size size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("---\n");
+        sb.append("galaxy_info:\n");
+        sb.append("  author: bench\n");
+        sb.append("  description: Generated role for benchmarks\n");
+        sb.append("  license: Apache-2.0\n");
+        sb.append("  min_ansible_version: \"2.14\"\n");
+        sb.append("  platforms:\n");
+        for (int i = 0; i < size.plays * 2; i++) {
+            sb.append("    - name: Platform").append(i).append('\n');
+            sb.append("      versions:\n");
+            sb.append("        - all\n");
+        }
+        sb.append("  galaxy_tags:\n");
+        for (int i = 0; i < size.tasksPerPlay / 4 + 1; i++) {
+            sb.append("    - tag").append(i).append('\n');
+        }
+        sb.append("dependencies:\n");
+        for (int i = 0; i < size.plays; i++) {
+            sb.append("  - role: dep_").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendTask(StringBuilder sb, String indent, int play, int task, Random random,
+                                   boolean longLines) {
+        String item = indent + "- ";
+        String body = indent + "  ";
+        switch (task % 10) {
+            case 0 -> {
+                sb.append(item).append("name: Run script ").append(task).append('\n');
+                sb.append(body).append("shell: curl -s https://example.com/install.sh | bash && echo {{ app_port }}\n");
+            }
+            case 1 -> {
+                sb.append(item).append("command: mkdir -p /opt/app_").append(play).append('\n');
+                sb.append(body).append("when: deploy_enabled == true\n");
+            }
+            case 2 -> {
+                sb.append(item).append("name: Install packages\n");
+                sb.append(body).append("ansible.builtin.apt:\n");
+                sb.append(body).append("  name: nginx\n");
+                sb.append(body).append("  state: ").append(random.nextBoolean() ? "latest" : "present").append('\n');
+            }
+            case 3 -> {
+                sb.append(item).append("name: Copy config\n");
+                sb.append(body).append("copy:\n");
+                sb.append(body).append("  src: files/app.conf\n");
+                sb.append(body).append("  dest: /etc/app/app.conf\n");
+                sb.append(body).append("  mode: ").append(random.nextBoolean() ? "0644" : "0777").append('\n');
+            }
+            case 4 -> {
+                sb.append(item).append("name: Remember facts\n");
+                sb.append(body).append("set_fact:\n");
+                sb.append(body).append("  AppVersion: \"{{ app_version | default('1.0') }}\"\n");
+            }
+            case 5 -> {
+                sb.append(item).append("name: Checkout source\n");
+                sb.append(body).append("git:\n");
+                sb.append(body).append("  repo: http://git.example.com/app.git\n");
+                sb.append(body).append("  dest: app\n");
+                sb.append(body).append("  version: HEAD\n");
+            }
+            case 6 -> {
+                sb.append(item).append("name: Call API with token\n");
+                sb.append(body).append("ansible.builtin.uri:\n");
+                sb.append(body).append("  url: https://api.example.com/v1/items\n");
+                sb.append(body).append("  password: \"{{ api_password }}\"\n");
+                sb.append(body).append("loop: \"{{ items }}\"\n");
+                sb.append(body).append("loop_control:\n");
+                sb.append(body).append("  loop_var: item_").append(task).append('\n');
+            }
+            case 7 -> {
+                sb.append(item).append("name: Template ").append(task).append("   \n");
+                sb.append(body).append("ansible.builtin.template:\n");
+                sb.append(body).append("  src: app.j2\n");
+                sb.append(body).append("  dest: /etc/app/").append(task).append(".conf\n");
+                sb.append(body).append("when: \"{{ manage_templates }}\"\n");
+            }
+            case 8 -> {
+                sb.append(item).append("name: Debug\n");
+                sb.append(body).append("ansible.builtin.debug:\n");
+                sb.append(body).append("  msg: ");
+                int words = longLines ? 60 : 6;
+                for (int w = 0; w < words; w++) {
+                    sb.append("word").append(random.nextInt(1000)).append(' ');
+                }
+                sb.append('\n');
+            }
+            default -> {
+                sb.append(item).append("name: Restart service\n");
+                sb.append(body).append("ansible.builtin.service:\n");
+                sb.append(body).append("  name: app\n");
+                sb.append(body).append("  state: restarted\n");
+                sb.append(body).append("ignore_errors: yes\n");
+                sb.append(body).append("tags: [app, restart]\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.ansible.cli.BatchAnalyzer;
+import com.qualimetry.ansible.lsp.LspConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs the {@code analyze} command's analyzer over a generated repository with the disk
+ * cache cold (index deleted before every run) and warm (index from a previous run, no file
+ * changed). Each invocation is one full run, as in CI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DiskCacheBenchmark {
+
+    /** Files in the generated repository; one in ten is a medium-sized site playbook. */
+    private static final int FILES = 500;
+
+    @Param({"false", "true"})
+    public boolean warm;
+
+    private Path root;
+    private Path cacheDir;
+    private BatchAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ansible-corpus");
+        cacheDir = Files.createTempDirectory("ansible-cache");
+        String small = CorpusGenerator.playbook(CorpusGenerator.Size.SMALL);
+        String medium = CorpusGenerator.playbook(CorpusGenerator.Size.MEDIUM);
+        for (int i = 0; i < FILES; i++) {
+            Path file = root.resolve("roles/role" + (i / 10) + "/tasks/play" + i + ".yml");
+            Files.createDirectories(file.getParent());
+            // a distinct first line so every file has its own content hash
+            Files.writeString(file, "# play " + i + "\n" + (i % 10 == 0 ? medium : small));
+        }
+        analyzer = new BatchAnalyzer(LspConfig.defaults(), Runtime.getRuntime().availableProcessors(), cacheDir);
+        analyzer.run(root, result -> { });
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCache() throws IOException {
+        if (!warm) {
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public BatchAnalyzer.Summary analyzeRepository() throws IOException {
+        return analyzer.run(root, result -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path dir : new Path[] {root, cacheDir}) {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                    try {
+                        Files.delete(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.DeprecatedBareVarsCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.EmptyStringCompareCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.JinjaCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.LiteralCompareCheck;
+import com.qualimetry.sonar.ansible.analyzer.checks.NoJinjaWhenCheck;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the Jinja2 rules and the file's variable references over a template-heavy playbook,
+ * sharing one context and so one token cache, and with each in a context of its own, which
+ * tokenizes every scalar once per consumer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JinjaBenchmark {
+
+    private static final List<Class<? extends BaseCheck>> RULES = List.of(
+            JinjaCheck.class, NoJinjaWhenCheck.class, DeprecatedBareVarsCheck.class,
+            LiteralCompareCheck.class, EmptyStringCompareCheck.class);
+
+    @Param({"MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    private String content;
+    private PlaybookFile playbook;
+    private CheckRunner runner;
+    private List<CheckRunner> separateRunners;
+
+    @Setup
+    public void setUp() {
+        content = CorpusGenerator.templatedPlaybook(size);
+        playbook = new AnsibleParser().parse("file:///bench/site.yml", content);
+        runner = CheckRunner.forClasses(RULES);
+        separateRunners = new ArrayList<>();
+        for (Class<? extends BaseCheck> rule : RULES) {
+            separateRunners.add(CheckRunner.forClasses(List.of(rule)));
+        }
+    }
+
+    @Benchmark
+    public List<Issue> shared() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        context.getFileVariables();
+        runner.run(context);
+        return context.getIssues();
+    }
+
+    @Benchmark
+    public List<Issue> separate() {
+        new AnsibleContext(playbook, null, content).getFileVariables();
+        List<Issue> issues = new ArrayList<>();
+        for (CheckRunner rule : separateRunners) {
+            AnsibleContext context = new AnsibleContext(playbook, null, content);
+            rule.run(context);
+            issues.addAll(context.getIssues());
+        }
+        return issues;
+    }
+}
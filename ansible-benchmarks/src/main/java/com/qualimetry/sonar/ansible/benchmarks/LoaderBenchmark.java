@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of setting up a SnakeYAML instance per document, as the parsers and the schema
+ * check used to, against the per-thread instance of {@link YamlLoader}. {@code newYaml}
+ * is the setup alone; the load benchmarks read a role meta file, the smallest document
+ * the analyzer routinely parses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Param({"SMALL", "MEDIUM"})
+    public CorpusGenerator.Size size;
+
+    private String roleMeta;
+    private final YamlLoader loader = YamlLoader.defaults();
+
+    @Setup
+    public void setUp() {
+        roleMeta = CorpusGenerator.roleMeta(size);
+    }
+
+    @Benchmark
+    public Yaml newYaml() {
+        return new Yaml();
+    }
+
+    @Benchmark
+    public Object loadWithNewYaml() {
+        return new Yaml().load(roleMeta);
+    }
+
+    @Benchmark
+    public Object loadWithLoader() {
+        return loader.yaml().load(roleMeta);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.YamlTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the attribute model the parser used to build (a LinkedHashMap/ArrayList per
+ * node, no positions) with {@link YamlTree}, converting the same composed document.
+ * Run with {@code -prof gc} for allocation per conversion; {@link ModelFootprint} reports
+ * the heap each model retains.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    private Node root;
+    private int length;
+
+    @Setup
+    public void setUp() {
+        String content = CorpusGenerator.playbook(size);
+        root = new Yaml().compose(new StringReader(content));
+        length = content.length();
+    }
+
+    @Benchmark
+    public Object legacyMaps() {
+        return toObject(root);
+    }
+
+    @Benchmark
+    public YamlTree yamlTree() {
+        return toTree(root, length);
+    }
+
+    /** The conversion AnsibleParser applied to task maps before the tree model. */
+    static Object toObject(Node node) {
+        return switch (node.getNodeId()) {
+            case scalar -> ((ScalarNode) node).getValue();
+            case sequence -> {
+                List<Object> list = new ArrayList<>();
+                for (Node n : ((SequenceNode) node).getValue()) {
+                    list.add(toObject(n));
+                }
+                yield list;
+            }
+            case mapping -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                    if (tuple.getKeyNode() instanceof ScalarNode key) {
+                        map.put(key.getValue(), toObject(tuple.getValueNode()));
+                    }
+                }
+                yield map;
+            }
+            default -> null;
+        };
+    }
+
+    /** The same conversion AnsibleParser now makes, without the node-to-id bookkeeping. */
+    static YamlTree toTree(Node root, int length) {
+        YamlTree.Builder builder = new YamlTree.Builder(length / 12);
+        addNode(builder, root);
+        return builder.build();
+    }
+
+    private static void addNode(YamlTree.Builder builder, Node node) {
+        int start = node.getStartMark().getIndex();
+        int end = node.getEndMark().getIndex();
+        switch (node.getNodeId()) {
+            case sequence -> {
+                builder.startSequence(start);
+                for (Node n : ((SequenceNode) node).getValue()) {
+                    addNode(builder, n);
+                }
+                builder.end(end);
+            }
+            case mapping -> {
+                builder.startMapping(start);
+                for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                    addNode(builder, tuple.getKeyNode());
+                    addNode(builder, tuple.getValueNode());
+                }
+                builder.end(end);
+            }
+            default -> builder.scalar(node instanceof ScalarNode s ? s.getValue() : "", start, end);
+        }
+    }
+}
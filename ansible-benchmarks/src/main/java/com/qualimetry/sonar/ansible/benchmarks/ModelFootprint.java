@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Node;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Prints the retained heap of the legacy map model and of the tree model per playbook.
+ * JMH's {@code -prof gc} reports allocation, which for the tree includes builder scratch
+ * space that is garbage once the tree is built; this measures what stays reachable.
+ * <p>
+ * Run with {@code java -cp ansible-benchmarks/target/benchmarks.jar
+ * com.qualimetry.sonar.ansible.benchmarks.ModelFootprint}. Scalar strings belong to the
+ * composed document and are shared by both models, so they are not counted.
+ */
+public final class ModelFootprint {
+
+    private static final int COPIES = 200;
+
+    private ModelFootprint() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-14s %14s %14s%n", "size", "legacy B/doc", "tree B/doc");
+        for (CorpusGenerator.Size size : CorpusGenerator.Size.values()) {
+            String content = CorpusGenerator.playbook(size);
+            Node root = new Yaml().compose(new StringReader(content));
+            long legacy = retained(root, ModelBenchmark::toObject);
+            long tree = retained(root, node -> ModelBenchmark.toTree(node, content.length()));
+            System.out.printf("%-14s %14d %14d%n", size, legacy, tree);
+        }
+    }
+
+    private static long retained(Node root, Function<Node, Object> model) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        List<Object> keep = new ArrayList<>(COPIES);
+        settle();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < COPIES; i++) {
+            keep.add(model.apply(root));
+        }
+        settle();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        if (keep.size() != COPIES) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / COPIES;
+    }
+
+    private static void settle() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+}
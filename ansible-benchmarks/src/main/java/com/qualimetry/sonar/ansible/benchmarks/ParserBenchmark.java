@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.RoleMetaParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.RoleMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full parses of a generated playbook and role meta file, from text to model. The playbook
+ * is parsed in both {@link AnsibleParser.Mode modes}; with {@code -prof gc} the difference
+ * in allocation is the composed node graph the streaming mode never builds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    @Param({"STREAM", "COMPOSE"})
+    public AnsibleParser.Mode mode;
+
+    private String playbook;
+    private String roleMeta;
+    private AnsibleParser parser;
+    private final RoleMetaParser roleMetaParser = new RoleMetaParser();
+
+    @Setup
+    public void setUp() {
+        playbook = CorpusGenerator.playbook(size);
+        roleMeta = CorpusGenerator.roleMeta(size);
+        parser = new AnsibleParser(mode);
+    }
+
+    @Benchmark
+    public PlaybookFile parsePlaybook() {
+        return parser.parse("file:///bench/site.yml", playbook);
+    }
+
+    @Benchmark
+    public RoleMeta parseRoleMeta() {
+        return roleMetaParser.parse("file:///bench/roles/web/meta/main.yml", roleMeta);
+    }
+}
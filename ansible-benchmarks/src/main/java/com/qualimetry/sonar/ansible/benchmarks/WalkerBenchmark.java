@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.sonar.ansible.benchmarks;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
+import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares walking the tree once per check (the original loop) with the fused,
+ * dispatch-table walk of {@link CheckRunner}, over the full check list, and the fused walk
+ * with per-rule {@link CheckMetrics} timing and allocation tracking switched on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalkerBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "PATHOLOGICAL"})
+    public CorpusGenerator.Size size;
+
+    private String content;
+    private PlaybookFile playbook;
+    private List<BaseCheck> checks;
+    private CheckRunner runner;
+    private CheckRunner timedRunner;
+    private CheckRunner allocationRunner;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        content = CorpusGenerator.playbook(size);
+        playbook = new AnsibleParser().parse("file:///bench/site.yml", content);
+        checks = new ArrayList<>();
+        for (Class<? extends BaseCheck> clazz : CheckList.getAllChecks()) {
+            checks.add(clazz.getDeclaredConstructor().newInstance());
+        }
+        runner = CheckRunner.forClasses(CheckList.getAllChecks());
+        timedRunner = CheckRunner.forClasses(CheckList.getAllChecks());
+        timedRunner.setMetricsMode(CheckMetrics.Mode.TIME);
+        allocationRunner = CheckRunner.forClasses(CheckList.getAllChecks());
+        allocationRunner.setMetricsMode(CheckMetrics.Mode.ALLOCATION);
+    }
+
+    @Benchmark
+    public List<Issue> walkPerCheck() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        for (BaseCheck check : checks) {
+            check.setContext(context);
+            AnsibleWalker.walk(playbook, check);
+        }
+        return context.getIssues();
+    }
+
+    @Benchmark
+    public List<Issue> walkFused() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        runner.run(context);
+        return context.getIssues();
+    }
+
+    @Benchmark
+    public List<Issue> walkFusedTimed() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        timedRunner.run(context);
+        return context.getIssues();
+    }
+
+    @Benchmark
+    public List<Issue> walkFusedAllocation() {
+        AnsibleContext context = new AnsibleContext(playbook, null, content);
+        allocationRunner.run(context);
+        return context.getIssues();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.cli;
+
+import com.qualimetry.ansible.lsp.LspConfig;
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import com.qualimetry.sonar.ansible.analyzer.visitor.PathResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes every YAML file under a directory without a language client.
+ * <p>
+ * The directory is walked with NIO on the calling thread; each file is handed to a
+ * work-stealing {@link ForkJoinPool} as soon as it is found, so parsing starts before the
+ * walk ends. Results go to a listener as each file completes (in completion order, from
+ * worker threads, one call at a time). Rule selection follows {@link LspConfig}, the same
+ * configuration the editor uses. YAML that is not Ansible (see {@link FileClassifier}) is
+ * skipped without being parsed, and rules about plays only run on playbooks.
+ * <p>
+ * Include and import paths are resolved against the file system relative to each file.
+ * With a cache directory, results are kept in a {@link DiskCache} and files whose content
+ * and include targets are unchanged since the last run are not parsed again.
+ */
+public final class BatchAnalyzer {
+
+    private final LspConfig config;
+    private final int threads;
+    private final Path cacheDir;
+    private final AnsibleParser parser;
+    private final CheckRunner checks = CheckRunner.forClasses(CheckList.getAllChecks());
+
+    public BatchAnalyzer(LspConfig config, int threads) {
+        this(config, threads, null);
+    }
+
+    /**
+     * @param cacheDir directory for the persistent result cache, or null for none
+     */
+    public BatchAnalyzer(LspConfig config, int threads, Path cacheDir) {
+        this.config = config != null ? config : LspConfig.defaults();
+        this.parser = new AnsibleParser(YamlLoader.of(this.config.getYamlLimits()));
+        this.threads = Math.max(1, threads);
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Analyzes all .yml/.yaml files under root, skipping hidden directories and node_modules.
+     *
+     * @param root     directory (or single file) to analyze
+     * @param listener receives each file's result as soon as it is available
+     * @return totals and timing for the run
+     * @throws IOException if root cannot be walked or the cache cannot be written
+     */
+    public Summary run(Path root, Consumer<FileResult> listener) throws IOException {
+        long start = System.nanoTime();
+        Path base = Files.isDirectory(root) ? root : root.toAbsolutePath().getParent();
+        DiskCache cache = cacheDir != null ? DiskCache.open(cacheDir, base, config.getRuleSetFingerprint()) : null;
+        AtomicInteger files = new AtomicInteger();
+        AtomicInteger cached = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicLong issues = new AtomicLong();
+        AtomicInteger failures = new AtomicInteger();
+        Consumer<FileResult> sink = result -> {
+            if (result.skipped()) {
+                skipped.incrementAndGet();
+                return;
+            }
+            files.incrementAndGet();
+            if (result.cached()) {
+                cached.incrementAndGet();
+            }
+            issues.addAndGet(result.issues().size());
+            if (result.error() != null) {
+                failures.incrementAndGet();
+            }
+            synchronized (listener) {
+                listener.accept(result);
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    String name = dir.getFileName() != null ? dir.getFileName().toString() : "";
+                    if (!dir.equals(root) && (name.startsWith(".") || name.equals("node_modules"))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && isYaml(file)) {
+                        tasks.add(pool.submit(() -> sink.accept(analyze(file, base, cache))));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    sink.accept(new FileResult(file, List.of(), e.getMessage(), false, false));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (cache != null) {
+            cache.save();
+        }
+        return new Summary(files.get(), issues.get(), failures.get(), cached.get(), skipped.get(),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Parses and checks one file, keeping only issues of enabled rules.
+     */
+    public FileResult analyze(Path file) {
+        return analyze(file, file.toAbsolutePath().getParent(), null);
+    }
+
+    private FileResult analyze(Path file, Path base, DiskCache cache) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            return new FileResult(file, List.of(), "Could not read file: " + e.getMessage(), false, false);
+        }
+        byte[] hash = cache != null ? DiskCache.hash(bytes) : null;
+        if (cache != null) {
+            List<Issue> hit = cache.lookup(file, hash);
+            if (hit != null) {
+                return new FileResult(file, hit, null, true, false);
+            }
+        }
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        FileClassifier.Kind kind = FileClassifier.classify(file, base, content);
+        if (!kind.isAnsible()) {
+            return new FileResult(file, List.of(), null, false, true);
+        }
+        try {
+            PlaybookFile playbook = parser.parse(file.toUri().toString(), content);
+            AnsibleContext context = new AnsibleContext(playbook, null, content);
+            context.setFileKind(kind);
+            FileResolver resolver = new FileResolver(file);
+            context.setPathResolver(resolver);
+            checks.run(context);
+            List<Issue> enabled = new ArrayList<>();
+            for (Issue issue : context.getIssues()) {
+                if (config.isRuleEnabled(issue.ruleKey())) {
+                    enabled.add(issue);
+                }
+            }
+            if (cache != null) {
+                cache.store(file, hash, resolver.checked, enabled);
+            }
+            return new FileResult(file, enabled, null, false, false);
+        } catch (RuntimeException e) {
+            return new FileResult(file, List.of(), "Analysis failed: " + e, false, false);
+        }
+    }
+
+    /**
+     * Starts collecting per-rule metrics in the given mode (off by default).
+     */
+    public void setMetricsMode(CheckMetrics.Mode mode) {
+        checks.setMetricsMode(mode);
+    }
+
+    public CheckMetrics metrics() {
+        return checks.metrics();
+    }
+
+    public LspConfig getConfig() {
+        return config;
+    }
+
+    static boolean isYaml(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+
+    /**
+     * Resolves include paths against the including file's directory and remembers every
+     * answer, which the disk cache re-checks before reusing a result. Templated paths
+     * cannot be resolved statically and count as present.
+     */
+    private static final class FileResolver implements PathResolver {
+
+        private final Path directory;
+        final Map<Path, Boolean> checked = new LinkedHashMap<>();
+
+        FileResolver(Path file) {
+            Path parent = file.toAbsolutePath().getParent();
+            this.directory = parent != null ? parent : file.toAbsolutePath();
+        }
+
+        @Override
+        public boolean existsInProject(String pathRelativeToCurrentFile) {
+            if (pathRelativeToCurrentFile.contains("{{")) {
+                return true;
+            }
+            Path target;
+            try {
+                target = directory.resolve(pathRelativeToCurrentFile).normalize();
+            } catch (InvalidPathException e) {
+                return false;
+            }
+            return checked.computeIfAbsent(target, Files::isRegularFile);
+        }
+    }
+
+    /**
+     * Outcome for one file.
+     *
+     * @param path   the file
+     * @param issues issues of enabled rules
+     * @param error  why the file could not be analyzed, or null
+     * @param cached  whether the issues came from the disk cache
+     * @param skipped whether the file is not Ansible and was not analyzed
+     */
+    public record FileResult(Path path, List<Issue> issues, String error, boolean cached, boolean skipped) {
+    }
+
+    /**
+     * Totals for a run.
+     *
+     * @param files      files analyzed (including failures)
+     * @param issues     issues reported
+     * @param failures   files that could not be read or analyzed
+     * @param cached     files whose results came from the disk cache
+     * @param skipped    YAML files that are not Ansible, not counted in files
+     * @param wallNanos  wall-clock time of the run
+     */
+    public record Summary(int files, long issues, int failures, int cached, int skipped, long wallNanos) {
+
+        public double seconds() {
+            return wallNanos / 1_000_000_000.0;
+        }
+
+        public double filesPerSecond() {
+            return wallNanos > 0 ? files / seconds() : 0;
+        }
+    }
+}
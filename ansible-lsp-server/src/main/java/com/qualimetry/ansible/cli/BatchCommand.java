@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.qualimetry.ansible.lsp.LspConfig;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The {@code analyze} command: {@code java -jar ansible-lsp-server.jar analyze [options] <path>}.
+ * <p>
+ * Prints one line per issue as files complete ({@code path:line:column: severity rule message})
+ * and a summary with wall-clock time and files per second on stderr. Exit status is 0 when
+ * no issues were found, 1 when issues were found or files failed, 2 on a usage error.
+ */
+public final class BatchCommand {
+
+    static final int EXIT_CLEAN = 0;
+    static final int EXIT_ISSUES = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: analyze [options] <path>",
+            "  --config <file>   JSON rule configuration, same shape as the ansibleAnalyzer settings",
+            "                    (rules, rulesReplaceDefaults)",
+            "  --threads <n>     worker threads (default: available processors)",
+            "  --cache-dir <dir> keep results between runs and skip unchanged files",
+            "  --metrics <mode>  print per-rule cost after the run: time or allocation",
+            "  --quiet           print only the summary");
+
+    /** Rules listed by --metrics, most expensive first. */
+    private static final int METRICS_TOP = 15;
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public BatchCommand(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs the command and returns the process exit status.
+     */
+    public int run(String[] args) {
+        Path root = null;
+        Path configFile = null;
+        Path cacheDir = null;
+        CheckMetrics.Mode metricsMode = CheckMetrics.Mode.OFF;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean quiet = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--config" -> configFile = Path.of(value(args, ++i));
+                    case "--cache-dir" -> cacheDir = Path.of(value(args, ++i));
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--metrics" -> metricsMode = CheckMetrics.Mode.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                    case "--quiet" -> quiet = true;
+                    case "-h", "--help" -> {
+                        out.println(USAGE);
+                        return EXIT_CLEAN;
+                    }
+                    default -> {
+                        if (args[i].startsWith("-") || root != null) {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                        root = Path.of(args[i]);
+                    }
+                }
+            }
+            if (root == null) {
+                throw new IllegalArgumentException("Missing path to analyze");
+            }
+            if (!Files.exists(root)) {
+                throw new IllegalArgumentException("No such file or directory: " + root);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        BatchAnalyzer analyzer;
+        try {
+            analyzer = new BatchAnalyzer(readConfig(configFile), threads, cacheDir);
+        } catch (IOException | JsonParseException e) {
+            err.println("Could not read configuration " + configFile + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        analyzer.setMetricsMode(metricsMode);
+
+        Path base = Files.isDirectory(root) ? root : root.toAbsolutePath().getParent();
+        boolean print = !quiet;
+        BatchAnalyzer.Summary summary;
+        try {
+            summary = analyzer.run(root, result -> {
+                if (!print) return;
+                String path = display(base, result.path());
+                if (result.error() != null) {
+                    out.println(path + ": error " + result.error());
+                }
+                for (Issue issue : result.issues()) {
+                    out.println(format(path, issue, analyzer.getConfig()));
+                }
+            });
+        } catch (IOException e) {
+            err.println("Could not analyze " + root + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        out.flush();
+        err.printf(Locale.ROOT, "Analyzed %d files (%d from cache, %d non-Ansible YAML skipped), %d issues, "
+                        + "%d failures in %.2f s (%.1f files/s)%n",
+                summary.files(), summary.cached(), summary.skipped(), summary.issues(), summary.failures(),
+                summary.seconds(), summary.filesPerSecond());
+        if (metricsMode != CheckMetrics.Mode.OFF) {
+            printMetrics(analyzer.metrics());
+        }
+        return summary.issues() > 0 || summary.failures() > 0 ? EXIT_ISSUES : EXIT_CLEAN;
+    }
+
+    static String format(String path, Issue issue, LspConfig config) {
+        int line = issue.position() != null ? issue.position().line() : issue.line() != null ? issue.line() : 0;
+        int column = issue.position() != null ? issue.position().column() : 1;
+        String severity = config.getSeverity(issue.ruleKey()).name().toLowerCase(Locale.ROOT);
+        return path + ":" + line + ":" + column + ": " + severity + " " + issue.ruleKey() + " " + issue.message();
+    }
+
+    private void printMetrics(CheckMetrics metrics) {
+        boolean allocation = metrics.mode() == CheckMetrics.Mode.ALLOCATION;
+        err.printf(Locale.ROOT, "%-40s %12s %10s%s%n", "rule", "invocations", "ms",
+                allocation ? String.format(Locale.ROOT, " %10s", "MB") : "");
+        for (CheckMetrics.RuleStats stats : metrics.snapshot().stream().limit(METRICS_TOP).toList()) {
+            err.printf(Locale.ROOT, "%-40s %12d %10.1f%s%n", stats.ruleKey(), stats.invocations(),
+                    stats.nanos() / 1_000_000.0,
+                    allocation ? String.format(Locale.ROOT, " %10.1f", stats.allocatedBytes() / 1_048_576.0) : "");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LspConfig readConfig(Path file) throws IOException {
+        if (file == null) {
+            return LspConfig.defaults();
+        }
+        Object section = new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), Object.class);
+        if (section != null && !(section instanceof Map)) {
+            throw new JsonParseException("expected a JSON object");
+        }
+        return LspConfig.fromConfiguration(section);
+    }
+
+    private static String display(Path base, Path file) {
+        try {
+            return base.toAbsolutePath().relativize(file.toAbsolutePath()).toString();
+        } catch (IllegalArgumentException e) {
+            return file.toString();
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.cli;
+
+import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of per-file analysis results for the {@code analyze} command.
+ * <p>
+ * The cache is one index file, memory-mapped read-only when a run starts. Its header holds
+ * the analyzer version (the release and a hash of the code that ran) and the rule-set
+ * fingerprint; if either differs from the current run the whole file is ignored. Each entry holds a file's path relative to the analysis root,
+ * the SHA-256 of its content, the paths other files' existence was checked for (include and
+ * import targets) with the answer at the time, and the serialized issues. An entry is used
+ * only if the content hash matches and every recorded path still exists or is still missing,
+ * so adding or deleting an included file re-analyzes the files that include it.
+ * <p>
+ * Lookups decode straight from the mapping. {@link #save} writes a new index holding the
+ * entries of this run only (files that disappeared are dropped), copying unchanged entries'
+ * bytes from the mapping, and replaces the old file atomically. Lookups and stores are
+ * thread-safe; save is called once, after all lookups.
+ */
+public final class DiskCache {
+
+    static final String INDEX_FILE = "ansible-analysis.idx";
+
+    private static final int MAGIC = 0x414E5349; // "ANSI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NONE = -1;
+
+    private final Path directory;
+    private final Path root;
+    private final String analyzerVersion;
+    private final String ruleSetFingerprint;
+    private final ByteBuffer mapped;
+    /** Offset of each entry's body in the mapping, by relative path. */
+    private final Map<String, Integer> offsets;
+    /** Entries for the next index: mapped ranges reused as is, or new encodings. */
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+    private final Map<String, int[]> reused = new ConcurrentHashMap<>();
+
+    private DiskCache(Path directory, Path root, String analyzerVersion, String ruleSetFingerprint,
+                      ByteBuffer mapped, Map<String, Integer> offsets) {
+        this.directory = directory;
+        this.root = root;
+        this.analyzerVersion = analyzerVersion;
+        this.ruleSetFingerprint = ruleSetFingerprint;
+        this.mapped = mapped;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Opens the cache in directory for an analysis of root. A missing, unreadable or
+     * incompatible index yields an empty cache.
+     */
+    public static DiskCache open(Path directory, Path root, String ruleSetFingerprint) {
+        String version = analyzerVersion();
+        Path index = directory.resolve(INDEX_FILE);
+        if (Files.isRegularFile(index)) {
+            try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Map<String, Integer> offsets = readIndex(buffer, version, ruleSetFingerprint);
+                if (offsets != null) {
+                    return new DiskCache(directory, root, version, ruleSetFingerprint, buffer, offsets);
+                }
+            } catch (IOException | RuntimeException e) {
+                // corrupt or unreadable: start over
+            }
+        }
+        return new DiskCache(directory, root, version, ruleSetFingerprint, null, Map.of());
+    }
+
+    /**
+     * Returns the cached issues for the file if its content and recorded dependencies are
+     * unchanged, or null.
+     */
+    public List<Issue> lookup(Path file, byte[] contentHash) {
+        String key = key(file);
+        Integer offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            ByteBuffer in = mapped.duplicate().position(offset);
+            int length = in.getInt();
+            int bodyStart = in.position();
+            readString(in);
+            byte[] hash = new byte[32];
+            in.get(hash);
+            if (!Arrays.equals(hash, contentHash)) {
+                return null;
+            }
+            int dependencies = in.getInt();
+            for (int i = 0; i < dependencies; i++) {
+                Path target = root.resolve(readString(in)).normalize();
+                boolean existed = in.get() != 0;
+                if (Files.isRegularFile(target) != existed) {
+                    return null;
+                }
+            }
+            List<Issue> issues = readIssues(in);
+            reused.put(key, new int[] {offset, bodyStart + length - offset});
+            return issues;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the result of analyzing the file for the next index.
+     *
+     * @param dependencies paths whose existence the analysis depended on, with the answer
+     */
+    public void store(Path file, byte[] contentHash, Map<Path, Boolean> dependencies, List<Issue> issues) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            writeString(out, key(file));
+            out.write(contentHash);
+            out.writeInt(dependencies.size());
+            for (Map.Entry<Path, Boolean> dependency : dependencies.entrySet()) {
+                writeString(out, key(dependency.getKey()));
+                out.writeBoolean(dependency.getValue());
+            }
+            out.writeInt(issues.size());
+            for (Issue issue : issues) {
+                writeIssue(out, issue);
+            }
+            out.flush();
+            byte[] entry = bytes.toByteArray();
+            ByteBuffer.wrap(entry).putInt(entry.length - Integer.BYTES);
+            String key = key(file);
+            reused.remove(key);
+            stored.put(key, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the entries looked up or stored during this run as the new index.
+     */
+    public void save() throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, analyzerVersion);
+            writeString(out, ruleSetFingerprint);
+            out.writeInt(reused.size() + stored.size());
+            byte[] copy = new byte[4096];
+            for (int[] range : reused.values()) {
+                ByteBuffer in = mapped.duplicate().position(range[0]);
+                for (int left = range[1]; left > 0; ) {
+                    int n = Math.min(left, copy.length);
+                    in.get(copy, 0, n);
+                    out.write(copy, 0, n);
+                    left -= n;
+                }
+            }
+            for (byte[] entry : stored.values()) {
+                out.write(entry);
+            }
+        }
+        try {
+            Files.move(temp, directory.resolve(INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    int size() {
+        return offsets.size();
+    }
+
+    /**
+     * SHA-256 of file content, the key compared on lookup.
+     */
+    public static byte[] hash(byte[] content) {
+        return sha256().digest(content);
+    }
+
+    /**
+     * Version of the analyzer that is running: its release (from its Maven metadata) and a
+     * SHA-256 of the jars or class directories holding the analyzer and this command, so
+     * results of other releases, or of other builds of one snapshot, are never reused. When
+     * the code cannot be read the version is unique to this process and nothing is reused.
+     */
+    static String analyzerVersion() {
+        return AnalyzerVersion.VALUE;
+    }
+
+    /**
+     * SHA-256 over the given jars and class directories (each directory's files in path
+     * order), or null if one cannot be read.
+     */
+    static String codeHash(Collection<Path> locations) {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            for (Path location : locations) {
+                List<Path> files = new ArrayList<>();
+                if (Files.isDirectory(location)) {
+                    try (Stream<Path> walk = Files.walk(location)) {
+                        walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+                    }
+                } else if (Files.isRegularFile(location)) {
+                    files.add(location);
+                } else {
+                    return null;
+                }
+                for (Path file : files) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        for (int n; (n = in.read(buffer)) > 0; ) {
+                            digest.update(buffer, 0, n);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            return null;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Computed once per process, on the first cache opened. */
+    private static final class AnalyzerVersion {
+
+        static final String VALUE = compute();
+
+        private static String compute() {
+            Set<Path> locations = new LinkedHashSet<>();
+            for (Class<?> type : List.of(CheckList.class, DiskCache.class)) {
+                Path location = location(type);
+                if (location == null) {
+                    return unique();
+                }
+                locations.add(location);
+            }
+            String hash = codeHash(locations);
+            return hash != null ? release() + "+" + hash : unique();
+        }
+
+        private static Path location(Class<?> type) {
+            try {
+                CodeSource source = type.getProtectionDomain().getCodeSource();
+                return source != null && source.getLocation() != null ? Path.of(source.getLocation().toURI()) : null;
+            } catch (URISyntaxException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static String release() {
+            try (InputStream in = CheckList.class.getResourceAsStream(
+                    "/META-INF/maven/com.qualimetry.sonar/ansible-analyzer/pom.properties")) {
+                if (in != null) {
+                    Properties properties = new Properties();
+                    properties.load(in);
+                    return properties.getProperty("version", "unknown");
+                }
+            } catch (IOException e) {
+                // fall through
+            }
+            return "unknown";
+        }
+
+        private static String unique() {
+            return "unversioned-" + UUID.randomUUID();
+        }
+    }
+
+    private String key(Path file) {
+        return root.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize())
+                .toString().replace('\\', '/');
+    }
+
+    private static Map<String, Integer> readIndex(ByteBuffer in, String version, String fingerprint) {
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION
+                || !readString(in).equals(version) || !readString(in).equals(fingerprint)) {
+            return null;
+        }
+        int count = in.getInt();
+        Map<String, Integer> offsets = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int offset = in.position();
+            int length = in.getInt();
+            int next = in.position() + length;
+            offsets.put(readString(in), offset);
+            in.position(next);
+        }
+        return offsets;
+    }
+
+    private static List<Issue> readIssues(ByteBuffer in) {
+        int count = in.getInt();
+        List<Issue> issues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String ruleKey = readString(in);
+            String message = readString(in);
+            int line = in.getInt();
+            int positionLine = in.getInt();
+            int positionColumn = in.getInt();
+            int endColumn = in.getInt();
+            double cost = in.getDouble();
+            issues.add(new Issue(ruleKey, message,
+                    positionLine != NONE ? new TextPosition(positionLine, positionColumn) : null,
+                    line != NONE ? line : null,
+                    Double.isNaN(cost) ? null : cost,
+                    endColumn != NONE ? endColumn : null));
+        }
+        return issues;
+    }
+
+    private static void writeIssue(DataOutputStream out, Issue issue) throws IOException {
+        writeString(out, issue.ruleKey());
+        writeString(out, issue.message());
+        out.writeInt(issue.line() != null ? issue.line() : NONE);
+        out.writeInt(issue.position() != null ? issue.position().line() : NONE);
+        out.writeInt(issue.position() != null ? issue.position().column() : NONE);
+        out.writeInt(issue.endColumn() != null ? issue.endColumn() : NONE);
+        out.writeDouble(issue.cost() != null ? issue.cost() : Double.NaN);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
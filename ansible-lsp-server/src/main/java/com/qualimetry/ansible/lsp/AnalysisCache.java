@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * LRU cache of analysis results, bounded by an estimate of the bytes each entry retains.
+ * <p>
+ * Entries are keyed by document URI, a hash of its content, and the rule-set fingerprint of
+ * the configuration they were produced under, and hold the parsed playbook and the issues
+ * of the enabled rules. Severity is not part of the entry: callers map issues to
+ * diagnostics with the current configuration on every hit. Entries also record which
+ * include and import targets were found and a stamp of the files they depend on, so callers
+ * can tell when a result depends on files that have since been created, deleted or changed.
+ * Thread-safe.
+ */
+final class AnalysisCache {
+
+    /** Fixed cost per entry: key strings, map node, entry record, playbook skeleton. */
+    private static final long ENTRY_OVERHEAD = 512;
+    /** Retained bytes per character of content: parsed tree and its scalar strings. */
+    private static final long BYTES_PER_CHAR = 4;
+    private static final long BYTES_PER_ISSUE = 160;
+    private static final long BYTES_PER_TARGET = 160;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    AnalysisCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached result for the key and counts a hit, or counts a miss and returns null.
+     */
+    Entry get(Key key) {
+        return get(key, entry -> true);
+    }
+
+    /**
+     * Returns the cached result for the key if it is still usable and counts a hit, or
+     * counts a miss and returns null.
+     */
+    synchronized Entry get(Key key, Predicate<Entry> usable) {
+        Entry entry = entries.get(key);
+        if (entry != null && !usable.test(entry)) {
+            entry = null;
+        }
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a result that does not depend on other files.
+     */
+    void put(Key key, PlaybookFile playbook, List<Issue> issues, int contentLength) {
+        put(key, playbook, issues, contentLength, Map.of(), 0);
+    }
+
+    /**
+     * Stores a result. Results larger than the whole budget are not cached.
+     *
+     * @param targets      include and import targets the checks looked up, and whether each existed
+     * @param dependencies {@link com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph#stamp}
+     *                     of the file when it was analyzed
+     */
+    synchronized void put(Key key, PlaybookFile playbook, List<Issue> issues, int contentLength,
+                          Map<Path, Boolean> targets, long dependencies) {
+        long size = ENTRY_OVERHEAD + BYTES_PER_CHAR * contentLength + BYTES_PER_ISSUE * issues.size()
+                + BYTES_PER_TARGET * targets.size();
+        if (size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(playbook, List.copyOf(issues), Map.copyOf(targets), dependencies, size));
+        if (previous != null) {
+            bytes -= previous.bytes();
+        }
+        bytes += size;
+        trim();
+    }
+
+    /**
+     * Changes the byte budget, evicting least recently used entries to fit.
+     */
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trim();
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes, maxBytes);
+    }
+
+    private void trim() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().bytes();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Identifies one analysis: the URI matters because some rules look at the file name.
+     */
+    record Key(String uri, String contentHash, String ruleSetFingerprint) {
+    }
+
+    record Entry(PlaybookFile playbook, List<Issue> issues, Map<Path, Boolean> targets, long dependencies,
+                 long bytes) {
+    }
+
+    /**
+     * Counters returned by the {@code ansibleAnalyzer/cacheStats} request.
+     *
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups that required parsing and checking
+     * @param evictions entries dropped to stay within the budget
+     * @param entries   entries currently cached
+     * @param bytes     estimated bytes retained by the entries
+     * @param maxBytes  byte budget
+     */
+    record Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Runs document analyses off the LSP message thread.
+ * <p>
+ * Each schedule call for a URI supersedes the previous one: a run that has not started yet
+ * is dropped (edits inside the debounce window coalesce into one run), and a run already in
+ * progress sees its cancellation flag flip so it can stop and skip publishing. Runs execute
+ * on a fixed number of worker threads.
+ */
+final class AnalysisScheduler {
+
+    /**
+     * One analysis run. Implementations should poll {@code cancelled} between units of work
+     * and must not publish results once it returns true.
+     */
+    @FunctionalInterface
+    interface Job {
+        void run(BooleanSupplier cancelled);
+    }
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> latest = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> delayed = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    AnalysisScheduler(int workerThreads) {
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("ansible-analysis-debounce"));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), daemonThreads("ansible-analysis"));
+    }
+
+    /**
+     * Schedules an analysis of the URI after the given delay, superseding any earlier one.
+     *
+     * @param uri         document URI
+     * @param delayMillis debounce delay; 0 or less submits immediately
+     * @param job         the analysis to run
+     */
+    void schedule(String uri, long delayMillis, Job job) {
+        long generation = sequence.incrementAndGet();
+        latest.put(uri, generation);
+        BooleanSupplier cancelled = () -> !Long.valueOf(generation).equals(latest.get(uri));
+        Runnable submit = () -> execute(() -> {
+            if (!cancelled.getAsBoolean()) {
+                job.run(cancelled);
+            }
+        });
+        ScheduledFuture<?> previous;
+        if (delayMillis <= 0) {
+            previous = delayed.remove(uri);
+            submit.run();
+        } else {
+            AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+            Runnable fire = () -> {
+                // Blocks on the entry until compute below has returned, so self is set
+                delayed.computeIfPresent(uri, (u, pending) -> pending == self.get() ? null : pending);
+                submit.run();
+            };
+            ScheduledFuture<?>[] replaced = new ScheduledFuture<?>[1];
+            delayed.compute(uri, (u, pending) -> {
+                replaced[0] = pending;
+                self.set(timer.schedule(fire, delayMillis, TimeUnit.MILLISECONDS));
+                return self.get();
+            });
+            previous = replaced[0];
+        }
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /** Debounced analyses waiting for their delay to pass. */
+    int pendingCount() {
+        return delayed.size();
+    }
+
+    /**
+     * Runs a one-off job on the workers, for a client request. It is not superseded by
+     * later schedules; cancelling the returned future (e.g. on {@code $/cancelRequest})
+     * flips the job's flag.
+     */
+    <T> CompletableFuture<T> compute(Function<BooleanSupplier, T> job) {
+        return CompletableFutures.computeAsync(this::execute, checker -> job.apply(checker::isCanceled));
+    }
+
+    /**
+     * Returns whether no analysis or request is queued or running. Debounced analyses that
+     * have not been submitted yet do not count.
+     */
+    boolean isIdle() {
+        return queued.get() == 0;
+    }
+
+    private void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    queued.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels pending and running analyses of the URI (e.g. when the document is closed).
+     */
+    void cancel(String uri) {
+        latest.remove(uri);
+        ScheduledFuture<?> pending = delayed.remove(uri);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -15,19 +15,32 @@
  */
 package com.qualimetry.ansible.lsp;
 
+import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.ConfigurationItem;
 import org.eclipse.lsp4j.ConfigurationParams;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
+import org.eclipse.lsp4j.DiagnosticWorkspaceCapabilities;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.InitializedParams;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.ServerInfo;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.eclipse.lsp4j.WorkspaceFoldersOptions;
+import org.eclipse.lsp4j.WorkspaceServerCapabilities;
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -38,6 +51,7 @@ public class AnsibleLanguageServer implements LanguageServer {
     private LanguageClient client;
     private final AnsibleTextDocumentService textDocumentService;
     private final AnsibleWorkspaceService workspaceService;
+    private List<Path> workspaceRoots = List.of();
 
     public AnsibleLanguageServer() {
         this.textDocumentService = new AnsibleTextDocumentService();
@@ -71,19 +85,123 @@ public class AnsibleLanguageServer implements LanguageServer {
         });
     }
 
+    /**
+     * Starts indexing the workspace folders once the client has finished initializing.
+     */
+    @Override
+    public void initialized(InitializedParams params) {
+        for (Path root : workspaceRoots) {
+            textDocumentService.workspaceIndex().addRoot(root);
+        }
+    }
+
+    /** Workspace folders, or the root URI of clients that predate them. */
+    private static List<Path> workspaceRoots(InitializeParams params) {
+        List<Path> roots = new ArrayList<>();
+        if (params == null) {
+            return roots;
+        }
+        if (params.getWorkspaceFolders() != null) {
+            for (WorkspaceFolder folder : params.getWorkspaceFolders()) {
+                Path path = WorkspaceIndex.toPath(folder.getUri());
+                if (path != null) {
+                    roots.add(path);
+                }
+            }
+        } else {
+            Path path = rootUri(params);
+            if (path != null) {
+                roots.add(path);
+            }
+        }
+        return roots;
+    }
+
+    /** The path of the root URI, or null. */
+    @SuppressWarnings("deprecation") // rootUri is the only root older clients send
+    private static Path rootUri(InitializeParams params) {
+        return params.getRootUri() != null ? WorkspaceIndex.toPath(params.getRootUri()) : null;
+    }
+
+    /** Identifies this server's diagnostics in pull reports. */
+    static final String DIAGNOSTIC_IDENTIFIER = "qualimetry-ansible";
+
+    /**
+     * Advertises incremental sync, pull diagnostics and workspace folder changes. Clients
+     * that declare {@code textDocument.diagnostic} pull; others keep receiving pushed
+     * diagnostics. Diagnostics depend on other files (includes, roles and their handlers,
+     * variables defined elsewhere), which the provider declares. The workspace folders are remembered for {@link #initialized}.
+     */
     @Override
     public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
         ServerCapabilities capabilities = new ServerCapabilities();
-        capabilities.setTextDocumentSync(TextDocumentSyncKind.Full);
+        capabilities.setTextDocumentSync(TextDocumentSyncKind.Incremental);
+        DiagnosticRegistrationOptions diagnostics = new DiagnosticRegistrationOptions(true, true);
+        diagnostics.setIdentifier(DIAGNOSTIC_IDENTIFIER);
+        capabilities.setDiagnosticProvider(diagnostics);
+        WorkspaceFoldersOptions folders = new WorkspaceFoldersOptions();
+        folders.setSupported(true);
+        folders.setChangeNotifications(true);
+        capabilities.setWorkspace(new WorkspaceServerCapabilities(folders));
+        ClientCapabilities caps = params != null ? params.getCapabilities() : null;
+        boolean pull = caps != null && caps.getTextDocument() != null && caps.getTextDocument().getDiagnostic() != null;
+        DiagnosticWorkspaceCapabilities refresh = caps != null && caps.getWorkspace() != null
+                ? caps.getWorkspace().getDiagnostics() : null;
+        textDocumentService.setPullDiagnostics(pull,
+                refresh != null && Boolean.TRUE.equals(refresh.getRefreshSupport()));
+        workspaceRoots = workspaceRoots(params);
         ServerInfo serverInfo = new ServerInfo("Ansible Analyzer", "1.1.0");
         return CompletableFuture.completedFuture(new InitializeResult(capabilities, serverInfo));
     }
 
     @Override
     public CompletableFuture<Object> shutdown() {
+        textDocumentService.shutdown();
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * Custom request returning the analysis cache counters (hits, misses, evictions, size).
+     */
+    @JsonRequest("ansibleAnalyzer/cacheStats")
+    public CompletableFuture<AnalysisCache.Stats> cacheStats() {
+        return CompletableFuture.completedFuture(textDocumentService.cacheStats());
+    }
+
+    /**
+     * Custom request returning how many diagnostic notifications were sent and how many were
+     * skipped because the document's diagnostics had not changed.
+     */
+    @JsonRequest("ansibleAnalyzer/publishStats")
+    public CompletableFuture<DiagnosticPublisher.Stats> publishStats() {
+        return CompletableFuture.completedFuture(textDocumentService.publishStats());
+    }
+
+    /**
+     * Custom request returning the size of the background workspace index and whether it is
+     * still being built.
+     */
+    @JsonRequest("ansibleAnalyzer/indexStats")
+    public CompletableFuture<WorkspaceIndex.Stats> indexStats() {
+        return CompletableFuture.completedFuture(textDocumentService.workspaceIndex().stats());
+    }
+
+    /**
+     * Custom request returning per-rule invocation counts, time and allocation (see
+     * {@code ansibleAnalyzer.analysis.metrics}).
+     */
+    @JsonRequest("ansibleAnalyzer/metrics")
+    public CompletableFuture<MetricsReport> metrics() {
+        return CompletableFuture.completedFuture(MetricsReport.of(textDocumentService.metrics()));
+    }
+
+    /**
+     * Answers a {@code workspace/diagnostic} request over the open documents.
+     */
+    CompletableFuture<WorkspaceDiagnosticReport> workspaceDiagnostic(WorkspaceDiagnosticParams params) {
+        return textDocumentService.workspaceDiagnostic(params);
+    }
+
     @Override
     public void exit() {
         System.exit(0);
@@ -99,6 +217,10 @@ public class AnsibleLanguageServer implements LanguageServer {
         return workspaceService;
     }
 
+    WorkspaceIndex getWorkspaceIndex() {
+        return textDocumentService.workspaceIndex();
+    }
+
     public LanguageClient getClient() {
         return client;
     }
@@ -17,44 +17,86 @@ package com.qualimetry.ansible.lsp;
 
 import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
 import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileSummary;
+import com.qualimetry.sonar.ansible.analyzer.parser.IncrementalParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph;
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
 import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleContext;
-import com.qualimetry.sonar.ansible.analyzer.visitor.AnsibleWalker;
-import com.qualimetry.sonar.ansible.analyzer.visitor.BaseCheck;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckRunner;
 import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
 import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
 import com.qualimetry.sonar.ansible.analyzer.RuleHelpUrls;
 import org.eclipse.lsp4j.DiagnosticCodeDescription;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.eclipse.lsp4j.PreviousResultId;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.RelatedFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.RelatedUnchangedDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceUnchangedDocumentDiagnosticReport;
 import org.eclipse.lsp4j.services.LanguageClient;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 /**
  * Text document service: on open/change, run analyzer and publish diagnostics.
+ * Analyses run on background workers through {@link AnalysisScheduler}; edits are debounced
+ * and only the latest version of a document is ever published.
+ * <p>
+ * Clients that support LSP 3.17 pull diagnostics ask for them instead
+ * ({@code textDocument/diagnostic}, {@code workspace/diagnostic}) and are not pushed to.
+ * Each report carries a result id derived from the content and the diagnostics-relevant
+ * configuration, so a repeated request for an unchanged document is answered "unchanged"
+ * without analyzing or serializing anything.
+ * <p>
+ * Analyses feed the workspace index's {@link ProjectGraph} with the editor's content. When a
+ * file's includes, roles or tasks change, on disk or in the editor, only the open documents
+ * that depend on it are analyzed again.
  */
 public class AnsibleTextDocumentService implements org.eclipse.lsp4j.services.TextDocumentService {
 
-    private final ConcurrentHashMap<String, String> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TextDocument> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, IncrementalParser> parsers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, String> openFiles = new ConcurrentHashMap<>();
     private volatile LspConfig config = LspConfig.defaults();
+    private volatile YamlLoader yamlLoader = YamlLoader.defaults();
     private LanguageClient client;
-    private final AnsibleParser parser = new AnsibleParser();
-    private final List<BaseCheck> checks = new ArrayList<>();
+    private final CheckRunner checks = CheckRunner.forClasses(CheckList.getAllChecks());
+    private final AnalysisScheduler scheduler =
+            new AnalysisScheduler(Runtime.getRuntime().availableProcessors());
+    private final AnalysisCache cache = new AnalysisCache(LspConfig.DEFAULT_CACHE_MAX_BYTES);
+    private final DiagnosticPublisher publisher = new DiagnosticPublisher();
+    private final WorkspaceIndex index = new WorkspaceIndex(LspConfig.DEFAULT_INDEX_MAX_BYTES, scheduler::isIdle);
+    private final Runnable metricsEvents;
+    private volatile boolean pullDiagnostics;
+    private volatile boolean refreshSupport;
 
     public AnsibleTextDocumentService() {
-        try {
-            for (Class<? extends BaseCheck> clazz : CheckList.getAllChecks()) {
-                checks.add(clazz.getDeclaredConstructor().newInstance());
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Could not instantiate checks", e);
-        }
+        checks.setMetricsMode(LspConfig.DEFAULT_METRICS_MODE);
+        metricsEvents = RuleMetricsEvent.register(checks::metrics);
+        index.setDependencyListener(this::dependencyChanged);
+        index.setVariableListener(this::variablesChanged);
     }
 
     public void setClient(LanguageClient client) {
@@ -63,32 +105,160 @@ public class AnsibleTextDocumentService implements org.eclipse.lsp4j.services.Te
 
     public void setConfig(LspConfig config) {
         this.config = config != null ? config : LspConfig.defaults();
+        cache.setMaxBytes(this.config.getCacheMaxBytes());
+        if (!yamlLoader.limits().equals(this.config.getYamlLimits())) {
+            yamlLoader = YamlLoader.of(this.config.getYamlLimits());
+            parsers.clear();
+            index.setYamlLimits(this.config.getYamlLimits());
+        }
+        index.setMaxBytes(this.config.getIndexMaxBytes());
+        if (checks.metrics().mode() != this.config.getMetricsMode()) {
+            checks.setMetricsMode(this.config.getMetricsMode());
+        }
+    }
+
+    /**
+     * Switches between pushing diagnostics after each analysis and answering pull requests,
+     * depending on the client capabilities.
+     *
+     * @param pull    whether the client pulls document diagnostics
+     * @param refresh whether the client accepts {@code workspace/diagnostic/refresh}
+     */
+    void setPullDiagnostics(boolean pull, boolean refresh) {
+        this.pullDiagnostics = pull;
+        this.refreshSupport = refresh;
+    }
+
+    /**
+     * Returns the analysis cache counters.
+     */
+    AnalysisCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the background index of the workspace folders.
+     */
+    WorkspaceIndex workspaceIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the counters of sent and skipped diagnostic notifications.
+     */
+    DiagnosticPublisher.Stats publishStats() {
+        return publisher.stats();
+    }
+
+    /**
+     * Returns the per-rule execution metrics collected since they were last enabled.
+     */
+    CheckMetrics metrics() {
+        return checks.metrics();
     }
 
     /**
      * Re-analyzes all open documents and publishes diagnostics. Used after config change.
+     * Documents are analyzed in parallel on the scheduler's workers. A pulling client is
+     * asked to pull again instead; documents whose result id did not change are answered
+     * "unchanged".
      */
     public void reAnalyzeAll() {
-        for (var e : documents.entrySet()) {
-            analyzeAndPublish(e.getKey(), e.getValue());
+        if (pullDiagnostics) {
+            if (refreshSupport && client != null) {
+                client.refreshDiagnostics();
+            }
+            return;
+        }
+        for (String uri : documents.keySet()) {
+            scheduleAnalysis(uri, 0);
         }
     }
 
+    /**
+     * Re-analyzes the open documents that depend on the file, directly or through other
+     * files, after its dependencies changed or it was created or deleted. A pulling client is
+     * asked to pull again instead.
+     */
+    void dependencyChanged(Path file) {
+        reAnalyzeOpen(index.graph().transitiveDependents(file));
+    }
+
+    /**
+     * Re-analyzes the other open documents that define or read variables whose state changed
+     * in the project, or every open document when names is null (the table became complete
+     * or incomplete).
+     */
+    void variablesChanged(Path file, Set<String> names) {
+        if (names == null) {
+            reAnalyzeAll();
+            return;
+        }
+        Set<Path> using = index.variables().filesUsing(names);
+        using.remove(file);
+        reAnalyzeOpen(using);
+    }
+
+    private void reAnalyzeOpen(Collection<Path> files) {
+        List<String> affected = new ArrayList<>();
+        for (Path path : files) {
+            String uri = openFiles.get(path);
+            if (uri != null) {
+                affected.add(uri);
+            }
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+        if (pullDiagnostics) {
+            if (refreshSupport && client != null) {
+                client.refreshDiagnostics();
+            }
+            return;
+        }
+        for (String uri : affected) {
+            scheduleAnalysis(uri, config.getDebounceMillis());
+        }
+    }
+
+    /**
+     * Stops background analysis. Called when the server shuts down.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        index.shutdown();
+        RuleMetricsEvent.unregister(metricsEvents);
+    }
+
     @Override
     public void didOpen(org.eclipse.lsp4j.DidOpenTextDocumentParams params) {
-        documents.put(params.getTextDocument().getUri(), params.getTextDocument().getText());
-        analyzeAndPublish(params.getTextDocument().getUri(), params.getTextDocument().getText());
+        String uri = params.getTextDocument().getUri();
+        TextDocument document = new TextDocument(params.getTextDocument().getText(), params.getTextDocument().getVersion());
+        documents.put(uri, document);
+        parsers.remove(uri);
+        Path file = WorkspaceIndex.toPath(uri);
+        if (file != null) {
+            openFiles.put(file, uri);
+        }
+        if (!pullDiagnostics) {
+            scheduleAnalysis(uri, 0);
+        }
     }
 
+    /**
+     * Applies the (incremental) content changes to the stored document and schedules a
+     * debounced re-analysis. Full-text changes (no range) are handled too, for clients that
+     * ignore the sync kind.
+     */
     @Override
     public void didChange(org.eclipse.lsp4j.DidChangeTextDocumentParams params) {
         String uri = params.getTextDocument().getUri();
-        String fullText = params.getContentChanges().isEmpty()
-                ? documents.get(uri)
-                : params.getContentChanges().get(0).getText();
-        if (fullText != null) {
-            documents.put(uri, fullText);
-            analyzeAndPublish(uri, fullText);
+        TextDocument document = documents.get(uri);
+        if (document == null) return;
+        Integer version = params.getTextDocument().getVersion();
+        document.apply(params.getContentChanges(), version != null ? version : document.getVersion());
+        if (!pullDiagnostics) {
+            scheduleAnalysis(uri, config.getDebounceMillis());
         }
     }
 
@@ -100,35 +270,217 @@ public class AnsibleTextDocumentService implements org.eclipse.lsp4j.services.Te
     @Override
     public void didClose(org.eclipse.lsp4j.DidCloseTextDocumentParams params) {
         documents.remove(params.getTextDocument().getUri());
-        if (client != null) {
-            client.publishDiagnostics(new PublishDiagnosticsParams(params.getTextDocument().getUri(), List.of()));
+        parsers.remove(params.getTextDocument().getUri());
+        scheduler.cancel(params.getTextDocument().getUri());
+        publisher.forget(params.getTextDocument().getUri());
+        Path file = WorkspaceIndex.toPath(params.getTextDocument().getUri());
+        if (file != null) {
+            openFiles.remove(file);
+            index.releaseOverlay(file);
+        }
+        if (client != null && !pullDiagnostics) {
+            PublishDiagnosticsEvent.publish(client,
+                    new PublishDiagnosticsParams(params.getTextDocument().getUri(), List.of()));
         }
     }
 
-    private void analyzeAndPublish(String uri, String content) {
+    private void scheduleAnalysis(String uri, long delayMillis) {
+        scheduler.schedule(uri, delayMillis, cancelled -> {
+            TextDocument document = documents.get(uri);
+            if (document != null) {
+                analyzeAndPublish(uri, document.getText(), cancelled);
+            }
+        });
+    }
+
+    /**
+     * Parses and checks the content, then publishes unless a newer version superseded this
+     * run or the diagnostics equal the ones last published. Cancellation is polled during the
+     * walk so stale runs stop early. Content already analyzed under the same enabled rules is
+     * answered from the cache; only severities are mapped again.
+     */
+    private void analyzeAndPublish(String uri, String content, BooleanSupplier cancelled) {
         if (client == null) return;
 
         try {
-            PlaybookFile playbook = parser.parse(uri, content != null ? content : "");
-            AnsibleContext context = new AnsibleContext(playbook, null, content != null ? content : "");
-            for (BaseCheck check : checks) {
-                check.setContext(context);
-                AnsibleWalker.walk(playbook, check);
-            }
-
+            String text = content != null ? content : "";
             LspConfig cfg = config;
-            List<Diagnostic> diagnostics = new ArrayList<>();
-            for (Issue issue : context.getIssues()) {
-                if (!cfg.isRuleEnabled(issue.ruleKey())) continue;
-                Diagnostic d = toDiagnostic(issue, cfg);
-                if (d != null) diagnostics.add(d);
-            }
-
-            client.publishDiagnostics(new PublishDiagnosticsParams(uri, diagnostics));
+            List<Diagnostic> diagnostics = diagnostics(uri, text, cfg, cancelled);
+            if (diagnostics == null) return;
+            publisher.publish(client, uri, diagnostics, cancelled);
         } catch (Exception e) {
             // Publish empty so editor clears stale diagnostics; avoid crashing the server
-            client.publishDiagnostics(new PublishDiagnosticsParams(uri, List.of()));
+            publisher.publish(client, uri, List.of(), cancelled);
+        }
+    }
+
+    /**
+     * Answers a {@code textDocument/diagnostic} request: "unchanged" when the client already
+     * has the result id of the current content and configuration, otherwise the full list,
+     * computed on a worker.
+     */
+    @Override
+    public CompletableFuture<DocumentDiagnosticReport> diagnostic(DocumentDiagnosticParams params) {
+        String uri = params.getTextDocument().getUri();
+        TextDocument document = documents.get(uri);
+        if (document == null) {
+            return CompletableFuture.completedFuture(
+                    new DocumentDiagnosticReport(new RelatedFullDocumentDiagnosticReport(List.of())));
+        }
+        String text = document.getText();
+        LspConfig cfg = config;
+        String resultId = resultId(uri, text, cfg);
+        if (resultId.equals(params.getPreviousResultId())) {
+            return CompletableFuture.completedFuture(
+                    new DocumentDiagnosticReport(new RelatedUnchangedDocumentDiagnosticReport(resultId)));
+        }
+        return scheduler.compute(cancelled -> {
+            RelatedFullDocumentDiagnosticReport report =
+                    new RelatedFullDocumentDiagnosticReport(pulledDiagnostics(uri, text, cfg, cancelled));
+            report.setResultId(resultId);
+            return new DocumentDiagnosticReport(report);
+        });
+    }
+
+    /**
+     * Answers a {@code workspace/diagnostic} request for the open documents, reporting
+     * "unchanged" for those whose previous result id still matches.
+     */
+    CompletableFuture<WorkspaceDiagnosticReport> workspaceDiagnostic(WorkspaceDiagnosticParams params) {
+        Map<String, String> previous = new HashMap<>();
+        if (params.getPreviousResultIds() != null) {
+            for (PreviousResultId id : params.getPreviousResultIds()) {
+                previous.put(id.getUri(), id.getValue());
+            }
+        }
+        LspConfig cfg = config;
+        Map<String, TextDocument> open = new HashMap<>(documents);
+        return scheduler.compute(cancelled -> {
+            List<WorkspaceDocumentDiagnosticReport> reports = new ArrayList<>(open.size());
+            for (Map.Entry<String, TextDocument> entry : open.entrySet()) {
+                String uri = entry.getKey();
+                String text = entry.getValue().getText();
+                int version = entry.getValue().getVersion();
+                String resultId = resultId(uri, text, cfg);
+                if (resultId.equals(previous.get(uri))) {
+                    reports.add(new WorkspaceDocumentDiagnosticReport(
+                            new WorkspaceUnchangedDocumentDiagnosticReport(resultId, uri, version)));
+                } else {
+                    WorkspaceFullDocumentDiagnosticReport report = new WorkspaceFullDocumentDiagnosticReport(
+                            pulledDiagnostics(uri, text, cfg, cancelled), uri, version);
+                    report.setResultId(resultId);
+                    reports.add(new WorkspaceDocumentDiagnosticReport(report));
+                }
+            }
+            return new WorkspaceDiagnosticReport(reports);
+        });
+    }
+
+    /**
+     * Identifies a diagnostics result: equal ids mean equal diagnostic lists. Creating or
+     * deleting a workspace file may change whether includes resolve, and changing a file the
+     * document depends on or a variable it uses may change its issues, so all change the id.
+     */
+    private String resultId(String uri, String text, LspConfig cfg) {
+        return ContentHash.of(ContentHash.of(text) + cfg.getDiagnosticsFingerprint() + index.generation()
+                + ":" + dependencyStamp(WorkspaceIndex.toPath(uri)));
+    }
+
+    /**
+     * Combines the file's stamps in the project graph and, when the variable checks can run,
+     * the variable table.
+     */
+    private long dependencyStamp(Path file) {
+        if (file == null) {
+            return 0;
+        }
+        long stamp = index.graph().stamp(file);
+        return index.variablesComplete() ? 31 * stamp + index.variables().stamp(file) : ~stamp;
+    }
+
+    /**
+     * Returns the diagnostics for a pull request. Cancellation aborts the request; an
+     * analysis failure is reported as no diagnostics, as when publishing.
+     */
+    private List<Diagnostic> pulledDiagnostics(String uri, String text, LspConfig cfg, BooleanSupplier cancelled) {
+        List<Diagnostic> diagnostics;
+        try {
+            diagnostics = diagnostics(uri, text, cfg, cancelled);
+        } catch (RuntimeException e) {
+            return List.of();
+        }
+        if (diagnostics == null) {
+            throw new CancellationException();
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Returns the diagnostics of the enabled rules for the content, or null if cancelled.
+     */
+    private List<Diagnostic> diagnostics(String uri, String text, LspConfig cfg, BooleanSupplier cancelled) {
+        List<Issue> issues = analyze(uri, text, cfg, cancelled);
+        if (issues == null) return null;
+        List<Diagnostic> diagnostics = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            Diagnostic d = toDiagnostic(issue, cfg);
+            if (d != null) diagnostics.add(d);
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Returns the issues of the enabled rules for the content, from the cache when possible.
+     * The file's dependencies and variables are recorded in the project graph and variable
+     * table before the checks run, so they see the project as it is with this content. YAML
+     * that is not Ansible (see {@link FileClassifier}) has no issues and is not parsed; rules
+     * about plays only run on playbooks.
+     *
+     * @return the issues, or null if cancelled
+     */
+    private List<Issue> analyze(String uri, String text, LspConfig cfg, BooleanSupplier cancelled) {
+        Path file = WorkspaceIndex.toPath(uri);
+        FileClassifier.Kind kind = file != null ? FileClassifier.classify(file, index.folderOf(file), text)
+                : FileClassifier.classify(uri, text);
+        if (!kind.isAnsible()) {
+            return List.of();
+        }
+        AnalysisCache.Key key = new AnalysisCache.Key(uri, ContentHash.of(text), cfg.getRuleSetFingerprint());
+        long stamp = dependencyStamp(file);
+        AnalysisCache.Entry cached = cache.get(key, entry -> entry.dependencies() == stamp
+                && WorkspacePathResolver.unchanged(index, entry.targets()));
+        if (cached != null) {
+            return cached.issues();
+        }
+        IncrementalParser parser = parsers.computeIfAbsent(uri, u -> new IncrementalParser(new AnsibleParser(yamlLoader)));
+        PlaybookFile playbook;
+        synchronized (parser) {
+            playbook = parser.parse(uri, text);
+        }
+        AnsibleContext context = new AnsibleContext(playbook, null, text);
+        context.setFileKind(kind);
+        WorkspacePathResolver resolver = null;
+        if (file != null && openFiles.containsKey(file)) {
+            index.overlay(file, FileSummary.of(playbook), context.getFileVariables());
+        }
+        long analyzedStamp = dependencyStamp(file);
+        if (file != null) {
+            resolver = new WorkspacePathResolver(index, file);
+            context.setProjectGraph(index.graph());
+            context.setVariableTable(index.variablesComplete() ? index.variables() : null);
+        }
+        context.setPathResolver(resolver);
+        if (!checks.run(context, cancelled)) return null;
+
+        List<Issue> issues = new ArrayList<>();
+        for (Issue issue : context.getIssues()) {
+            if (cfg.isRuleEnabled(issue.ruleKey())) {
+                issues.add(issue);
+            }
         }
+        cache.put(key, playbook, issues, text.length(), resolver != null ? resolver.checked() : Map.of(),
+                analyzedStamp);
+        return issues;
     }
 
     /**
@@ -17,10 +17,21 @@ package com.qualimetry.ansible.lsp;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.eclipse.lsp4j.WorkspaceFoldersChangeEvent;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
 /**
- * Workspace service: reacts to configuration changes and triggers re-analysis.
+ * Workspace service: reacts to configuration changes and triggers re-analysis, and keeps
+ * the workspace index in step with file and folder changes.
  */
 public class AnsibleWorkspaceService implements WorkspaceService {
 
@@ -35,7 +46,42 @@ public class AnsibleWorkspaceService implements WorkspaceService {
         server.fetchConfigAndReanalyze();
     }
 
+    @Override
+    public CompletableFuture<WorkspaceDiagnosticReport> diagnostic(WorkspaceDiagnosticParams params) {
+        return server.workspaceDiagnostic(params);
+    }
+
+    /**
+     * Keeps the workspace index current: created and changed YAML files are re-indexed,
+     * deleted files and folders are dropped. The index tells the text document service which
+     * files changed, appeared or disappeared, and the open documents that depend on them are
+     * analyzed again.
+     */
     @Override
     public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
+        WorkspaceIndex index = server.getWorkspaceIndex();
+        for (FileEvent event : params.getChanges()) {
+            Path path = WorkspaceIndex.toPath(event.getUri());
+            if (path == null) continue;
+            if (event.getType() == FileChangeType.Deleted) {
+                index.fileDeleted(path);
+            } else {
+                index.fileChanged(path);
+            }
+        }
+    }
+
+    @Override
+    public void didChangeWorkspaceFolders(DidChangeWorkspaceFoldersParams params) {
+        WorkspaceFoldersChangeEvent event = params.getEvent();
+        WorkspaceIndex index = server.getWorkspaceIndex();
+        for (WorkspaceFolder folder : event.getRemoved()) {
+            Path path = WorkspaceIndex.toPath(folder.getUri());
+            if (path != null) index.removeRoot(path);
+        }
+        for (WorkspaceFolder folder : event.getAdded()) {
+            Path path = WorkspaceIndex.toPath(folder.getUri());
+            if (path != null) index.addRoot(path);
+        }
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.services.LanguageClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends {@code textDocument/publishDiagnostics} only when a document's diagnostics differ
+ * from the ones last sent for it. Edits that do not change the issues (typing in a comment,
+ * reformatting a value) then cost no serialization or client work. lsp4j diagnostics
+ * compare structurally, so equal lists mean the client already shows exactly these.
+ * Thread-safe.
+ */
+final class DiagnosticPublisher {
+
+    private final Map<String, List<Diagnostic>> lastPublished = new HashMap<>();
+    private long published;
+    private long suppressed;
+    private long suppressedDiagnostics;
+
+    /**
+     * Publishes the diagnostics unless they equal the last ones published for the URI.
+     *
+     * @return whether a notification was sent
+     */
+    boolean publish(LanguageClient client, String uri, List<Diagnostic> diagnostics) {
+        return publish(client, uri, diagnostics, () -> false);
+    }
+
+    /**
+     * Publishes the diagnostics of a run unless the run has been superseded or they equal the
+     * last ones published for the URI. The check, the record and the notification happen under
+     * one lock, so a superseded run can never be sent after, or recorded over, a newer one.
+     *
+     * @param superseded whether a newer run for the URI has started
+     * @return whether a notification was sent
+     */
+    synchronized boolean publish(LanguageClient client, String uri, List<Diagnostic> diagnostics,
+                                 BooleanSupplier superseded) {
+        if (superseded.getAsBoolean()) {
+            return false;
+        }
+        if (diagnostics.equals(lastPublished.get(uri))) {
+            suppressed++;
+            suppressedDiagnostics += diagnostics.size();
+            return false;
+        }
+        lastPublished.put(uri, diagnostics);
+        published++;
+        PublishDiagnosticsEvent.publish(client, new PublishDiagnosticsParams(uri, diagnostics));
+        return true;
+    }
+
+    /**
+     * Forgets what was published for the URI, so the next publish for it is always sent.
+     */
+    synchronized void forget(String uri) {
+        lastPublished.remove(uri);
+    }
+
+    synchronized Stats stats() {
+        return new Stats(published, suppressed, suppressedDiagnostics);
+    }
+
+    /**
+     * Counters returned by the {@code ansibleAnalyzer/publishStats} request.
+     *
+     * @param published             notifications sent
+     * @param suppressed            notifications skipped because nothing changed
+     * @param suppressedDiagnostics diagnostics those skipped notifications would have carried
+     */
+    record Stats(long published, long suppressed, long suppressedDiagnostics) {
+    }
+}
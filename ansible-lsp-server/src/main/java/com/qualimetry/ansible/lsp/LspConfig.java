@@ -16,13 +16,17 @@
 package com.qualimetry.ansible.lsp;
 
 import com.qualimetry.sonar.ansible.analyzer.checks.CheckList;
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.sonar.check.Rule;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,21 +37,87 @@ import java.util.Set;
  */
 public final class LspConfig {
 
+    /** Default delay between the last edit and the analysis of a document. */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    private static final Set<String> DEFAULT_RULE_KEYS = Set.copyOf(CheckList.getDefaultRuleKeys());
+
+    /** Default bound of the in-memory analysis result cache. */
+    public static final long DEFAULT_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    /** Default bound of the background workspace index. */
+    public static final long DEFAULT_INDEX_MAX_BYTES = 16L * 1024 * 1024;
+
+    /** Per-rule metrics are collected by default; timing adds a few percent to a walk. */
+    public static final CheckMetrics.Mode DEFAULT_METRICS_MODE = CheckMetrics.Mode.TIME;
+
     private final Set<String> disabledRuleKeys;
     private final Set<String> enabledRuleKeys;
     private final boolean rulesReplaceDefaults;
     private final Map<String, Object> rulesObject;
     private final Map<String, DiagnosticSeverity> severityOverrides;
+    private final long debounceMillis;
+    private final long cacheMaxBytes;
+    private final CheckMetrics.Mode metricsMode;
+    private final YamlLoader.Limits yamlLimits;
+    private final long indexMaxBytes;
+    private volatile String ruleSetFingerprint;
+    private volatile String diagnosticsFingerprint;
 
     public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
                      boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
                      Map<String, DiagnosticSeverity> severityOverrides) {
+        this(disabledRuleKeys, enabledRuleKeys, rulesReplaceDefaults, rulesObject, severityOverrides,
+                DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
+                     boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
+                     Map<String, DiagnosticSeverity> severityOverrides, long debounceMillis) {
+        this(disabledRuleKeys, enabledRuleKeys, rulesReplaceDefaults, rulesObject, severityOverrides,
+                debounceMillis, DEFAULT_CACHE_MAX_BYTES);
+    }
+
+    public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
+                     boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
+                     Map<String, DiagnosticSeverity> severityOverrides, long debounceMillis,
+                     long cacheMaxBytes) {
+        this(disabledRuleKeys, enabledRuleKeys, rulesReplaceDefaults, rulesObject, severityOverrides,
+                debounceMillis, cacheMaxBytes, DEFAULT_METRICS_MODE);
+    }
+
+    public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
+                     boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
+                     Map<String, DiagnosticSeverity> severityOverrides, long debounceMillis,
+                     long cacheMaxBytes, CheckMetrics.Mode metricsMode) {
+        this(disabledRuleKeys, enabledRuleKeys, rulesReplaceDefaults, rulesObject, severityOverrides,
+                debounceMillis, cacheMaxBytes, metricsMode, YamlLoader.Limits.DEFAULTS);
+    }
+
+    public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
+                     boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
+                     Map<String, DiagnosticSeverity> severityOverrides, long debounceMillis,
+                     long cacheMaxBytes, CheckMetrics.Mode metricsMode, YamlLoader.Limits yamlLimits) {
+        this(disabledRuleKeys, enabledRuleKeys, rulesReplaceDefaults, rulesObject, severityOverrides,
+                debounceMillis, cacheMaxBytes, metricsMode, yamlLimits, DEFAULT_INDEX_MAX_BYTES);
+    }
+
+    public LspConfig(Set<String> disabledRuleKeys, Set<String> enabledRuleKeys,
+                     boolean rulesReplaceDefaults, Map<String, Object> rulesObject,
+                     Map<String, DiagnosticSeverity> severityOverrides, long debounceMillis,
+                     long cacheMaxBytes, CheckMetrics.Mode metricsMode, YamlLoader.Limits yamlLimits,
+                     long indexMaxBytes) {
         this.disabledRuleKeys = disabledRuleKeys == null ? Set.of() : Set.copyOf(disabledRuleKeys);
         this.enabledRuleKeys = enabledRuleKeys == null || enabledRuleKeys.isEmpty()
                 ? null : Set.copyOf(enabledRuleKeys);
         this.rulesReplaceDefaults = rulesReplaceDefaults;
         this.rulesObject = rulesObject == null ? Map.of() : Map.copyOf(rulesObject);
         this.severityOverrides = severityOverrides == null ? Map.of() : Map.copyOf(severityOverrides);
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.cacheMaxBytes = Math.max(0, cacheMaxBytes);
+        this.metricsMode = metricsMode != null ? metricsMode : DEFAULT_METRICS_MODE;
+        this.yamlLimits = yamlLimits != null ? yamlLimits : YamlLoader.Limits.DEFAULTS;
+        this.indexMaxBytes = Math.max(0, indexMaxBytes);
     }
 
     public static LspConfig defaults() {
@@ -58,12 +128,11 @@ public final class LspConfig {
      * Returns whether the rule is enabled based on rules object, rulesReplaceDefaults, and default profile.
      */
     public boolean isRuleEnabled(String ruleKey) {
-        Set<String> defaultKeys = new HashSet<>(CheckList.getDefaultRuleKeys());
         if (disabledRuleKeys.contains(ruleKey)) return false;
         if (enabledRuleKeys != null) {
             return enabledRuleKeys.contains(ruleKey);
         }
-        return isEnabledFromRulesObject(ruleKey, defaultKeys);
+        return isEnabledFromRulesObject(ruleKey, DEFAULT_RULE_KEYS);
     }
 
     private boolean isEnabledFromRulesObject(String key, Set<String> defaultKeys) {
@@ -93,6 +162,84 @@ public final class LspConfig {
         return SeverityMap.getSeverity(ruleKey);
     }
 
+    /**
+     * Returns how long to wait after an edit before analyzing; edits within the window coalesce.
+     */
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    /**
+     * Returns the byte budget of the analysis result cache; 0 disables caching.
+     */
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    /**
+     * Returns what per-rule execution metrics to collect.
+     */
+    public CheckMetrics.Mode getMetricsMode() {
+        return metricsMode;
+    }
+
+    /**
+     * Returns the size, alias and nesting limits applied when reading YAML documents.
+     */
+    public YamlLoader.Limits getYamlLimits() {
+        return yamlLimits;
+    }
+
+    /**
+     * Returns the byte budget of the background workspace index; 0 disables indexing.
+     */
+    public long getIndexMaxBytes() {
+        return indexMaxBytes;
+    }
+
+    /**
+     * Returns a hash of the set of enabled rules (and of the YAML limits when they are not
+     * the defaults, since a document over a limit is reported as a parse error). Two
+     * configurations with the same fingerprint report the same issues for the same file;
+     * severities may still differ.
+     */
+    public String getRuleSetFingerprint() {
+        String fingerprint = ruleSetFingerprint;
+        if (fingerprint == null) {
+            StringBuilder enabled = new StringBuilder();
+            CheckList.getAllChecks().stream()
+                    .map(c -> c.getAnnotation(Rule.class))
+                    .filter(r -> r != null)
+                    .map(Rule::key)
+                    .sorted()
+                    .filter(this::isRuleEnabled)
+                    .forEach(key -> enabled.append(key).append('\n'));
+            if (!yamlLimits.equals(YamlLoader.Limits.DEFAULTS)) {
+                enabled.append(yamlLimits).append('\n');
+            }
+            fingerprint = ContentHash.of(enabled);
+            ruleSetFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns a hash of everything in the configuration that shapes the published
+     * diagnostics: the enabled rules and the severity overrides.
+     */
+    public String getDiagnosticsFingerprint() {
+        String fingerprint = diagnosticsFingerprint;
+        if (fingerprint == null) {
+            StringBuilder text = new StringBuilder(getRuleSetFingerprint()).append('\n');
+            severityOverrides.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> text.append(e.getKey()).append('=').append(e.getValue()).append('\n'));
+            fingerprint = ContentHash.of(text);
+            diagnosticsFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
     public Set<String> getDisabledRuleKeys() {
         return Collections.unmodifiableSet(disabledRuleKeys);
     }
@@ -106,6 +253,11 @@ public final class LspConfig {
      * Supports:
      * - rulesReplaceDefaults (boolean)
      * - rules (object): ruleKey -> { enabled?, severity?, ... }
+     * - analysis.debounceMs (number): delay before analyzing an edited document
+     * - analysis.cacheSizeMb (number): memory for cached analysis results, 0 to disable
+     * - analysis.metrics (string): per-rule metrics, "off", "time" or "allocation"
+     * - analysis.yaml (object): maxCodePoints, maxAliasesForCollections, nestingDepth (numbers)
+     * - analysis.indexSizeMb (number): memory for the workspace index, 0 to disable
      * Legacy: rules.disabled and rules.enabled arrays are still supported.
      */
     @SuppressWarnings("unchecked")
@@ -147,15 +299,63 @@ public final class LspConfig {
             }
         }
 
+        long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+        long cacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+        CheckMetrics.Mode metricsMode = DEFAULT_METRICS_MODE;
+        YamlLoader.Limits yamlLimits = YamlLoader.Limits.DEFAULTS;
+        long indexMaxBytes = DEFAULT_INDEX_MAX_BYTES;
+        if (map.get("analysis") instanceof Map<?, ?> analysis) {
+            if (analysis.get("debounceMs") instanceof Number n) {
+                debounceMillis = n.longValue();
+            }
+            if (analysis.get("cacheSizeMb") instanceof Number n) {
+                cacheMaxBytes = (long) (n.doubleValue() * 1024 * 1024);
+            }
+            if (analysis.get("metrics") instanceof String mode) {
+                metricsMode = metricsMode(mode);
+            }
+            if (analysis.get("yaml") instanceof Map<?, ?> yaml) {
+                yamlLimits = yamlLimits(yaml);
+            }
+            if (analysis.get("indexSizeMb") instanceof Number n) {
+                indexMaxBytes = (long) (n.doubleValue() * 1024 * 1024);
+            }
+        }
+
         return new LspConfig(
                 disabled,
                 enabled.isEmpty() ? null : enabled,
                 rulesReplaceDefaults,
                 rulesObject,
-                severityOverrides
+                severityOverrides,
+                debounceMillis,
+                cacheMaxBytes,
+                metricsMode,
+                yamlLimits,
+                indexMaxBytes
         );
     }
 
+    private static CheckMetrics.Mode metricsMode(String value) {
+        try {
+            return CheckMetrics.Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_METRICS_MODE;
+        }
+    }
+
+    /** Missing or non-positive values keep the default; a zero alias limit is allowed. */
+    private static YamlLoader.Limits yamlLimits(Map<?, ?> yaml) {
+        YamlLoader.Limits defaults = YamlLoader.Limits.DEFAULTS;
+        return new YamlLoader.Limits(
+                yaml.get("maxCodePoints") instanceof Number n && n.intValue() > 0
+                        ? n.intValue() : defaults.maxCodePoints(),
+                yaml.get("maxAliasesForCollections") instanceof Number n && n.intValue() >= 0
+                        ? n.intValue() : defaults.maxAliasesForCollections(),
+                yaml.get("nestingDepth") instanceof Number n && n.intValue() > 0
+                        ? n.intValue() : defaults.nestingDepth());
+    }
+
     private static List<?> toList(Object o) {
         if (o instanceof List) return (List<?>) o;
         return new ArrayList<>();
@@ -15,12 +15,15 @@
  */
 package com.qualimetry.ansible.lsp;
 
+import com.qualimetry.ansible.cli.BatchCommand;
 import org.eclipse.lsp4j.launch.LSPLauncher;
 
+import java.util.Arrays;
 import java.util.concurrent.Future;
 
 /**
- * Entry point for the Ansible LSP server (stdio).
+ * Entry point for the Ansible LSP server (stdio). With {@code analyze} as the first argument,
+ * runs the headless batch analysis instead (see {@link BatchCommand}).
  */
 public final class Main {
 
@@ -28,6 +31,9 @@ public final class Main {
     }
 
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("analyze")) {
+            System.exit(new BatchCommand(System.out, System.err).run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         AnsibleLanguageServer server = new AnsibleLanguageServer();
         var launcher = LSPLauncher.createServerLauncher(server, System.in, System.out);
         server.connect(launcher.getRemoteProxy());
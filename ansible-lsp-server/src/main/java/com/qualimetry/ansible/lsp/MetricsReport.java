@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Response of the {@code ansibleAnalyzer/metrics} request: per-rule execution totals since
+ * the metrics were enabled, most expensive rule first.
+ *
+ * @param mode  what is measured ("off", "time" or "allocation")
+ * @param files files walked by the checks (cache hits are not walked)
+ * @param rules totals per rule; allocatedBytes is -1 unless mode is "allocation"
+ */
+public record MetricsReport(String mode, long files, List<CheckMetrics.RuleStats> rules) {
+
+    static MetricsReport of(CheckMetrics metrics) {
+        return new MetricsReport(metrics.mode().name().toLowerCase(Locale.ROOT), metrics.files(),
+                metrics.snapshot());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.google.gson.Gson;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.services.LanguageClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * JFR event for one {@code textDocument/publishDiagnostics} notification. The payload size
+ * is the UTF-8 length of the params as JSON, serialized only while a recording with this
+ * event enabled is running.
+ */
+@Name("com.qualimetry.ansible.PublishDiagnostics")
+@Label("Publish Diagnostics")
+@Category({"Ansible Analyzer", "Language Server"})
+@Description("Diagnostics sent to the client for one document")
+@StackTrace(false)
+final class PublishDiagnosticsEvent extends Event {
+
+    private static final Gson GSON = new MessageJsonHandler(Map.of()).getGson();
+
+    @Label("URI")
+    String uri;
+
+    @Label("Diagnostics")
+    int diagnostics;
+
+    @Label("Payload Size")
+    @DataAmount
+    long payloadBytes;
+
+    /**
+     * Sends the params to the client, recording the event around the call.
+     */
+    static void publish(LanguageClient client, PublishDiagnosticsParams params) {
+        PublishDiagnosticsEvent event = new PublishDiagnosticsEvent();
+        event.begin();
+        client.publishDiagnostics(params);
+        event.end();
+        if (event.shouldCommit()) {
+            event.uri = params.getUri();
+            event.diagnostics = params.getDiagnostics().size();
+            event.payloadBytes = GSON.toJson(params).getBytes(StandardCharsets.UTF_8).length;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.function.Supplier;
+
+/**
+ * Periodic JFR event with one rule's execution totals, emitted for every rule that has run.
+ * Recorded only while a flight recording with this event enabled is active, e.g.
+ * {@code -XX:StartFlightRecording}.
+ */
+@Name("com.qualimetry.ansible.RuleMetrics")
+@Label("Rule Metrics")
+@Category({"Ansible Analyzer", "Checks"})
+@Description("Cumulative invocations, time and allocation of one rule")
+@Period("60 s")
+@StackTrace(false)
+final class RuleMetricsEvent extends Event {
+
+    @Label("Rule")
+    String ruleKey;
+
+    @Label("Invocations")
+    long invocations;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    /**
+     * Registers the periodic hook; returns it so it can be removed with {@link #unregister}.
+     */
+    static Runnable register(Supplier<CheckMetrics> metrics) {
+        Runnable hook = () -> {
+            for (CheckMetrics.RuleStats stats : metrics.get().snapshot()) {
+                if (stats.invocations() == 0) {
+                    continue;
+                }
+                RuleMetricsEvent event = new RuleMetricsEvent();
+                event.ruleKey = stats.ruleKey();
+                event.invocations = stats.invocations();
+                event.time = stats.nanos();
+                event.allocated = stats.allocatedBytes();
+                event.commit();
+            }
+        };
+        FlightRecorder.addPeriodicEvent(RuleMetricsEvent.class, hook);
+        return hook;
+    }
+
+    static void unregister(Runnable hook) {
+        FlightRecorder.removePeriodicEvent(hook);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open document held by the server. Applies incremental (range) edits in place and keeps
+ * the line start offsets up to date so positions map to offsets without rescanning the text.
+ * <p>
+ * LSP positions count UTF-16 code units, which are Java chars, so character offsets are used
+ * as-is. Positions past the end of a line or of the document are clamped, as the spec requires.
+ */
+final class TextDocument {
+
+    private final StringBuilder text;
+    private int[] lineStarts;
+    private int lineCount;
+    private int version;
+    private String snapshot;
+
+    TextDocument(String text, int version) {
+        this.text = new StringBuilder(text != null ? text : "");
+        this.version = version;
+        this.snapshot = this.text.toString();
+        this.lineStarts = new int[16];
+        this.lineCount = 1;
+        indexLines();
+    }
+
+    /**
+     * Applies the changes of one didChange notification in order. A change without a range
+     * replaces the whole document.
+     */
+    synchronized void apply(List<TextDocumentContentChangeEvent> changes, int newVersion) {
+        for (TextDocumentContentChangeEvent change : changes) {
+            String newText = change.getText() != null ? change.getText() : "";
+            Range range = change.getRange();
+            if (range == null) {
+                text.setLength(0);
+                text.append(newText);
+                lineCount = 1;
+                indexLines();
+            } else {
+                replace(offsetAt(range.getStart()), offsetAt(range.getEnd()), newText);
+            }
+        }
+        version = newVersion;
+        snapshot = null;
+    }
+
+    synchronized String getText() {
+        if (snapshot == null) {
+            snapshot = text.toString();
+        }
+        return snapshot;
+    }
+
+    synchronized int getVersion() {
+        return version;
+    }
+
+    synchronized int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Converts an LSP position to a char offset, clamping to the line and document bounds.
+     */
+    synchronized int offsetAt(Position position) {
+        int line = position.getLine();
+        if (line < 0) {
+            return 0;
+        }
+        if (line >= lineCount) {
+            return text.length();
+        }
+        int start = lineStarts[line];
+        int end = line + 1 < lineCount ? lineStarts[line + 1] - 1 : text.length();
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return start + Math.max(0, Math.min(position.getCharacter(), end - start));
+    }
+
+    private void replace(int start, int end, String newText) {
+        if (end < start) {
+            int tmp = start;
+            start = end;
+            end = tmp;
+        }
+        text.replace(start, end, newText);
+
+        // Lines up to and including the one holding 'start' keep their offsets
+        int firstLine = lineOf(start);
+        int delta = newText.length() - (end - start);
+        int oldTail = firstLine + 1;
+        while (oldTail < lineCount && lineStarts[oldTail] <= end) {
+            oldTail++;
+        }
+        int[] tail = Arrays.copyOfRange(lineStarts, oldTail, lineCount);
+        lineCount = firstLine + 1;
+        for (int i = 0; i < newText.length(); i++) {
+            if (newText.charAt(i) == '\n') {
+                addLineStart(start + i + 1);
+            }
+        }
+        for (int lineStart : tail) {
+            addLineStart(lineStart + delta);
+        }
+    }
+
+    private int lineOf(int offset) {
+        int idx = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    private void indexLines() {
+        lineStarts[0] = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                addLineStart(i + 1);
+            }
+        }
+    }
+
+    private void addLineStart(int offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = offset;
+    }
+}
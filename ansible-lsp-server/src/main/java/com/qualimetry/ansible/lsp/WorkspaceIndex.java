@@ -0,0 +1,640 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.AnsibleParser;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileClassifier;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileSummary;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import com.qualimetry.sonar.ansible.analyzer.parser.ProjectGraph;
+import com.qualimetry.sonar.ansible.analyzer.parser.VariableTable;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the YAML files under the workspace folders, built in the background.
+ * <p>
+ * A folder is first walked with NIO to list its YAML files, which is what
+ * {@link #exists(Path)} answers from. Each file is then parsed once and kept as a
+ * {@link FileSummary}; the parse tree is dropped. Work runs on one low-priority thread that
+ * waits before each parse while the editor's analyses are queued or running, so indexing
+ * never competes with diagnostics for the active document. After the walk, file-watch events
+ * update single entries: changed paths are collected into a set, so a burst of events for
+ * one file is indexed once.
+ * <p>
+ * Summaries are bounded by an estimate of the bytes they retain. Files that do not fit, or
+ * are larger than {@value #MAX_FILE_BYTES} bytes, are recorded as skipped and left out; they
+ * are still listed. A skipped file stops counting once it is indexed again or deleted.
+ * <p>
+ * The index also keeps the {@link ProjectGraph} of the indexed files. Files open in the
+ * editor are overlaid: their node follows the editor's content rather than the disk until
+ * they are closed. Whenever a file's dependencies change, or a file appears or disappears,
+ * the dependency listener is told, so the open files that depend on it can be analyzed
+ * again.
+ * <p>
+ * Likewise it keeps the {@link VariableTable} of the YAML files and Jinja2 templates
+ * ({@code .j2}). The variable listener is told the names whose defined or read state
+ * changed, or null for every name when the table became complete or incomplete: it is
+ * complete once every folder has been indexed without leaving files out. Thread-safe.
+ */
+final class WorkspaceIndex {
+
+    static final long MAX_FILE_BYTES = 4L * 1024 * 1024;
+    private static final long IDLE_POLL_MILLIS = 50;
+    /** Remembered file-system answers for paths the listing does not cover. */
+    private static final int MAX_STATTED = 10_000;
+
+    private final BooleanSupplier editorIdle;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ansible-workspace-index");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+    private final Set<Path> roots = new LinkedHashSet<>();
+    private final Set<Path> listedRoots = new HashSet<>();
+    private final Set<Path> yamlFiles = new HashSet<>();
+    private final Set<Path> dirty = new LinkedHashSet<>();
+    private final Map<Path, FileSummary> files = new HashMap<>();
+    private final ConcurrentHashMap<Path, Boolean> statted = new ConcurrentHashMap<>();
+    private final ProjectGraph graph = new ProjectGraph();
+    private final VariableTable variables = new VariableTable();
+    private final Set<Path> overlaid = ConcurrentHashMap.newKeySet();
+    private final Set<Path> scannedRoots = new HashSet<>();
+    private volatile Consumer<Path> dependencyListener = path -> { };
+    private volatile BiConsumer<Path, Set<String>> variableListener = (path, names) -> { };
+    private volatile AnsibleParser parser = new AnsibleParser();
+    private long maxBytes;
+    private long bytes;
+    /** Files left out, which keep the variable table incomplete. */
+    private final Set<Path> skipped = new HashSet<>();
+    private boolean draining;
+    private boolean complete;
+
+    /**
+     * @param maxBytes   budget for the retained summaries; 0 disables indexing
+     * @param editorIdle whether the editor has no analysis queued or running
+     */
+    WorkspaceIndex(long maxBytes, BooleanSupplier editorIdle) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.editorIdle = editorIdle;
+    }
+
+    /**
+     * Adds a workspace folder and indexes it in the background.
+     */
+    void addRoot(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        synchronized (this) {
+            if (!roots.add(normalized) || maxBytes == 0) {
+                return;
+            }
+        }
+        updateComplete();
+        submit(() -> scan(normalized));
+    }
+
+    /**
+     * Removes a workspace folder and the entries under it.
+     */
+    void removeRoot(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        synchronized (this) {
+            roots.remove(normalized);
+            listedRoots.remove(normalized);
+            scannedRoots.remove(normalized);
+            removeUnder(normalized);
+        }
+        if (graph.remove(normalized)) {
+            dependencyListener.accept(normalized);
+        }
+        notifyVariables(normalized, variables.remove(normalized));
+        updateComplete();
+    }
+
+    /**
+     * Lists and re-indexes a created or changed file in the background.
+     */
+    void fileChanged(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        statted.remove(normalized);
+        if (!isYaml(normalized) && !isTemplate(normalized)) {
+            return;
+        }
+        boolean created;
+        boolean startDrain;
+        synchronized (this) {
+            if (maxBytes == 0 || rootOf(normalized) == null) {
+                return;
+            }
+            created = isYaml(normalized) && yamlFiles.add(normalized);
+            if (created) {
+                generation.incrementAndGet();
+            }
+            startDrain = dirty.add(normalized) && !draining;
+            draining |= startDrain;
+        }
+        if (created) {
+            dependencyListener.accept(normalized);
+        }
+        if (startDrain) {
+            submit(this::drain);
+        }
+    }
+
+    /**
+     * Removes a deleted file, or every entry under a deleted directory.
+     */
+    void fileDeleted(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        synchronized (this) {
+            dirty.remove(normalized);
+            generation.incrementAndGet();
+            if (isYaml(normalized) || isTemplate(normalized)) {
+                statted.remove(normalized);
+                yamlFiles.remove(normalized);
+                skipped.remove(normalized);
+                FileSummary removed = files.remove(normalized);
+                if (removed != null) {
+                    bytes -= removed.estimatedBytes();
+                }
+            } else {
+                statted.clear();
+                removeUnder(normalized);
+            }
+        }
+        updateComplete();
+        if (!overlaid.contains(normalized)) {
+            graph.remove(normalized);
+            notifyVariables(normalized, variables.remove(normalized));
+        }
+        dependencyListener.accept(normalized);
+    }
+
+    /**
+     * Makes the file's graph node and variables follow the editor's content, for a file open
+     * in the editor. The listeners are told what changed.
+     */
+    void overlay(Path file, FileSummary summary, FileVariables fileVariables) {
+        Path normalized = file.toAbsolutePath().normalize();
+        overlaid.add(normalized);
+        if (graph.update(normalized, summary)) {
+            dependencyListener.accept(normalized);
+        }
+        notifyVariables(normalized, variables.update(normalized, fileVariables));
+    }
+
+    /**
+     * Returns a closed file's graph node to its content on disk.
+     */
+    void releaseOverlay(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        if (!overlaid.remove(normalized)) {
+            return;
+        }
+        boolean indexed;
+        synchronized (this) {
+            indexed = maxBytes > 0 && rootOf(normalized) != null && yamlFiles.contains(normalized);
+        }
+        if (indexed) {
+            fileChanged(normalized);
+            return;
+        }
+        if (graph.remove(normalized)) {
+            dependencyListener.accept(normalized);
+        }
+        notifyVariables(normalized, variables.remove(normalized));
+    }
+
+    /**
+     * Include and role dependencies between the indexed and open files.
+     */
+    ProjectGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Sets who is told the path of a file whose dependencies changed, or that appeared or
+     * disappeared. Called from the indexing thread and from the callers of this class.
+     */
+    void setDependencyListener(Consumer<Path> listener) {
+        this.dependencyListener = listener != null ? listener : path -> { };
+    }
+
+    /**
+     * Variable definitions and references of the indexed and open files.
+     */
+    VariableTable variables() {
+        return variables;
+    }
+
+    /**
+     * Whether the variable table covers every file of the workspace folders.
+     */
+    synchronized boolean variablesComplete() {
+        return isComplete();
+    }
+
+    /**
+     * Sets who is told the file whose variables changed and the names whose state changed,
+     * or null names when every name may have. Called like the dependency listener.
+     */
+    void setVariableListener(BiConsumer<Path, Set<String>> listener) {
+        this.variableListener = listener != null ? listener : (path, names) -> { };
+    }
+
+    /**
+     * Returns the summary of an indexed file, or null.
+     */
+    synchronized FileSummary summary(Path file) {
+        return files.get(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Returns whether a regular file exists at the normalized absolute path. YAML files under
+     * a listed workspace folder are answered from the listing; other paths from the file
+     * system, remembered until a file event for the path.
+     */
+    boolean exists(Path file) {
+        synchronized (this) {
+            if (isYaml(file) && listed(file)) {
+                return yamlFiles.contains(file);
+            }
+        }
+        Boolean known = statted.get(file);
+        if (known == null) {
+            if (statted.size() >= MAX_STATTED) {
+                statted.clear();
+            }
+            known = Files.isRegularFile(file);
+            statted.put(file, known);
+        }
+        return known;
+    }
+
+    /**
+     * Returns a counter that changes whenever a file is created or deleted, so answers of
+     * {@link #exists(Path)} may have changed.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Changes the budget. Summaries are dropped and the folders walked again, so the index
+     * holds what fits the new budget.
+     */
+    void setMaxBytes(long maxBytes) {
+        long budget = Math.max(0, maxBytes);
+        Set<Path> folders;
+        synchronized (this) {
+            if (budget == this.maxBytes) {
+                return;
+            }
+            this.maxBytes = budget;
+            files.clear();
+            dirty.clear();
+            yamlFiles.clear();
+            listedRoots.clear();
+            scannedRoots.clear();
+            bytes = 0;
+            skipped.clear();
+            folders = Set.copyOf(roots);
+        }
+        for (Path root : folders) {
+            graph.remove(root);
+            variables.remove(root);
+        }
+        generation.incrementAndGet();
+        updateComplete();
+        for (Path root : budget > 0 ? folders : Set.<Path>of()) {
+            submit(() -> scan(root));
+        }
+    }
+
+    /**
+     * Uses the given YAML limits for files indexed from now on.
+     */
+    void setYamlLimits(YamlLoader.Limits limits) {
+        parser = new AnsibleParser(YamlLoader.of(limits));
+    }
+
+    synchronized Stats stats() {
+        return new Stats(files.size(), bytes + variables.estimatedBytes(), maxBytes, skipped.size(), pending.get() > 0);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the path of a {@code file:} URI, or null for other schemes and malformed URIs.
+     */
+    static Path toPath(String uri) {
+        return ProjectGraph.pathOf(uri);
+    }
+
+    private void submit(Runnable task) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+        }
+    }
+
+    /** Lists the YAML files under the root, then parses them as changed files. */
+    private void scan(Path root) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> found = new ArrayList<>();
+        boolean[] complete = {true};
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    String name = dir.getFileName() != null ? dir.getFileName().toString() : "";
+                    if (!dir.equals(root) && skipDirectory(name)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        complete[0] = false;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && (isYaml(file) || isTemplate(file))) {
+                        found.add(file.toAbsolutePath().normalize());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    complete[0] = false;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            complete[0] = false;
+        }
+        synchronized (this) {
+            if (!roots.contains(root) || maxBytes == 0) {
+                return;
+            }
+            for (Path file : found) {
+                if (isYaml(file)) {
+                    yamlFiles.add(file);
+                }
+            }
+            if (complete[0]) {
+                listedRoots.add(root);
+            }
+            dirty.addAll(found);
+            draining = true;
+        }
+        generation.incrementAndGet();
+        drain();
+        synchronized (this) {
+            if (complete[0] && roots.contains(root)) {
+                scannedRoots.add(root);
+            }
+        }
+        updateComplete();
+    }
+
+    private void drain() {
+        while (true) {
+            Path next;
+            synchronized (this) {
+                Iterator<Path> it = dirty.iterator();
+                if (!it.hasNext()) {
+                    draining = false;
+                    return;
+                }
+                next = it.next();
+                it.remove();
+            }
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(next, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    index(next, attrs.size());
+                }
+            } catch (IOException e) {
+                fileDeleted(next);
+            }
+        }
+    }
+
+    /** Parses a YAML file or template and stores what fits the budget. */
+    private void index(Path file, long size) {
+        awaitEditorIdle();
+        boolean template = isTemplate(file);
+        FileSummary summary = template ? FileSummary.EMPTY : null;
+        FileVariables fileVariables = null;
+        if (size <= MAX_FILE_BYTES) {
+            try {
+                String content = Files.readString(file, StandardCharsets.UTF_8);
+                if (template) {
+                    fileVariables = FileVariables.ofTemplate(content);
+                } else if (!FileClassifier.classify(file, folderOf(file), content).isAnsible()) {
+                    // Kept so that includes naming it resolve, but nothing in it is Ansible
+                    summary = FileSummary.EMPTY;
+                    fileVariables = FileVariables.EMPTY;
+                } else {
+                    PlaybookFile playbook = parser.parse(file.toUri().toString(), content);
+                    summary = FileSummary.of(playbook);
+                    fileVariables = FileVariables.of(playbook);
+                }
+            } catch (IOException | RuntimeException e) {
+                summary = FileSummary.EMPTY;
+                fileVariables = FileVariables.EMPTY;
+            }
+        }
+        boolean stored;
+        synchronized (this) {
+            FileSummary previous = files.remove(file);
+            if (previous != null) {
+                bytes -= previous.estimatedBytes();
+            }
+            long needed = (template || summary == null ? 0 : summary.estimatedBytes())
+                    + (fileVariables == null ? 0 : VariableTable.estimatedBytes(fileVariables));
+            stored = fileVariables != null && rootOf(file) != null
+                    && bytes + variables.estimatedBytes() + needed <= maxBytes;
+            if (stored && !template) {
+                files.put(file, summary);
+                bytes += summary.estimatedBytes();
+            }
+            if (stored) {
+                skipped.remove(file);
+            } else {
+                skipped.add(file);
+            }
+        }
+        updateComplete();
+        if (overlaid.contains(file)) {
+            return;
+        }
+        if (!template && (stored ? graph.update(file, summary) : graph.remove(file))) {
+            dependencyListener.accept(file);
+        }
+        notifyVariables(file, stored ? variables.update(file, fileVariables) : variables.remove(file));
+    }
+
+    private void notifyVariables(Path file, Set<String> names) {
+        if (!names.isEmpty()) {
+            variableListener.accept(file, names);
+        }
+    }
+
+    /** Tells the variable listener when the table becomes complete or incomplete. */
+    private void updateComplete() {
+        boolean changed;
+        synchronized (this) {
+            boolean now = isComplete();
+            changed = now != complete;
+            complete = now;
+        }
+        if (changed) {
+            variableListener.accept(null, null);
+        }
+    }
+
+    private boolean isComplete() {
+        return maxBytes > 0 && !roots.isEmpty() && scannedRoots.containsAll(roots) && skipped.isEmpty();
+    }
+
+    /** Waits while the editor has analyses queued or running. */
+    private void awaitEditorIdle() {
+        while (!editorIdle.getAsBoolean()) {
+            try {
+                Thread.sleep(IDLE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the workspace folder the file belongs to, or null if it is outside them or in
+     * a directory the walk skips (hidden directories and node_modules).
+     */
+    private Path rootOf(Path file) {
+        for (Path root : roots) {
+            if (file.startsWith(root)) {
+                for (int i = root.getNameCount(); i < file.getNameCount() - 1; i++) {
+                    if (skipDirectory(file.getName(i).toString())) {
+                        return null;
+                    }
+                }
+                return root;
+            }
+        }
+        return null;
+    }
+
+    /** Returns the workspace folder containing the file, or null. */
+    synchronized Path folderOf(Path file) {
+        for (Path root : roots) {
+            if (file.startsWith(root)) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    /** Whether the file is in a folder whose listing completed. */
+    private boolean listed(Path file) {
+        Path root = rootOf(file);
+        return root != null && listedRoots.contains(root);
+    }
+
+    private static boolean skipDirectory(String name) {
+        return name.startsWith(".") || name.equals("node_modules");
+    }
+
+    private void removeUnder(Path path) {
+        yamlFiles.removeIf(file -> file.startsWith(path));
+        skipped.removeIf(file -> file.startsWith(path));
+        Iterator<Map.Entry<Path, FileSummary>> it = files.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, FileSummary> entry = it.next();
+            if (entry.getKey().startsWith(path)) {
+                bytes -= entry.getValue().estimatedBytes();
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean isTemplate(Path file) {
+        return file.getFileName() != null && file.getFileName().toString().endsWith(".j2");
+    }
+
+    private static boolean isYaml(Path file) {
+        String name = file.getFileName() != null ? file.getFileName().toString() : "";
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+
+    /**
+     * Counters returned by the {@code ansibleAnalyzer/indexStats} request.
+     *
+     * @param files    YAML files indexed
+     * @param bytes    estimated bytes retained by their summaries and the variable table
+     * @param maxBytes byte budget
+     * @param skipped  files left out because they were too large or did not fit the budget
+     * @param indexing whether a walk or file update is queued or running
+     */
+    record Stats(int files, long bytes, long maxBytes, int skipped, boolean indexing) {
+    }
+}
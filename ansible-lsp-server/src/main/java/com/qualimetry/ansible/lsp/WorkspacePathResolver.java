@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.visitor.PathResolver;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves include and import paths of an open document against the {@link WorkspaceIndex},
+ * so a playbook with hundreds of includes costs a set lookup per include rather than a
+ * file-system call. Each target is looked up once per analysis; the answers are kept with
+ * the cached result and re-checked before it is reused. Templated paths cannot be resolved
+ * statically and count as present.
+ */
+final class WorkspacePathResolver implements PathResolver {
+
+    private final WorkspaceIndex index;
+    private final Path directory;
+    private final Map<Path, Boolean> checked = new LinkedHashMap<>();
+
+    /**
+     * @param file the analyzed document
+     */
+    WorkspacePathResolver(WorkspaceIndex index, Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        this.index = index;
+        this.directory = absolute.getParent() != null ? absolute.getParent() : absolute;
+    }
+
+    @Override
+    public boolean existsInProject(String pathRelativeToCurrentFile) {
+        if (pathRelativeToCurrentFile.contains("{{")) {
+            return true;
+        }
+        Path target;
+        try {
+            target = directory.resolve(pathRelativeToCurrentFile).normalize();
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        return checked.computeIfAbsent(target, index::exists);
+    }
+
+    /**
+     * Returns the targets looked up so far and whether each existed.
+     */
+    Map<Path, Boolean> checked() {
+        return checked;
+    }
+
+    /**
+     * Returns whether every target still resolves as it did when the answers were recorded.
+     */
+    static boolean unchanged(WorkspaceIndex index, Map<Path, Boolean> targets) {
+        for (Map.Entry<Path, Boolean> target : targets.entrySet()) {
+            if (index.exists(target.getKey()) != target.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
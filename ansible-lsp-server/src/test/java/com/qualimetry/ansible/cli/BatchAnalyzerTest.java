@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.cli;
+
+import com.qualimetry.ansible.lsp.LspConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchAnalyzerTest {
+
+    private static final String CLEAN = """
+            ---
+            - name: Ping all
+              hosts: all
+              tags: [ping]
+              tasks:
+                - name: Ping hosts
+                  ansible.builtin.ping:
+            """;
+    private static final String TABS = "- hosts: all\n  tasks:\n\t- ping:\n";
+
+    @TempDir
+    Path root;
+
+    private void write(String relative, String content) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    @Test
+    void run_analyzesYamlFilesAndSkipsHiddenDirectories() throws IOException {
+        write("site.yml", CLEAN);
+        write("roles/web/tasks/main.yaml", TABS);
+        write("README.md", "# not yaml");
+        write(".git/hooks/x.yml", TABS);
+        write("node_modules/pkg/a.yml", TABS);
+
+        List<BatchAnalyzer.FileResult> results = new ArrayList<>();
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(LspConfig.defaults(), 4).run(root, results::add);
+
+        assertThat(summary.files()).isEqualTo(2);
+        assertThat(summary.failures()).isZero();
+        assertThat(results).extracting(r -> root.relativize(r.path()).toString().replace('\\', '/'))
+                .containsExactlyInAnyOrder("site.yml", "roles/web/tasks/main.yaml");
+        assertThat(summary.issues()).isEqualTo(results.stream().mapToLong(r -> r.issues().size()).sum());
+        assertThat(summary.wallNanos()).isPositive();
+    }
+
+    @Test
+    void run_skipsYamlThatIsNotAnsible() throws IOException {
+        write("site.yml", CLEAN);
+        write("deploy/web.yml", "apiVersion: v1\nkind: Pod\nspec:\n\tcontainers: []\n");
+        write("docker-compose.yml", "services:\n  web:\n\timage: nginx\n");
+        write("roles/web/tasks/main.yml", "apiVersion: v1\nkind: Pod\n");
+
+        List<BatchAnalyzer.FileResult> results = new ArrayList<>();
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(LspConfig.defaults(), 2).run(root, results::add);
+
+        assertThat(summary.files()).isEqualTo(2);
+        assertThat(summary.skipped()).isEqualTo(2);
+        assertThat(results).extracting(r -> root.relativize(r.path()).toString().replace('\\', '/'))
+                .containsExactlyInAnyOrder("site.yml", "roles/web/tasks/main.yml");
+        assertThat(new BatchAnalyzer(LspConfig.defaults(), 1).analyze(root.resolve("deploy/web.yml")).skipped())
+                .isTrue();
+    }
+
+    @Test
+    void run_matchesOtherToolsDirectoriesBelowTheRootOnly() throws IOException {
+        Path project = root.resolve("templates/infra");
+        write("templates/infra/site.yml", CLEAN);
+        write("templates/infra/chart/templates/cm.yaml", "data:\n  key: value\n");
+
+        List<BatchAnalyzer.FileResult> results = new ArrayList<>();
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(LspConfig.defaults(), 1).run(project, results::add);
+
+        assertThat(summary.files()).isEqualTo(1);
+        assertThat(summary.skipped()).isEqualTo(1);
+        assertThat(results).extracting(r -> project.relativize(r.path()).toString()).containsExactly("site.yml");
+    }
+
+    @Test
+    void run_isIndependentOfThreadCount() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            write("plays/p" + i + ".yml", i % 2 == 0 ? CLEAN : TABS);
+        }
+        assertThat(issuesByFile(1)).isEqualTo(issuesByFile(8));
+    }
+
+    @Test
+    void analyze_appliesRuleConfiguration() throws IOException {
+        write("tabs.yml", TABS);
+        Path file = root.resolve("tabs.yml");
+        LspConfig withoutTabs = new LspConfig(Set.of("qa-spaces-not-tabs"), null, false, Map.of(), Map.of());
+
+        assertThat(new BatchAnalyzer(LspConfig.defaults(), 1).analyze(file).issues())
+                .anyMatch(i -> i.ruleKey().equals("qa-spaces-not-tabs"));
+        assertThat(new BatchAnalyzer(withoutTabs, 1).analyze(file).issues())
+                .noneMatch(i -> i.ruleKey().equals("qa-spaces-not-tabs"));
+    }
+
+    @Test
+    void command_streamsIssuesAndReturnsExitStatus() throws IOException {
+        write("clean/site.yml", CLEAN);
+        write("dirty/tabs.yml", TABS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        BatchCommand command = new BatchCommand(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertThat(command.run(new String[] {"--threads", "2", root.resolve("clean").toString()}))
+                .isEqualTo(BatchCommand.EXIT_CLEAN);
+        assertThat(command.run(new String[] {root.resolve("dirty").toString()}))
+                .isEqualTo(BatchCommand.EXIT_ISSUES);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("tabs.yml:3:").contains("qa-spaces-not-tabs");
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("files/s");
+    }
+
+    @Test
+    void command_readsJsonRuleConfiguration() throws IOException {
+        write("dirty/tabs.yml", TABS);
+        write("config.json", "{\"rules\": {\"disabled\": [\"qa-spaces-not-tabs\"]}}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchCommand command = new BatchCommand(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+
+        command.run(new String[] {"--config", root.resolve("config.json").toString(), root.resolve("dirty").toString()});
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain("qa-spaces-not-tabs");
+    }
+
+    @Test
+    void command_printsPerRuleMetrics() throws IOException {
+        write("dirty/tabs.yml", TABS);
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        BatchCommand command = new BatchCommand(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        command.run(new String[] {"--metrics", "allocation", "--quiet", root.resolve("dirty").toString()});
+        String printed = err.toString(StandardCharsets.UTF_8);
+        assertThat(printed).contains("invocations").contains("MB");
+        assertThat(printed.lines().filter(line -> line.startsWith("qa-"))).hasSize(15);
+    }
+
+    @Test
+    void command_rejectsBadArguments() {
+        BatchCommand command = new BatchCommand(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream()));
+        assertThat(command.run(new String[0])).isEqualTo(BatchCommand.EXIT_USAGE);
+        assertThat(command.run(new String[] {"--threads"})).isEqualTo(BatchCommand.EXIT_USAGE);
+        assertThat(command.run(new String[] {"--threads", "x", "."})).isEqualTo(BatchCommand.EXIT_USAGE);
+        assertThat(command.run(new String[] {"--metrics", "x", "."})).isEqualTo(BatchCommand.EXIT_USAGE);
+        assertThat(command.run(new String[] {root.resolve("missing").toString()})).isEqualTo(BatchCommand.EXIT_USAGE);
+    }
+
+    private Map<String, List<String>> issuesByFile(int threads) throws IOException {
+        List<BatchAnalyzer.FileResult> results = new ArrayList<>();
+        new BatchAnalyzer(LspConfig.defaults(), threads).run(root, results::add);
+        return results.stream().collect(Collectors.toMap(r -> r.path().toString(),
+                r -> r.issues().stream().map(i -> i.line() + ":" + i.ruleKey()).sorted().toList()));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.cli;
+
+import com.qualimetry.ansible.lsp.LspConfig;
+import com.qualimetry.sonar.ansible.analyzer.parser.model.TextPosition;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskCacheTest {
+
+    private static final String INCLUDER = """
+            ---
+            - name: Site
+              hosts: all
+              tags: [site]
+              tasks:
+                - name: Common steps
+                  include_tasks: common.yml
+            """;
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path cacheDir;
+
+    private void write(String relative, String content) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private List<BatchAnalyzer.FileResult> run(LspConfig config) throws IOException {
+        List<BatchAnalyzer.FileResult> results = new ArrayList<>();
+        new BatchAnalyzer(config, 2, cacheDir).run(root, results::add);
+        return results;
+    }
+
+    private static BatchAnalyzer.FileResult result(List<BatchAnalyzer.FileResult> results, String name) {
+        return results.stream().filter(r -> r.path().getFileName().toString().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void warmRun_reusesIssuesOfUnchangedFiles() throws IOException {
+        write("a.yml", "- hosts: all\n  tasks:\n\t- ping:\n");
+        write("b.yml", "- hosts: all\n  tasks:\n    - shell: echo hi\n");
+
+        List<BatchAnalyzer.FileResult> cold = run(LspConfig.defaults());
+        List<BatchAnalyzer.FileResult> warm = run(LspConfig.defaults());
+
+        assertThat(cold).noneMatch(BatchAnalyzer.FileResult::cached);
+        assertThat(warm).allMatch(BatchAnalyzer.FileResult::cached);
+        for (String name : List.of("a.yml", "b.yml")) {
+            assertThat(result(warm, name).issues()).isNotEmpty().isEqualTo(result(cold, name).issues());
+        }
+    }
+
+    @Test
+    void changedContent_isAnalyzedAgain() throws IOException {
+        write("a.yml", "- hosts: all\n  tasks:\n\t- ping:\n");
+        write("b.yml", "- hosts: all\n  tasks:\n\t- ping:\n");
+        run(LspConfig.defaults());
+
+        write("a.yml", "- hosts: all\n  tasks:\n\t\t- ping:\n");
+        List<BatchAnalyzer.FileResult> warm = run(LspConfig.defaults());
+
+        assertThat(result(warm, "a.yml").cached()).isFalse();
+        assertThat(result(warm, "b.yml").cached()).isTrue();
+    }
+
+    @Test
+    void includeTarget_createdOrDeleted_invalidatesIncludingFile() throws IOException {
+        write("site.yml", INCLUDER);
+        assertThat(result(run(LspConfig.defaults()), "site.yml").issues())
+                .anyMatch(i -> i.ruleKey().equals("qa-includes-resolve"));
+
+        write("common.yml", "- name: Ping\n  ansible.builtin.ping:\n");
+        BatchAnalyzer.FileResult created = result(run(LspConfig.defaults()), "site.yml");
+        assertThat(created.cached()).isFalse();
+        assertThat(created.issues()).noneMatch(i -> i.ruleKey().equals("qa-includes-resolve"));
+        assertThat(result(run(LspConfig.defaults()), "site.yml").cached()).isTrue();
+
+        Files.delete(root.resolve("common.yml"));
+        BatchAnalyzer.FileResult deleted = result(run(LspConfig.defaults()), "site.yml");
+        assertThat(deleted.cached()).isFalse();
+        assertThat(deleted.issues()).anyMatch(i -> i.ruleKey().equals("qa-includes-resolve"));
+    }
+
+    @Test
+    void changedRuleConfiguration_discardsCache() throws IOException {
+        write("a.yml", "- hosts: all\n  tasks:\n\t- ping:\n");
+        run(LspConfig.defaults());
+
+        LspConfig withoutTabs = new LspConfig(Set.of("qa-spaces-not-tabs"), null, false, Map.of(), Map.of());
+        BatchAnalyzer.FileResult result = result(run(withoutTabs), "a.yml");
+        assertThat(result.cached()).isFalse();
+        assertThat(result.issues()).noneMatch(i -> i.ruleKey().equals("qa-spaces-not-tabs"));
+    }
+
+    @Test
+    void issues_roundTripWithOptionalFields() throws IOException {
+        Path file = root.resolve("a.yml");
+        byte[] hash = DiskCache.hash(new byte[] {1, 2, 3});
+        List<Issue> issues = List.of(
+                new Issue("r1", "with position", new TextPosition(3, 5), 3, 2.5, 9),
+                new Issue("r2", "line only", null, 7, null, null),
+                new Issue("r3", "file level ✓", null, null, null, null));
+        DiskCache cache = DiskCache.open(cacheDir, root, "fp");
+        cache.store(file, hash, Map.of(), issues);
+        cache.save();
+
+        DiskCache reopened = DiskCache.open(cacheDir, root, "fp");
+        assertThat(reopened.lookup(file, hash)).isEqualTo(issues);
+        assertThat(reopened.lookup(file, DiskCache.hash(new byte[] {4}))).isNull();
+        assertThat(DiskCache.open(cacheDir, root, "other").lookup(file, hash)).isNull();
+    }
+
+    @Test
+    void corruptIndex_isIgnored() throws IOException {
+        Files.write(cacheDir.resolve(DiskCache.INDEX_FILE), new byte[] {0x41, 0x4E, 0x53, 0x49, 0, 0, 0, 1, 0x7f});
+        assertThat(DiskCache.open(cacheDir, root, "fp").size()).isZero();
+    }
+
+    @Test
+    void analyzerVersion_followsTheCodeThatRuns(@TempDir Path classes) throws IOException {
+        Path jar = Files.writeString(classes.resolve("analyzer.jar"), "v1");
+        Files.createDirectories(classes.resolve("out/a"));
+        Files.writeString(classes.resolve("out/a/Check.class"), "code");
+        String before = DiskCache.codeHash(List.of(jar, classes.resolve("out")));
+
+        assertThat(before).hasSize(64).isEqualTo(DiskCache.codeHash(List.of(jar, classes.resolve("out"))));
+        Files.writeString(classes.resolve("out/a/Check.class"), "changed code");
+        assertThat(DiskCache.codeHash(List.of(jar, classes.resolve("out")))).isNotEqualTo(before);
+        assertThat(DiskCache.codeHash(List.of(classes.resolve("missing.jar")))).isNull();
+        assertThat(DiskCache.analyzerVersion()).isEqualTo(DiskCache.analyzerVersion()).contains("+")
+                .doesNotStartWith("unversioned-");
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.model.PlaybookFile;
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisCacheTest {
+
+    private static final PlaybookFile EMPTY = new PlaybookFile(List.of(), "file:///a.yml");
+    private static final List<Issue> ISSUES =
+            List.of(new Issue("qa-spaces-not-tabs", "Do not use tabs", null, 1, null, null));
+
+    private static AnalysisCache.Key key(String content) {
+        return new AnalysisCache.Key("file:///a.yml", ContentHash.of(content), "rules");
+    }
+
+    @Test
+    void get_countsHitsAndMisses() {
+        AnalysisCache cache = new AnalysisCache(1024 * 1024);
+        assertThat(cache.get(key("a: 1"))).isNull();
+        cache.put(key("a: 1"), EMPTY, ISSUES, 4);
+
+        AnalysisCache.Entry entry = cache.get(key("a: 1"));
+        assertThat(entry).isNotNull();
+        assertThat(entry.issues()).isEqualTo(ISSUES);
+        assertThat(entry.playbook()).isSameAs(EMPTY);
+        assertThat(cache.get(new AnalysisCache.Key("file:///a.yml", ContentHash.of("a: 1"), "other"))).isNull();
+
+        AnalysisCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.entries()).isEqualTo(1);
+    }
+
+    @Test
+    void get_countsUnusableEntriesAsMisses() {
+        AnalysisCache cache = new AnalysisCache(1024 * 1024);
+        Path target = Path.of("/repo/tasks/setup.yml").toAbsolutePath();
+        cache.put(key("a: 1"), EMPTY, ISSUES, 4, Map.of(target, false), 0);
+
+        assertThat(cache.get(key("a: 1"), entry -> entry.targets().equals(Map.of(target, true)))).isNull();
+        assertThat(cache.get(key("a: 1"), entry -> entry.targets().equals(Map.of(target, false)))).isNotNull();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedToStayWithinBudget() {
+        AnalysisCache cache = new AnalysisCache(3000);
+        cache.put(key("a"), EMPTY, List.of(), 200);
+        cache.put(key("b"), EMPTY, List.of(), 200);
+        cache.get(key("a"));
+        cache.put(key("c"), EMPTY, List.of(), 200);
+
+        assertThat(cache.get(key("b"))).isNull();
+        assertThat(cache.get(key("a"))).isNotNull();
+        assertThat(cache.get(key("c"))).isNotNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().bytes()).isLessThanOrEqualTo(3000);
+    }
+
+    @Test
+    void put_skipsResultsLargerThanTheBudget() {
+        AnalysisCache cache = new AnalysisCache(1000);
+        cache.put(key("big"), EMPTY, List.of(), 10_000);
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    void setMaxBytes_zeroDisablesAndClears() {
+        AnalysisCache cache = new AnalysisCache(1024 * 1024);
+        cache.put(key("a"), EMPTY, ISSUES, 10);
+        cache.setMaxBytes(0);
+        assertThat(cache.stats().entries()).isZero();
+        cache.put(key("a"), EMPTY, ISSUES, 10);
+        assertThat(cache.get(key("a"))).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisSchedulerTest {
+
+    private final AnalysisScheduler scheduler = new AnalysisScheduler(2);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void burstOfEdits_withinDebounceWindow_runsOnce() throws InterruptedException {
+        List<Integer> runs = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        for (int version = 1; version <= 5; version++) {
+            int v = version;
+            scheduler.schedule("file:///a.yml", 100, cancelled -> {
+                runs.add(v);
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(runs).containsExactly(5);
+    }
+
+    @Test
+    void firedDebounce_isNotKeptAsPending() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.schedule("file:///a.yml", 200, cancelled -> done.countDown());
+        scheduler.schedule("file:///b.yml", 200, cancelled -> done.countDown());
+        assertThat(scheduler.pendingCount()).isEqualTo(2);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.pendingCount()).isZero();
+    }
+
+    @Test
+    void newerSchedule_cancelsRunInProgress() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean sawCancellation = new AtomicBoolean();
+        scheduler.schedule("file:///a.yml", 0, cancelled -> {
+            started.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!cancelled.getAsBoolean() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            sawCancellation.set(cancelled.getAsBoolean());
+            finished.countDown();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicInteger latestRuns = new AtomicInteger();
+        scheduler.schedule("file:///a.yml", 0, cancelled -> latestRuns.incrementAndGet());
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(sawCancellation).isTrue();
+    }
+
+    @Test
+    void schedulesForDifferentUris_doNotCancelEachOther() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        for (String uri : List.of("file:///a.yml", "file:///b.yml")) {
+            scheduler.schedule(uri, 50, cancelled -> {
+                if (cancelled.getAsBoolean()) cancelledRuns.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledRuns).hasValue(0);
+    }
+
+    @Test
+    void cancel_dropsPendingRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedule("file:///a.yml", 100, cancelled -> runs.incrementAndGet());
+        scheduler.cancel("file:///a.yml");
+        Thread.sleep(300);
+        assertThat(runs).hasValue(0);
+    }
+}
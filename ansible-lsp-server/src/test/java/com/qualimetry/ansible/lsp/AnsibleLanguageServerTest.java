@@ -18,10 +18,14 @@ package com.qualimetry.ansible.lsp;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethod;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,12 +33,25 @@ import static org.assertj.core.api.Assertions.assertThat;
 class AnsibleLanguageServerTest {
 
     @Test
-    void initialize_returnsFullSyncCapability() throws ExecutionException, InterruptedException {
+    void initialize_returnsIncrementalSyncCapability() throws ExecutionException, InterruptedException {
         AnsibleLanguageServer server = new AnsibleLanguageServer();
         InitializeResult result = server.initialize(new InitializeParams()).get();
 
         assertThat(result.getCapabilities().getTextDocumentSync().getLeft())
-                .isEqualTo(TextDocumentSyncKind.Full);
+                .isEqualTo(TextDocumentSyncKind.Incremental);
+    }
+
+    @Test
+    void initialize_advertisesPullDiagnostics() throws ExecutionException, InterruptedException {
+        AnsibleLanguageServer server = new AnsibleLanguageServer();
+        InitializeResult result = server.initialize(new InitializeParams()).get();
+
+        assertThat(result.getCapabilities().getDiagnosticProvider().getIdentifier()).isEqualTo("qualimetry-ansible");
+        assertThat(result.getCapabilities().getDiagnosticProvider().isWorkspaceDiagnostics()).isTrue();
+        assertThat(result.getCapabilities().getDiagnosticProvider().isInterFileDependencies()).isTrue();
+        assertThat(ServiceEndpoints.getSupportedMethods(AnsibleLanguageServer.class))
+                .containsKeys("textDocument/diagnostic", "workspace/diagnostic");
+        server.shutdown().get();
     }
 
     @Test
@@ -72,4 +89,41 @@ class AnsibleLanguageServerTest {
         AnsibleLanguageServer server = new AnsibleLanguageServer();
         assertThat(server.getClient()).isNull();
     }
+
+    @Test
+    void cacheStats_isExposedAsCustomRequest() throws ExecutionException, InterruptedException {
+        Map<String, JsonRpcMethod> methods = ServiceEndpoints.getSupportedMethods(AnsibleLanguageServer.class);
+        assertThat(methods).containsKey("ansibleAnalyzer/cacheStats");
+
+        AnsibleLanguageServer server = new AnsibleLanguageServer();
+        AnalysisCache.Stats stats = server.cacheStats().get();
+        String json = new MessageJsonHandler(methods).getGson().toJson(stats);
+        assertThat(json).contains("\"hits\":0").contains("\"misses\":0").contains("\"maxBytes\"");
+        server.shutdown().get();
+    }
+
+    @Test
+    void publishStats_isExposedAsCustomRequest() throws ExecutionException, InterruptedException {
+        Map<String, JsonRpcMethod> methods = ServiceEndpoints.getSupportedMethods(AnsibleLanguageServer.class);
+        assertThat(methods).containsKey("ansibleAnalyzer/publishStats");
+
+        AnsibleLanguageServer server = new AnsibleLanguageServer();
+        String json = new MessageJsonHandler(methods).getGson().toJson(server.publishStats().get());
+        assertThat(json).contains("\"published\":0").contains("\"suppressed\":0");
+        server.shutdown().get();
+    }
+
+    @Test
+    void metrics_isExposedAsCustomRequest() throws ExecutionException, InterruptedException {
+        Map<String, JsonRpcMethod> methods = ServiceEndpoints.getSupportedMethods(AnsibleLanguageServer.class);
+        assertThat(methods).containsKey("ansibleAnalyzer/metrics");
+
+        AnsibleLanguageServer server = new AnsibleLanguageServer();
+        MetricsReport report = server.metrics().get();
+        assertThat(report.mode()).isEqualTo("time");
+        assertThat(report.rules()).isNotEmpty();
+        String json = new MessageJsonHandler(methods).getGson().toJson(report);
+        assertThat(json).contains("\"mode\":\"time\"").contains("\"ruleKey\"").contains("\"invocations\":0");
+        server.shutdown().get();
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnsibleTextDocumentServiceCacheTest {
+
+    private static final String URI = "file:///repo/site.yml";
+    private static final String CONTENT = "- hosts: all\n  tasks:\n    - name: Ping\n      ping:\n";
+
+    private final BlockingQueue<PublishDiagnosticsParams> published = new LinkedBlockingQueue<>();
+    private final AnsibleTextDocumentService service = new AnsibleTextDocumentService();
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void reopeningSameContent_isServedFromCache() throws InterruptedException {
+        service.setClient(new RecordingClient());
+        open();
+        PublishDiagnosticsParams first = published.poll(10, TimeUnit.SECONDS);
+        service.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(URI)));
+        published.poll(10, TimeUnit.SECONDS);
+        open();
+        PublishDiagnosticsParams second = published.poll(10, TimeUnit.SECONDS);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(second.getDiagnostics()).isEqualTo(first.getDiagnostics());
+        assertThat(service.cacheStats().misses()).isEqualTo(1);
+        assertThat(service.cacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void severityChange_reusesCachedIssues() throws InterruptedException {
+        service.setClient(new RecordingClient());
+        open();
+        published.poll(10, TimeUnit.SECONDS);
+        service.setConfig(LspConfig.fromConfiguration(Map.of(
+                "rules", Map.of("qa-full-module-name", Map.of("severity", "BLOCKER")))));
+        service.reAnalyzeAll();
+        PublishDiagnosticsParams again = published.poll(10, TimeUnit.SECONDS);
+
+        assertThat(again).isNotNull();
+        assertThat(again.getDiagnostics())
+                .filteredOn(d -> "qa-full-module-name".equals(d.getCode().getLeft()))
+                .isNotEmpty()
+                .allMatch(d -> d.getSeverity() == DiagnosticSeverity.Error);
+        assertThat(service.cacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void editThatKeepsTheSameIssues_isNotPublished() throws InterruptedException {
+        service.setClient(new RecordingClient());
+        open();
+        assertThat(published.poll(10, TimeUnit.SECONDS)).isNotNull();
+        service.didChange(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(URI, 2),
+                List.of(new TextDocumentContentChangeEvent(CONTENT + "# a comment\n"))));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.publishStats().suppressed() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(service.publishStats().suppressed()).isEqualTo(1);
+        assertThat(service.publishStats().published()).isEqualTo(1);
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void changingAnIncludedFile_reAnalyzesOnlyTheOpenDocumentsThatIncludeIt(@TempDir Path root)
+            throws IOException, InterruptedException {
+        Path site = root.resolve("site.yml");
+        Path other = root.resolve("other.yml");
+        Path shared = root.resolve("tasks/shared.yml");
+        Files.createDirectories(shared.getParent());
+        Files.writeString(site, "- hosts: all\n  tasks:\n    - name: Shared\n      include_tasks: tasks/shared.yml\n");
+        Files.writeString(other, CONTENT);
+        Files.writeString(shared, "- name: Ping\n  ansible.builtin.ping:\n");
+        service.setClient(new RecordingClient());
+        service.setConfig(LspConfig.fromConfiguration(Map.of("analysis", Map.of("debounceMs", 0))));
+        service.workspaceIndex().addRoot(root);
+        awaitIndexed();
+        for (Path file : List.of(site, other)) {
+            service.didOpen(new DidOpenTextDocumentParams(
+                    new TextDocumentItem(file.toUri().toString(), "ansible", 1, Files.readString(file))));
+        }
+        assertThat(published.poll(10, TimeUnit.SECONDS)).isNotNull();
+        assertThat(published.poll(10, TimeUnit.SECONDS)).isNotNull();
+
+        Files.writeString(shared, "- name: Ping\n  ansible.builtin.ping:\n- include_tasks: more.yml\n");
+        service.workspaceIndex().fileChanged(shared);
+        awaitIndexed();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.cacheStats().misses() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+
+        assertThat(service.cacheStats().misses()).isEqualTo(3);
+        assertThat(service.cacheStats().hits()).isZero();
+    }
+
+    private void awaitIndexed() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.workspaceIndex().stats().indexing() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void open() {
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(URI, "ansible", 1, CONTENT)));
+    }
+
+    private final class RecordingClient implements LanguageClient {
+
+        @Override
+        public void publishDiagnostics(PublishDiagnosticsParams diagnostics) {
+            published.add(diagnostics);
+        }
+
+        @Override
+        public void telemetryEvent(Object object) {
+        }
+
+        @Override
+        public void showMessage(MessageParams messageParams) {
+        }
+
+        @Override
+        public CompletableFuture<MessageActionItem> showMessageRequest(ShowMessageRequestParams requestParams) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void logMessage(MessageParams message) {
+        }
+    }
+}
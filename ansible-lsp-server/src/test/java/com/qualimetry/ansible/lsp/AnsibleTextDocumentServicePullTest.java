@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.PreviousResultId;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.RelatedFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnsibleTextDocumentServicePullTest {
+
+    private static final String URI = "file:///repo/site.yml";
+    private static final String CONTENT = "- hosts: all\n  tasks:\n    - name: Ping\n      ping:\n";
+
+    private final List<PublishDiagnosticsParams> published = new CopyOnWriteArrayList<>();
+    private final List<String> refreshes = new CopyOnWriteArrayList<>();
+    private final AnsibleTextDocumentService service = new AnsibleTextDocumentService();
+
+    @BeforeEach
+    void setUp() {
+        service.setClient(new RecordingClient());
+        service.setPullDiagnostics(true, true);
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(URI, "ansible", 1, CONTENT)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void repeatedPull_isAnsweredUnchangedWithoutAnalysis() throws Exception {
+        RelatedFullDocumentDiagnosticReport full = pull(null).getRelatedFullDocumentDiagnosticReport();
+        assertThat(full.getItems()).isNotEmpty();
+        assertThat(full.getResultId()).isNotBlank();
+
+        DocumentDiagnosticReport again = pull(full.getResultId());
+        assertThat(again.isRelatedUnchangedDocumentDiagnosticReport()).isTrue();
+        assertThat(again.getRelatedUnchangedDocumentDiagnosticReport().getResultId()).isEqualTo(full.getResultId());
+        assertThat(service.cacheStats().misses()).isEqualTo(1);
+        assertThat(service.cacheStats().hits()).isZero();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void edit_changesResultId() throws Exception {
+        String before = pull(null).getRelatedFullDocumentDiagnosticReport().getResultId();
+        VersionedTextDocumentIdentifier id = new VersionedTextDocumentIdentifier(URI, 2);
+        service.didChange(new DidChangeTextDocumentParams(id,
+                List.of(new TextDocumentContentChangeEvent(CONTENT + "  become: true\n"))));
+
+        DocumentDiagnosticReport after = pull(before);
+        assertThat(after.isRelatedFullDocumentDiagnosticReport()).isTrue();
+        assertThat(after.getRelatedFullDocumentDiagnosticReport().getResultId()).isNotEqualTo(before);
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void severityChange_changesResultIdAndRequestsRefresh() throws Exception {
+        String before = pull(null).getRelatedFullDocumentDiagnosticReport().getResultId();
+        service.setConfig(LspConfig.fromConfiguration(Map.of(
+                "rules", Map.of("qa-full-module-name", Map.of("severity", "BLOCKER")))));
+        service.reAnalyzeAll();
+
+        assertThat(refreshes).hasSize(1);
+        assertThat(published).isEmpty();
+        DocumentDiagnosticReport after = pull(before);
+        assertThat(after.isRelatedFullDocumentDiagnosticReport()).isTrue();
+        assertThat(after.getRelatedFullDocumentDiagnosticReport().getResultId()).isNotEqualTo(before);
+        assertThat(service.cacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownDocument_returnsEmptyFullReport() throws Exception {
+        DocumentDiagnosticParams params = new DocumentDiagnosticParams(new TextDocumentIdentifier("file:///other.yml"));
+        DocumentDiagnosticReport report = service.diagnostic(params).get(10, TimeUnit.SECONDS);
+
+        assertThat(report.getRelatedFullDocumentDiagnosticReport().getItems()).isEmpty();
+    }
+
+    @Test
+    void workspacePull_reportsOpenDocumentsAndUnchangedResultIds() throws Exception {
+        List<WorkspaceDocumentDiagnosticReport> first = service.workspaceDiagnostic(
+                new WorkspaceDiagnosticParams(List.of())).get(10, TimeUnit.SECONDS).getItems();
+        assertThat(first).hasSize(1);
+        assertThat(first.get(0).getWorkspaceFullDocumentDiagnosticReport().getUri()).isEqualTo(URI);
+        assertThat(first.get(0).getWorkspaceFullDocumentDiagnosticReport().getVersion()).isEqualTo(1);
+        String resultId = first.get(0).getWorkspaceFullDocumentDiagnosticReport().getResultId();
+
+        List<WorkspaceDocumentDiagnosticReport> second = service.workspaceDiagnostic(
+                new WorkspaceDiagnosticParams(List.of(new PreviousResultId(URI, resultId))))
+                .get(10, TimeUnit.SECONDS).getItems();
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).isWorkspaceUnchangedDocumentDiagnosticReport()).isTrue();
+        assertThat(second.get(0).getWorkspaceUnchangedDocumentDiagnosticReport().getResultId()).isEqualTo(resultId);
+    }
+
+    @Test
+    void deletingAVariableDefinition_requestsRefreshAndReportsTheReference(@TempDir Path root) throws Exception {
+        Path defaults = root.resolve("roles/web/defaults/main.yml");
+        Files.createDirectories(defaults.getParent());
+        Files.writeString(defaults, "web_port: 80\n");
+        Path site = root.resolve("site.yml");
+        String content = "- hosts: all\n  tasks:\n    - name: Show\n      ansible.builtin.debug:\n"
+                + "        msg: \"{{ web_port }}\"\n";
+        Files.writeString(site, content);
+        service.workspaceIndex().addRoot(root);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!service.workspaceIndex().variablesComplete() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String uri = site.toUri().toString();
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uri, "ansible", 1, content)));
+        assertThat(ruleKeys(pull(uri, null))).doesNotContain("qa-define-referenced-vars");
+        int refreshesBefore = refreshes.size();
+
+        Files.delete(defaults);
+        service.workspaceIndex().fileDeleted(defaults);
+
+        assertThat(refreshes).hasSizeGreaterThan(refreshesBefore);
+        assertThat(ruleKeys(pull(uri, null))).contains("qa-define-referenced-vars");
+    }
+
+    @Test
+    void kubernetesManifest_isNotAnalyzed() throws Exception {
+        String uri = "file:///repo/deploy/web.yml";
+        String manifest = "apiVersion: apps/v1\nkind: Deployment\nmetadata:\n\tname: web\n";
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uri, "ansible", 1, manifest)));
+
+        assertThat(pull(uri, null).getRelatedFullDocumentDiagnosticReport().getItems()).isEmpty();
+        assertThat(service.cacheStats().misses()).isZero();
+    }
+
+    @Test
+    void taskAndVarsFiles_areNotHeldToPlayStructure() throws Exception {
+        String tasks = "file:///repo/roles/web/tasks/main.yml";
+        String vars = "file:///repo/group_vars/all.yml";
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(tasks, "ansible", 1,
+                "- name: Install\n  ansible.builtin.package:\n    name: git\n")));
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(vars, "ansible", 1, "web_port: 80\n")));
+
+        assertThat(ruleKeys(pull(tasks, null))).doesNotContain("qa-playbook-schema");
+        assertThat(ruleKeys(pull(vars, null))).doesNotContain("qa-playbook-schema");
+        String playbook = "file:///repo/site.yml";
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(playbook, "ansible", 1,
+                "- hosts: all\n- name: Install\n  ansible.builtin.package:\n    name: git\n")));
+        assertThat(ruleKeys(pull(playbook, null))).contains("qa-playbook-schema");
+    }
+
+    private static List<String> ruleKeys(DocumentDiagnosticReport report) {
+        return report.getRelatedFullDocumentDiagnosticReport().getItems().stream()
+                .map(d -> d.getCode().getLeft())
+                .toList();
+    }
+
+    private DocumentDiagnosticReport pull(String previousResultId)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return pull(URI, previousResultId);
+    }
+
+    private DocumentDiagnosticReport pull(String uri, String previousResultId)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        DocumentDiagnosticParams params = new DocumentDiagnosticParams(new TextDocumentIdentifier(uri));
+        params.setPreviousResultId(previousResultId);
+        return service.diagnostic(params).get(10, TimeUnit.SECONDS);
+    }
+
+    private final class RecordingClient implements LanguageClient {
+
+        @Override
+        public void publishDiagnostics(PublishDiagnosticsParams diagnostics) {
+            published.add(diagnostics);
+        }
+
+        @Override
+        public CompletableFuture<Void> refreshDiagnostics() {
+            refreshes.add("refresh");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void telemetryEvent(Object object) {
+        }
+
+        @Override
+        public void showMessage(MessageParams messageParams) {
+        }
+
+        @Override
+        public CompletableFuture<MessageActionItem> showMessageRequest(ShowMessageRequestParams requestParams) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void logMessage(MessageParams message) {
+        }
+    }
+}
@@ -17,9 +17,18 @@ package com.qualimetry.ansible.lsp;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.WorkspaceFolder;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,4 +60,35 @@ class AnsibleWorkspaceServiceTest {
         assertThatCode(() -> service.didChangeWatchedFiles(new DidChangeWatchedFilesParams(List.of())))
                 .doesNotThrowAnyException();
     }
+
+    @Test
+    void watchedFileEvents_updateTheWorkspaceIndex(@TempDir Path root) throws Exception {
+        Path site = root.resolve("site.yml");
+        Files.writeString(site, "- hosts: all\n  tasks:\n    - name: Ping\n      ansible.builtin.ping:\n");
+        AnsibleLanguageServer server = new AnsibleLanguageServer();
+        InitializeParams init = new InitializeParams();
+        init.setWorkspaceFolders(List.of(new WorkspaceFolder(root.toUri().toString(), "root")));
+        server.initialize(init).get();
+        server.initialized(new InitializedParams());
+        awaitIndexed(server);
+        assertThat(server.getWorkspaceIndex().summary(site).taskNames()).containsExactly("Ping");
+
+        Path other = root.resolve("other.yml");
+        Files.writeString(other, "- name: Other\n  hosts: all\n");
+        server.getWorkspaceService().didChangeWatchedFiles(new DidChangeWatchedFilesParams(List.of(
+                new FileEvent(other.toUri().toString(), FileChangeType.Created),
+                new FileEvent(site.toUri().toString(), FileChangeType.Deleted))));
+        awaitIndexed(server);
+
+        assertThat(server.getWorkspaceIndex().summary(other).plays()).containsExactly("Other");
+        assertThat(server.getWorkspaceIndex().summary(site)).isNull();
+        server.shutdown().get();
+    }
+
+    private static void awaitIndexed(AnsibleLanguageServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (server.getWorkspaceIndex().stats().indexing() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
 }
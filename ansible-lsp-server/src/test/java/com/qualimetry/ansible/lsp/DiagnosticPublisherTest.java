@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiagnosticPublisherTest {
+
+    private static final String URI = "file:///site.yml";
+
+    private final List<PublishDiagnosticsParams> sent = new ArrayList<>();
+    private final LanguageClient client = (LanguageClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {LanguageClient.class}, (proxy, method, args) -> {
+                sent.add((PublishDiagnosticsParams) args[0]);
+                return null;
+            });
+    private final DiagnosticPublisher publisher = new DiagnosticPublisher();
+
+    @Test
+    void publish_skipsStructurallyEqualDiagnostics() {
+        assertThat(publisher.publish(client, URI, List.of(tabs(2)))).isTrue();
+        assertThat(publisher.publish(client, URI, List.of(tabs(2)))).isFalse();
+        assertThat(publisher.publish(client, URI, List.of(tabs(3)))).isTrue();
+        assertThat(publisher.publish(client, URI, List.of())).isTrue();
+        assertThat(publisher.publish(client, URI, List.of())).isFalse();
+
+        assertThat(sent).hasSize(3);
+        assertThat(publisher.stats()).isEqualTo(new DiagnosticPublisher.Stats(3, 2, 1));
+    }
+
+    @Test
+    void publish_dropsSupersededRunsWithoutRecordingThem() {
+        AtomicBoolean superseded = new AtomicBoolean();
+        assertThat(publisher.publish(client, URI, List.of(tabs(2)), superseded::get)).isTrue();
+        superseded.set(true);
+        assertThat(publisher.publish(client, URI, List.of(tabs(3)), superseded::get)).isFalse();
+
+        assertThat(sent).hasSize(1);
+        assertThat(publisher.publish(client, URI, List.of(tabs(2)))).isFalse();
+        assertThat(publisher.stats()).isEqualTo(new DiagnosticPublisher.Stats(1, 1, 1));
+    }
+
+    @Test
+    void publish_newerRunIsSentAfterAnOlderRunThatIsStillSending() throws InterruptedException {
+        List<Diagnostic> older = List.of(tabs(2));
+        List<Diagnostic> newer = List.of(tabs(3));
+        List<List<Diagnostic>> received = new CopyOnWriteArrayList<>();
+        CountDownLatch sending = new CountDownLatch(1);
+        LanguageClient slow = (LanguageClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {LanguageClient.class}, (proxy, method, args) -> {
+                    List<Diagnostic> diagnostics = ((PublishDiagnosticsParams) args[0]).getDiagnostics();
+                    if (diagnostics.equals(older)) {
+                        sending.countDown();
+                        Thread.sleep(200);
+                    }
+                    received.add(diagnostics);
+                    return null;
+                });
+        AtomicLong latest = new AtomicLong(1);
+        Thread first = new Thread(() -> publisher.publish(slow, URI, older, () -> latest.get() != 1));
+        first.start();
+        sending.await();
+        latest.set(2);
+        Thread second = new Thread(() -> publisher.publish(slow, URI, newer, () -> latest.get() != 2));
+        second.start();
+        first.join();
+        second.join();
+
+        assertThat(received).containsExactly(older, newer);
+    }
+
+    @Test
+    void publish_tracksEachUriSeparately() {
+        publisher.publish(client, URI, List.of(tabs(2)));
+        publisher.publish(client, "file:///other.yml", List.of(tabs(2)));
+
+        assertThat(sent).extracting(PublishDiagnosticsParams::getUri).containsExactly(URI, "file:///other.yml");
+    }
+
+    @Test
+    void forget_sendsTheNextPublish() {
+        publisher.publish(client, URI, List.of(tabs(2)));
+        publisher.forget(URI);
+
+        assertThat(publisher.publish(client, URI, List.of(tabs(2)))).isTrue();
+        assertThat(sent).hasSize(2);
+    }
+
+    private static Diagnostic tabs(int line) {
+        return AnsibleTextDocumentService.toDiagnostic(
+                new Issue("qa-spaces-not-tabs", "Do not use tabs", null, line, null, null), LspConfig.defaults());
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.qualimetry.ansible.lsp;
 
+import com.qualimetry.sonar.ansible.analyzer.parser.YamlLoader;
+import com.qualimetry.sonar.ansible.analyzer.visitor.CheckMetrics;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.junit.jupiter.api.Test;
 
@@ -103,4 +105,59 @@ class LspConfigTest {
         assertThat(cfg.isRuleEnabled("qa-valid-yaml")).isTrue();
         assertThat(cfg.getEnabledRuleKeys()).isNull();
     }
+
+    @Test
+    void fromConfiguration_parsesDebounce() {
+        assertThat(LspConfig.defaults().getDebounceMillis()).isEqualTo(LspConfig.DEFAULT_DEBOUNCE_MILLIS);
+        Map<String, Object> section = Map.of("analysis", Map.of("debounceMs", 75));
+        assertThat(LspConfig.fromConfiguration(section).getDebounceMillis()).isEqualTo(75);
+    }
+
+    @Test
+    void fromConfiguration_parsesCacheSize() {
+        assertThat(LspConfig.defaults().getCacheMaxBytes()).isEqualTo(LspConfig.DEFAULT_CACHE_MAX_BYTES);
+        Map<String, Object> section = Map.of("analysis", Map.of("cacheSizeMb", 2));
+        assertThat(LspConfig.fromConfiguration(section).getCacheMaxBytes()).isEqualTo(2L * 1024 * 1024);
+    }
+
+    @Test
+    void fromConfiguration_parsesMetricsMode() {
+        assertThat(LspConfig.defaults().getMetricsMode()).isEqualTo(CheckMetrics.Mode.TIME);
+        assertThat(LspConfig.fromConfiguration(Map.of("analysis", Map.of("metrics", "off"))).getMetricsMode())
+                .isEqualTo(CheckMetrics.Mode.OFF);
+        assertThat(LspConfig.fromConfiguration(Map.of("analysis", Map.of("metrics", "Allocation"))).getMetricsMode())
+                .isEqualTo(CheckMetrics.Mode.ALLOCATION);
+        assertThat(LspConfig.fromConfiguration(Map.of("analysis", Map.of("metrics", "bogus"))).getMetricsMode())
+                .isEqualTo(LspConfig.DEFAULT_METRICS_MODE);
+    }
+
+    @Test
+    void ruleSetFingerprint_changesOnlyWithEnabledRules() {
+        String defaults = LspConfig.defaults().getRuleSetFingerprint();
+        LspConfig severityOnly = LspConfig.fromConfiguration(Map.of(
+                "rules", Map.of("qa-spaces-not-tabs", Map.of("severity", "BLOCKER"))));
+        LspConfig disabled = LspConfig.fromConfiguration(Map.of(
+                "rules", Map.of("disabled", List.of("qa-spaces-not-tabs"))));
+
+        assertThat(severityOnly.getRuleSetFingerprint()).isEqualTo(defaults);
+        assertThat(disabled.getRuleSetFingerprint()).isNotEqualTo(defaults);
+    }
+
+    @Test
+    void fromConfiguration_parsesIndexSize() {
+        LspConfig config = LspConfig.fromConfiguration(Map.of("analysis", Map.of("indexSizeMb", 4)));
+        assertThat(config.getIndexMaxBytes()).isEqualTo(4L * 1024 * 1024);
+        assertThat(LspConfig.defaults().getIndexMaxBytes()).isEqualTo(LspConfig.DEFAULT_INDEX_MAX_BYTES);
+    }
+
+    @Test
+    void fromConfiguration_parsesYamlLimits() {
+        LspConfig config = LspConfig.fromConfiguration(Map.of("analysis", Map.of("yaml",
+                Map.of("maxCodePoints", 1000, "maxAliasesForCollections", 0, "nestingDepth", -1))));
+
+        assertThat(config.getYamlLimits())
+                .isEqualTo(new YamlLoader.Limits(1000, 0, YamlLoader.Limits.DEFAULTS.nestingDepth()));
+        assertThat(LspConfig.defaults().getYamlLimits()).isEqualTo(YamlLoader.Limits.DEFAULTS);
+        assertThat(config.getRuleSetFingerprint()).isNotEqualTo(LspConfig.defaults().getRuleSetFingerprint());
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.visitor.Issue;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishDiagnosticsEventTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void publish_sendsParamsAndRecordsCountAndPayloadSize() throws IOException {
+        List<Object> sent = new ArrayList<>();
+        LanguageClient client = (LanguageClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {LanguageClient.class}, (proxy, method, args) -> {
+                    sent.add(args[0]);
+                    return null;
+                });
+        PublishDiagnosticsParams params = new PublishDiagnosticsParams("file:///site.yml", List.of(
+                AnsibleTextDocumentService.toDiagnostic(
+                        new Issue("qa-spaces-not-tabs", "Do not use tabs", null, 2, null, null), LspConfig.defaults())));
+
+        Path file = dir.resolve("publish.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.qualimetry.ansible.PublishDiagnostics");
+            recording.start();
+            PublishDiagnosticsEvent.publish(client, params);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertThat(sent).containsExactly(params);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("uri")).isEqualTo("file:///site.yml");
+        assertThat(events.get(0).getInt("diagnostics")).isEqualTo(1);
+        assertThat(events.get(0).getLong("payloadBytes")).isGreaterThan(100);
+    }
+}
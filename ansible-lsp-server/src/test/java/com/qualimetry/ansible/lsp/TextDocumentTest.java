@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextDocumentTest {
+
+    @Test
+    void rangeEdit_replacesTextWithinLine() {
+        TextDocument doc = new TextDocument("- hosts: web\n  tasks: []\n", 1);
+        doc.apply(List.of(edit(0, 9, 0, 12, "db")), 2);
+        assertThat(doc.getText()).isEqualTo("- hosts: db\n  tasks: []\n");
+        assertThat(doc.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void multiLineEdits_keepLineIndexInSync() {
+        TextDocument doc = new TextDocument("a\nb\nc\n", 1);
+        doc.apply(List.of(
+                edit(1, 0, 1, 1, "x\ny\nz"),
+                edit(4, 0, 4, 1, "C")), 2);
+        assertThat(doc.getText()).isEqualTo("a\nx\ny\nz\nC\n");
+        assertThat(doc.getLineCount()).isEqualTo(6);
+        assertThat(doc.offsetAt(new Position(4, 0))).isEqualTo(8);
+
+        doc.apply(List.of(edit(0, 1, 3, 1, "")), 3);
+        assertThat(doc.getText()).isEqualTo("a\nC\n");
+        assertThat(doc.getLineCount()).isEqualTo(3);
+        assertThat(doc.offsetAt(new Position(1, 0))).isEqualTo(2);
+    }
+
+    @Test
+    void positionsBeyondLineOrDocument_areClamped() {
+        TextDocument doc = new TextDocument("ab\r\ncd", 1);
+        assertThat(doc.offsetAt(new Position(0, 99))).isEqualTo(2);
+        assertThat(doc.offsetAt(new Position(1, 99))).isEqualTo(6);
+        assertThat(doc.offsetAt(new Position(7, 0))).isEqualTo(6);
+        doc.apply(List.of(edit(0, 99, 0, 99, "!")), 2);
+        assertThat(doc.getText()).isEqualTo("ab!\r\ncd");
+    }
+
+    @Test
+    void changeWithoutRange_replacesWholeDocument() {
+        TextDocument doc = new TextDocument("old\ntext\n", 1);
+        doc.apply(List.of(new TextDocumentContentChangeEvent("new")), 2);
+        assertThat(doc.getText()).isEqualTo("new");
+        assertThat(doc.getLineCount()).isEqualTo(1);
+    }
+
+    private static TextDocumentContentChangeEvent edit(int l1, int c1, int l2, int c2, String text) {
+        return new TextDocumentContentChangeEvent(new Range(new Position(l1, c1), new Position(l2, c2)), text);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import com.qualimetry.sonar.ansible.analyzer.parser.FileSummary;
+import com.qualimetry.sonar.ansible.analyzer.parser.FileVariables;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkspaceIndexTest {
+
+    private static final String PLAYBOOK = """
+            - name: Site
+              hosts: all
+              roles:
+                - common
+              tasks:
+                - name: Ping
+                  ansible.builtin.ping:
+                - include_tasks: tasks/extra.yml
+            """;
+
+    @TempDir
+    Path root;
+
+    private final AtomicBoolean editorIdle = new AtomicBoolean(true);
+    private WorkspaceIndex index = new WorkspaceIndex(LspConfig.DEFAULT_INDEX_MAX_BYTES, editorIdle::get);
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    private Path write(String relative, String content) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private void awaitIndexed() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (index.stats().indexing() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(index.stats().indexing()).isFalse();
+    }
+
+    @Test
+    void addRoot_indexesYamlFilesAndSkipsHiddenDirectories() throws Exception {
+        Path site = write("site.yml", PLAYBOOK);
+        write("roles/common/tasks/main.yaml", "- name: Install\n  ansible.builtin.package:\n    name: git\n");
+        write("README.md", "# not yaml");
+        write(".git/x.yml", PLAYBOOK);
+        write("node_modules/pkg/a.yml", PLAYBOOK);
+
+        index.addRoot(root);
+        awaitIndexed();
+
+        assertThat(index.stats().files()).isEqualTo(2);
+        assertThat(index.summary(site).plays()).containsExactly("Site");
+        assertThat(index.summary(site).roles()).containsExactly("common");
+        assertThat(index.summary(site).includes()).containsExactly("tasks/extra.yml");
+        assertThat(index.summary(root.resolve("roles/common/tasks/main.yaml")).taskNames()).containsExactly("Install");
+        assertThat(index.summary(root.resolve(".git/x.yml"))).isNull();
+    }
+
+    @Test
+    void fileEvents_updateSingleEntries() throws Exception {
+        Path site = write("site.yml", PLAYBOOK);
+        index.addRoot(root);
+        awaitIndexed();
+
+        Path added = write("more.yml", "- hosts: all\n  tasks:\n    - name: Added\n      ansible.builtin.ping:\n");
+        index.fileChanged(added);
+        Files.writeString(site, "- name: Renamed\n  hosts: all\n");
+        index.fileChanged(site);
+        awaitIndexed();
+
+        assertThat(index.summary(added).taskNames()).containsExactly("Added");
+        assertThat(index.summary(site).plays()).containsExactly("Renamed");
+
+        Files.delete(added);
+        index.fileDeleted(added);
+        assertThat(index.summary(added)).isNull();
+        index.fileDeleted(root);
+        assertThat(index.stats().files()).isZero();
+        assertThat(index.stats().bytes()).isZero();
+    }
+
+    @Test
+    void filesOutsideTheRoots_areIgnored(@TempDir Path elsewhere) throws Exception {
+        index.addRoot(root);
+        Path outside = elsewhere.resolve("x.yml");
+        Files.writeString(outside, PLAYBOOK);
+        index.fileChanged(outside);
+        awaitIndexed();
+
+        assertThat(index.summary(outside)).isNull();
+    }
+
+    @Test
+    void budget_boundsTheIndex() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            write("plays/p" + i + ".yml", PLAYBOOK);
+        }
+        index.shutdown();
+        index = new WorkspaceIndex(2_000, editorIdle::get);
+        index.addRoot(root);
+        awaitIndexed();
+
+        WorkspaceIndex.Stats stats = index.stats();
+        assertThat(stats.bytes()).isLessThanOrEqualTo(2_000);
+        assertThat(stats.files()).isPositive().isLessThan(20);
+        assertThat(stats.files() + stats.skipped()).isEqualTo(20);
+
+        index.setMaxBytes(0);
+        assertThat(index.stats().files()).isZero();
+    }
+
+    @Test
+    void indexing_waitsWhileTheEditorIsBusy() throws Exception {
+        Path site = write("site.yml", PLAYBOOK);
+        editorIdle.set(false);
+        index.addRoot(root);
+        Thread.sleep(300);
+        assertThat(index.summary(site)).isNull();
+        assertThat(index.stats().indexing()).isTrue();
+
+        editorIdle.set(true);
+        awaitIndexed();
+        assertThat(index.summary(site)).isNotNull();
+    }
+
+    @Test
+    void toPath_acceptsOnlyFileUris() {
+        assertThat(WorkspaceIndex.toPath(root.toUri().toString())).isEqualTo(root);
+        assertThat(WorkspaceIndex.toPath("untitled:Untitled-1")).isNull();
+        assertThat(WorkspaceIndex.toPath("not a uri")).isNull();
+    }
+
+    @Test
+    void indexing_buildsTheProjectGraphAndReportsChangedFiles() throws Exception {
+        Path site = write("site.yml", PLAYBOOK);
+        Path extra = write("tasks/extra.yml", "- ansible.builtin.ping:\n");
+        Set<Path> changed = ConcurrentHashMap.newKeySet();
+        index.setDependencyListener(changed::add);
+        index.addRoot(root);
+        awaitIndexed();
+
+        assertThat(index.graph().dependents(extra)).containsExactly(site);
+        assertThat(changed).contains(site, extra);
+
+        changed.clear();
+        index.fileChanged(extra);
+        awaitIndexed();
+        assertThat(changed).isEmpty();
+
+        Files.writeString(extra, "- include_tasks: more.yml\n");
+        index.fileChanged(extra);
+        awaitIndexed();
+        assertThat(changed).containsExactly(extra);
+        assertThat(index.graph().transitiveDependents(root.resolve("tasks/more.yml"))).containsExactly(extra, site);
+    }
+
+    @Test
+    void overlaidFiles_followTheEditorUntilReleased() throws Exception {
+        Path extra = write("tasks/extra.yml", "- ansible.builtin.ping:\n");
+        index.addRoot(root);
+        awaitIndexed();
+        FileSummary edited = new FileSummary(List.of(), List.of(), List.of(), List.of(), List.of("other.yml"));
+
+        index.overlay(extra, edited, FileVariables.EMPTY);
+        index.fileChanged(extra);
+        awaitIndexed();
+        assertThat(index.graph().dependencies(extra)).containsExactly(root.resolve("tasks/other.yml"));
+
+        index.releaseOverlay(extra);
+        awaitIndexed();
+        assertThat(index.graph().dependencies(extra)).isEmpty();
+    }
+
+    @Test
+    void variables_coverYamlFilesAndTemplates() throws Exception {
+        write("roles/web/defaults/main.yml", "web_port: 80\n");
+        Path template = write("roles/web/templates/site.conf.j2", "listen {{ web_port }};\n");
+        AtomicInteger completions = new AtomicInteger();
+        Set<String> flipped = ConcurrentHashMap.newKeySet();
+        index.setVariableListener((file, names) -> {
+            if (names == null) completions.incrementAndGet();
+            else flipped.addAll(names);
+        });
+        index.addRoot(root);
+        awaitIndexed();
+
+        assertThat(index.variablesComplete()).isTrue();
+        assertThat(completions).hasValue(1);
+        assertThat(index.variables().isDefined("web_port")).isTrue();
+        assertThat(index.variables().isReferenced("web_port")).isTrue();
+
+        flipped.clear();
+        index.fileDeleted(template);
+        assertThat(flipped).containsExactly("web_port");
+        assertThat(index.variables().isReferenced("web_port")).isFalse();
+    }
+
+    @Test
+    void skippedFiles_stopCountingOnceTheyShrinkOrGo() throws Exception {
+        String large = "big_var: x\n" + "# padding\n".repeat((int) (WorkspaceIndex.MAX_FILE_BYTES / 10) + 1);
+        Path vars = write("group_vars/all.yml", large);
+        index.addRoot(root);
+        awaitIndexed();
+
+        assertThat(index.stats().skipped()).isEqualTo(1);
+        assertThat(index.variablesComplete()).isFalse();
+
+        Files.writeString(vars, "big_var: x\n");
+        index.fileChanged(vars);
+        awaitIndexed();
+        assertThat(index.stats().skipped()).isZero();
+        assertThat(index.variablesComplete()).isTrue();
+
+        Files.writeString(vars, large);
+        index.fileChanged(vars);
+        awaitIndexed();
+        assertThat(index.variablesComplete()).isFalse();
+
+        Files.delete(vars);
+        index.fileDeleted(vars);
+        assertThat(index.stats().skipped()).isZero();
+        assertThat(index.variablesComplete()).isTrue();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 SHAZAM Analytics Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qualimetry.ansible.lsp;
+
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkspacePathResolverTest {
+
+    @TempDir
+    Path root;
+
+    private final WorkspaceIndex index = new WorkspaceIndex(LspConfig.DEFAULT_INDEX_MAX_BYTES, () -> true);
+    private final AnsibleTextDocumentService service = new AnsibleTextDocumentService();
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+        service.shutdown();
+    }
+
+    private Path write(String relative, String content) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static void awaitIndexed(WorkspaceIndex index) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (index.stats().indexing() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void existsInProject_resolvesAgainstTheIncludingFile() throws Exception {
+        Path site = write("playbooks/site.yml", "- hosts: all\n");
+        write("playbooks/tasks/setup.yml", "- ping:\n");
+        write("common.yml", "- ping:\n");
+        index.addRoot(root);
+        awaitIndexed(index);
+
+        WorkspacePathResolver resolver = new WorkspacePathResolver(index, site);
+        assertThat(resolver.existsInProject("tasks/setup.yml")).isTrue();
+        assertThat(resolver.existsInProject("./tasks/../tasks/setup.yml")).isTrue();
+        assertThat(resolver.existsInProject("../common.yml")).isTrue();
+        assertThat(resolver.existsInProject("tasks/missing.yml")).isFalse();
+        assertThat(resolver.existsInProject("{{ item }}.yml")).isTrue();
+        assertThat(resolver.checked()).hasSize(3).containsEntry(root.resolve("playbooks/tasks/missing.yml"), false);
+    }
+
+    @Test
+    void listedFiles_areAnsweredWithoutTheFileSystem() throws Exception {
+        Path setup = write("tasks/setup.yml", "- ping:\n");
+        index.addRoot(root);
+        awaitIndexed(index);
+
+        Files.delete(setup);
+        assertThat(index.exists(setup)).isTrue();
+        index.fileDeleted(setup);
+        assertThat(index.exists(setup)).isFalse();
+        long generation = index.generation();
+
+        Files.writeString(setup, "- ping:\n");
+        index.fileChanged(setup);
+        assertThat(index.exists(setup)).isTrue();
+        assertThat(index.generation()).isGreaterThan(generation);
+    }
+
+    @Test
+    void pathsOutsideTheListing_fallBackToRememberedFileSystemAnswers(@TempDir Path elsewhere) throws IOException {
+        Path outside = elsewhere.resolve("x.yml");
+        assertThat(index.exists(outside)).isFalse();
+        Files.writeString(outside, "- ping:\n");
+        assertThat(index.exists(outside)).isFalse();
+        index.fileChanged(outside);
+        assertThat(index.exists(outside)).isTrue();
+    }
+
+    @Test
+    void unchanged_detectsTargetsThatAppearedOrDisappeared() throws Exception {
+        Path setup = root.resolve("tasks/setup.yml");
+        index.addRoot(root);
+        awaitIndexed(index);
+        Map<Path, Boolean> targets = Map.of(setup, false);
+        assertThat(WorkspacePathResolver.unchanged(index, targets)).isTrue();
+
+        write("tasks/setup.yml", "- ping:\n");
+        index.fileChanged(setup);
+        assertThat(WorkspacePathResolver.unchanged(index, targets)).isFalse();
+    }
+
+    @Test
+    void openDocument_reportsIncludesOnlyUntilTheTargetExists() throws Exception {
+        Path site = write("site.yml", "- hosts: all\n  tasks:\n    - name: Setup\n      include_tasks: tasks/setup.yml\n");
+        service.setPullDiagnostics(true, false);
+        service.workspaceIndex().addRoot(root);
+        awaitIndexed(service.workspaceIndex());
+        String uri = site.toUri().toString();
+        service.didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(uri, "ansible", 1, Files.readString(site))));
+
+        assertThat(includeIssues(uri)).hasSize(1);
+
+        Path setup = write("tasks/setup.yml", "- ping:\n");
+        service.workspaceIndex().fileChanged(setup);
+        assertThat(includeIssues(uri)).isEmpty();
+        assertThat(service.cacheStats().hits()).isZero();
+    }
+
+    private List<String> includeIssues(String uri) throws Exception {
+        return service.diagnostic(new DocumentDiagnosticParams(new TextDocumentIdentifier(uri)))
+                .get(10, TimeUnit.SECONDS).getRelatedFullDocumentDiagnosticReport().getItems().stream()
+                .map(d -> d.getCode().getLeft())
+                .filter("qa-includes-resolve"::equals)
+                .toList();
+    }
+}
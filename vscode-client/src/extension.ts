@@ -94,6 +94,12 @@ export async function activate(context: vscode.ExtensionContext): Promise<void>
         ],
         synchronize: {
             configurationSection: 'ansibleAnalyzer',
+            // Keeps the server's workspace index current without rescanning; folder deletions
+            // are reported for the folder alone, so deletes are watched for every path
+            fileEvents: [
+                vscode.workspace.createFileSystemWatcher('**/*.{yml,yaml,j2}'),
+                vscode.workspace.createFileSystemWatcher('**/*', true, true, false),
+            ],
         },
         outputChannel,
     };